@@ -8,7 +8,7 @@ import { Card, CardContent, CardHeader, CardTitle } from "@/components/ui/card"
 import { Input } from "@/components/ui/input"
 import { Label } from "@/components/ui/label"
 import { Search, UserPlus, Edit, Users, Home, CheckCircle } from "lucide-react"
-import { buscarHuespedes } from "@/lib/api"
+import { buscarHuespedesPagina } from "@/lib/api"
 
 type Guest = {
     id: string
@@ -40,6 +40,41 @@ const INITIAL_FORM: BuscarHuespedForm = {
     nroDocumento: "",
 }
 
+const mapPosicionIVA = (posIva: string) => {
+    const mapping: Record<string, string> = {
+        'CONSUMIDOR_FINAL': 'Consumidor Final',
+        'RESPONSABLE_INSCRIPTO': 'Responsable Inscripto',
+        'EXENTO': 'Exento',
+        'MONOTRIBUTISTA': 'Monotributo'
+    }
+    return mapping[posIva] || posIva
+}
+
+// Huésped del backend (DtoHuesped) a la fila que muestra la pantalla
+const mapearHuesped = (h: any) => ({
+    id: h.nroDocumento,
+    tipoDocumento: h.tipoDocumento,
+    numeroDocumento: h.nroDocumento,
+    apellido: h.apellido,
+    nombres: h.nombres,
+    cuit: h.cuit,
+    posicionIVA: h.posicionIva ? mapPosicionIVA(h.posicionIva) : '',
+    fechaNacimiento: h.fechaNacimiento,
+    direccion: h.dtoDireccion ? `${h.dtoDireccion.calle} ${h.dtoDireccion.numero}` : "",
+    direccionCalle: h.dtoDireccion?.calle || "",
+    direccionNumero: h.dtoDireccion?.numero?.toString() || "",
+    direccionDepartamento: h.dtoDireccion?.departamento || "",
+    direccionPiso: h.dtoDireccion?.piso || "",
+    direccionCodigoPostal: h.dtoDireccion?.codPostal?.toString() || "",
+    direccionLocalidad: h.dtoDireccion?.localidad || "",
+    direccionProvincia: h.dtoDireccion?.provincia || "",
+    direccionPais: h.dtoDireccion?.pais || "",
+    telefono: h.telefono && h.telefono.length > 0 ? h.telefono[0].toString() : "",
+    email: h.email && h.email.length > 0 ? h.email[0] : "",
+    ocupacion: h.ocupacion && h.ocupacion.length > 0 ? h.ocupacion[0] : "",
+    nacionalidad: h.nacionalidad
+})
+
 const TIPO_DOCUMENTO_LABELS: Record<string, string> = {
     DNI: "DNI",
     LE: "LE (Libreta de Enrolamiento)",
@@ -87,6 +122,10 @@ export default function BuscarHuesped() {
     const [isSearching, setIsSearching] = useState(false)
     const [searchPerformed, setSearchPerformed] = useState(false)
     const [resultados, setResultados] = useState<Guest[] | null>(null)
+    // Token de la página siguiente (null = no hay más) y criterios con los que se pidió
+    const [siguiente, setSiguiente] = useState<string | null>(null)
+    const [criteriosBusqueda, setCriteriosBusqueda] = useState<any>(null)
+    const [isLoadingMore, setIsLoadingMore] = useState(false)
     const [huespedSeleccionado, setHuespedSeleccionado] = useState<string | null>(null)
 
     // Limpieza al entrar
@@ -142,6 +181,7 @@ export default function BuscarHuesped() {
     const handleSubmit = async (e: FormEvent) => {
         e.preventDefault()
         setResultados(null)
+        setSiguiente(null)
         setHuespedSeleccionado(null)
         setSearchPerformed(false)
         setError("")
@@ -168,43 +208,11 @@ export default function BuscarHuesped() {
             }
 
             // @ts-ignore
-            const data = await buscarHuespedes(criterios)
-
-            const mapPosicionIVA = (posIva: string) => {
-                const mapping: Record<string, string> = {
-                    'CONSUMIDOR_FINAL': 'Consumidor Final',
-                    'RESPONSABLE_INSCRIPTO': 'Responsable Inscripto',
-                    'EXENTO': 'Exento',
-                    'MONOTRIBUTISTA': 'Monotributo'
-                }
-                return mapping[posIva] || posIva
-            }
+            const pagina = await buscarHuespedesPagina(criterios)
 
-            const invitadosMapeados = data.map((h: any) => ({
-                id: h.nroDocumento,
-                tipoDocumento: h.tipoDocumento,
-                numeroDocumento: h.nroDocumento,
-                apellido: h.apellido,
-                nombres: h.nombres,
-                cuit: h.cuit,
-                posicionIVA: h.posicionIva ? mapPosicionIVA(h.posicionIva) : '',
-                fechaNacimiento: h.fechaNacimiento,
-                direccion: h.dtoDireccion ? `${h.dtoDireccion.calle} ${h.dtoDireccion.numero}` : "",
-                direccionCalle: h.dtoDireccion?.calle || "",
-                direccionNumero: h.dtoDireccion?.numero?.toString() || "",
-                direccionDepartamento: h.dtoDireccion?.departamento || "",
-                direccionPiso: h.dtoDireccion?.piso || "",
-                direccionCodigoPostal: h.dtoDireccion?.codPostal?.toString() || "",
-                direccionLocalidad: h.dtoDireccion?.localidad || "",
-                direccionProvincia: h.dtoDireccion?.provincia || "",
-                direccionPais: h.dtoDireccion?.pais || "",
-                telefono: h.telefono && h.telefono.length > 0 ? h.telefono[0].toString() : "",
-                email: h.email && h.email.length > 0 ? h.email[0] : "",
-                ocupacion: h.ocupacion && h.ocupacion.length > 0 ? h.ocupacion[0] : "",
-                nacionalidad: h.nacionalidad
-            }))
-
-            setResultados(invitadosMapeados)
+            setResultados(pagina.huespedes.map(mapearHuesped))
+            setSiguiente(pagina.siguiente)
+            setCriteriosBusqueda(criterios)
             setSearchPerformed(true)
         } catch (err: any) {
             console.error(err)
@@ -214,6 +222,23 @@ export default function BuscarHuesped() {
         }
     }
 
+    // Trae la página siguiente con los mismos criterios y la agrega al final
+    const handleCargarMas = async () => {
+        if (!siguiente) return
+        setIsLoadingMore(true)
+        setError("")
+        try {
+            const pagina = await buscarHuespedesPagina(criteriosBusqueda, siguiente)
+            setResultados((prev) => [...(prev ?? []), ...pagina.huespedes.map(mapearHuesped)])
+            setSiguiente(pagina.siguiente)
+        } catch (err: any) {
+            console.error(err)
+            setError("Error al conectar con el servidor: " + err.message)
+        } finally {
+            setIsLoadingMore(false)
+        }
+    }
+
     // --- ACCIONES DE NAVEGACIÓN ---
 
     const handleDarDeAlta = () => {
@@ -371,7 +396,7 @@ export default function BuscarHuesped() {
                     <Card className="mt-6 shadow-lg border-slate-200 dark:border-slate-800 animate-in fade-in slide-in-from-bottom-4 duration-500">
                         <div className="border-b p-6 bg-slate-50/50">
                             <h2 className="text-xl font-semibold text-slate-900 dark:text-slate-50">
-                                Resultados ({resultados.length})
+                                Resultados ({resultados.length}{siguiente ? "+" : ""})
                             </h2>
                         </div>
 
@@ -449,6 +474,17 @@ export default function BuscarHuesped() {
                                     ))}
                                 </div>
 
+                                {siguiente && (
+                                    <Button
+                                        variant="outline"
+                                        onClick={handleCargarMas}
+                                        disabled={isLoadingMore}
+                                        className="w-full"
+                                    >
+                                        {isLoadingMore ? "Cargando..." : "Mostrar más resultados"}
+                                    </Button>
+                                )}
+
                                 <Card className="border-blue-200 bg-blue-50/50 p-4 dark:border-blue-900 dark:bg-blue-950/20">
                                     <p className="text-sm text-slate-700 dark:text-slate-300 text-center font-medium">
                                         {huespedSeleccionado
@@ -481,6 +517,7 @@ export default function BuscarHuesped() {
                                         onClick={() => {
                                             setSearchPerformed(false)
                                             setResultados(null)
+                                            setSiguiente(null)
                                             setHuespedSeleccionado(null)
                                         }}
                                     >
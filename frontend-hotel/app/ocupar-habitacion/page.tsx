@@ -8,7 +8,7 @@ import { Card } from "@/components/ui/card";
 import { Input } from "@/components/ui/input";
 import { Label } from "@/components/ui/label";
 import { DoorOpen, Calendar, Loader2, Home } from "lucide-react"; // Se agregó Home
-import { buscarHuespedes, crearEstadia, buscarReservas } from "@/lib/api";
+import { buscarHuespedesPagina, crearEstadia, buscarReservas } from "@/lib/api";
 import { DtoHuesped, DtoEstadia, EstadoHabitacion } from "@/lib/types";
 
 // --- INTERFACES ---
@@ -81,6 +81,17 @@ const createLocalDate = (dateString: string): Date => {
   return new Date(year, month - 1, day);
 };
 
+const aResultados = (data: DtoHuesped[], nroDocumento?: string): DatosHuesped[] => {
+  const resultados = data.map((h: DtoHuesped) => ({
+    id: h.nroDocumento,
+    apellido: h.apellido,
+    nombres: h.nombres,
+    tipoDocumento: String(h.tipoDocumento),
+    nroDocumento: h.nroDocumento
+  }));
+  return nroDocumento ? resultados.filter(h => h.nroDocumento.includes(nroDocumento)) : resultados;
+};
+
 export default function OcuparHabitacion() {
   const router = useRouter();
 
@@ -116,6 +127,9 @@ export default function OcuparHabitacion() {
   const [resultadosBusqueda, setResultadosBusqueda] = useState<DatosHuesped[]>([]);
   const [buscando, setBuscando] = useState(false);
   const [mostrarResultados, setMostrarResultados] = useState(false);
+  // Criterios de la última búsqueda y token de su página siguiente (null si no hay más)
+  const [criteriosBusqueda, setCriteriosBusqueda] = useState<any>(null);
+  const [siguientePagina, setSiguientePagina] = useState<string | null>(null);
   const [responsableIdx, setResponsableIdx] = useState<number | null>(null);
   const [loading, setLoading] = useState(false);
   const [errorCarga, setErrorCarga] = useState("");
@@ -151,6 +165,8 @@ export default function OcuparHabitacion() {
     setBusquedaHuesped({ apellido: "", nombres: "", tipoDocumento: "", nroDocumento: "" });
     setResultadosBusqueda([]);
     setMostrarResultados(false);
+    setCriteriosBusqueda(null);
+    setSiguientePagina(null);
     
     // 5. Reiniciar Flujo
     setPaso("fechasGrilla"); 
@@ -513,19 +529,11 @@ export default function OcuparHabitacion() {
       };
       if (busquedaHuesped.tipoDocumento) criterios.tipoDocumento = busquedaHuesped.tipoDocumento;
 
-      const data = await buscarHuespedes(criterios);
-
-      let resultados = data.map((h: DtoHuesped) => ({
-        id: h.nroDocumento,
-        apellido: h.apellido,
-        nombres: h.nombres,
-        tipoDocumento: String(h.tipoDocumento),
-        nroDocumento: h.nroDocumento
-      }));
-      if (busquedaHuesped.nroDocumento) {
-        resultados = resultados.filter((h: any) => h.nroDocumento.includes(busquedaHuesped.nroDocumento));
-      }
-      setResultadosBusqueda(resultados);
+      const pagina = await buscarHuespedesPagina(criterios);
+
+      setResultadosBusqueda(aResultados(pagina.huespedes, criterios.nroDocumento));
+      setCriteriosBusqueda(criterios);
+      setSiguientePagina(pagina.siguiente);
       setMostrarResultados(true);
     } catch (error) {
       console.error("Error en búsqueda:", error);
@@ -539,6 +547,25 @@ export default function OcuparHabitacion() {
     }
   };
 
+  const handleCargarMas = async () => {
+    if (!siguientePagina || !criteriosBusqueda) return;
+    setBuscando(true);
+    try {
+      const pagina = await buscarHuespedesPagina(criteriosBusqueda, siguientePagina);
+      setResultadosBusqueda(prev => [...prev, ...aResultados(pagina.huespedes, criteriosBusqueda.nroDocumento)]);
+      setSiguientePagina(pagina.siguiente);
+    } catch (error) {
+      console.error("Error en búsqueda:", error);
+        setDialogError({
+            titulo: "Error de búsqueda",
+            mensaje: "Error al cargar más huéspedes",
+            tipo: "error"
+        });
+    } finally {
+      setBuscando(false);
+    }
+  };
+
   const handleSeleccionarHuesped = (huesped: DatosHuesped) => {
     const yaExiste = huespedes.some(
       h => h.tipoDocumento === huesped.tipoDocumento && h.nroDocumento === huesped.nroDocumento
@@ -969,7 +996,7 @@ export default function OcuparHabitacion() {
             {mostrarResultados && (
               <Card className="p-6">
                 <h3 className="text-lg font-semibold mb-4">Resultados</h3>
-                {resultadosBusqueda.length === 0 ? <p>No se encontraron resultados.</p> : (
+                {resultadosBusqueda.length === 0 && !siguientePagina ? <p>No se encontraron resultados.</p> : (
                   <div className="space-y-2">
                     {resultadosBusqueda.map((h, idx) => (
                       <div key={idx} className="flex items-center justify-between bg-slate-50 p-4 rounded border">
@@ -982,6 +1009,11 @@ export default function OcuparHabitacion() {
                     ))}
                   </div>
                 )}
+                {siguientePagina && (
+                  <Button onClick={handleCargarMas} disabled={buscando} variant="outline" className="w-full mt-4">
+                    {buscando ? "Cargando..." : "Cargar más"}
+                  </Button>
+                )}
               </Card>
             )}
 
@@ -1,7 +1,7 @@
 "use client"
 
 import { useState } from "react"
-import { buscarHuespedes } from "@/lib/api"
+import { buscarHuespedesPagina } from "@/lib/api"
 import { DtoHuesped } from "@/lib/types"
 import { Button } from "@/components/ui/button"
 import { Card } from "@/components/ui/card"
@@ -19,6 +19,7 @@ export function EjemploConexionBackend() {
   const [loading, setLoading] = useState(false)
   const [error, setError] = useState<string | null>(null)
   const [success, setSuccess] = useState(false)
+  const [hayMas, setHayMas] = useState(false)
 
   const probarConexion = async () => {
     try {
@@ -29,12 +30,13 @@ export function EjemploConexionBackend() {
       console.log("🔄 Intentando conectar con el backend...")
       console.log(`📡 URL: ${process.env.NEXT_PUBLIC_API_URL || "http://localhost:8080/api"}`)
 
-      // Buscar todos los huéspedes (criterio vacío)
-      const resultados = await buscarHuespedes({})
+      // Primera página de huéspedes (criterio vacío)
+      const pagina = await buscarHuespedesPagina({})
 
-      console.log("✅ Respuesta del backend:", resultados)
+      console.log("✅ Respuesta del backend:", pagina.huespedes)
 
-      setHuespedes(resultados)
+      setHuespedes(pagina.huespedes)
+      setHayMas(pagina.siguiente !== null)
       setSuccess(true)
     } catch (err: any) {
       console.error("❌ Error al conectar:", err)
@@ -79,7 +81,7 @@ export function EjemploConexionBackend() {
           <div className="bg-green-50 border border-green-200 rounded p-4">
             <p className="text-green-800 font-semibold">✅ Conexión exitosa!</p>
             <p className="text-green-600 text-sm mt-1">
-              Se encontraron {huespedes.length} huéspedes en la base de datos.
+              Se encontraron {huespedes.length}{hayMas ? "+" : ""} huéspedes en la base de datos.
             </p>
 
             {huespedes.length > 0 && (
@@ -17,7 +17,7 @@ import {
 } from "@/components/ui/dialog"
 import { Alert, AlertDescription } from "@/components/ui/alert"
 import { Search, UserMinus, AlertCircle, CheckCircle2 } from "lucide-react"
-import { buscarHuespedes, darDeBajaHuesped } from "@/lib/api"
+import { buscarHuespedesPagina, darDeBajaHuesped } from "@/lib/api"
 
 type Guest = {
     id: string
@@ -84,7 +84,8 @@ export function BajaHuespedForm() {
                 ? { tipoDocumento, nroDocumento }
                 : { nombres: nombre, apellido };
 
-            const resultados = await buscarHuespedes(criterios);
+            // Solo se usa la primera coincidencia: alcanza con la primera página
+            const resultados = (await buscarHuespedesPagina(criterios)).huespedes;
 
             if (resultados && resultados.length > 0) {
                 // Tomamos el primero que coincida (para simplificar la UI de baja)
@@ -27,6 +27,7 @@ import {
     Trash2
 } from "lucide-react"
 import { buscarReservasPorHuesped, cancelarReservas } from "@/lib/api"
+import type { DtoResultadoCancelacion } from "@/lib/types"
 import { esReservaPasada, estaLinkeadaAEstadia } from "@/lib/reserva-utils"
 
 // Tipo de dato para la grilla
@@ -58,6 +59,7 @@ export function CancelarReservaForm() {
     const [error, setError] = useState("")
     const [showConfirmDialog, setShowConfirmDialog] = useState(false)
     const [showSuccessDialog, setShowSuccessDialog] = useState(false)
+    const [resultadoCancelacion, setResultadoCancelacion] = useState<DtoResultadoCancelacion | null>(null)
     const [isProcessing, setIsProcessing] = useState(false)
     const [fieldErrors, setFieldErrors] = useState<{apellido?: string, nombre?: string}>({})
     const REGEX_SOLO_LETRAS = /^[a-zA-ZÀ-ÿ\u00f1\u00d1\s]*$/;
@@ -143,7 +145,8 @@ export function CancelarReservaForm() {
     const confirmCancellation = async () => {
         setIsProcessing(true)
         try {
-            await cancelarReservas(seleccionados)
+            const resultado = await cancelarReservas(seleccionados)
+            setResultadoCancelacion(resultado)
             setShowConfirmDialog(false)
             setShowSuccessDialog(true)
         } catch (err) {
@@ -157,6 +160,18 @@ export function CancelarReservaForm() {
         router.push("/")
     }
 
+    // Ninguna reserva cancelada: se cierra el resultado y se puede volver a buscar
+    const handleCerrarResultado = () => {
+        setShowSuccessDialog(false)
+        setResultadoCancelacion(null)
+        setSeleccionados([])
+        setIsProcessing(false)
+    }
+
+    const ningunaCancelada = resultadoCancelacion !== null && resultadoCancelacion.canceladas.length === 0
+    const yaCanceladas = resultadoCancelacion?.yaCanceladas ?? []
+    const inexistentes = resultadoCancelacion?.inexistentes ?? []
+
     const handleVolver = () => {
         setShowExitDialog(true)
 
@@ -381,21 +396,50 @@ export function CancelarReservaForm() {
                 </Dialog>
 
                 {/* --- DIALOGO DE ÉXITO --- */}
-                <Dialog open={showSuccessDialog} onOpenChange={setShowSuccessDialog}>
+                <Dialog open={showSuccessDialog} onOpenChange={ningunaCancelada ? handleCerrarResultado : setShowSuccessDialog}>
                     <DialogContent className="sm:max-w-[425px]">
                         <div className="flex flex-col items-center justify-center py-6 text-center">
-                            <div className="mb-4 rounded-full bg-green-100 p-3 text-green-600 dark:bg-green-900/30 dark:text-green-400">
-                                <CheckCircle2 className="h-8 w-8" />
-                            </div>
-                            <DialogTitle className="text-xl font-bold text-slate-900">¡Operación Exitosa!</DialogTitle>
+                            {ningunaCancelada ? (
+                                <div className="mb-4 rounded-full bg-red-100 p-3 text-red-600 dark:bg-red-900/30 dark:text-red-400">
+                                    <AlertCircle className="h-8 w-8" />
+                                </div>
+                            ) : (
+                                <div className="mb-4 rounded-full bg-green-100 p-3 text-green-600 dark:bg-green-900/30 dark:text-green-400">
+                                    <CheckCircle2 className="h-8 w-8" />
+                                </div>
+                            )}
+                            <DialogTitle className="text-xl font-bold text-slate-900">
+                                {ningunaCancelada ? "No se canceló ninguna reserva" : "¡Operación Exitosa!"}
+                            </DialogTitle>
                             <DialogDescription className="mt-2 text-center text-slate-600">
-                                Las reservas han sido canceladas correctamente.
+                                {ningunaCancelada
+                                    ? "Ninguna de las reservas seleccionadas estaba activa."
+                                    : `Se cancelaron ${resultadoCancelacion?.canceladas.length ?? 0} reserva(s).`}
                             </DialogDescription>
+                            {(yaCanceladas.length > 0 || inexistentes.length > 0) && (
+                                <Alert variant="destructive" className="mt-4 text-left">
+                                    <AlertCircle className="h-4 w-4" />
+                                    <AlertDescription>
+                                        {yaCanceladas.length > 0 && (
+                                            <p>Ya estaban canceladas o terminadas: {yaCanceladas.join(", ")}</p>
+                                        )}
+                                        {inexistentes.length > 0 && (
+                                            <p>No existen: {inexistentes.join(", ")}</p>
+                                        )}
+                                    </AlertDescription>
+                                </Alert>
+                            )}
                         </div>
                         <DialogFooter>
-                            <Button className="w-full bg-slate-900 hover:bg-slate-800 text-white" onClick={handleFinalizar}>
-                                Aceptar y Salir
-                            </Button>
+                            {ningunaCancelada ? (
+                                <Button className="w-full bg-slate-900 hover:bg-slate-800 text-white" onClick={handleCerrarResultado}>
+                                    Volver a la búsqueda
+                                </Button>
+                            ) : (
+                                <Button className="w-full bg-slate-900 hover:bg-slate-800 text-white" onClick={handleFinalizar}>
+                                    Aceptar y Salir
+                                </Button>
+                            )}
                         </DialogFooter>
                     </DialogContent>
                 </Dialog>
@@ -16,7 +16,8 @@ import {
   DtoEstadia,
   DtoPago,
   DtoFactura,
-  DtoResultadoRegistroPago
+  DtoResultadoRegistroPago,
+  DtoResultadoCancelacion
 } from "./types"
 
 // Asegúrate de que esta URL sea correcta. Si usas Docker o red local, ajusta la IP.
@@ -31,10 +32,12 @@ interface ApiError {
 // Interfaz personalizada para opciones de fetch
 interface ApiFetchOptions extends Omit<RequestInit, 'body'> {
   body?: any;
+  // Se llama con la respuesta exitosa antes de leer el cuerpo (p. ej. para leer encabezados)
+  onResponse?: (response: Response) => void;
 }
 
 export async function apiFetch<T>(endpoint: string, options: ApiFetchOptions = {}): Promise<T> {
-  const { method = "GET", body, headers = {}, ...rest } = options
+  const { method = "GET", body, headers = {}, onResponse, ...rest } = options
 
   const config: RequestInit = {
     method,
@@ -109,6 +112,8 @@ export async function apiFetch<T>(endpoint: string, options: ApiFetchOptions = {
       }
     }
 
+    onResponse?.(response)
+
     // Si la respuesta es 204 No Content o vacía
     if (response.status === 204) return {} as T;
 
@@ -168,11 +173,27 @@ export async function autenticarUsuario(credenciales: DtoUsuario): Promise<strin
 
 // --- CU2: BUSCAR HUÉSPED ---
 
-export async function buscarHuespedes(criterios: Partial<BuscarHuespedForm>): Promise<DtoHuesped[]> {
-  return apiFetch<DtoHuesped[]>("/huespedes/buscar", {
+// El backend pagina la búsqueda: cada respuesta trae una página y, si hay más, el token de la
+// siguiente en el encabezado X-Siguiente-Pagina.
+export interface PaginaHuespedes {
+  huespedes: DtoHuesped[]
+  siguiente: string | null
+}
+
+export async function buscarHuespedesPagina(
+  criterios: Partial<BuscarHuespedForm>,
+  cursor?: string | null
+): Promise<PaginaHuespedes> {
+  const query = cursor ? `?cursor=${encodeURIComponent(cursor)}` : ""
+  let siguiente: string | null = null
+  const huespedes = await apiFetch<DtoHuesped[]>(`/huespedes/buscar${query}`, {
     method: "POST",
     body: criterios,
+    onResponse: (response) => {
+      siguiente = response.headers.get("X-Siguiente-Pagina")
+    },
   })
+  return { huespedes, siguiente }
 }
 
 // --- CU9: ALTA HUÉSPED ---
@@ -286,9 +307,9 @@ export async function buscarReservasPorHuesped(apellido: string, nombre: string)
     });
 }
 
-// Cancelar lista de reservas
-export async function cancelarReservas(ids: number[]): Promise<string> {
-    return apiFetch<string>("/reservas/cancelar", {
+// Cancelar lista de reservas: el resultado indica qué ids se cancelaron y cuáles se salteó
+export async function cancelarReservas(ids: number[]): Promise<DtoResultadoCancelacion> {
+    return apiFetch<DtoResultadoCancelacion>("/reservas/cancelar", {
         method: "POST",
         body: ids,
     });
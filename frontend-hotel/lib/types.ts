@@ -223,6 +223,14 @@ export interface DtoPago {
   mediosPago: DtoMedioPago[]
 }
 
+// Resultado de POST /reservas/cancelar: cada id pedido queda en una sola de las tres listas
+export interface DtoResultadoCancelacion {
+  mensaje: string
+  canceladas: number[]
+  yaCanceladas: number[] // Existían pero no estaban activas (canceladas o terminadas)
+  inexistentes: number[]
+}
+
 export interface DtoResultadoRegistroPago {
   mensaje: string
   vuelto: number
@@ -0,0 +1,98 @@
+package Facultad.TrabajoPracticoDesarrollo.Config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Propiedades {@code hotel.facturacion.*}: los puntos de venta habilitados para facturar.
+ *
+ * <p>Cada punto de venta (recepciones, restaurante, ...) tiene su propia numeración, y dentro
+ * de él una serie por tipo de factura (A y B), como pide AFIP. Ejemplo en
+ * {@code application.properties}:
+ * <pre>
+ * hotel.facturacion.punto-venta-por-defecto=0005
+ * hotel.facturacion.puntos-venta.0005=Recepción principal
+ * hotel.facturacion.puntos-venta.0006=Recepción anexo
+ * hotel.facturacion.puntos-venta.0010=Restaurante
+ * </pre></p>
+ *
+ * <p>Las facturas de cada serie tienen que salir en orden estricto, así que por defecto cada
+ * número se reserva en la base al emitir la factura (bloques de 1, ver {@code NumeradorFacturas}).
+ * Solo los puntos de venta de {@code puntos-venta-en-bloque} numeran en bloques de
+ * {@code tamanio-bloque}:
+ * <pre>
+ * hotel.facturacion.tamanio-bloque=20
+ * hotel.facturacion.puntos-venta-en-bloque=0010
+ * </pre></p>
+ */
+@Component
+@ConfigurationProperties(prefix = "hotel.facturacion")
+@Getter
+@Setter
+public class FacturacionProperties {
+
+    /** Punto de venta de las facturas que no indican uno. */
+    private String puntoVentaPorDefecto = "0005";
+
+    /** Puntos de venta habilitados: código de 4 dígitos y descripción. */
+    private Map<String, String> puntosVenta = new LinkedHashMap<>(Map.of("0005", "Recepción"));
+
+    /** Números que cada nodo reserva de una vez en las series de {@link #puntosVentaEnBloque}. */
+    private int tamanioBloque = 1;
+
+    /** Puntos de venta que pueden numerar en bloques; los demás mantienen el orden estricto. */
+    private Set<String> puntosVentaEnBloque = new LinkedHashSet<>();
+
+    /**
+     * Tamaño de bloque de las series de un punto de venta: {@link #tamanioBloque} si está en
+     * {@link #puntosVentaEnBloque}, 1 si no.
+     */
+    public int tamanioBloque(String puntoVenta) {
+        return puntosVentaEnBloque.contains(puntoVenta) ? tamanioBloque : 1;
+    }
+
+    /**
+     * Verifica la configuración de la numeración al iniciar.
+     *
+     * @throws IllegalStateException si el tamaño de bloque no es positivo, si es mayor a 1 sin
+     *         ningún punto de venta que pueda numerar en bloques (todos necesitan orden estricto),
+     *         o si un punto de venta en bloque no está habilitado
+     */
+    public void validarNumeracion() {
+        if (tamanioBloque < 1) {
+            throw new IllegalStateException("hotel.facturacion.tamanio-bloque debe ser positivo.");
+        }
+        if (tamanioBloque > 1 && puntosVentaEnBloque.isEmpty()) {
+            throw new IllegalStateException("hotel.facturacion.tamanio-bloque=" + tamanioBloque
+                    + " numeraría en bloques puntos de venta que necesitan orden estricto. Use 1 o indique"
+                    + " cuáles pueden numerar en bloques con hotel.facturacion.puntos-venta-en-bloque.");
+        }
+        for (String codigo : puntosVentaEnBloque) {
+            if (!puntosVenta.containsKey(codigo)) {
+                throw new IllegalStateException("El punto de venta " + codigo
+                        + " de hotel.facturacion.puntos-venta-en-bloque no está habilitado.");
+            }
+        }
+    }
+
+    /**
+     * Devuelve el punto de venta a usar para una factura.
+     *
+     * @param pedido código pedido; si es {@code null} o vacío se usa el de por defecto
+     * @throws IllegalArgumentException si el punto de venta no está habilitado
+     */
+    public String resolver(String pedido) {
+        String codigo = (pedido == null || pedido.isBlank()) ? puntoVentaPorDefecto : pedido;
+        if (!puntosVenta.containsKey(codigo)) {
+            throw new IllegalArgumentException("El punto de venta " + codigo + " no está habilitado.");
+        }
+        return codigo;
+    }
+}
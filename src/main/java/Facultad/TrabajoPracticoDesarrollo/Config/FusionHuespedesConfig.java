@@ -0,0 +1,27 @@
+package Facultad.TrabajoPracticoDesarrollo.Config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Hilo de fondo de las fusiones de huéspedes (CU10).
+ *
+ * <p>Es uno solo: las fusiones se ejecutan de a una y nunca compiten entre sí por las filas
+ * de reservas o estadías. Al apagar la aplicación se interrumpe; el trabajo en curso queda
+ * {@code EN_CURSO} y se retoma desde su paso guardado en el próximo arranque.</p>
+ */
+@Configuration
+public class FusionHuespedesConfig {
+
+    @Bean(name = "fusionHuespedesExecutor", destroyMethod = "shutdownNow")
+    public ExecutorService fusionHuespedesExecutor() {
+        return Executors.newSingleThreadExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "fusion-huespedes");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+}
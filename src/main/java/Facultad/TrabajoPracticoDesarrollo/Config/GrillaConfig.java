@@ -0,0 +1,57 @@
+package Facultad.TrabajoPracticoDesarrollo.Config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pools propios de la grilla de estados.
+ *
+ * <p>{@code grillaForkJoinPool} calcula la grilla en paralelo. Es un {@link ForkJoinPool} propio y acotado a {@code hotel.grilla.hilos}: los
+ * {@code parallelStream()} lanzados desde una tarea de este pool corren en él y no en el
+ * common pool, de modo que una grilla grande no puede dejar sin hilos al resto de la
+ * aplicación ni a Tomcat.</p>
+ *
+ * <p>{@code difusorEstadosExecutor} es un único hilo que arma los cambios y los latidos de
+ * {@code /api/habitaciones/estados/stream} y los encola en cada suscriptor, sin escribir en la
+ * red. {@code difusorEnviosExecutor} ({@code hotel.estados.stream.hilos-envio} hilos) vacía esas
+ * colas: un cliente lento ocupa a lo sumo un hilo de envío y no demora la difusión.</p>
+ */
+@Configuration
+public class GrillaConfig {
+
+    @Bean(name = "grillaForkJoinPool", destroyMethod = "shutdown")
+    public ForkJoinPool grillaForkJoinPool(GrillaProperties grillaProperties) {
+        return new ForkJoinPool(Math.max(1, grillaProperties.getHilos()), pool -> {
+            ForkJoinWorkerThread hilo = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            hilo.setName("grilla-" + hilo.getPoolIndex());
+            return hilo;
+        }, null, false);
+    }
+
+    @Bean(name = "difusorEstadosExecutor", destroyMethod = "shutdownNow")
+    public ScheduledExecutorService difusorEstadosExecutor() {
+        return Executors.newSingleThreadScheduledExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "estados-sse");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    @Bean(name = "difusorEnviosExecutor", destroyMethod = "shutdownNow")
+    public ExecutorService difusorEnviosExecutor(@Value("${hotel.estados.stream.hilos-envio:4}") int hilos) {
+        AtomicInteger contador = new AtomicInteger();
+        return Executors.newFixedThreadPool(Math.max(1, hilos), tarea -> {
+            Thread hilo = new Thread(tarea, "estados-sse-envio-" + contador.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+}
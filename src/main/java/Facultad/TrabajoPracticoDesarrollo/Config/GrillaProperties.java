@@ -0,0 +1,33 @@
+package Facultad.TrabajoPracticoDesarrollo.Config;
+
+import Facultad.TrabajoPracticoDesarrollo.enums.MotorGrilla;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Propiedades {@code hotel.grilla.*} del cálculo de la grilla de estados (CU05).
+ *
+ * <p>Ejemplo en {@code application.properties}:
+ * <pre>
+ * hotel.grilla.motor=SQL
+ * hotel.grilla.paralelo=true
+ * hotel.grilla.hilos=4
+ * </pre></p>
+ */
+@Component
+@ConfigurationProperties(prefix = "hotel.grilla")
+@Getter
+@Setter
+public class GrillaProperties {
+
+    /** Motor de cálculo: {@code JVM} (por defecto) o {@code SQL}. */
+    private MotorGrilla motor = MotorGrilla.JVM;
+
+    /** Si es {@code true}, el motor JVM calcula las filas en paralelo sobre un pool propio. */
+    private boolean paralelo = false;
+
+    /** Tamaño del pool de la grilla; nunca se usa el common pool de la JVM. */
+    private int hilos = Math.min(4, Runtime.getRuntime().availableProcessors());
+}
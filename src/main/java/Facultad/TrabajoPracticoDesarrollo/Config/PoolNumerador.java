@@ -0,0 +1,55 @@
+package Facultad.TrabajoPracticoDesarrollo.Config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Pool de conexiones propio del numerador de facturas ({@code NumeradorFacturas}).
+ *
+ * <p>La reserva de un bloque de números corre en su propia transacción mientras la factura
+ * que la pidió sigue abierta con una conexión del pool principal. Si la reserva también
+ * saliera de ese pool, con todas sus conexiones tomadas por facturas esperando un número
+ * nadie podría reservar: las facturas esperan al numerador y el numerador espera una conexión.
+ * Con {@code hotel.facturacion.conexiones-numerador} conexiones aparte la reserva nunca
+ * compite con las transacciones que la esperan.</p>
+ *
+ * <p>Usa la misma base que {@code spring.datasource.*}. No se publica como {@code DataSource}
+ * ni como {@code PlatformTransactionManager} para no reemplazar los de Spring Boot.</p>
+ */
+@Component
+public class PoolNumerador {
+
+    private final HikariDataSource pool;
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+
+    public PoolNumerador(DataSourceProperties dataSourceProperties,
+                         @Value("${hotel.facturacion.conexiones-numerador:2}") int conexiones) {
+        // Hikari no abre conexiones hasta el primer pedido
+        this.pool = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        this.pool.setPoolName("numerador-facturas");
+        this.pool.setMaximumPoolSize(Math.max(1, conexiones));
+        this.pool.setMinimumIdle(0);
+        this.jdbcTemplate = new JdbcTemplate(pool);
+        this.transactionManager = new DataSourceTransactionManager(pool);
+    }
+
+    public JdbcTemplate getJdbcTemplate() {
+        return jdbcTemplate;
+    }
+
+    public PlatformTransactionManager getTransactionManager() {
+        return transactionManager;
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        pool.close();
+    }
+}
@@ -1,6 +1,7 @@
 package Facultad.TrabajoPracticoDesarrollo.Controllers;
 
 
+import Facultad.TrabajoPracticoDesarrollo.Config.FacturacionProperties;
 import Facultad.TrabajoPracticoDesarrollo.DTOs.DtoFactura;
 import Facultad.TrabajoPracticoDesarrollo.DTOs.DtoInicioFactura;
 import Facultad.TrabajoPracticoDesarrollo.DTOs.DtoPersonaJuridica;
@@ -10,6 +11,7 @@ import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.util.Collections;
+import java.util.Map;
 
 /**
  * Controlador REST para operaciones relacionadas con facturación.
@@ -17,7 +19,8 @@ import java.util.Collections;
  * <p>Expone endpoints bajo la ruta {@code /api/factura} para:
  * - buscar ocupantes de una habitación para iniciar una factura,
  * - calcular el detalle de la factura según la estadía y el responsable,
- * - generar la factura final,
+ * - generar la factura final (en el punto de venta indicado),
+ * - listar los puntos de venta habilitados,
  * - crear un responsable jurídico si se factura a una empresa.</p>
  *
  * <p>Permite CORS desde cualquier origen.</p>
@@ -28,14 +31,17 @@ import java.util.Collections;
 public class FacturaController {
 
     private final FacturaService facturaService;
+    private final FacturacionProperties facturacionProperties;
 
     /**
      * Construye el controlador inyectando el servicio de facturación.
      *
-     * @param service servicio que contiene la lógica de negocio para facturas
+     * @param service               servicio que contiene la lógica de negocio para facturas
+     * @param facturacionProperties puntos de venta habilitados
      */
-    public FacturaController(FacturaService service) {
+    public FacturaController(FacturaService service, FacturacionProperties facturacionProperties) {
         this.facturaService = service;
+        this.facturacionProperties = facturacionProperties;
     }
 
 
@@ -130,19 +136,39 @@ public class FacturaController {
      *
      * <p>POST /api/factura/generar</p>
      *
+     * <p>La factura se numera en la serie de su punto de venta ({@code puntoVenta}, o el de por
+     * defecto si no viene) y su tipo: el número devuelto tiene la forma {@code T-PPPP-NNNNNNNN}.</p>
+     *
      * @param facturaFinal DTO validado con los datos finales de la factura
      * @return {@code 200 OK} con el resultado de la generación,
+     *         {@code 400 Bad Request} si el punto de venta no está habilitado o falta el tipo,
      *         {@code 500 Internal Server Error} en caso de error del servidor.
      */
     @PostMapping("/generar")
     public ResponseEntity<?> generarFactura(@Valid @RequestBody DtoFactura facturaFinal) {
         try {
             return ResponseEntity.ok(facturaService.generarFactura(facturaFinal));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.internalServerError().body("Error: " + e.getMessage());
         }
     }
 
+    /**
+     * Puntos de venta habilitados para facturar (código y descripción) y el de por defecto.
+     *
+     * <p>GET /api/factura/puntos-venta</p>
+     *
+     * @return {@code 200 OK} con {@code puntosVenta} y {@code porDefecto}
+     */
+    @GetMapping("/puntos-venta")
+    public ResponseEntity<?> listarPuntosVenta() {
+        return ResponseEntity.ok(Map.of(
+                "puntosVenta", facturacionProperties.getPuntosVenta(),
+                "porDefecto", facturacionProperties.getPuntoVentaPorDefecto()));
+    }
+
     /**
      * Crea un responsable jurídico y devuelve su id generado.
      *
@@ -0,0 +1,63 @@
+package Facultad.TrabajoPracticoDesarrollo.Controllers;
+
+import Facultad.TrabajoPracticoDesarrollo.DTOs.DtoMetricasFiltroExistencia;
+import Facultad.TrabajoPracticoDesarrollo.Services.FiltrosExistencia;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Controlador REST de administración de los filtros de existencia en memoria
+ * (ver {@link FiltrosExistencia}).
+ *
+ * <p>Expone endpoints bajo la ruta {@code /api/filtros-existencia} para:
+ * - consultar las métricas de cada filtro (tasa de falsos positivos y memoria),
+ * - recargar los filtros desde la base de datos.</p>
+ *
+ * <p>Se permite acceso desde cualquier origen mediante CORS.</p>
+ */
+@RestController
+@RequestMapping("/api/filtros-existencia")
+@CrossOrigin(origins = "*")
+public class FiltrosExistenciaController {
+
+    private final FiltrosExistencia filtrosExistencia;
+
+    @Autowired
+    public FiltrosExistenciaController(FiltrosExistencia filtrosExistencia) {
+        this.filtrosExistencia = filtrosExistencia;
+    }
+
+    /**
+     * Métricas de los filtros de huéspedes, cheques y tarjetas.
+     *
+     * <p>GET /api/filtros-existencia/metricas</p>
+     *
+     * @return {@code 200 OK} con una {@link DtoMetricasFiltroExistencia} por filtro.
+     */
+    @GetMapping("/metricas")
+    public ResponseEntity<List<DtoMetricasFiltroExistencia>> obtenerMetricas() {
+        return ResponseEntity.ok(filtrosExistencia.obtenerMetricas());
+    }
+
+    /**
+     * Vuelve a armar los filtros desde la base de datos. Se usa cuando se cargaron huéspedes,
+     * cheques o tarjetas por fuera de la aplicación, o cuando la tasa estimada supera la configurada.
+     *
+     * <p>POST /api/filtros-existencia/recargar</p>
+     *
+     * @return {@code 200 OK} con las métricas luego de recargar,
+     *         {@code 500 Internal Server Error} si no se pudieron leer las claves.
+     */
+    @PostMapping("/recargar")
+    public ResponseEntity<?> recargar() {
+        try {
+            filtrosExistencia.recargar();
+            return ResponseEntity.ok(filtrosExistencia.obtenerMetricas());
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body("Error al recargar los filtros de existencia: " + e.getMessage());
+        }
+    }
+}
@@ -1,11 +1,28 @@
 package Facultad.TrabajoPracticoDesarrollo.Controllers;
 
-import Facultad.TrabajoPracticoDesarrollo.Dominio.Habitacion;
+import Facultad.TrabajoPracticoDesarrollo.DTOs.DtoGrillaCompacta;
+import Facultad.TrabajoPracticoDesarrollo.DTOs.DtoMetricasInventario;
+import Facultad.TrabajoPracticoDesarrollo.Services.DifusorEstadosHabitacion;
 import Facultad.TrabajoPracticoDesarrollo.Services.HabitacionService;
+import Facultad.TrabajoPracticoDesarrollo.Utils.Inventario.HabitacionCatalogo;
+import Facultad.TrabajoPracticoDesarrollo.enums.TipoHabitacion;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 
 /**
@@ -14,7 +31,11 @@ import java.util.List;
  * <p>Expone endpoints bajo la ruta {@code /api/habitaciones} para:
  * - obtener la lista completa de habitaciones ordenadas,
  * - buscar una habitación por su número,
- * - obtener el estado de habitaciones en un rango de fechas.</p>
+ * - buscar habitaciones disponibles por tipo, capacidad y rango de fechas,
+ * - consultar y recargar el inventario de habitaciones en memoria,
+ * - obtener el estado de habitaciones en un rango de fechas (completo, comprimido por tramos
+ *   o en streaming NDJSON),
+ * - suscribirse a los cambios de estado por Server-Sent Events.</p>
  *
  * <p>Se permite acceso desde cualquier origen mediante CORS.</p>
  */
@@ -23,17 +44,31 @@ import java.util.List;
 @CrossOrigin(origins = "*")
 public class HabitacionController {
 
-    private final HabitacionService habitacionService;
+    /** Tipo de contenido para pedir la grilla comprimida por tramos vía {@code Accept}. */
+    public static final String MEDIA_TYPE_GRILLA_RLE = "application/vnd.hotel.grilla-rle+json";
+
+    /** JSON delimitado por saltos de línea: una habitación por línea. */
+    public static final String MEDIA_TYPE_NDJSON = "application/x-ndjson";
+
+    private static final byte[] SALTO_LINEA = {'\n'};
 
+    private final HabitacionService habitacionService;
+    private final ObjectMapper objectMapper;
+    private final DifusorEstadosHabitacion difusorEstadosHabitacion;
 
     /**
      * Construye el controlador inyectando el servicio de habitaciones.
      *
      * @param habitacionService servicio que contiene la lógica de negocio para habitaciones
+     * @param objectMapper      serializador JSON usado por la respuesta en streaming
+     * @param difusorEstadosHabitacion difusor de los cambios de estado por SSE
      */
     @Autowired
-    public HabitacionController(HabitacionService habitacionService) {
+    public HabitacionController(HabitacionService habitacionService, ObjectMapper objectMapper,
+                                DifusorEstadosHabitacion difusorEstadosHabitacion) {
         this.habitacionService = habitacionService;
+        this.objectMapper = objectMapper;
+        this.difusorEstadosHabitacion = difusorEstadosHabitacion;
     }
 
     /**
@@ -41,11 +76,11 @@ public class HabitacionController {
      *
      * <p>GET /api/habitaciones</p>
      *
-     * @return {@code 200 OK} con la lista de {@link Habitacion} si la operación fue exitosa,
+     * @return {@code 200 OK} con la lista de {@link HabitacionCatalogo} si la operación fue exitosa,
      *         {@code 500 Internal Server Error} en caso de error inesperado.
      */
     @GetMapping
-    public ResponseEntity<List<Habitacion>> obtenerTodas() {
+    public ResponseEntity<List<HabitacionCatalogo>> obtenerTodas() {
         return ResponseEntity.ok(habitacionService.obtenerTodas());
     }
 
@@ -56,13 +91,13 @@ public class HabitacionController {
      * <p>GET /api/habitaciones/{numero}</p>
      *
      * @param numero número identificador de la habitación
-     * @return {@code 200 OK} con la {@link Habitacion} encontrada,
+     * @return {@code 200 OK} con la {@link HabitacionCatalogo} encontrada,
      *         {@code 404 Not Found} si no existe una habitación con ese número,
      *         {@code 400 Bad Request} si el parámetro es inválido.
      */
     @GetMapping("/{numero}")
     public ResponseEntity<?> obtenerPorNumero(@PathVariable String numero) {
-        Habitacion hab = habitacionService.obtenerPorNumero(numero);
+        HabitacionCatalogo hab = habitacionService.obtenerPorNumero(numero);
         if (hab != null) {
             return ResponseEntity.ok(hab);
         } else {
@@ -70,24 +105,212 @@ public class HabitacionController {
         }
     }
 
+    /**
+     * Busca las habitaciones que se pueden reservar en un rango de fechas.
+     *
+     * <p>GET /api/habitaciones/disponibles?tipo=DOBLE_ESTANDAR&amp;capacidad=2&amp;fechaDesde=YYYY-MM-DD&amp;fechaHasta=YYYY-MM-DD</p>
+     *
+     * @param tipo       tipo de habitación (opcional)
+     * @param capacidad  cantidad de huéspedes (opcional)
+     * @param fechaDesde fecha de ingreso en formato {@code YYYY-MM-DD}
+     * @param fechaHasta fecha de egreso en formato {@code YYYY-MM-DD}
+     * @return {@code 200 OK} con las habitaciones libres ordenadas por costo por noche,
+     *         {@code 400 Bad Request} si las fechas o los filtros son inválidos.
+     */
+    @GetMapping("/disponibles")
+    public ResponseEntity<?> buscarDisponibles(
+            @RequestParam(required = false) TipoHabitacion tipo,
+            @RequestParam(required = false) Integer capacidad,
+            @RequestParam String fechaDesde,
+            @RequestParam String fechaHasta) {
+        try {
+            return ResponseEntity.ok(habitacionService.buscarDisponibles(tipo, capacidad, fechaDesde, fechaHasta));
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().body("Formato de fecha inválido. Use YYYY-MM-DD.");
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Métricas del inventario de habitaciones en memoria (aciertos, fallos y recargas).
+     *
+     * <p>GET /api/habitaciones/inventario/metricas</p>
+     *
+     * @return {@code 200 OK} con las {@link DtoMetricasInventario} actuales.
+     */
+    @GetMapping("/inventario/metricas")
+    public ResponseEntity<DtoMetricasInventario> obtenerMetricasInventario() {
+        return ResponseEntity.ok(habitacionService.obtenerMetricasInventario());
+    }
+
+    /**
+     * Fuerza la recarga del inventario de habitaciones desde la base de datos.
+     * Se usa cuando el catálogo se modificó por fuera de la aplicación.
+     *
+     * <p>POST /api/habitaciones/inventario/recargar</p>
+     *
+     * @return {@code 200 OK} con las métricas luego de recargar,
+     *         {@code 500 Internal Server Error} si no se pudo leer el catálogo.
+     */
+    @PostMapping("/inventario/recargar")
+    public ResponseEntity<?> recargarInventario() {
+        try {
+            habitacionService.recargarInventario();
+            return ResponseEntity.ok(habitacionService.obtenerMetricasInventario());
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body("Error al recargar el inventario: " + e.getMessage());
+        }
+    }
+
     /**
      * Obtiene el estado de las habitaciones según un rango de fechas.
      *
      * <p>GET /api/habitaciones/estados?fechaDesde=YYYY-MM-DD&fechaHasta=YYYY-MM-DD</p>
      *
+     * <p>Responde con un {@code ETag} ligado a la versión del calendario y del inventario:
+     * si el cliente lo reenvía en {@code If-None-Match} y nada cambió, se contesta
+     * {@code 304 Not Modified} sin consultar la base ni armar la grilla.</p>
+     *
      * @param fechaDesde fecha de inicio en formato {@code YYYY-MM-DD}
      * @param fechaHasta fecha de fin en formato {@code YYYY-MM-DD}
+     * @param request    pedido actual, para evaluar {@code If-None-Match}
      * @return {@code 200 OK} con el estado de habitaciones para el rango solicitado,
+     *         {@code 304 Not Modified} si la grilla no cambió desde el ETag recibido,
      *         {@code 400 Bad Request} si las fechas son inválidas o ocurre un error de parseo.
      */
     @GetMapping("/estados")
     public ResponseEntity<?> obtenerEstadoPorFechas(
             @RequestParam String fechaDesde,
-            @RequestParam String fechaHasta) {
+            @RequestParam String fechaHasta,
+            WebRequest request) {
+        String etag = habitacionService.calcularEtagGrilla("json");
+        if (etag != null && request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
         try {
-            return ResponseEntity.ok(habitacionService.obtenerEstadoPorFechas(fechaDesde, fechaHasta));
+            return conEtag(etag).body(habitacionService.obtenerEstadoPorFechas(fechaDesde, fechaHasta));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error al obtener estado: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Estado de las habitaciones comprimido por tramos ({@link DtoGrillaCompacta}).
+     *
+     * <p>GET /api/habitaciones/estados?fechaDesde=...&fechaHasta=...&formato=rle</p>
+     *
+     * <p>Admite {@code If-None-Match} igual que {@link #obtenerEstadoPorFechas(String, String, WebRequest)}.</p>
+     *
+     * @return {@code 200 OK} con la grilla comprimida,
+     *         {@code 304 Not Modified} si la grilla no cambió desde el ETag recibido,
+     *         {@code 400 Bad Request} si las fechas son inválidas.
+     */
+    @GetMapping(value = "/estados", params = "formato=rle")
+    public ResponseEntity<?> obtenerEstadoCompacto(
+            @RequestParam String fechaDesde,
+            @RequestParam String fechaHasta,
+            WebRequest request) {
+        String etag = habitacionService.calcularEtagGrilla("rle");
+        if (etag != null && request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        try {
+            return conEtag(etag).body(habitacionService.obtenerEstadoCompacto(fechaDesde, fechaHasta));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error al obtener estado: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Igual que {@link #obtenerEstadoCompacto(String, String, WebRequest)}, seleccionado con
+     * {@code Accept: application/vnd.hotel.grilla-rle+json}.
+     */
+    @GetMapping(value = "/estados", produces = MEDIA_TYPE_GRILLA_RLE)
+    public ResponseEntity<?> obtenerEstadoCompactoPorAccept(
+            @RequestParam String fechaDesde,
+            @RequestParam String fechaHasta,
+            WebRequest request) {
+        return obtenerEstadoCompacto(fechaDesde, fechaHasta, request);
+    }
+
+    /**
+     * Suscripción a los cambios de estado de la grilla por Server-Sent Events.
+     *
+     * <p>GET /api/habitaciones/estados/stream</p>
+     *
+     * <p>Cada evento {@code cambio} trae, para una habitación, el estado nuevo de los días
+     * afectados; un evento {@code recargar} indica que hay que volver a pedir la grilla.</p>
+     *
+     * @return la conexión SSE, que queda abierta hasta que el cliente la cierra o vence.
+     */
+    @GetMapping(value = "/estados/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter suscribirCambiosDeEstado() {
+        return difusorEstadosHabitacion.suscribir();
+    }
+
+    /**
+     * Estado de las habitaciones en streaming (NDJSON): cada línea es la fila de una habitación,
+     * con el mismo formato que {@link #obtenerEstadoPorFechas(String, String, WebRequest)}. Las filas se
+     * calculan por bloques de habitaciones y se escriben bloque a bloque; ninguna conexión a la base
+     * queda tomada mientras el cliente lee (ver {@link HabitacionService#recorrerEstadoPorFechas}).
+     *
+     * <p>GET /api/habitaciones/estados?fechaDesde=...&fechaHasta=...&formato=ndjson
+     * o con {@code Accept: application/x-ndjson}</p>
+     *
+     * @return {@code 200 OK} con el cuerpo en streaming,
+     *         {@code 400 Bad Request} si las fechas son inválidas.
+     */
+    @GetMapping(value = "/estados", params = "formato=ndjson")
+    public ResponseEntity<?> obtenerEstadoStreaming(
+            @RequestParam String fechaDesde,
+            @RequestParam String fechaHasta) {
+        LocalDate desde;
+        LocalDate hasta;
+        try {
+            desde = LocalDate.parse(fechaDesde);
+            hasta = LocalDate.parse(fechaHasta);
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().body("Error al obtener estado: " + e.getMessage());
+        }
+        if (hasta.isBefore(desde)) {
+            return ResponseEntity.badRequest().body("Error al obtener estado: la fecha hasta es anterior a la fecha desde.");
+        }
+
+        // Sin AUTO_CLOSE_TARGET Jackson no cierra la respuesta después de cada línea
+        ObjectWriter escritor = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        StreamingResponseBody cuerpo = salida -> habitacionService.recorrerEstadoPorFechas(desde, hasta, fila -> {
+            try {
+                escritor.writeValue(salida, fila);
+                salida.write(SALTO_LINEA);
+                salida.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(MEDIA_TYPE_NDJSON))
+                .body(cuerpo);
+    }
+
+    /**
+     * Igual que {@link #obtenerEstadoStreaming(String, String)}, seleccionado con
+     * {@code Accept: application/x-ndjson}.
+     */
+    @GetMapping(value = "/estados", produces = MEDIA_TYPE_NDJSON)
+    public ResponseEntity<?> obtenerEstadoStreamingPorAccept(
+            @RequestParam String fechaDesde,
+            @RequestParam String fechaHasta) {
+        return obtenerEstadoStreaming(fechaDesde, fechaHasta);
+    }
+
+    /**
+     * Respuesta 200 con el ETag de la grilla (si hay). La misma URL sirve JSON o tramos según
+     * {@code Accept}, así que las cachés intermedias deben distinguir por ese encabezado.
+     */
+    private ResponseEntity.BodyBuilder conEtag(String etag) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT);
+        return etag != null ? builder.eTag(etag) : builder;
+    }
+}
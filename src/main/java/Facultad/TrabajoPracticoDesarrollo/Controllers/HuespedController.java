@@ -2,14 +2,25 @@ package Facultad.TrabajoPracticoDesarrollo.Controllers;
 
 import Facultad.TrabajoPracticoDesarrollo.DTOs.DtoHuesped;
 import Facultad.TrabajoPracticoDesarrollo.DTOs.DtoHuespedBusqueda;
+import Facultad.TrabajoPracticoDesarrollo.DTOs.DtoReporteImportacion;
+import Facultad.TrabajoPracticoDesarrollo.DTOs.DtoTrabajoFusion;
 import Facultad.TrabajoPracticoDesarrollo.Dominio.Huesped;
+import Facultad.TrabajoPracticoDesarrollo.Services.ExportadorHuespedes;
+import Facultad.TrabajoPracticoDesarrollo.Services.FusionHuespedes;
 import Facultad.TrabajoPracticoDesarrollo.Services.HuespedService;
+import Facultad.TrabajoPracticoDesarrollo.Services.ImportadorHuespedes;
 import Facultad.TrabajoPracticoDesarrollo.Utils.Mapear.MapearHuesped;
+import Facultad.TrabajoPracticoDesarrollo.Utils.Paginacion.Pagina;
 import Facultad.TrabajoPracticoDesarrollo.enums.TipoDocumento;
 import jakarta.validation.Valid; // Importante
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -21,57 +32,87 @@ import java.util.List;
  * - buscar huéspedes por criterios,
  * - verificar existencia por tipo y número de documento,
  * - crear, modificar y borrar huéspedes,
+ * - importar huéspedes en forma masiva (NDJSON o CSV),
+ * - exportar el padrón completo de huéspedes (NDJSON o CSV),
+ * - consultar y reintentar las fusiones de huéspedes en segundo plano,
  * - endpoint de prueba para verificar que el controller está activo.</p>
  *
  * <p>Se permite acceso desde cualquier origen mediante CORS.</p>
  */
 @RestController//Declarado como API, le dice a Spring que atiende pedidos web
 @RequestMapping("/api/huespedes")
-@CrossOrigin(origins = "*") // Permite peticiones desde cualquier Frontend (React/Angular/Postman)
+@CrossOrigin(origins = "*", exposedHeaders = {HuespedController.ENCABEZADO_SIGUIENTE, HttpHeaders.LOCATION}) // Permite peticiones desde cualquier Frontend (React/Angular/Postman)
 public class HuespedController {
 
+    /** Encabezado con el token de la página siguiente en {@code POST /buscar}. */
+    public static final String ENCABEZADO_SIGUIENTE = "X-Siguiente-Pagina";
+
     //Aca le decimos a Spring que necesitamos un HuespedService para trabajar
     private final HuespedService huespedService;
+    private final ImportadorHuespedes importadorHuespedes;
+    private final ExportadorHuespedes exportadorHuespedes;
+    private final FusionHuespedes fusionHuespedes;
 
     /**
      * Construye el controlador inyectando el servicio de huéspedes.
      *
-     * @param huespedService servicio que contiene la lógica de negocio para huéspedes
+     * @param huespedService      servicio que contiene la lógica de negocio para huéspedes
+     * @param importadorHuespedes servicio de importación masiva de huéspedes
+     * @param exportadorHuespedes servicio de exportación del padrón de huéspedes
+     * @param fusionHuespedes     servicio de fusiones de huéspedes en segundo plano
      */
-    public HuespedController(HuespedService huespedService) {
+    public HuespedController(HuespedService huespedService, ImportadorHuespedes importadorHuespedes,
+                             ExportadorHuespedes exportadorHuespedes, FusionHuespedes fusionHuespedes) {
         this.huespedService = huespedService;
+        this.importadorHuespedes = importadorHuespedes;
+        this.exportadorHuespedes = exportadorHuespedes;
+        this.fusionHuespedes = fusionHuespedes;
     }
 
 
     /**
-     * Busca huéspedes según criterios opcionales.
+     * Busca huéspedes según criterios opcionales, de a una página por vez.
      *
      * <p>Recibe un {@link DtoHuespedBusqueda} en el cuerpo de la petición. Si el cuerpo es {@code null},
      * se consideran criterios por defecto (todas las coincidencias).</p>
      *
+     * <p>Si hay más resultados, la respuesta trae el encabezado {@value #ENCABEZADO_SIGUIENTE}
+     * con el token a enviar como {@code cursor} para pedir la página siguiente.</p>
+     *
      * @param criterios criterios de búsqueda (opcional)
+     * @param cursor    token de continuación de la página anterior (opcional)
+     * @param limite    tamaño de página (opcional, máximo {@link HuespedService#TAMANIO_PAGINA_MAXIMO})
      * @return {@code 200 OK} con la lista de {@link DtoHuesped} que cumplen los criterios,
+     *         {@code 400 Bad Request} si el cursor es inválido,
      *         o {@code 500 Internal Server Error} en caso de error inesperado.
      */
     @PostMapping("/buscar")
-    public ResponseEntity<List<DtoHuesped>> buscarHuespedes(@RequestBody(required = false) DtoHuespedBusqueda criterios) {
+    public ResponseEntity<List<DtoHuesped>> buscarHuespedes(@RequestBody(required = false) DtoHuespedBusqueda criterios,
+                                                            @RequestParam(required = false) String cursor,
+                                                            @RequestParam(required = false) Integer limite) {
         try {
 
             if (criterios == null) {
                 criterios = new DtoHuespedBusqueda();
             }
 
-            List<Huesped> listaEntidades = huespedService.buscarHuespedes(criterios);
+            Pagina<Huesped> pagina = huespedService.buscarHuespedes(criterios, cursor, limite);
 
-            // 2. Controller convierte a DTOs (Falta este paso)
+            // 2. Controller convierte a DTOs
             List<DtoHuesped> dtos = new ArrayList<>();
-            for (Huesped h : listaEntidades) {
+            for (Huesped h : pagina.getElementos()) {
                 dtos.add(MapearHuesped.mapearEntidadADto(h));
             }
 
-            // 3. Controller devuelve DTOs al Front
-            return ResponseEntity.ok(dtos);
+            // 3. Controller devuelve DTOs al Front (y el token de la página siguiente, si hay)
+            ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok();
+            if (pagina.getSiguiente() != null) {
+                respuesta.header(ENCABEZADO_SIGUIENTE, pagina.getSiguiente());
+            }
+            return respuesta.body(dtos);
 
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.internalServerError().build();
@@ -160,6 +201,61 @@ public class HuespedController {
         }
     }
 
+    /**
+     * Importa huéspedes en forma masiva desde un archivo NDJSON (un {@link DtoHuesped} por línea)
+     * o CSV con encabezado, enviado como cuerpo de la petición.
+     *
+     * <p>El archivo se procesa a medida que llega, así que puede tener cientos de miles de filas.
+     * Las filas válidas se dan de alta o se actualizan; las inválidas se informan en el reporte.</p>
+     *
+     * @param cuerpo       contenido del archivo
+     * @param tipoContenido {@code application/x-ndjson} o {@code text/csv}
+     * @return {@code 200 OK} con el {@link DtoReporteImportacion},
+     *         o {@code 500 Internal Server Error} si falla la lectura.
+     */
+    @PostMapping(value = "/importar", consumes = {"application/x-ndjson", "text/csv"})
+    public ResponseEntity<?> importarHuespedes(InputStream cuerpo,
+                                               @RequestHeader(HttpHeaders.CONTENT_TYPE) String tipoContenido) {
+        try {
+            ImportadorHuespedes.Formato formato = tipoContenido.startsWith("text/csv")
+                    ? ImportadorHuespedes.Formato.CSV : ImportadorHuespedes.Formato.NDJSON;
+            DtoReporteImportacion reporte = importadorHuespedes.importar(cuerpo, formato);
+            return ResponseEntity.ok(reporte);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.internalServerError().body("Error en la importación: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Exporta todos los huéspedes con su dirección, teléfonos, emails y ocupaciones.
+     *
+     * <p>La respuesta se escribe a medida que se lee la base (ver {@link ExportadorHuespedes}),
+     * por lo que no tiene {@code Content-Length}. Si la exportación falla a mitad de camino la
+     * conexión se corta y el archivo queda incompleto.</p>
+     *
+     * @param formato {@code ndjson} (por defecto) o {@code csv}; el CSV se puede volver a importar
+     * @return {@code 200 OK} con el archivo como adjunto,
+     *         o {@code 400 Bad Request} si el formato no es válido.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<?> exportarHuespedes(@RequestParam(defaultValue = "ndjson") String formato) {
+        ImportadorHuespedes.Formato elegido;
+        try {
+            elegido = ImportadorHuespedes.Formato.valueOf(formato.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Formato inválido: " + formato + " (se acepta ndjson o csv)");
+        }
+
+        StreamingResponseBody cuerpo = salida -> exportadorHuespedes.exportar(salida, elegido);
+        boolean csv = elegido == ImportadorHuespedes.Formato.CSV;
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(csv ? "text/csv;charset=UTF-8" : "application/x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"huespedes." + (csv ? "csv" : "ndjson") + "\"")
+                .body(cuerpo);
+    }
+
     /**
      * Endpoint simple de verificación del controlador.
      *
@@ -176,11 +272,17 @@ public class HuespedController {
      *
      * <p>Valida el DTO recibido; si hay errores de negocio devuelve {@code 400 Bad Request} con detalle.</p>
      *
+     * <p>Si el nuevo documento ya pertenece a otro huésped (fusión), el destino se actualiza en el
+     * momento y la migración del historial queda programada: la respuesta es {@code 202 Accepted}
+     * con el trabajo y el encabezado {@code Location} apuntando a {@code GET /fusiones/{id}}.</p>
+     *
      * @param tipo tipo de documento del huésped a modificar
      * @param nro número de documento del huésped a modificar
      * @param dtoNuevo DTO validado con los nuevos datos
      * @return {@code 200 OK} con mensaje de éxito si la modificación fue correcta,
+     *         {@code 202 Accepted} con el {@link DtoTrabajoFusion} si se programó una fusión,
      *         {@code 400 Bad Request} con errores si la validación de negocio falla,
+     *         {@code 409 Conflict} si alguno de los huéspedes está en medio de otra fusión,
      *         {@code 400 Bad Request} o {@code 500 Internal Server Error} en caso de error.
      */
     @PutMapping("/modificar/{tipo}/{nro}")
@@ -196,10 +298,17 @@ public class HuespedController {
             }
 
             // 2. Ejecutar modificación
-            huespedService.modificarHuesped(tipo, nro, dtoNuevo);
+            DtoTrabajoFusion fusion = huespedService.modificarHuesped(tipo, nro, dtoNuevo);
+            if (fusion != null) {
+                return ResponseEntity.accepted()
+                        .header(HttpHeaders.LOCATION, "/api/huespedes/fusiones/" + fusion.getIdFusion())
+                        .body(fusion);
+            }
 
             return ResponseEntity.ok("✅ Huésped modificado correctamente");
 
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error al modificar: " + e.getMessage());
         }
@@ -220,6 +329,9 @@ public class HuespedController {
             huespedService.darDeBajaHuesped(tipo, nro);
             // Mensaje de éxito
             return ResponseEntity.ok("✅ Los datos del huésped han sido eliminados del sistema.");
+        } catch (IllegalStateException e) {
+            // Está en medio de una fusión
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
         } catch (RuntimeException e) {
             // Caso de error lógico (se alojó en algun momento o tiene facturas asociadas)
             return ResponseEntity.badRequest().body(e.getMessage());
@@ -228,4 +340,37 @@ public class HuespedController {
             return ResponseEntity.internalServerError().body("No se pudo eliminar: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Estado y avance de una fusión de huéspedes (CU10).
+     *
+     * @param id identificador del trabajo de fusión
+     * @return {@code 200 OK} con el {@link DtoTrabajoFusion}, o {@code 404 Not Found} si no existe
+     */
+    @GetMapping("/fusiones/{id}")
+    public ResponseEntity<?> consultarFusion(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(fusionHuespedes.consultar(id));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        }
+    }
+
+    /**
+     * Vuelve a encolar una fusión fallida; sigue sin repetir lo ya migrado.
+     *
+     * @param id identificador del trabajo de fusión
+     * @return {@code 202 Accepted} con el trabajo, {@code 409 Conflict} si no está fallida
+     *         o {@code 400 Bad Request} en caso de error.
+     */
+    @PostMapping("/fusiones/{id}/reintentar")
+    public ResponseEntity<?> reintentarFusion(@PathVariable Long id) {
+        try {
+            return ResponseEntity.accepted().body(fusionHuespedes.reintentar(id));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+}
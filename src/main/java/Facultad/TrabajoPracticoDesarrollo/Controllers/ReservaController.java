@@ -1,14 +1,17 @@
 package Facultad.TrabajoPracticoDesarrollo.Controllers;
 
 import Facultad.TrabajoPracticoDesarrollo.DTOs.DtoReserva;
+import Facultad.TrabajoPracticoDesarrollo.DTOs.DtoReservaCancelable;
+import Facultad.TrabajoPracticoDesarrollo.DTOs.DtoResultadoCancelacion;
+import Facultad.TrabajoPracticoDesarrollo.Excepciones.ReservaSuperpuestaException;
 import Facultad.TrabajoPracticoDesarrollo.Services.EstadiaService;
 import Facultad.TrabajoPracticoDesarrollo.Services.ReservaService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
-import java.util.Map;
 import java.util.Date;
 import java.util.List;
 
@@ -90,7 +93,8 @@ public class ReservaController {
      * <p>Recibe una lista JSON de {@link DtoReserva} en el {@code RequestBody}.</p>
      *
      * @param listaReservas lista de reservas a crear
-     * @return {@code 200 OK} con mensaje de éxito, o {@code 400 Bad Request}
+     * @return {@code 200 OK} con mensaje de éxito, {@code 409 Conflict} si alguna habitación
+     *         ya está reservada en esas fechas, o {@code 400 Bad Request}
      *         con el detalle del error si falla la operación.
      */
     @PostMapping("/crear")
@@ -99,6 +103,8 @@ public class ReservaController {
             // Pasamos la lista completa al Service
             reservaService.crearReservas(listaReservas);
             return ResponseEntity.ok("Reservas creadas con éxito");
+        } catch (ReservaSuperpuestaException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Error: " + e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error: " + e.getMessage());
         }
@@ -141,7 +147,7 @@ public class ReservaController {
      *
      * @param apellido apellido del huésped (obligatorio)
      * @param nombre nombre del huésped (opcional)
-     * @return {@code 200 OK} con la lista de {@link DtoReserva} que coinciden,
+     * @return {@code 200 OK} con la lista de {@link DtoReservaCancelable} que coinciden,
      *         o {@code 400 Bad Request} si ocurre un error durante la búsqueda.
      */
     @GetMapping("/buscar-huesped")
@@ -150,8 +156,7 @@ public class ReservaController {
             @RequestParam(required = false) String nombre
     ) {
         try {
-            // Ahora recibimos una lista de Mapas, no de DTOs
-            List<Map<String, Object>> resultado = reservaService.buscarReservasPorHuesped(apellido, nombre);
+            List<DtoReservaCancelable> resultado = reservaService.buscarReservasPorHuesped(apellido, nombre);
             return ResponseEntity.ok(resultado);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error en la búsqueda: " + e.getMessage());
@@ -164,13 +169,15 @@ public class ReservaController {
      * <p>Recibe una lista JSON de enteros con los IDs de reservas a cancelar.</p>
      *
      * @param idsReservas lista de IDs de reservas a cancelar
-     * @return {@code 200 OK} con mensaje de éxito, o {@code 400 Bad Request} con el error.
+     * @return {@code 200 OK} con un {@link DtoResultadoCancelacion} que indica qué ids se
+     *         cancelaron, cuáles ya estaban canceladas y cuáles no existen,
+     *         o {@code 400 Bad Request} con el error.
      */
     @PostMapping("/cancelar")
     public ResponseEntity<?> cancelarReservas(@RequestBody List<Integer> idsReservas) {
         try {
-            reservaService.cancelarReservas(idsReservas);
-            return ResponseEntity.ok("Reservas canceladas correctamente.");
+            DtoResultadoCancelacion resultado = reservaService.cancelarReservas(idsReservas);
+            return ResponseEntity.ok(resultado);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error al cancelar: " + e.getMessage());
         }
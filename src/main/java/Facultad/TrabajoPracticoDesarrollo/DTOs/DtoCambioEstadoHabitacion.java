@@ -0,0 +1,21 @@
+package Facultad.TrabajoPracticoDesarrollo.DTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Delta de la grilla enviado por {@code /api/habitaciones/estados/stream}: el estado
+ * nuevo de cada día afectado de una habitación. {@code version} es la versión del
+ * calendario luego del cambio (la misma que viaja en el ETag de la grilla).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DtoCambioEstadoHabitacion {
+    private String numero;
+    private long version;
+    private List<DtoEstadoDia> dias;
+}
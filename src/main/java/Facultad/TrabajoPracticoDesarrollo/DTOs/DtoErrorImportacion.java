@@ -0,0 +1,19 @@
+package Facultad.TrabajoPracticoDesarrollo.DTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Fila rechazada en una importación masiva de huéspedes.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DtoErrorImportacion {
+    private int fila;          // Número de línea en el archivo (1 = primera línea)
+    private String documento;  // "TIPO NUMERO" si se pudo leer, null si no
+    private List<String> errores;
+}
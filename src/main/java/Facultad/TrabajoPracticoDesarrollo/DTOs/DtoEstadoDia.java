@@ -0,0 +1,18 @@
+package Facultad.TrabajoPracticoDesarrollo.DTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Estado de una habitación en un día, tal como lo muestra la grilla del CU05.
+ * {@code idReferencia} es el id de la estadía (OCUPADA) o de la reserva (RESERVADA).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DtoEstadoDia {
+    private String fecha;
+    private String estado;
+    private Integer idReferencia;
+}
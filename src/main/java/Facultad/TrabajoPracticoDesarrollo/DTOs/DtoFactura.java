@@ -37,6 +37,10 @@ public class DtoFactura {
     @NotNull
     private TipoFactura tipoFactura;
 
+    /** Punto de venta que emite (ej: {@code "0005"}); si falta se usa el configurado por defecto. */
+    @Pattern(regexp = "^\\d{4}$", message = "El punto de venta debe tener 4 dígitos")
+    private String puntoVenta;
+
     @NotNull
     @PositiveOrZero
     private Double importeTotal;
@@ -71,6 +75,7 @@ public class DtoFactura {
         this.fechaVencimiento = builder.fechaVencimiento;
         this.estadoFactura = builder.estadoFactura;
         this.tipoFactura = builder.tipoFactura;
+        this.puntoVenta = builder.puntoVenta;
         this.importeTotal = builder.importeTotal;
         this.importeNeto = builder.importeNeto;
         this.iva = builder.iva;
@@ -79,6 +84,35 @@ public class DtoFactura {
         this.dtoNotaDeCredito = builder.dtoNotaDeCredito;
     }
 
+    /**
+     * Constructor para armar la factura directamente en la consulta ({@code SELECT new ...}),
+     * sin cargar la entidad, la estadía ni el responsable. La nota de crédito es opcional:
+     * si {@code numeroNotaCredito} es {@code null} no se arma.
+     */
+    public DtoFactura(String numeroFactura, Date fechaEmision, Date fechaVencimiento,
+                      EstadoFactura estadoFactura, TipoFactura tipoFactura,
+                      Double importeTotal, Double importeNeto, Double iva,
+                      Integer idEstadia, Integer idResponsable,
+                      Integer numeroNotaCredito, Double montoDevolucion) {
+        this.numeroFactura = numeroFactura;
+        this.fechaEmision = fechaEmision;
+        this.fechaVencimiento = fechaVencimiento;
+        this.estadoFactura = estadoFactura;
+        this.tipoFactura = tipoFactura;
+        this.importeTotal = importeTotal;
+        this.importeNeto = importeNeto;
+        this.iva = iva;
+        this.idEstadia = new DtoEstadiaSimple(idEstadia);
+        this.idResponsable = new DtoResponsableSimple();
+        this.idResponsable.setIdResponsable(idResponsable);
+        if (numeroNotaCredito != null) {
+            this.dtoNotaDeCredito = new DtoNotaDeCredito.Builder()
+                    .numero(numeroNotaCredito)
+                    .monto(montoDevolucion != null ? montoDevolucion : 0)
+                    .build();
+        }
+    }
+
     public DtoEstadiaSimple getIdEstadia() { return idEstadia; }
     public void setIdEstadia(DtoEstadiaSimple idEstadia) { this.idEstadia = idEstadia; }
 
@@ -96,6 +130,7 @@ public class DtoFactura {
         private Date fechaVencimiento;
         private EstadoFactura estadoFactura;
         private TipoFactura tipoFactura;
+        private String puntoVenta;
         private Double importeTotal;
         private Double importeNeto;
         private Double iva;
@@ -111,6 +146,7 @@ public class DtoFactura {
         public Builder fechaVencimiento(Date val) { fechaVencimiento = val; return this; }
         public Builder estado(EstadoFactura val) { estadoFactura = val; return this; }
         public Builder tipo(TipoFactura val) { tipoFactura = val; return this; }
+        public Builder puntoVenta(String val) { puntoVenta = val; return this; }
         public Builder importeTotal(Double val) { importeTotal = val; return this; }
         public Builder importeNeto(Double val) { importeNeto = val; return this; }
         public Builder iva(Double val) { iva = val; return this; }
@@ -0,0 +1,21 @@
+package Facultad.TrabajoPracticoDesarrollo.DTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Fila de {@link DtoGrillaCompacta}: datos de la habitación y sus tramos de estado.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DtoFilaGrillaCompacta {
+    private String numero;
+    private String tipoHabitacion;
+    private Integer capacidad;
+    private Float costoPorNoche;
+    private List<int[]> tramos;
+}
@@ -0,0 +1,28 @@
+package Facultad.TrabajoPracticoDesarrollo.DTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Grilla de "Estado de Habitaciones" (CU05) comprimida por tramos (run-length).
+ *
+ * <p>En lugar de un objeto por día, cada habitación trae una lista de tramos
+ * {@code [diaDesde, diaHasta, estado, idReferencia]} donde:
+ * <ul>
+ *   <li>{@code diaDesde}/{@code diaHasta}: desplazamiento (inclusive) respecto de {@link #desde}.</li>
+ *   <li>{@code estado}: índice dentro de {@link #estados}.</li>
+ *   <li>{@code idReferencia}: id de la estadía (OCUPADA) o de la reserva (RESERVADA); 0 si no aplica.</li>
+ * </ul></p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DtoGrillaCompacta {
+    private String desde;
+    private String hasta;
+    private List<String> estados;
+    private List<DtoFilaGrillaCompacta> habitaciones;
+}
@@ -0,0 +1,31 @@
+package Facultad.TrabajoPracticoDesarrollo.DTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Métricas de un filtro de existencia en memoria (huéspedes, cheques o tarjetas).
+ *
+ * <p>{@code respondidasSinBase} son las consultas que el filtro contestó "no existe" sin ir a
+ * la base de datos; {@code falsosPositivos} las que el filtro dejó pasar y la base contestó
+ * que no existía. La tasa observada es {@code falsosPositivos / (falsosPositivos + respondidasSinBase)};
+ * la estimada sale del llenado del filtro.</p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DtoMetricasFiltroExistencia {
+    private String espacio;
+    private boolean cargado;
+    private long elementos;
+    private long capacidad;
+    private int funcionesHash;
+    private long memoriaBytes;
+    private double tasaFalsosPositivosEstimada;
+    private double tasaFalsosPositivosObservada;
+    private long consultas;
+    private long respondidasSinBase;
+    private long falsosPositivos;
+    private String ultimaCarga;
+}
@@ -0,0 +1,23 @@
+package Facultad.TrabajoPracticoDesarrollo.DTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Métricas del inventario de habitaciones en memoria.
+ *
+ * <p>{@code aciertos} son las lecturas respondidas con la foto vigente y {@code fallos}
+ * las que tuvieron que ir a la base de datos porque no había foto cargada.</p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DtoMetricasInventario {
+    private long aciertos;
+    private long fallos;
+    private long recargas;
+    private long version;
+    private int habitaciones;
+    private String ultimaRecarga;
+}
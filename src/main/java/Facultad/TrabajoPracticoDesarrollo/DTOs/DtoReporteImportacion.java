@@ -0,0 +1,25 @@
+package Facultad.TrabajoPracticoDesarrollo.DTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resultado de una importación masiva de huéspedes.
+ *
+ * <p>{@code errores} guarda como máximo las primeras {@code hotel.importacion.max-errores}
+ * filas rechazadas (para no crecer con el archivo); {@code filasConError} las cuenta a todas.</p>
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DtoReporteImportacion {
+    private int filasLeidas;
+    private int importadas;
+    private int filasConError;
+    private boolean erroresTruncados;
+    private List<DtoErrorImportacion> errores = new ArrayList<>();
+}
@@ -0,0 +1,46 @@
+package Facultad.TrabajoPracticoDesarrollo.DTOs;
+
+import Facultad.TrabajoPracticoDesarrollo.enums.TipoHabitacion;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+/**
+ * Fila del listado de reservas activas para el CU06 (Cancelar Reserva).
+ *
+ * <p>Se arma directamente en la consulta ({@code SELECT new ...}) junto con la habitación
+ * y la estadía asociada, si la hay. {@code idEstadia} distinto de {@code null} indica que
+ * la reserva ya tuvo check-in.</p>
+ *
+ * <p>Mantiene la forma del JSON anterior: fechas y habitación se omiten si faltan, e
+ * {@code idEstadia} siempre viaja (en {@code null} si no hubo check-in).</p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DtoReservaCancelable {
+
+    private Integer idReserva;
+    private String apellidoHuespedResponsable;
+    private String nombreHuespedResponsable;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JsonFormat(pattern = "yyyy-MM-dd", timezone = "America/Argentina/Buenos_Aires")
+    private Date fechaDesde;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JsonFormat(pattern = "yyyy-MM-dd", timezone = "America/Argentina/Buenos_Aires")
+    private Date fechaHasta;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String idHabitacion;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private TipoHabitacion tipoHabitacion;
+
+    private Integer idEstadia;
+}
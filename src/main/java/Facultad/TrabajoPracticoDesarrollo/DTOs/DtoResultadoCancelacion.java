@@ -0,0 +1,22 @@
+package Facultad.TrabajoPracticoDesarrollo.DTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Resultado de una cancelación masiva de reservas (CU06).
+ *
+ * <p>Cada id pedido cae en exactamente una de las tres listas.</p>
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DtoResultadoCancelacion {
+    private String mensaje;
+    private List<Integer> canceladas;
+    private List<Integer> yaCanceladas; // Existían pero no estaban ACTIVAS (canceladas o terminadas)
+    private List<Integer> inexistentes;
+}
@@ -0,0 +1,36 @@
+package Facultad.TrabajoPracticoDesarrollo.DTOs;
+
+import Facultad.TrabajoPracticoDesarrollo.enums.EstadoFusion;
+import Facultad.TrabajoPracticoDesarrollo.enums.PasoFusion;
+import Facultad.TrabajoPracticoDesarrollo.enums.TipoDocumento;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+/**
+ * Estado de un trabajo de fusión de huéspedes (CU10), tal como lo consulta el front.
+ *
+ * <p>{@code porcentaje} sale de {@code filasMigradas / filasTotales}; las filas totales se
+ * cuentan al programar la fusión, así que puede quedar por debajo de 100 hasta que el
+ * trabajo pase a {@code COMPLETADA}.</p>
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DtoTrabajoFusion {
+    private Long idFusion;
+    private TipoDocumento tipoOrigen;
+    private String nroOrigen;
+    private TipoDocumento tipoDestino;
+    private String nroDestino;
+    private EstadoFusion estado;
+    private PasoFusion paso;
+    private long filasTotales;
+    private long filasMigradas;
+    private int porcentaje;
+    private String error;
+    private Date creadaEn;
+    private Date actualizadaEn;
+}
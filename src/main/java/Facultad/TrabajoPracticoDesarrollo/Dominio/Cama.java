@@ -11,7 +11,9 @@ import lombok.Setter;
 public class Cama {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Secuencia con asignación en bloques (optimizador pooled): permite batch de inserts
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cama_seq")
+    @SequenceGenerator(name = "cama_seq", sequenceName = "cama_seq", allocationSize = 50)
     @Column(name = "id_cama")
     private Integer idCama;
 
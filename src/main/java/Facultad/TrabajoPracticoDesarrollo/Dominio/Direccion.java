@@ -1,12 +1,14 @@
 package Facultad.TrabajoPracticoDesarrollo.Dominio;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
 import lombok.Getter;
 import lombok.Setter;
 
 @Entity
 @Table(name = "direccion")
 @Getter @Setter
+@BatchSize(size = 200) // Las direcciones de una página de huéspedes se cargan juntas
 public class Direccion {
 
     @Id
@@ -14,7 +14,9 @@ import java.util.List;
 public class Estadia {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Secuencia con asignación en bloques (optimizador pooled): permite batch de inserts
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "estadia_seq")
+    @SequenceGenerator(name = "estadia_seq", sequenceName = "estadia_seq", allocationSize = 50)
     @Column(name = "id_estadia")
     private Integer idEstadia;
 
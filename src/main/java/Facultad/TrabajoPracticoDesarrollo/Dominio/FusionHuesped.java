@@ -0,0 +1,66 @@
+package Facultad.TrabajoPracticoDesarrollo.Dominio;
+
+import Facultad.TrabajoPracticoDesarrollo.enums.EstadoFusion;
+import Facultad.TrabajoPracticoDesarrollo.enums.PasoFusion;
+import Facultad.TrabajoPracticoDesarrollo.enums.TipoDocumento;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.Date;
+
+/**
+ * Trabajo de fusión de un huésped (origen) en otro (destino), ejecutado en segundo plano
+ * por {@code FusionHuespedes}. El paso y las filas migradas se actualizan junto con cada lote.
+ */
+@Entity
+@Table(name = "fusion_huesped")
+@Getter @Setter
+public class FusionHuesped {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id_fusion")
+    private Long idFusion;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "tipo_origen")
+    private TipoDocumento tipoOrigen;
+
+    @Column(name = "nro_origen")
+    private String nroOrigen;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "tipo_destino")
+    private TipoDocumento tipoDestino;
+
+    @Column(name = "nro_destino")
+    private String nroDestino;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "estado")
+    private EstadoFusion estado;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "paso")
+    private PasoFusion paso;
+
+    @Column(name = "filas_totales")
+    private long filasTotales;
+
+    @Column(name = "filas_migradas")
+    private long filasMigradas;
+
+    @Column(name = "error")
+    private String error;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "creada_en")
+    private Date creadaEn;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "actualizada_en")
+    private Date actualizadaEn;
+
+    public FusionHuesped() {}
+}
@@ -3,6 +3,7 @@ package Facultad.TrabajoPracticoDesarrollo.Dominio;
 import Facultad.TrabajoPracticoDesarrollo.enums.PosIva;
 import Facultad.TrabajoPracticoDesarrollo.enums.TipoDocumento;
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -51,7 +52,10 @@ public class Huesped {
     private Direccion direccion;
 
     // --- LISTAS SATÉLITE ---
+    // @BatchSize: al recorrer una página de búsqueda, cada lista se carga para hasta 200
+    // huéspedes en una sola consulta (200 = tamaño máximo de página de HuespedService)
     @ElementCollection
+    @BatchSize(size = 200)
     @CollectionTable(
             name = "telefono_huesped",
             joinColumns = {
@@ -63,6 +67,7 @@ public class Huesped {
     private List<Long> telefono = new ArrayList<>();
 
     @ElementCollection
+    @BatchSize(size = 200)
     @CollectionTable(
             name = "email_huesped",
             joinColumns = {
@@ -74,6 +79,7 @@ public class Huesped {
     private List<String> email = new ArrayList<>();
 
     @ElementCollection
+    @BatchSize(size = 200)
     @CollectionTable(
             name = "ocupacion_huesped",
             joinColumns = {
@@ -10,7 +10,9 @@ import lombok.Setter;
 public class NotaDeCredito {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Secuencia con asignación en bloques (optimizador pooled): permite batch de inserts
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "nota_de_credito_seq")
+    @SequenceGenerator(name = "nota_de_credito_seq", sequenceName = "nota_de_credito_seq", allocationSize = 50)
     @Column(name = "numero_nota_credito")
     private Integer numeroNotaCredito; // Integer para coincidir con SERIAL de BD
 
@@ -15,7 +15,9 @@ import java.util.List;
 public class Pago {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Secuencia con asignación en bloques (optimizador pooled): permite batch de inserts
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pago_seq")
+    @SequenceGenerator(name = "pago_seq", sequenceName = "pago_seq", allocationSize = 50)
     @Column(name = "id_pago")
     private Integer idPago;
 
@@ -14,7 +14,9 @@ import java.util.Date;
 public class Reserva {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Secuencia con asignación en bloques (optimizador pooled): permite batch de inserts
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reserva_seq")
+    @SequenceGenerator(name = "reserva_seq", sequenceName = "reserva_seq", allocationSize = 50)
     @Column(name = "id_reserva")
     private Integer idReserva;
 
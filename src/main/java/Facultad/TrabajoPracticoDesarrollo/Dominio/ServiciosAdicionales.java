@@ -13,7 +13,9 @@ import java.util.Date;
 public class ServiciosAdicionales {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Secuencia con asignación en bloques (optimizador pooled): permite batch de inserts
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "servicios_adicionales_seq")
+    @SequenceGenerator(name = "servicios_adicionales_seq", sequenceName = "servicios_adicionales_seq", allocationSize = 50)
     @Column(name = "id_servicio_adicional")
     private Integer id;
 
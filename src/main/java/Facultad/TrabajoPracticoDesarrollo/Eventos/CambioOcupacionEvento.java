@@ -0,0 +1,66 @@
+package Facultad.TrabajoPracticoDesarrollo.Eventos;
+
+import Facultad.TrabajoPracticoDesarrollo.Utils.Ocupacion.IntervaloOcupacion;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Evento de dominio publicado cuando una transacción modifica la ocupación de
+ * habitaciones (alta/cancelación de reservas, check-in, check-out).
+ *
+ * <p>Se publica con {@link org.springframework.context.ApplicationEventPublisher}
+ * dentro de la transacción y los consumidores lo procesan recién después del
+ * commit, por lo que un rollback nunca llega a verse reflejado.</p>
+ */
+@Getter
+public class CambioOcupacionEvento {
+
+    public enum Accion { ALTA, BAJA }
+
+    /**
+     * Un cambio puntual: se agrega o se quita un intervalo de la habitación indicada.
+     * Para las bajas alcanza con el estado y el id del intervalo.
+     */
+    @Getter
+    public static class Cambio {
+        private final Accion accion;
+        private final String numeroHabitacion;
+        private final IntervaloOcupacion intervalo;
+
+        private Cambio(Accion accion, String numeroHabitacion, IntervaloOcupacion intervalo) {
+            this.accion = accion;
+            this.numeroHabitacion = numeroHabitacion;
+            this.intervalo = intervalo;
+        }
+
+        public static Cambio alta(String numeroHabitacion, IntervaloOcupacion intervalo) {
+            return new Cambio(Accion.ALTA, numeroHabitacion, intervalo);
+        }
+
+        public static Cambio baja(String numeroHabitacion, IntervaloOcupacion intervalo) {
+            return new Cambio(Accion.BAJA, numeroHabitacion, intervalo);
+        }
+    }
+
+    private final List<Cambio> cambios;
+
+    /** Si es {@code true}, los consumidores deben descartar su estado y recargarlo desde la BD. */
+    private final boolean recargaCompleta;
+
+    private CambioOcupacionEvento(List<Cambio> cambios, boolean recargaCompleta) {
+        this.cambios = cambios;
+        this.recargaCompleta = recargaCompleta;
+    }
+
+    public static CambioOcupacionEvento de(List<Cambio> cambios) {
+        return new CambioOcupacionEvento(List.copyOf(cambios), false);
+    }
+
+    /**
+     * Para operaciones masivas cuyo detalle no se conoce (p. ej. un DELETE por huésped).
+     */
+    public static CambioOcupacionEvento recargaCompleta() {
+        return new CambioOcupacionEvento(List.of(), true);
+    }
+}
@@ -0,0 +1,19 @@
+package Facultad.TrabajoPracticoDesarrollo.Eventos;
+
+import lombok.Getter;
+
+/**
+ * Evento publicado al dar de alta un trabajo de fusión de huéspedes.
+ *
+ * <p>Se consume recién después del commit: el hilo de fondo solo arranca cuando la fila
+ * del trabajo (y la actualización del huésped destino) ya están confirmadas.</p>
+ */
+@Getter
+public class FusionProgramadaEvento {
+
+    private final Long idFusion;
+
+    public FusionProgramadaEvento(Long idFusion) {
+        this.idFusion = idFusion;
+    }
+}
@@ -0,0 +1,27 @@
+package Facultad.TrabajoPracticoDesarrollo.Excepciones;
+
+/**
+ * Excepción de negocio que indica que una reserva se superpone con otra reserva activa
+ * de la misma habitación.
+ *
+ * <p>Se lanza tanto cuando la validación previa encuentra el conflicto como cuando lo
+ * detecta la base de datos (restricción {@code reserva_sin_superposicion}) porque otra
+ * transacción reservó la misma habitación al mismo tiempo.</p>
+ */
+public class ReservaSuperpuestaException extends Exception {
+
+    /**
+     * @param message mensaje para mostrar al usuario
+     */
+    public ReservaSuperpuestaException(String message) {
+        super(message);
+    }
+
+    /**
+     * @param message mensaje para mostrar al usuario
+     * @param cause   error original de la base de datos
+     */
+    public ReservaSuperpuestaException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -60,4 +60,45 @@ public interface EstadiaHuespedRepository extends JpaRepository<EstadiaHuesped,
             @Param("nuevoTipo") String nuevoTipo,
             @Param("nuevoNro") String nuevoNro
     );
-}
\ No newline at end of file
+
+    /**
+     * Antes de migrar por lotes: en las estadías donde ya están los dos huéspedes, el destino
+     * pasa a ser responsable si el viejo lo era, y se borra la fila del viejo (si no, el UPDATE
+     * chocaría con la clave primaria).
+     *
+     * @return filas del huésped viejo borradas
+     */
+    @Modifying
+    @Query(value = "WITH compartidas AS (" +
+            "  SELECT v.id_estadia, v.\"EsResponsable\" FROM estadia_huesped v " +
+            "  WHERE v.tipo_documento = :viejoTipo AND v.nro_documento = :viejoNro AND EXISTS (" +
+            "    SELECT 1 FROM estadia_huesped d WHERE d.id_estadia = v.id_estadia " +
+            "    AND d.tipo_documento = :nuevoTipo AND d.nro_documento = :nuevoNro)), " +
+            "responsable AS (" +
+            "  UPDATE estadia_huesped d SET \"EsResponsable\" = c.\"EsResponsable\" FROM compartidas c " +
+            "  WHERE d.id_estadia = c.id_estadia AND CAST(c.\"EsResponsable\" AS TEXT) = 'SI' " +
+            "  AND d.tipo_documento = :nuevoTipo AND d.nro_documento = :nuevoNro) " +
+            "DELETE FROM estadia_huesped v USING compartidas c " +
+            "WHERE v.id_estadia = c.id_estadia AND v.tipo_documento = :viejoTipo AND v.nro_documento = :viejoNro",
+            nativeQuery = true)
+    int borrarCompartidasParaFusion(
+            @Param("viejoTipo") String viejoTipo, @Param("viejoNro") String viejoNro,
+            @Param("nuevoTipo") String nuevoTipo, @Param("nuevoNro") String nuevoNro
+    );
+
+    /**
+     * Versión por lotes de {@link #migrarHistorialEstadias}: migra como mucho {@code limite}
+     * filas y devuelve cuántas migró. Requiere haber llamado antes a {@link #borrarCompartidasParaFusion}.
+     */
+    @Modifying
+    @Query(value = "UPDATE estadia_huesped SET tipo_documento = :nuevoTipo, nro_documento = :nuevoNro " +
+            "WHERE (id_estadia, tipo_documento, nro_documento) IN (" +
+            "  SELECT id_estadia, tipo_documento, nro_documento FROM estadia_huesped " +
+            "  WHERE tipo_documento = :viejoTipo AND nro_documento = :viejoNro LIMIT :limite)",
+            nativeQuery = true)
+    int migrarHistorialEstadiasLote(
+            @Param("viejoTipo") String viejoTipo, @Param("viejoNro") String viejoNro,
+            @Param("nuevoTipo") String nuevoTipo, @Param("nuevoNro") String nuevoNro,
+            @Param("limite") int limite
+    );
+}
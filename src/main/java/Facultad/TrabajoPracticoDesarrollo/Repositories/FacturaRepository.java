@@ -1,5 +1,6 @@
 package Facultad.TrabajoPracticoDesarrollo.Repositories;
 
+import Facultad.TrabajoPracticoDesarrollo.DTOs.DtoFactura;
 import Facultad.TrabajoPracticoDesarrollo.Dominio.Factura;
 import Facultad.TrabajoPracticoDesarrollo.Dominio.ResponsablePago;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -46,6 +47,27 @@ public interface FacturaRepository extends JpaRepository<Factura, String> {
     @org.springframework.data.jpa.repository.Query("SELECT f FROM Factura f WHERE f.responsablePago.idResponsable = :idResponsable AND f.estadoFactura = Facultad.TrabajoPracticoDesarrollo.enums.EstadoFactura.PENDIENTE")
     List<Factura> buscarFacturasPendientesPorResponsable(Integer idResponsable);
 
+    /**
+     * Facturas {@code PENDIENTE} de todas las estadías de una habitación (CU16), en una sola
+     * consulta y ya como {@link DtoFactura}.
+     *
+     * <p>El filtro por estado va en la base: se recorren solo las facturas pendientes (índice
+     * parcial {@code factura_pendiente_estadia_idx}) y no todo el historial de estadías de la
+     * habitación. Responsable y estadía salen de las claves foráneas, sin cargar las entidades.</p>
+     *
+     * @param numeroHabitacion número de la habitación
+     * @return facturas pendientes ordenadas por fecha de emisión; lista vacía si no hay
+     */
+    @Query("SELECT new Facultad.TrabajoPracticoDesarrollo.DTOs.DtoFactura(" +
+            "f.numeroFactura, f.fechaEmision, f.fechaVencimiento, f.estadoFactura, f.tipoFactura, " +
+            "f.importeTotal, f.importeNeto, f.iva, e.idEstadia, f.responsablePago.idResponsable, " +
+            "nc.numeroNotaCredito, nc.montoDevolucion) " +
+            "FROM Factura f JOIN f.estadia e LEFT JOIN f.notaDeCredito nc " +
+            "WHERE e.habitacion.numero = :numeroHabitacion " +
+            "AND f.estadoFactura = Facultad.TrabajoPracticoDesarrollo.enums.EstadoFactura.PENDIENTE " +
+            "ORDER BY f.fechaEmision, f.numeroFactura")
+    List<DtoFactura> buscarPendientesPorHabitacion(@Param("numeroHabitacion") String numeroHabitacion);
+
 
     /**
      * Migra la asociación de facturas desde un responsable de pago original hacia un responsable destino.
@@ -82,12 +104,16 @@ public interface FacturaRepository extends JpaRepository<Factura, String> {
     boolean existsByNumeroFactura(String numeroFactura);
 
     /**
-     * Obtiene la factura con el mayor valor en {@code numeroFactura}.
-     *
-     * <p>Útil para determinar el último número de factura generado (p. ej. para secuenciar números).</p>
-     *
-     * @return la {@link Factura} con el número de factura más alto, o {@code null} si no hay facturas
+     * Versión por lotes de {@link #migrarFacturas} para la fusión en segundo plano: pasa como
+     * mucho {@code limite} facturas del responsable original al destino y devuelve cuántas pasó.
      */
-    Factura findTopByOrderByNumeroFacturaDesc();
-
-}
\ No newline at end of file
+    @Modifying
+    @Query(value = "UPDATE factura SET id_responsable = :idDestino WHERE numero_factura IN (" +
+            "SELECT numero_factura FROM factura WHERE id_responsable = :idOriginal LIMIT :limite)",
+            nativeQuery = true)
+    int migrarFacturasLote(
+            @Param("idOriginal") Integer idOriginal,
+            @Param("idDestino") Integer idDestino,
+            @Param("limite") int limite
+    );
+}
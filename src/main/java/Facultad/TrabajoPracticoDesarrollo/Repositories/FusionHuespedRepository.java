@@ -0,0 +1,60 @@
+package Facultad.TrabajoPracticoDesarrollo.Repositories;
+
+import Facultad.TrabajoPracticoDesarrollo.Dominio.FusionHuesped;
+import Facultad.TrabajoPracticoDesarrollo.enums.EstadoFusion;
+import Facultad.TrabajoPracticoDesarrollo.enums.PasoFusion;
+import Facultad.TrabajoPracticoDesarrollo.enums.TipoDocumento;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repositorio Spring Data JPA para los trabajos de fusión de huéspedes ({@link FusionHuesped}).
+ */
+@Repository
+public interface FusionHuespedRepository extends JpaRepository<FusionHuesped, Long> {
+
+    /** Trabajos a retomar al iniciar la aplicación (quedaron a medias por un reinicio o una caída). */
+    List<FusionHuesped> findByEstadoInOrderByIdFusion(Collection<EstadoFusion> estados);
+
+    /**
+     * Indica si el huésped participa (como origen o destino) de una fusión que todavía no terminó.
+     */
+    @Query("SELECT COUNT(f) > 0 FROM FusionHuesped f WHERE f.estado IN :estados AND " +
+            "((f.tipoOrigen = :tipo AND f.nroOrigen = :nro) OR (f.tipoDestino = :tipo AND f.nroDestino = :nro))")
+    boolean existeActivaPara(@Param("tipo") TipoDocumento tipo, @Param("nro") String nro,
+                             @Param("estados") Collection<EstadoFusion> estados);
+
+    /**
+     * Registra el avance de un lote. Se ejecuta en la misma transacción que el lote, así el
+     * paso guardado siempre coincide con lo que ya se migró.
+     */
+    @Modifying
+    @Query("UPDATE FusionHuesped f SET f.paso = :paso, f.filasMigradas = f.filasMigradas + :filas, " +
+            "f.actualizadaEn = CURRENT_TIMESTAMP WHERE f.idFusion = :id")
+    int registrarAvance(@Param("id") Long id, @Param("paso") PasoFusion paso, @Param("filas") long filas);
+
+    @Modifying
+    @Query("UPDATE FusionHuesped f SET f.estado = :estado, f.error = :error, " +
+            "f.actualizadaEn = CURRENT_TIMESTAMP WHERE f.idFusion = :id")
+    int cambiarEstado(@Param("id") Long id, @Param("estado") EstadoFusion estado, @Param("error") String error);
+
+    /**
+     * Filas del huésped a migrar (reservas, estadías y facturas como pagador), para informar el porcentaje.
+     */
+    @Query(value = "SELECT " +
+            "(SELECT COUNT(*) FROM reserva WHERE \"TipoDocumentoResponsable\" = :tipo AND \"NroDocumentoResponsable\" = :nro) + " +
+            "(SELECT COUNT(*) FROM estadia_huesped WHERE tipo_documento = :tipo AND nro_documento = :nro) + " +
+            "(SELECT COUNT(*) FROM factura f JOIN persona_fisica pf ON pf.id_responsable = f.id_responsable " +
+            " WHERE pf.tipo_documento = :tipo AND pf.nro_documento = :nro)",
+            nativeQuery = true)
+    long contarFilasAMigrar(@Param("tipo") String tipo, @Param("nro") String nro);
+
+    @Query(value = "SELECT COUNT(*) FROM factura WHERE id_responsable = :idResponsable", nativeQuery = true)
+    long contarFacturas(@Param("idResponsable") Integer idResponsable);
+}
@@ -2,8 +2,14 @@ package Facultad.TrabajoPracticoDesarrollo.Repositories;
 
 import Facultad.TrabajoPracticoDesarrollo.Dominio.Habitacion;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.List;
+
 /**
  * Repositorio Spring Data JPA para la entidad {@link Habitacion}.
  *
@@ -12,13 +18,70 @@ import org.springframework.stereotype.Repository;
  * de tipo {@code String}.</p>
  *
  * <p>Notas prácticas:
- * - No son necesarios métodos adicionales por ahora; {@link JpaRepository} ya
- *   expone métodos útiles como {@code findById(String)}, {@code findAll()},
- *   {@code save(...)} y {@code delete(...)}.
- * - Si en el futuro se requieren búsquedas específicas, pueden añadirse
- *   *query methods* siguiendo la convención de nombres o consultas con {@code @Query}.</p>
+ * - {@link JpaRepository} ya expone métodos útiles como {@code findById(String)},
+ *   {@code findAll()}, {@code save(...)} y {@code delete(...)}.
+ * - {@link #calcularGrillaEnBd(LocalDate, LocalDate, int, int)} es el motor SQL de la grilla del CU05.</p>
  */
 @Repository
 public interface HabitacionRepository extends JpaRepository<Habitacion, String> {
     // JpaRepository ya nos da findById(String numero) y findAll()
-}
\ No newline at end of file
+
+    /**
+     * Fila de {@link #calcularGrillaEnBd(LocalDate, LocalDate, int, int)}: estado de una habitación en un día.
+     */
+    interface EstadoDiaSql {
+        String getNumero();
+        String getTipoHabitacion();
+        Integer getCapacidad();
+        Float getCostoPorNoche();
+        Date getDia();
+        String getEstado();
+        Integer getIdEstadia();
+        Integer getIdReserva();
+        Date getReservaDesde();
+        Date getReservaHasta();
+    }
+
+    /**
+     * Calcula en Postgres la matriz habitación x día del rango {@code [desde, hasta]}.
+     *
+     * <p>Cruza {@code habitacion} con {@code generate_series} y resuelve cada celda con
+     * dos LEFT JOIN LATERAL (estadía y reserva activa) aplicando la misma prioridad que la
+     * grilla en memoria: MANTENIMIENTO, OCUPADA, RESERVADA, DISPONIBLE. Las filas salen
+     * ordenadas por tipo (orden del enum), número y día.</p>
+     *
+     * <p>Se pide por bloques de {@code limite} habitaciones (en ese mismo orden, desde la
+     * {@code desplazamiento}): cada bloque es una consulta corta y el que llama puede entregar
+     * las filas sin tener una conexión tomada.</p>
+     */
+    @Query(value = "SELECT h.numero AS \"numero\", " +
+            "CAST(h.tipo_habitacion AS text) AS \"tipoHabitacion\", " +
+            "h.capacidad AS \"capacidad\", " +
+            "h.costo_por_noche AS \"costoPorNoche\", " +
+            "CAST(d.dia AS date) AS \"dia\", " +
+            "CASE WHEN CAST(h.estado_habitacion AS text) = 'FUERA DE SERVICIO' THEN 'MANTENIMIENTO' " +
+            "     WHEN e.id_estadia IS NOT NULL THEN 'OCUPADA' " +
+            "     WHEN r.id_reserva IS NOT NULL THEN 'RESERVADA' " +
+            "     ELSE 'DISPONIBLE' END AS \"estado\", " +
+            "e.id_estadia AS \"idEstadia\", " +
+            "r.id_reserva AS \"idReserva\", " +
+            "r.fecha_desde AS \"reservaDesde\", " +
+            "r.fecha_hasta AS \"reservaHasta\" " +
+            "FROM (SELECT * FROM habitacion ORDER BY tipo_habitacion, numero " +
+            "      LIMIT :limite OFFSET :desplazamiento) h " +
+            "CROSS JOIN generate_series(CAST(:desde AS date), CAST(:hasta AS date), INTERVAL '1 day') AS d(dia) " +
+            "LEFT JOIN LATERAL (SELECT es.id_estadia FROM estadia es " +
+            "    WHERE es.numero_habitacion = h.numero " +
+            "    AND es.\"fecha_check-in\" <= d.dia " +
+            "    AND (es.\"fecha_check-out\" IS NULL OR es.\"fecha_check-out\" > d.dia) " +
+            "    ORDER BY es.\"fecha_check-in\" DESC LIMIT 1) e ON TRUE " +
+            "LEFT JOIN LATERAL (SELECT rs.id_reserva, rs.fecha_desde, rs.fecha_hasta FROM reserva rs " +
+            "    WHERE rs.id_habitacion = h.numero " +
+            "    AND CAST(rs.estado_reserva AS text) = 'ACTIVA' " +
+            "    AND rs.fecha_desde <= d.dia AND rs.fecha_hasta > d.dia " +
+            "    ORDER BY rs.fecha_desde DESC LIMIT 1) r ON TRUE " +
+            "ORDER BY h.tipo_habitacion, h.numero, d.dia",
+            nativeQuery = true)
+    List<EstadoDiaSql> calcularGrillaEnBd(@Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta,
+                                          @Param("desplazamiento") int desplazamiento, @Param("limite") int limite);
+}
@@ -22,46 +22,11 @@ import java.util.List;
  * - Algunas consultas usan SQL nativo para poder filtrar/concatenar sobre columnas concretas
  *   y para limpiar tablas satélite (colecciones/element_collections) antes de borrados nativos.
  * - Los métodos anotados con {@code @Modifying} realizan cambios en la BD y deben ejecutarse
- *   dentro de una transacción (ej.: desde un servicio anotado con {@code @Transactional}).</p>
+ *   dentro de una transacción (ej.: desde un servicio anotado con {@code @Transactional}).
+ * - La búsqueda por criterios (prefijo sin acentos, con índices) viene de {@link HuespedRepositoryCustom}.</p>
  */
 @Repository
-public interface HuespedRepository extends JpaRepository<Huesped, HuespedId> {
-
-    /**
-     * Busca huéspedes por criterios combinables.
-     *
-     * <p>Reemplaza a una antigua función 'obtenerHuespedesPorCriterio'.</p>
-     *
-     * Comportamiento:
-     * - Coincidencia parcial para {@code apellido} y {@code nombres} (prefijo, case-insensitive).
-     * - {@code tipo} se compara por su representación textual (por eso el parámetro se recibe como {@code String}).
-     * - {@code nroDoc} se compara por prefijo.
-     * - Si un parámetro es {@code NULL} o cadena vacía, se ignora ese filtro.</p>
-     *
-     * <p>Se utiliza una consulta nativa para permitir operaciones sobre columnas y joins específicos.</p>
-     *
-     * @param apellido filtro por apellido (prefijo, case-insensitive). Puede ser {@code null} o vacío.
-     * @param nombres  filtro por nombres (prefijo, case-insensitive). Puede ser {@code null} o vacío.
-     * @param tipo     tipo de documento como texto (ej. la representación de {@link TipoDocumento}). Puede ser {@code null}.
-     * @param nroDoc   número de documento (prefijo). Puede ser {@code null} o vacío.
-     * @return lista de {@link Huesped} que cumplen los criterios; lista vacía si no hay coincidencias.
-     */
-    @Query(value = "SELECT DISTINCT h.* FROM huesped h " +
-            "LEFT JOIN direccion d ON d.id_direccion = h.id_direccion " +
-            "WHERE " +
-            "(CAST(:apellido AS TEXT) IS NULL OR :apellido = '' OR LOWER(h.apellido) LIKE LOWER(CONCAT(CAST(:apellido AS TEXT), '%'))) AND " +
-            "(CAST(:nombres AS TEXT) IS NULL OR :nombres = '' OR LOWER(h.nombres) LIKE LOWER(CONCAT(CAST(:nombres AS TEXT), '%'))) AND " +
-            "(CAST(:tipo AS TEXT) IS NULL OR CAST(h.tipo_documento AS TEXT) = CAST(:tipo AS TEXT)) AND " +
-            "(CAST(:nroDoc AS TEXT) IS NULL OR :nroDoc = '' OR h.numero_documento LIKE CONCAT(CAST(:nroDoc AS TEXT), '%'))",
-            nativeQuery = true)
-    List<Huesped> buscarPorCriterios(
-            @Param("apellido") String apellido,
-            @Param("nombres") String nombres,
-            @Param("tipo") String tipo,
-            @Param("nroDoc") String nroDoc
-    );
-
-
+public interface HuespedRepository extends JpaRepository<Huesped, HuespedId>, HuespedRepositoryCustom {
 
     // Para el CU10: Permitir cambio de DNI manteniendo historial
     /**
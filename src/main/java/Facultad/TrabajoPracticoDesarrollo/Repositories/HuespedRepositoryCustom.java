@@ -0,0 +1,66 @@
+package Facultad.TrabajoPracticoDesarrollo.Repositories;
+
+import Facultad.TrabajoPracticoDesarrollo.DTOs.DtoHuesped;
+import Facultad.TrabajoPracticoDesarrollo.Dominio.Huesped;
+import Facultad.TrabajoPracticoDesarrollo.Utils.Paginacion.CursorHuesped;
+import Facultad.TrabajoPracticoDesarrollo.enums.TipoDocumento;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Búsqueda paginada de huéspedes que arma la consulta según los criterios presentes.
+ * La implementación es {@link HuespedRepositoryImpl}.
+ */
+public interface HuespedRepositoryCustom {
+
+    /**
+     * Busca una página de huéspedes por criterios combinables, ordenada por apellido y nombres
+     * normalizados (sin mayúsculas ni acentos, como el filtro) y después por documento.
+     *
+     * <p>Reemplaza a una antigua función 'obtenerHuespedesPorCriterio'.</p>
+     *
+     * Comportamiento:
+     * - Coincidencia por prefijo para {@code apellido} y {@code nombres}, sin distinguir
+     *   mayúsculas ni acentos ("perez" encuentra a "Pérez").
+     * - {@code tipo} se compara por su representación textual (por eso el parámetro se recibe como {@code String}).
+     * - {@code nroDoc} se compara por prefijo.
+     * - Si un parámetro es {@code NULL} o cadena vacía, se ignora ese filtro (todos vacíos = listado completo).
+     * - Paginación por clave (keyset): se devuelven los que siguen a {@code despues}, sin OFFSET,
+     *   así el costo de cada página no depende de cuántas se recorrieron antes.</p>
+     *
+     * @param apellido filtro por apellido (prefijo). Puede ser {@code null} o vacío.
+     * @param nombres  filtro por nombres (prefijo). Puede ser {@code null} o vacío.
+     * @param tipo     tipo de documento como texto (ej. la representación de {@link TipoDocumento}). Puede ser {@code null}.
+     * @param nroDoc   número de documento (prefijo). Puede ser {@code null} o vacío.
+     * @param despues  último huésped de la página anterior; {@code null} para la primera página
+     * @param limite   cantidad máxima de filas a devolver
+     * @return huéspedes que cumplen los criterios, en orden; lista vacía si no hay más.
+     */
+    List<Huesped> buscarPagina(String apellido, String nombres, String tipo, String nroDoc,
+                               CursorHuesped despues, int limite);
+
+    /**
+     * Da de alta o actualiza un lote de huéspedes con su dirección, teléfonos, emails y
+     * ocupaciones usando batches JDBC (unas pocas sentencias por lote, no por huésped).
+     *
+     * <p>Si el huésped ya existe se actualizan sus datos y su dirección, y se reemplazan sus
+     * listas. Debe ejecutarse dentro de una transacción; las claves del lote no deben repetirse.</p>
+     *
+     * @param huespedes entidades sin persistir, cada una con su {@link Huesped#getDireccion() dirección}
+     */
+    void upsertEnLote(List<Huesped> huespedes);
+
+    /**
+     * Recorre todos los huéspedes con su dirección, teléfonos, emails y ocupaciones, de a uno,
+     * ordenados por documento. Usa un cursor de la base que trae {@code tamanioFetch} filas por
+     * viaje, así la tabla nunca está entera en memoria.
+     *
+     * <p>Debe ejecutarse dentro de una transacción: PostgreSQL solo usa el cursor con autocommit
+     * desactivado (sin transacción el driver trae todas las filas de una vez).</p>
+     *
+     * @param tamanioFetch filas por viaje a la base
+     * @param porCada      recibe cada huésped a medida que se lee
+     */
+    void recorrerTodos(int tamanioFetch, Consumer<DtoHuesped> porCada);
+}
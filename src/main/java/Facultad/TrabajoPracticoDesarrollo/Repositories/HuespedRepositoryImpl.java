@@ -0,0 +1,336 @@
+package Facultad.TrabajoPracticoDesarrollo.Repositories;
+
+import Facultad.TrabajoPracticoDesarrollo.DTOs.DtoDireccion;
+import Facultad.TrabajoPracticoDesarrollo.DTOs.DtoHuesped;
+import Facultad.TrabajoPracticoDesarrollo.Dominio.Direccion;
+import Facultad.TrabajoPracticoDesarrollo.Dominio.Huesped;
+import Facultad.TrabajoPracticoDesarrollo.Utils.Paginacion.CursorHuesped;
+import Facultad.TrabajoPracticoDesarrollo.enums.PosIva;
+import Facultad.TrabajoPracticoDesarrollo.enums.TipoDocumento;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Implementación de {@link HuespedRepositoryCustom}.
+ *
+ * <p>La consulta anterior usaba {@code LOWER(h.apellido) LIKE LOWER(CONCAT(:apellido, '%'))}
+ * con filtros del tipo {@code :param IS NULL OR ...}: ningún índice aplicaba y cada tecla en
+ * la pantalla de búsqueda recorría toda la tabla. Acá solo se agregan las condiciones de los
+ * criterios presentes y cada prefijo se expresa como un rango sobre la columna normalizada,
+ * que coincide con los índices de {@code db/migraciones/V014__busqueda_huesped_normalizada.sql}.</p>
+ *
+ * <p>La importación masiva ({@link #upsertEnLote}) usa JDBC directo sobre el mismo
+ * {@code DataSource} y la transacción del servicio, como {@code ReservaRepositoryImpl}; la
+ * exportación ({@link #recorrerTodos}) también, para leer con un cursor sin pasar por el
+ * contexto de persistencia (que retendría cada entidad leída hasta el final).</p>
+ */
+public class HuespedRepositoryImpl implements HuespedRepositoryCustom {
+
+    // Mayor code point de Unicode: todo texto que empieza con el prefijo es menor que prefijo + este carácter
+    private static final String FIN_DE_PREFIJO = "chr(1114111)";
+
+    // Clave de orden de la paginación: las mismas expresiones que filtran por prefijo, así el
+    // orden, la comparación con el cursor y el filtro usan el índice huesped_orden_normalizado_idx (V020)
+    private static final String CLAVE_ORDEN =
+            "f_normalizar(h.apellido) COLLATE \"C\", f_normalizar(h.nombres) COLLATE \"C\", " +
+            "h.tipo_documento, h.numero_documento";
+
+    private static final String SQL_ACTUALIZAR_DIRECCION =
+            "UPDATE direccion SET calle = ?, numero = ?, departamento = ?, piso = ?, localidad = ?, " +
+            "provincia = ?, pais = ?, \"codPostal\" = ? WHERE id_direccion = ?";
+
+    private static final String SQL_INSERTAR_DIRECCION =
+            "INSERT INTO direccion (calle, numero, departamento, piso, localidad, provincia, pais, \"codPostal\") " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String SQL_UPSERT_HUESPED =
+            "INSERT INTO huesped (tipo_documento, numero_documento, apellido, nombres, fecha_nacimiento, " +
+            "nacionalidad, pos_iva, cuit, id_direccion) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (tipo_documento, numero_documento) DO UPDATE SET apellido = EXCLUDED.apellido, " +
+            "nombres = EXCLUDED.nombres, fecha_nacimiento = EXCLUDED.fecha_nacimiento, " +
+            "nacionalidad = EXCLUDED.nacionalidad, pos_iva = EXCLUDED.pos_iva, cuit = EXCLUDED.cuit, " +
+            "id_direccion = EXCLUDED.id_direccion";
+
+    // Una fila por huésped: las listas vienen como arrays, así el cursor no repite filas por cada teléfono.
+    // Cada ARRAY usa el índice por documento de su tabla (V021) y el orden es el de la clave primaria
+    // de huesped (numero_documento, tipo_documento), así se lee por el índice sin ordenar toda la tabla
+    private static final String SQL_EXPORTAR =
+            "SELECT CAST(h.tipo_documento AS TEXT) AS tipo_documento, h.numero_documento, h.apellido, h.nombres, " +
+            "h.fecha_nacimiento, h.nacionalidad, CAST(h.pos_iva AS TEXT) AS pos_iva, h.cuit, d.id_direccion, " +
+            "d.calle, d.numero, d.departamento, d.piso, d.localidad, d.provincia, d.pais, d.\"codPostal\", " +
+            "ARRAY(SELECT t.telefono FROM telefono_huesped t " +
+            "WHERE t.tipo_documento = h.tipo_documento AND t.nro_documento = h.numero_documento) AS telefonos, " +
+            "ARRAY(SELECT e.email FROM email_huesped e " +
+            "WHERE e.tipo_documento = h.tipo_documento AND e.nro_documento = h.numero_documento) AS emails, " +
+            "ARRAY(SELECT o.ocupacion FROM ocupacion_huesped o " +
+            "WHERE o.tipo_documento = h.tipo_documento AND o.nro_documento = h.numero_documento) AS ocupaciones " +
+            "FROM huesped h LEFT JOIN direccion d ON d.id_direccion = h.id_direccion " +
+            "ORDER BY h.numero_documento, h.tipo_documento";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public HuespedRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<Huesped> buscarPagina(String apellido, String nombres, String tipo, String nroDoc,
+                                      CursorHuesped despues, int limite) {
+        List<Object> parametros = new ArrayList<>();
+        StringBuilder sql = new StringBuilder(armarConsulta(apellido, nombres, tipo, nroDoc, parametros));
+        if (despues != null) {
+            // Comparación de filas sobre la clave normalizada; el cursor guarda los valores originales
+            sql.append(" AND (").append(CLAVE_ORDEN).append(") > (f_normalizar(?), f_normalizar(?), ?, ?)");
+            parametros.add(despues.getApellido());
+            parametros.add(despues.getNombres());
+            parametros.add(despues.getTipoDocumento());
+            parametros.add(despues.getNroDocumento());
+        }
+        sql.append(" ORDER BY ").append(CLAVE_ORDEN).append(" LIMIT ?");
+        parametros.add(limite);
+
+        Query consulta = entityManager.createNativeQuery(sql.toString(), Huesped.class);
+        for (int i = 0; i < parametros.size(); i++) {
+            consulta.setParameter(i + 1, parametros.get(i));
+        }
+        @SuppressWarnings("unchecked")
+        List<Huesped> resultado = consulta.getResultList();
+        return resultado;
+    }
+
+    @Override
+    public void upsertEnLote(List<Huesped> huespedes) {
+        if (huespedes.isEmpty()) return;
+
+        // 1. Direcciones: se actualiza la que ya tenía el huésped o se inserta una nueva
+        Map<String, Integer> direccionesExistentes = buscarDirecciones(huespedes);
+        List<Huesped> conDireccion = new ArrayList<>();
+        List<Huesped> sinDireccion = new ArrayList<>();
+        for (Huesped h : huespedes) {
+            Integer id = direccionesExistentes.get(clave(h.getTipoDocumento().name(), h.getNroDocumento()));
+            if (id != null) {
+                h.getDireccion().setId(id);
+                conDireccion.add(h);
+            } else {
+                sinDireccion.add(h);
+            }
+        }
+        jdbcTemplate.batchUpdate(SQL_ACTUALIZAR_DIRECCION, conDireccion, conDireccion.size(), (ps, h) -> {
+            setDireccion(ps, h.getDireccion());
+            ps.setInt(9, h.getDireccion().getId());
+        });
+        insertarDirecciones(sinDireccion);
+
+        // 2. Huéspedes (alta o modificación en la misma sentencia)
+        jdbcTemplate.batchUpdate(SQL_UPSERT_HUESPED, huespedes, huespedes.size(), (ps, h) -> {
+            ps.setString(1, h.getTipoDocumento().name());
+            ps.setString(2, h.getNroDocumento());
+            ps.setString(3, h.getApellido());
+            ps.setString(4, h.getNombres());
+            ps.setDate(5, h.getFechaNacimiento() != null ? new java.sql.Date(h.getFechaNacimiento().getTime()) : null);
+            ps.setString(6, h.getNacionalidad());
+            ps.setString(7, h.getPosicionIva() != null ? h.getPosicionIva().getDescripcion() : null);
+            ps.setString(8, h.getCuit());
+            ps.setInt(9, h.getDireccion().getId());
+        });
+
+        // 3. Listas: se reemplazan completas, como hace el upsert de a uno con JPA
+        reemplazarLista(huespedes, "telefono_huesped", "telefono", Huesped::getTelefono);
+        reemplazarLista(huespedes, "email_huesped", "email", Huesped::getEmail);
+        reemplazarLista(huespedes, "ocupacion_huesped", "ocupacion", Huesped::getOcupacion);
+    }
+
+    @Override
+    public void recorrerTodos(int tamanioFetch, Consumer<DtoHuesped> porCada) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(SQL_EXPORTAR, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(tamanioFetch);
+            return ps;
+        }, rs -> {
+            porCada.accept(mapearExportacion(rs));
+        });
+    }
+
+    private static DtoHuesped mapearExportacion(ResultSet rs) throws SQLException {
+        DtoHuesped dto = new DtoHuesped();
+        dto.setTipoDocumento(TipoDocumento.valueOf(rs.getString("tipo_documento")));
+        dto.setNroDocumento(rs.getString("numero_documento"));
+        dto.setApellido(rs.getString("apellido"));
+        dto.setNombres(rs.getString("nombres"));
+        java.sql.Date fechaNacimiento = rs.getDate("fecha_nacimiento");
+        dto.setFechaNacimiento(fechaNacimiento != null ? new Date(fechaNacimiento.getTime()) : null);
+        dto.setNacionalidad(rs.getString("nacionalidad"));
+        dto.setPosicionIva(PosIva.fromString(rs.getString("pos_iva")));
+        dto.setCuit(rs.getString("cuit"));
+        dto.setTelefono(listaDeArray(rs, "telefonos", valor -> ((Number) valor).longValue()));
+        dto.setEmail(listaDeArray(rs, "emails", String::valueOf));
+        dto.setOcupacion(listaDeArray(rs, "ocupaciones", String::valueOf));
+
+        if (rs.getObject("id_direccion") != null) {
+            DtoDireccion direccion = new DtoDireccion();
+            direccion.setIdDireccion(rs.getInt("id_direccion"));
+            direccion.setCalle(rs.getString("calle"));
+            direccion.setNumero((Integer) rs.getObject("numero"));
+            direccion.setDepartamento(rs.getString("departamento"));
+            direccion.setPiso(rs.getString("piso"));
+            direccion.setLocalidad(rs.getString("localidad"));
+            direccion.setProvincia(rs.getString("provincia"));
+            direccion.setPais(rs.getString("pais"));
+            direccion.setCodPostal((Integer) rs.getObject("codPostal"));
+            dto.setDtoDireccion(direccion);
+        }
+        return dto;
+    }
+
+    private static <T> List<T> listaDeArray(ResultSet rs, String columna, Function<Object, T> convertir)
+            throws SQLException {
+        java.sql.Array array = rs.getArray(columna);
+        List<T> lista = new ArrayList<>();
+        if (array == null) return lista;
+        for (Object valor : (Object[]) array.getArray()) {
+            if (valor != null) lista.add(convertir.apply(valor));
+        }
+        array.free();
+        return lista;
+    }
+
+    private void reemplazarLista(List<Huesped> huespedes, String tabla, String columna,
+                                 Function<Huesped, List<?>> valores) {
+        jdbcTemplate.update("DELETE FROM " + tabla + " WHERE (tipo_documento, nro_documento) IN (" +
+                        String.join(", ", Collections.nCopies(huespedes.size(), "(?, ?)")) + ")",
+                parametrosClaves(huespedes));
+
+        List<Object[]> filas = new ArrayList<>();
+        for (Huesped h : huespedes) {
+            List<?> lista = valores.apply(h);
+            if (lista == null) continue;
+            for (Object valor : lista) {
+                filas.add(new Object[]{h.getTipoDocumento().name(), h.getNroDocumento(), valor});
+            }
+        }
+        if (!filas.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO " + tabla + " (tipo_documento, nro_documento, " + columna +
+                    ") VALUES (?, ?, ?)", filas);
+        }
+    }
+
+    private Map<String, Integer> buscarDirecciones(List<Huesped> huespedes) {
+        String sql = "SELECT CAST(tipo_documento AS TEXT), numero_documento, id_direccion FROM huesped " +
+                "WHERE (tipo_documento, numero_documento) IN (" +
+                String.join(", ", Collections.nCopies(huespedes.size(), "(?, ?)")) + ") AND id_direccion IS NOT NULL";
+        Map<String, Integer> resultado = new HashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            resultado.put(clave(rs.getString(1), rs.getString(2)), rs.getInt(3));
+        }, parametrosClaves(huespedes));
+        return resultado;
+    }
+
+    private void insertarDirecciones(List<Huesped> huespedes) {
+        if (huespedes.isEmpty()) return;
+        KeyHolder claves = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                (Connection conexion) -> conexion.prepareStatement(SQL_INSERTAR_DIRECCION, new String[]{"id_direccion"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        setDireccion(ps, huespedes.get(i).getDireccion());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return huespedes.size();
+                    }
+                },
+                claves);
+
+        List<Map<String, Object>> ids = claves.getKeyList();
+        for (int i = 0; i < huespedes.size(); i++) {
+            huespedes.get(i).getDireccion().setId(((Number) ids.get(i).get("id_direccion")).intValue());
+        }
+    }
+
+    private static void setDireccion(PreparedStatement ps, Direccion d) throws SQLException {
+        ps.setString(1, d.getCalle());
+        ps.setObject(2, d.getNumero(), Types.INTEGER);
+        ps.setString(3, d.getDepartamento());
+        ps.setString(4, d.getPiso());
+        ps.setString(5, d.getLocalidad());
+        ps.setString(6, d.getProvincia());
+        ps.setString(7, d.getPais());
+        ps.setObject(8, d.getCodPostal(), Types.INTEGER);
+    }
+
+    private static Object[] parametrosClaves(List<Huesped> huespedes) {
+        Object[] parametros = new Object[huespedes.size() * 2];
+        for (int i = 0; i < huespedes.size(); i++) {
+            parametros[2 * i] = huespedes.get(i).getTipoDocumento().name();
+            parametros[2 * i + 1] = huespedes.get(i).getNroDocumento();
+        }
+        return parametros;
+    }
+
+    private static String clave(String tipo, String nro) {
+        return tipo + " " + nro;
+    }
+
+    /**
+     * Arma el SQL de búsqueda (solo los filtros, sin orden ni límite) con parámetros
+     * posicionales y los agrega a {@code parametros}.
+     * Es público para poder medir la consulta contra una base real en las pruebas de rendimiento.
+     */
+    public static String armarConsulta(String apellido, String nombres, String tipo, String nroDoc,
+                                       List<Object> parametros) {
+        StringBuilder sql = new StringBuilder("SELECT h.* FROM huesped h WHERE 1 = 1");
+        if (tieneValor(apellido)) {
+            agregarPrefijo(sql, parametros, "f_normalizar(h.apellido)", "f_normalizar(?)", apellido);
+        }
+        if (tieneValor(nombres)) {
+            agregarPrefijo(sql, parametros, "f_normalizar(h.nombres)", "f_normalizar(?)", nombres);
+        }
+        if (tieneValor(tipo)) {
+            sql.append(" AND CAST(h.tipo_documento AS TEXT) = ?");
+            parametros.add(tipo);
+        }
+        if (tieneValor(nroDoc)) {
+            agregarPrefijo(sql, parametros, "h.numero_documento", "?", nroDoc);
+        }
+        return sql.toString();
+    }
+
+    private static void agregarPrefijo(StringBuilder sql, List<Object> parametros,
+                                       String columna, String valor, String prefijo) {
+        sql.append(" AND ").append(columna).append(" COLLATE \"C\" >= ").append(valor)
+           .append(" AND ").append(columna).append(" COLLATE \"C\" < ").append(valor)
+           .append(" || ").append(FIN_DE_PREFIJO);
+        parametros.add(prefijo);
+        parametros.add(prefijo);
+    }
+
+    private static boolean tieneValor(String texto) {
+        return texto != null && !texto.isEmpty();
+    }
+}
@@ -0,0 +1,74 @@
+package Facultad.TrabajoPracticoDesarrollo.Repositories;
+
+import Facultad.TrabajoPracticoDesarrollo.Config.PoolNumerador;
+import Facultad.TrabajoPracticoDesarrollo.enums.TipoFactura;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Acceso JDBC a la tabla {@code numerador_factura} (último número entregado por punto de venta
+ * y tipo de factura).
+ *
+ * <p>No tiene entidad: las dos operaciones son un {@code UPDATE} atómico cada una y deben
+ * correr en su propia transacción corta (ver {@code NumeradorFacturas}), para que el lock de
+ * la fila no dure lo que dura la emisión de una factura. Usa las conexiones de
+ * {@link PoolNumerador}, no las del pool principal.</p>
+ */
+@Repository
+public class NumeradorFacturaRepository {
+
+    private static final String SQL_RESERVAR =
+            "UPDATE numerador_factura SET ultimo_asignado = ultimo_asignado + ? " +
+            "WHERE punto_venta = ? AND tipo_factura = ? RETURNING ultimo_asignado";
+
+    // Una serie nueva arranca desde sus facturas ya cargadas (formato "T-PPPP-N" o el anterior "PPPP-N")
+    private static final String SQL_CREAR =
+            "INSERT INTO numerador_factura (punto_venta, tipo_factura, ultimo_asignado) " +
+            "SELECT ?, ?, COALESCE(MAX(CAST(substring(numero_factura FROM '([0-9]+)$') AS BIGINT)), 0) FROM factura " +
+            "WHERE numero_factura LIKE ? OR (numero_factura LIKE ? AND CAST(tipo_factura AS TEXT) = ?) " +
+            "ON CONFLICT (punto_venta, tipo_factura) DO NOTHING";
+
+    private static final String SQL_DEVOLVER =
+            "UPDATE numerador_factura SET ultimo_asignado = ? " +
+            "WHERE punto_venta = ? AND tipo_factura = ? AND ultimo_asignado = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public NumeradorFacturaRepository(PoolNumerador poolNumerador) {
+        this(poolNumerador.getJdbcTemplate());
+    }
+
+    public NumeradorFacturaRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Reserva los próximos {@code tamanio} números de la serie (punto de venta y tipo).
+     *
+     * @return el último número del bloque; el bloque es {@code (retorno - tamanio, retorno]}
+     */
+    public long reservarBloque(String puntoVenta, TipoFactura tipo, int tamanio) {
+        List<Long> limite = jdbcTemplate.queryForList(SQL_RESERVAR, Long.class, tamanio, puntoVenta, tipo.name());
+        if (limite.isEmpty()) {
+            jdbcTemplate.update(SQL_CREAR, puntoVenta, tipo.name(),
+                    tipo.name() + "-" + puntoVenta + "-%", puntoVenta + "-%", tipo.name());
+            limite = jdbcTemplate.queryForList(SQL_RESERVAR, Long.class, tamanio, puntoVenta, tipo.name());
+        }
+        return limite.get(0);
+    }
+
+    /**
+     * Devuelve la cola sin usar de un bloque, solo si nadie reservó otro bloque después.
+     *
+     * @param limite      último número del bloque (lo que devolvió {@link #reservarBloque})
+     * @param ultimoUsado último número efectivamente entregado
+     * @return {@code true} si se devolvió; {@code false} si ya había un bloque posterior
+     */
+    public boolean devolverSobrante(String puntoVenta, TipoFactura tipo, long limite, long ultimoUsado) {
+        return jdbcTemplate.update(SQL_DEVOLVER, ultimoUsado, puntoVenta, tipo.name(), limite) == 1;
+    }
+}
@@ -58,4 +58,13 @@ public interface PersonaFisicaRepository extends JpaRepository<PersonaFisica, In
     @Modifying
     @Query(value = "DELETE FROM persona_fisica WHERE id_responsable = :id", nativeQuery = true)
     void borrarNativo(@Param("id") Integer id);
-}
\ No newline at end of file
+
+    /**
+     * Pasa el rol de pagador (con todas sus facturas) a otro huésped, cuando el destino de una
+     * fusión todavía no era pagador.
+     */
+    @Modifying
+    @Query(value = "UPDATE persona_fisica SET tipo_documento = :tipo, nro_documento = :nro WHERE id_responsable = :id",
+            nativeQuery = true)
+    void transferirAHuesped(@Param("id") Integer id, @Param("tipo") String tipo, @Param("nro") String nro);
+}
@@ -1,5 +1,6 @@
 package Facultad.TrabajoPracticoDesarrollo.Repositories;
 
+import Facultad.TrabajoPracticoDesarrollo.DTOs.DtoReservaCancelable;
 import Facultad.TrabajoPracticoDesarrollo.Dominio.Reserva;
 import Facultad.TrabajoPracticoDesarrollo.enums.TipoDocumento;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -8,6 +9,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 
@@ -23,9 +25,11 @@ import java.util.List;
  * - Las consultas marcadas con {@link Modifying} realizan operaciones de modificación (DELETE/UPDATE)
  *   y deben ejecutarse dentro de una transacción (por ejemplo desde un servicio anotado con
  *   {@code @Transactional}).</p>
+ * - Las operaciones por lote (validar e insertar un grupo de reservas en dos viajes a la base)
+ *   vienen de {@link ReservaRepositoryCustom}.</p>
  */
 @Repository
-public interface ReservaRepository extends JpaRepository<Reserva, Integer> {
+public interface ReservaRepository extends JpaRepository<Reserva, Integer>, ReservaRepositoryCustom {
 
     // 1. REEMPLAZO DE: persistirReserva()
     // No hace falta escribir nada, JpaRepository ya trae el método .save(reserva)
@@ -116,29 +120,59 @@ public interface ReservaRepository extends JpaRepository<Reserva, Integer> {
             @Param("nuevoTel") String nuevoTel
     );
 
+    /**
+     * Versión por lotes de {@link #migrarReservas}, para la fusión en segundo plano: migra como
+     * mucho {@code limite} reservas del documento viejo y devuelve cuántas migró. Repetirla hasta
+     * que devuelva menos que {@code limite} es idempotente (las ya migradas dejan de coincidir).
+     */
+    @Modifying
+    @Query(value = "UPDATE reserva SET \"TipoDocumentoResponsable\" = :nuevoTipo, \"NroDocumentoResponsable\" = :nuevoNro, " +
+            "\"NombreHuespedResponsable\" = :nuevoNombre, \"ApellidoHuespedResponsable\" = :nuevoApellido, " +
+            "\"TelefonoHuespedResponsable\" = :nuevoTel " +
+            "WHERE id_reserva IN (SELECT id_reserva FROM reserva " +
+            "WHERE \"TipoDocumentoResponsable\" = :viejoTipo AND \"NroDocumentoResponsable\" = :viejoNro LIMIT :limite)",
+            nativeQuery = true)
+    int migrarReservasLote(
+            @Param("viejoTipo") String viejoTipo, @Param("viejoNro") String viejoNro,
+            @Param("nuevoTipo") String nuevoTipo, @Param("nuevoNro") String nuevoNro,
+            @Param("nuevoNombre") String nuevoNombre, @Param("nuevoApellido") String nuevoApellido,
+            @Param("nuevoTel") String nuevoTel, @Param("limite") int limite
+    );
+
     // CU06: Búsqueda para cancelación
     /**
      * Búsqueda de reservas para el flujo de cancelación.
      *
-     * <p>Consulta nativa que filtra por estado {@code ACTIVA} y permite filtrar opcionalmente
-     * por apellido y nombre del responsable mediante ILIKE (búsqueda case-insensitive con patrones).</p>
+     * <p>Filtra por estado {@code ACTIVA} y opcionalmente por apellido y nombre del responsable
+     * mediante ILIKE (búsqueda case-insensitive con patrones). Cada fila trae en la misma
+     * consulta la habitación y el id de la estadía asociada (LEFT JOIN), así el listado se
+     * arma con un solo viaje a la base sin importar cuántas reservas coincidan.</p>
      *
      * <p>Parámetros {@code null} se interpretan como "sin filtro" para ese campo.</p>
      *
      * @param apellido filtro de apellido (puede ser {@code null} o contener comodines SQL, p.\u00e9j. \"%Gonz%\")
      * @param nombre   filtro de nombre (puede ser {@code null} o contener comodines SQL)
-     * @return lista de {@link Reserva} que cumplen los criterios; devuelve lista vacía si no hay coincidencias
+     * @return lista de {@link DtoReservaCancelable}; devuelve lista vacía si no hay coincidencias
      */
-    @Query(value = "SELECT * FROM reserva r " +
-            "WHERE CAST(r.estado_reserva AS text) = 'ACTIVA' " +
-            "AND (CAST(:apellido AS text) IS NULL OR CAST(r.\"ApellidoHuespedResponsable\" AS text) ILIKE :apellido) " +
-            "AND (CAST(:nombre AS text) IS NULL OR CAST(r.\"NombreHuespedResponsable\" AS text) ILIKE :nombre)",
-            nativeQuery = true)
-    List<Reserva> buscarParaCancelar(
+    @Query("SELECT new Facultad.TrabajoPracticoDesarrollo.DTOs.DtoReservaCancelable(" +
+            "r.idReserva, r.apellidoHuespedResponsable, r.nombreHuespedResponsable, r.fechaDesde, r.fechaHasta, " +
+            "h.numero, h.tipoHabitacion, e.idEstadia) " +
+            "FROM Reserva r LEFT JOIN r.habitacion h LEFT JOIN Estadia e ON e.reserva = r " +
+            "WHERE r.estadoReserva = Facultad.TrabajoPracticoDesarrollo.enums.EstadoReserva.ACTIVA " +
+            "AND (CAST(:apellido AS String) IS NULL OR r.apellidoHuespedResponsable ILIKE :apellido) " +
+            "AND (CAST(:nombre AS String) IS NULL OR r.nombreHuespedResponsable ILIKE :nombre)")
+    List<DtoReservaCancelable> buscarParaCancelar(
             @Param("apellido") String apellido,
             @Param("nombre") String nombre
     );
 
+    /**
+     * Devuelve cuáles de los ids indicados existen en la tabla {@code reserva}, en cualquier estado.
+     * Lo usa la cancelación masiva para distinguir reservas inexistentes de las ya canceladas.
+     */
+    @Query("SELECT r.idReserva FROM Reserva r WHERE r.idReserva IN :ids")
+    List<Integer> buscarIdsExistentes(@Param("ids") Collection<Integer> ids);
+
     // Mantenimiento: Actualizar nombre/apellido cuando el huésped los corrige
     @Modifying
     @org.springframework.transaction.annotation.Transactional
@@ -0,0 +1,38 @@
+package Facultad.TrabajoPracticoDesarrollo.Repositories;
+
+import Facultad.TrabajoPracticoDesarrollo.Dominio.Reserva;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Operaciones por lote sobre reservas que no se pueden expresar con Spring Data.
+ * La implementación es {@link ReservaRepositoryImpl} (JDBC directo).
+ */
+public interface ReservaRepositoryCustom {
+
+    /**
+     * Valida en una sola consulta todas las reservas pedidas contra las reservas ACTIVAS
+     * existentes (mismo criterio que {@link ReservaRepository#existeReservaEnFecha}).
+     *
+     * @param pedidas reservas aún no guardadas, con habitación y fechas
+     * @return posiciones (dentro de {@code pedidas}) de las que se solapan con alguna existente,
+     *         en orden ascendente; vacía si todas están libres
+     */
+    List<Integer> buscarSolapamientos(List<Reserva> pedidas);
+
+    /**
+     * Inserta todas las reservas en un único batch JDBC y les asigna el id generado.
+     * Debe ejecutarse dentro de la transacción del servicio.
+     */
+    void insertarEnLote(List<Reserva> reservas);
+
+    /**
+     * Cancela en una sola sentencia ({@code UPDATE ... RETURNING}) las reservas ACTIVAS
+     * cuyos ids estén en {@code ids}. Las que no existen o no estaban activas se ignoran.
+     *
+     * @return las reservas canceladas con id, número de habitación y fechas, para
+     *         actualizar la disponibilidad solo de esas habitaciones y días
+     */
+    List<Reserva> cancelarEnLote(Collection<Integer> ids);
+}
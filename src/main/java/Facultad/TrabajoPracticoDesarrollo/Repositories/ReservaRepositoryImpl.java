@@ -0,0 +1,143 @@
+package Facultad.TrabajoPracticoDesarrollo.Repositories;
+
+import Facultad.TrabajoPracticoDesarrollo.Dominio.Habitacion;
+import Facultad.TrabajoPracticoDesarrollo.Dominio.Reserva;
+import Facultad.TrabajoPracticoDesarrollo.enums.EstadoReserva;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Implementación JDBC de {@link ReservaRepositoryCustom}.
+ *
+ * <p>Los ids de {@code Reserva} salen de la secuencia {@code reserva_seq} (pooled,
+ * {@code allocationSize = 50}, ver V012): Hibernate asigna los ids en memoria y puede agrupar
+ * sus propios {@code INSERT} en batches de {@code hibernate.jdbc.batch_size}. Acá se usa el
+ * mismo {@code DataSource} (y la misma transacción, vía {@code JpaTransactionManager}) para
+ * validar y guardar un grupo completo en dos viajes a la base, sin importar la cantidad de
+ * reservas: el {@code INSERT} en batch toma el id del {@code DEFAULT nextval('reserva_seq')}
+ * de la columna y lo devuelve con las claves generadas.</p>
+ */
+public class ReservaRepositoryImpl implements ReservaRepositoryCustom {
+
+    // unnest(...) WITH ORDINALITY numera los pares pedidos desde 1
+    private static final String SQL_SOLAPAMIENTOS =
+            "SELECT DISTINCT p.pos FROM unnest(?, ?, ?) WITH ORDINALITY AS p(habitacion, desde, hasta, pos) " +
+            "JOIN reserva r ON r.id_habitacion = p.habitacion " +
+            "AND r.fecha_desde < p.hasta AND r.fecha_hasta > p.desde " +
+            "WHERE CAST(r.estado_reserva AS text) = 'ACTIVA' " +
+            "ORDER BY p.pos";
+
+    private static final String SQL_INSERTAR =
+            "INSERT INTO reserva (estado_reserva, fecha_reserva, fecha_desde, fecha_hasta, " +
+            "\"NombreHuespedResponsable\", \"ApellidoHuespedResponsable\", \"TelefonoHuespedResponsable\", " +
+            "\"TipoDocumentoResponsable\", \"NroDocumentoResponsable\", id_habitacion) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String SQL_CANCELAR =
+            "UPDATE reserva SET estado_reserva = 'CANCELADA' " +
+            "WHERE id_reserva = ANY(?) AND CAST(estado_reserva AS text) = 'ACTIVA' " +
+            "RETURNING id_reserva, id_habitacion, fecha_desde, fecha_hasta";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public ReservaRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<Integer> buscarSolapamientos(List<Reserva> pedidas) {
+        if (pedidas.isEmpty()) return List.of();
+        Object[] habitaciones = new Object[pedidas.size()];
+        Object[] desdes = new Object[pedidas.size()];
+        Object[] hastas = new Object[pedidas.size()];
+        for (int i = 0; i < pedidas.size(); i++) {
+            Reserva r = pedidas.get(i);
+            habitaciones[i] = r.getHabitacion().getNumero();
+            desdes[i] = new java.sql.Date(r.getFechaDesde().getTime());
+            hastas[i] = new java.sql.Date(r.getFechaHasta().getTime());
+        }
+        return jdbcTemplate.query(conexion -> {
+            PreparedStatement ps = conexion.prepareStatement(SQL_SOLAPAMIENTOS);
+            ps.setArray(1, conexion.createArrayOf("text", habitaciones));
+            ps.setArray(2, conexion.createArrayOf("date", desdes));
+            ps.setArray(3, conexion.createArrayOf("date", hastas));
+            return ps;
+        }, (rs, fila) -> rs.getInt(1) - 1);
+    }
+
+    @Override
+    public void insertarEnLote(List<Reserva> reservas) {
+        if (reservas.isEmpty()) return;
+        KeyHolder claves = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                (Connection conexion) -> conexion.prepareStatement(SQL_INSERTAR, new String[]{"id_reserva"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Reserva r = reservas.get(i);
+                        ps.setString(1, r.getEstadoReserva() != null ? r.getEstadoReserva().name() : null);
+                        setFecha(ps, 2, r.getFechaReserva());
+                        setFecha(ps, 3, r.getFechaDesde());
+                        setFecha(ps, 4, r.getFechaHasta());
+                        ps.setString(5, r.getNombreHuespedResponsable());
+                        ps.setString(6, r.getApellidoHuespedResponsable());
+                        ps.setString(7, r.getTelefonoHuespedResponsable());
+                        ps.setString(8, r.getTipoDocumentoResponsable() != null ? r.getTipoDocumentoResponsable().name() : null);
+                        ps.setString(9, r.getNroDocumentoResponsable());
+                        ps.setString(10, r.getHabitacion().getNumero());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return reservas.size();
+                    }
+                },
+                claves);
+
+        List<Map<String, Object>> ids = claves.getKeyList();
+        for (int i = 0; i < reservas.size(); i++) {
+            reservas.get(i).setIdReserva(((Number) ids.get(i).get("id_reserva")).intValue());
+        }
+    }
+
+    @Override
+    public List<Reserva> cancelarEnLote(Collection<Integer> ids) {
+        if (ids.isEmpty()) return List.of();
+        Object[] arreglo = ids.toArray();
+        return jdbcTemplate.query(conexion -> {
+            PreparedStatement ps = conexion.prepareStatement(SQL_CANCELAR);
+            ps.setArray(1, conexion.createArrayOf("integer", arreglo));
+            return ps;
+        }, (rs, fila) -> {
+            Habitacion habitacion = new Habitacion();
+            habitacion.setNumero(rs.getString("id_habitacion"));
+            Reserva r = new Reserva();
+            r.setIdReserva(rs.getInt("id_reserva"));
+            r.setEstadoReserva(EstadoReserva.CANCELADA);
+            r.setHabitacion(habitacion);
+            r.setFechaDesde(rs.getDate("fecha_desde"));
+            r.setFechaHasta(rs.getDate("fecha_hasta"));
+            return r;
+        });
+    }
+
+    private static void setFecha(PreparedStatement ps, int indice, java.util.Date fecha) throws SQLException {
+        if (fecha == null) {
+            ps.setNull(indice, Types.DATE);
+        } else {
+            ps.setDate(indice, new java.sql.Date(fecha.getTime()));
+        }
+    }
+}
@@ -0,0 +1,434 @@
+package Facultad.TrabajoPracticoDesarrollo.Services;
+
+import Facultad.TrabajoPracticoDesarrollo.Dominio.Estadia;
+import Facultad.TrabajoPracticoDesarrollo.Dominio.Reserva;
+import Facultad.TrabajoPracticoDesarrollo.Eventos.CambioOcupacionEvento;
+import Facultad.TrabajoPracticoDesarrollo.Repositories.EstadiaRepository;
+import Facultad.TrabajoPracticoDesarrollo.Repositories.ReservaRepository;
+import Facultad.TrabajoPracticoDesarrollo.Utils.Ocupacion.IndiceIntervalos;
+import Facultad.TrabajoPracticoDesarrollo.Utils.Ocupacion.IndiceOcupacion;
+import Facultad.TrabajoPracticoDesarrollo.Utils.Ocupacion.IntervaloOcupacion;
+import Facultad.TrabajoPracticoDesarrollo.enums.EstadoOcupacion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Calendario de disponibilidad residente en memoria (habitación x día).
+ *
+ * <p>Se carga una vez al iniciar la aplicación con las reservas activas y las
+ * estadías del horizonte configurado y luego se mantiene incrementalmente con los
+ * {@link CambioOcupacionEvento} que publican los servicios. Los eventos se aplican
+ * recién después del commit ({@link TransactionPhase#AFTER_COMMIT}), por lo que
+ * una transacción que hace rollback no deja rastros en el calendario. Todos los días
+ * ({@code hotel.calendario.recarga-cron}) se recarga para correr el horizonte.</p>
+ *
+ * <p>Por habitación se guarda un arreglo de un byte por día con banderas
+ * (reservada/ocupada) y los árboles de intervalos con el detalle, que se usan
+ * para saber qué reserva o estadía ocupa cada día.</p>
+ *
+ * <p>Si el calendario no está cargado o el rango pedido cae fuera del horizonte,
+ * {@link #cubre(LocalDate, LocalDate)} devuelve {@code false} y los servicios
+ * consultan la base de datos como siempre.</p>
+ *
+ * <p>Cada cambio aplicado (y cada recarga) incrementa {@link #getVersion()}; mientras el
+ * calendario esté cargado, dos lecturas con la misma versión ven la misma ocupación.</p>
+ */
+@Service
+public class CalendarioDisponibilidad {
+
+    private static final Logger log = LoggerFactory.getLogger(CalendarioDisponibilidad.class);
+
+    /** Orden de {@link #aplicar}: los demás oyentes de ocupación deben ir después. */
+    public static final int ORDEN_APLICAR = 0;
+
+    private static final byte BIT_RESERVA = 1;
+    private static final byte BIT_ESTADIA = 2;
+
+    private final ReservaRepository reservaRepository;
+    private final EstadiaRepository estadiaRepository;
+    private final int diasAtras;
+    private final int diasAdelante;
+
+    private final TransactionTemplate transaccionLectura;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Estado protegido por 'lock'
+    private Map<String, Fila> filas = new HashMap<>();
+    private List<CambioOcupacionEvento> eventosDuranteCarga;
+    private LocalDate origen;
+    private int dias;
+    private volatile boolean cargado = false;
+
+    // Se incrementa después de publicar cada cambio, nunca antes
+    private final AtomicLong version = new AtomicLong();
+
+    @Autowired
+    public CalendarioDisponibilidad(ReservaRepository reservaRepository,
+                                    EstadiaRepository estadiaRepository,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${hotel.calendario.dias-atras:60}") int diasAtras,
+                                    @Value("${hotel.calendario.dias-adelante:400}") int diasAdelante) {
+        this.reservaRepository = reservaRepository;
+        this.estadiaRepository = estadiaRepository;
+        // Reservas y estadías se leen en una sola transacción (la carga se llama desde la propia clase)
+        this.transaccionLectura = new TransactionTemplate(transactionManager);
+        this.transaccionLectura.setReadOnly(true);
+        this.diasAtras = diasAtras;
+        this.diasAdelante = diasAdelante;
+    }
+
+    // --- CARGA ---
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargarAlIniciar() {
+        try {
+            recargar();
+        } catch (Exception e) {
+            // Sin calendario los servicios siguen consultando la BD
+            log.error("No se pudo cargar el calendario de disponibilidad", e);
+        }
+    }
+
+    /**
+     * Corre el horizonte una vez por día: el origen y el último día cubierto se calculan con
+     * la fecha de la carga, así que sin esto el calendario cubre cada día un día menos hacia
+     * adelante. También reintenta la carga si la del arranque falló.
+     */
+    @Scheduled(cron = "${hotel.calendario.recarga-cron:0 5 0 * * *}")
+    public void avanzarHorizonte() {
+        cargarAlIniciar();
+    }
+
+    /**
+     * Descarta el estado actual y vuelve a leer reservas activas y estadías del horizonte.
+     *
+     * <p>Los eventos que llegan mientras se lee la base se aplican a la tabla vigente y además
+     * se guardan; antes de publicar la tabla nueva se vuelven a aplicar sobre ella. Como la
+     * lectura empieza después de empezar a guardarlos, un commit que la lectura no vio siempre
+     * está entre los guardados (aplicar un cambio ya leído no altera nada: reemplaza por id).
+     * Si entre ellos hay una recarga completa, se vuelve a leer.</p>
+     */
+    public synchronized void recargar() {
+        boolean repetir;
+        do {
+            LocalDate nuevoOrigen = LocalDate.now().minusDays(diasAtras);
+            int nuevosDias = diasAtras + diasAdelante;
+
+            lock.writeLock().lock();
+            try {
+                eventosDuranteCarga = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            repetir = false;
+            try {
+                Map<String, Fila> nuevasFilas = transaccionLectura.execute(estado -> leer(nuevoOrigen, nuevosDias));
+
+                lock.writeLock().lock();
+                try {
+                    for (CambioOcupacionEvento evento : eventosDuranteCarga) {
+                        if (evento.isRecargaCompleta()) {
+                            repetir = true;
+                        } else {
+                            aplicarCambios(nuevasFilas, nuevoOrigen, nuevosDias, evento);
+                        }
+                    }
+                    this.filas = nuevasFilas;
+                    this.origen = nuevoOrigen;
+                    this.dias = nuevosDias;
+                    this.cargado = true;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                version.incrementAndGet();
+            } finally {
+                lock.writeLock().lock();
+                try {
+                    eventosDuranteCarga = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        } while (repetir);
+    }
+
+    private Map<String, Fila> leer(LocalDate nuevoOrigen, int nuevosDias) {
+        Date inicio = convertToDate(nuevoOrigen);
+        Date fin = convertToDate(nuevoOrigen.plusDays(nuevosDias));
+
+        List<Reserva> reservas = reservaRepository.buscarReservasActivasEnRango(inicio, fin);
+        List<Estadia> estadias = estadiaRepository.buscarEstadiasEnRango(inicio, fin);
+
+        Map<String, Fila> nuevasFilas = new HashMap<>();
+        for (Reserva r : reservas) {
+            if (r.getHabitacion() == null || r.getFechaDesde() == null || r.getFechaHasta() == null) continue;
+            nuevasFilas.computeIfAbsent(r.getHabitacion().getNumero(), k -> new Fila(nuevosDias))
+                    .reservas.add(new IntervaloOcupacion(EstadoOcupacion.RESERVADA, r.getIdReserva(),
+                            IndiceOcupacion.convertToLocalDate(r.getFechaDesde()),
+                            IndiceOcupacion.convertToLocalDate(r.getFechaHasta())));
+        }
+        for (Estadia e : estadias) {
+            if (e.getHabitacion() == null || e.getFechaCheckIn() == null) continue;
+            nuevasFilas.computeIfAbsent(e.getHabitacion().getNumero(), k -> new Fila(nuevosDias))
+                    .estadias.add(new IntervaloOcupacion(EstadoOcupacion.OCUPADA, e.getIdEstadia(),
+                            IndiceOcupacion.convertToLocalDate(e.getFechaCheckIn()),
+                            e.getFechaCheckOut() != null ? IndiceOcupacion.convertToLocalDate(e.getFechaCheckOut()) : null));
+        }
+        for (Fila fila : nuevasFilas.values()) {
+            fila.reindexar();
+            fila.pintar(nuevoOrigen, 0, nuevosDias);
+        }
+        return nuevasFilas;
+    }
+
+    // --- ACTUALIZACIÓN INCREMENTAL ---
+
+    /**
+     * Aplica los cambios de ocupación de una transacción que ya hizo commit.
+     * {@code fallbackExecution} cubre las llamadas hechas fuera de una transacción.
+     * Durante una recarga el evento se guarda además para la tabla nueva.
+     */
+    @Order(ORDEN_APLICAR)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void aplicar(CambioOcupacionEvento evento) {
+        boolean recargaPendiente = false;
+        lock.writeLock().lock();
+        try {
+            if (eventosDuranteCarga != null) eventosDuranteCarga.add(evento);
+            if (!cargado) return;
+            if (evento.isRecargaCompleta()) {
+                // Si hay una carga en curso, ella misma vuelve a leer al ver el evento guardado
+                recargaPendiente = eventosDuranteCarga == null;
+            } else {
+                aplicarCambios(filas, origen, dias, evento);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (recargaPendiente) {
+            cargarAlIniciar();
+        } else if (!evento.isRecargaCompleta()) {
+            version.incrementAndGet();
+        }
+    }
+
+    /** Aplica los cambios del evento sobre una tabla. Se llama con el bloqueo de escritura tomado. */
+    private static void aplicarCambios(Map<String, Fila> filas, LocalDate origen, int dias,
+                                       CambioOcupacionEvento evento) {
+        for (CambioOcupacionEvento.Cambio cambio : evento.getCambios()) {
+            if (cambio.getNumeroHabitacion() == null || cambio.getIntervalo() == null) continue;
+            Fila fila = filas.computeIfAbsent(cambio.getNumeroHabitacion(), k -> new Fila(dias));
+            IntervaloOcupacion intervalo = cambio.getIntervalo();
+            List<IntervaloOcupacion> lista = intervalo.getEstado() == EstadoOcupacion.OCUPADA ? fila.estadias : fila.reservas;
+
+            // Cualquier versión previa del mismo intervalo se reemplaza (p. ej. check-out)
+            IntervaloOcupacion previo = quitar(lista, intervalo);
+            if (cambio.getAccion() == CambioOcupacionEvento.Accion.ALTA) {
+                lista.add(intervalo);
+            }
+            fila.reindexar();
+            repintar(fila, previo, origen, dias);
+            repintar(fila, intervalo, origen, dias);
+        }
+    }
+
+    // --- LECTURAS ---
+
+    public boolean estaCargado() {
+        return cargado;
+    }
+
+    /**
+     * Versión de la ocupación: crece con cada reserva, estadía, check-out o cancelación
+     * confirmada. Debe leerse <b>antes</b> de consultar el calendario para que la versión
+     * nunca sea más nueva que los datos leídos.
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Indica si el calendario puede responder por el rango {@code [desde, hasta)}.
+     */
+    public boolean cubre(LocalDate desde, LocalDate hasta) {
+        if (!cargado) return false;
+        lock.readLock().lock();
+        try {
+            return !desde.isBefore(origen) && !hasta.isAfter(origen.plusDays(dias));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Estado de una habitación en cada día de {@code [desde, hasta]}, leído bajo un mismo
+     * bloqueo para que la fila sea consistente. Posición {@code i} = {@code desde + i};
+     * {@code null} significa libre. El rango debe estar cubierto.
+     */
+    public IntervaloOcupacion[] obtenerFila(String numero, LocalDate desde, LocalDate hasta) {
+        int cantidad = (int) (hasta.toEpochDay() - desde.toEpochDay()) + 1;
+        IntervaloOcupacion[] resultado = new IntervaloOcupacion[Math.max(cantidad, 0)];
+        lock.readLock().lock();
+        try {
+            Fila fila = filas.get(numero);
+            if (fila == null) return resultado;
+            int base = offset(desde);
+            for (int i = 0; i < resultado.length; i++) {
+                resultado[i] = fila.estadoEn(base + i, desde.plusDays(i).toEpochDay());
+            }
+            return resultado;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * {@code true} si hay alguna reserva activa en {@code [desde, hasta)}.
+     */
+    public boolean hayReserva(String numero, LocalDate desde, LocalDate hasta) {
+        return hayBandera(numero, desde, hasta, BIT_RESERVA);
+    }
+
+    /**
+     * {@code true} si hay alguna estadía que ocupe algún día de {@code [desde, hasta)}.
+     */
+    public boolean hayEstadia(String numero, LocalDate desde, LocalDate hasta) {
+        return hayBandera(numero, desde, hasta, BIT_ESTADIA);
+    }
+
+    /**
+     * Para cada habitación indica si se puede reservar en {@code [desde, hasta)}: sin reservas
+     * activas en ese rango y sin estadías en {@code [desde, hasta]}, las mismas reglas que
+     * {@code /api/reservas/disponibilidad}. Todas se evalúan bajo un mismo bloqueo.
+     * El rango {@code [desde, hasta + 1)} debe estar cubierto.
+     */
+    public boolean[] estanLibres(List<String> numeros, LocalDate desde, LocalDate hasta) {
+        boolean[] libres = new boolean[numeros.size()];
+        lock.readLock().lock();
+        try {
+            int a = offset(desde);
+            int b = offset(hasta);
+            for (int n = 0; n < libres.length; n++) {
+                Fila fila = filas.get(numeros.get(n));
+                boolean libre = true;
+                if (fila != null) {
+                    for (int i = a; i < b && libre; i++) {
+                        libre = fila.banderas[i] == 0;
+                    }
+                    libre = libre && (fila.banderas[b] & BIT_ESTADIA) == 0;
+                }
+                libres[n] = libre;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return libres;
+    }
+
+    // --- MÉTODOS PRIVADOS ---
+
+    private boolean hayBandera(String numero, LocalDate desde, LocalDate hasta, byte bit) {
+        lock.readLock().lock();
+        try {
+            Fila fila = filas.get(numero);
+            if (fila == null) return false;
+            int a = offset(desde);
+            int b = offset(hasta);
+            for (int i = a; i < b; i++) {
+                if ((fila.banderas[i] & bit) != 0) return true;
+            }
+            return false;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static void repintar(Fila fila, IntervaloOcupacion intervalo, LocalDate origen, int dias) {
+        if (intervalo == null) return;
+        long inicio = Math.max(intervalo.getDesde() != null ? intervalo.getDesde().toEpochDay() : Long.MIN_VALUE, origen.toEpochDay());
+        long fin = Math.min(intervalo.getHasta() != null ? intervalo.getHasta().toEpochDay() : Long.MAX_VALUE,
+                origen.toEpochDay() + dias);
+        if (inicio >= fin) return;
+        fila.pintar(origen, (int) (inicio - origen.toEpochDay()), (int) (fin - origen.toEpochDay()));
+    }
+
+    private static IntervaloOcupacion quitar(List<IntervaloOcupacion> lista, IntervaloOcupacion intervalo) {
+        for (int i = 0; i < lista.size(); i++) {
+            IntervaloOcupacion actual = lista.get(i);
+            if (actual.getId() != null && Objects.equals(actual.getId(), intervalo.getId())) {
+                return lista.remove(i);
+            }
+        }
+        return null;
+    }
+
+    private int offset(LocalDate dia) {
+        return (int) (dia.toEpochDay() - origen.toEpochDay());
+    }
+
+    private Date convertToDate(LocalDate localDate) {
+        return Date.from(localDate.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+
+    /**
+     * Fila de una habitación: banderas por día más el detalle indexado.
+     */
+    private static class Fila {
+        final byte[] banderas;
+        final List<IntervaloOcupacion> reservas = new ArrayList<>();
+        final List<IntervaloOcupacion> estadias = new ArrayList<>();
+        IndiceIntervalos indiceReservas = IndiceIntervalos.vacio();
+        IndiceIntervalos indiceEstadias = IndiceIntervalos.vacio();
+
+        Fila(int dias) {
+            this.banderas = new byte[dias];
+        }
+
+        void reindexar() {
+            indiceReservas = IndiceIntervalos.construir(reservas);
+            indiceEstadias = IndiceIntervalos.construir(estadias);
+        }
+
+        /** Recalcula las banderas de los días {@code [desdeOffset, hastaOffset)}. */
+        void pintar(LocalDate origen, int desdeOffset, int hastaOffset) {
+            long base = origen.toEpochDay();
+            for (int i = desdeOffset; i < hastaOffset; i++) {
+                byte b = 0;
+                if (indiceReservas.buscarQueContiene(base + i) != null) b |= BIT_RESERVA;
+                if (indiceEstadias.buscarQueContiene(base + i) != null) b |= BIT_ESTADIA;
+                banderas[i] = b;
+            }
+        }
+
+        IntervaloOcupacion estadoEn(int offset, long dia) {
+            byte b = banderas[offset];
+            if ((b & BIT_ESTADIA) != 0) return indiceEstadias.buscarQueContiene(dia);
+            if ((b & BIT_RESERVA) != 0) return indiceReservas.buscarQueContiene(dia);
+            return null;
+        }
+    }
+}
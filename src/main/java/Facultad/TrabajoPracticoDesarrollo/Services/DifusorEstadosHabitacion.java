@@ -0,0 +1,339 @@
+package Facultad.TrabajoPracticoDesarrollo.Services;
+
+import Facultad.TrabajoPracticoDesarrollo.DTOs.DtoCambioEstadoHabitacion;
+import Facultad.TrabajoPracticoDesarrollo.DTOs.DtoEstadoDia;
+import Facultad.TrabajoPracticoDesarrollo.Eventos.CambioOcupacionEvento;
+import Facultad.TrabajoPracticoDesarrollo.Utils.Ocupacion.IndiceOcupacion;
+import Facultad.TrabajoPracticoDesarrollo.Utils.Ocupacion.IntervaloOcupacion;
+import Facultad.TrabajoPracticoDesarrollo.enums.EstadoOcupacion;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Difunde por Server-Sent Events los cambios de estado de la grilla (CU05).
+ *
+ * <p>Escucha los {@link CambioOcupacionEvento} confirmados (después de que el
+ * {@link CalendarioDisponibilidad} los aplicó) y envía, por cada habitación afectada,
+ * el estado nuevo de cada día del rango modificado. El tráfico pasa a depender de la
+ * cantidad de cambios y no de terminales x tamaño de grilla x frecuencia de sondeo.</p>
+ *
+ * <p>Las conexiones SSE son asíncronas: ningún hilo queda tomado por cliente. Un único hilo
+ * ({@code difusorEstadosExecutor}) arma cada delta una sola vez y lo deja en la cola de cada
+ * suscriptor, sin escribir en la red. Cada cola es acotada ({@code cola-maxima}) y la vacía
+ * una tarea propia del suscriptor en el pool {@code difusorEnviosExecutor}, así que un cliente
+ * lento sólo demora sus propios mensajes. Se descarta el suscriptor cuya cola se llena, cuyo
+ * envío falla o cuyo envío lleva más de {@code envio-timeout-ms} bloqueado; al reconectarse
+ * debe volver a pedir la grilla. Mensajes:
+ * <ul>
+ *   <li>{@code cambio}: un {@link DtoCambioEstadoHabitacion} por habitación.</li>
+ *   <li>{@code recargar}: el cambio no se puede expresar como delta (calendario sin cargar,
+ *       rango fuera del horizonte o recarga completa); el cliente debe pedir la grilla.</li>
+ * </ul>
+ * Además se envía un comentario periódico para mantener viva la conexión y detectar clientes
+ * caídos.</p>
+ */
+@Service
+public class DifusorEstadosHabitacion {
+
+    static final String EVENTO_CAMBIO = "cambio";
+    static final String EVENTO_RECARGAR = "recargar";
+
+    private final CalendarioDisponibilidad calendarioDisponibilidad;
+    private final InventarioHabitaciones inventarioHabitaciones;
+    private final ScheduledExecutorService executor;
+    private final ExecutorService envios;
+    private final long timeoutMs;
+    private final long latidoSegundos;
+    private final int diasMaximos;
+    private final int colaMaxima;
+    private final long envioTimeoutMs;
+
+    private final List<Suscriptor> suscriptores = new CopyOnWriteArrayList<>();
+
+    @Autowired
+    public DifusorEstadosHabitacion(CalendarioDisponibilidad calendarioDisponibilidad,
+                                    InventarioHabitaciones inventarioHabitaciones,
+                                    @Qualifier("difusorEstadosExecutor") ScheduledExecutorService executor,
+                                    @Qualifier("difusorEnviosExecutor") ExecutorService envios,
+                                    @Value("${hotel.estados.stream.timeout-ms:1800000}") long timeoutMs,
+                                    @Value("${hotel.estados.stream.latido-segundos:25}") long latidoSegundos,
+                                    @Value("${hotel.estados.stream.dias-maximos:60}") int diasMaximos,
+                                    @Value("${hotel.estados.stream.cola-maxima:256}") int colaMaxima,
+                                    @Value("${hotel.estados.stream.envio-timeout-ms:10000}") long envioTimeoutMs) {
+        this.calendarioDisponibilidad = calendarioDisponibilidad;
+        this.inventarioHabitaciones = inventarioHabitaciones;
+        this.executor = executor;
+        this.envios = envios;
+        this.timeoutMs = timeoutMs;
+        this.latidoSegundos = latidoSegundos;
+        this.diasMaximos = diasMaximos;
+        this.colaMaxima = colaMaxima;
+        this.envioTimeoutMs = envioTimeoutMs;
+    }
+
+    @PostConstruct
+    public void iniciarLatidos() {
+        if (latidoSegundos > 0) {
+            executor.scheduleAtFixedRate(this::enviarLatido, latidoSegundos, latidoSegundos, TimeUnit.SECONDS);
+        }
+        if (envioTimeoutMs > 0) {
+            long periodo = Math.max(1000, envioTimeoutMs / 2);
+            executor.scheduleAtFixedRate(this::descartarBloqueados, periodo, periodo, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // --- SUSCRIPCIÓN ---
+
+    /**
+     * Registra un nuevo suscriptor. La conexión se libera sola al vencer, al cerrarla el
+     * cliente o al fallar un envío.
+     */
+    public SseEmitter suscribir() {
+        SseEmitter emisor = crearEmisor(timeoutMs);
+        Suscriptor suscriptor = new Suscriptor(emisor, colaMaxima);
+        emisor.onCompletion(() -> suscriptores.remove(suscriptor));
+        emisor.onTimeout(() -> suscriptores.remove(suscriptor));
+        emisor.onError(e -> suscriptores.remove(suscriptor));
+        suscriptores.add(suscriptor);
+        return emisor;
+    }
+
+    public int cantidadSuscriptores() {
+        return suscriptores.size();
+    }
+
+    protected SseEmitter crearEmisor(long timeoutMs) {
+        return new SseEmitter(timeoutMs);
+    }
+
+    // --- DIFUSIÓN ---
+
+    /**
+     * Se ejecuta después del commit y después del calendario ({@code @Order}), para leer el
+     * estado ya actualizado. El trabajo se delega al hilo del difusor para no demorar al que
+     * confirmó la transacción.
+     */
+    @Order(CalendarioDisponibilidad.ORDEN_APLICAR + 1)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void alCambiarOcupacion(CambioOcupacionEvento evento) {
+        if (suscriptores.isEmpty()) return;
+        try {
+            executor.execute(() -> difundir(evento));
+        } catch (RejectedExecutionException e) {
+            // La aplicación se está cerrando
+        }
+    }
+
+    private void difundir(CambioOcupacionEvento evento) {
+        List<DtoCambioEstadoHabitacion> deltas = armarDeltas(evento);
+        if (deltas == null) {
+            enviarATodos(SseEmitter.event().name(EVENTO_RECARGAR).data(calendarioDisponibilidad.getVersion()));
+            return;
+        }
+        for (DtoCambioEstadoHabitacion delta : deltas) {
+            enviarATodos(SseEmitter.event().name(EVENTO_CAMBIO).data(delta));
+        }
+    }
+
+    /**
+     * Arma un delta por habitación con los días que el evento pudo modificar, o devuelve
+     * {@code null} si no se puede expresar como delta.
+     * <p>
+     * Para estadías se cubren además los {@code diasMaximos} días desde hoy: un check-out
+     * reemplaza una estadía abierta y libera los días posteriores.
+     */
+    private List<DtoCambioEstadoHabitacion> armarDeltas(CambioOcupacionEvento evento) {
+        if (evento.isRecargaCompleta() || !calendarioDisponibilidad.estaCargado()) return null;
+        LocalDate hoy = LocalDate.now();
+
+        Map<String, LocalDate[]> rangos = new LinkedHashMap<>();
+        for (CambioOcupacionEvento.Cambio cambio : evento.getCambios()) {
+            IntervaloOcupacion intervalo = cambio.getIntervalo();
+            if (cambio.getNumeroHabitacion() == null || intervalo == null || intervalo.getDesde() == null) continue;
+
+            LocalDate desde = intervalo.getDesde();
+            LocalDate hasta = intervalo.getHasta() != null ? intervalo.getHasta() : desde.plusDays(diasMaximos);
+            if (intervalo.getEstado() == EstadoOcupacion.OCUPADA) {
+                LocalDate limite = (desde.isAfter(hoy) ? desde : hoy).plusDays(diasMaximos);
+                if (hasta.isBefore(limite)) hasta = limite;
+            }
+            if (!calendarioDisponibilidad.cubre(desde, hasta.plusDays(1))) {
+                // Sólo interesa lo que una grilla razonable puede estar mostrando
+                if (desde.isBefore(hoy)) desde = hoy;
+                if (hasta.isAfter(hoy.plusDays(diasMaximos))) hasta = hoy.plusDays(diasMaximos);
+                if (desde.isAfter(hasta)) continue;
+                if (!calendarioDisponibilidad.cubre(desde, hasta.plusDays(1))) return null;
+            }
+
+            LocalDate[] rango = rangos.get(cambio.getNumeroHabitacion());
+            if (rango == null) {
+                rangos.put(cambio.getNumeroHabitacion(), new LocalDate[]{desde, hasta});
+            } else {
+                if (desde.isBefore(rango[0])) rango[0] = desde;
+                if (hasta.isAfter(rango[1])) rango[1] = hasta;
+            }
+        }
+
+        long version = calendarioDisponibilidad.getVersion();
+        List<DtoCambioEstadoHabitacion> deltas = new ArrayList<>();
+        for (Map.Entry<String, LocalDate[]> entrada : rangos.entrySet()) {
+            String numero = entrada.getKey();
+            LocalDate desde = entrada.getValue()[0];
+            boolean mantenimiento = inventarioHabitaciones.buscar(numero)
+                    .map(IndiceOcupacion::estaFueraDeServicio)
+                    .orElse(false);
+            IntervaloOcupacion[] fila = calendarioDisponibilidad.obtenerFila(numero, desde, entrada.getValue()[1]);
+
+            List<DtoEstadoDia> dias = new ArrayList<>(fila.length);
+            for (int i = 0; i < fila.length; i++) {
+                String fecha = desde.plusDays(i).toString();
+                if (mantenimiento) {
+                    dias.add(new DtoEstadoDia(fecha, EstadoOcupacion.MANTENIMIENTO.name(), null));
+                } else if (fila[i] == null) {
+                    dias.add(new DtoEstadoDia(fecha, EstadoOcupacion.DISPONIBLE.name(), null));
+                } else {
+                    dias.add(new DtoEstadoDia(fecha, fila[i].getEstado().name(), fila[i].getId()));
+                }
+            }
+            deltas.add(new DtoCambioEstadoHabitacion(numero, version, dias));
+        }
+        return deltas;
+    }
+
+    private void enviarLatido() {
+        enviarATodos(SseEmitter.event().comment("latido"));
+    }
+
+    /**
+     * Encola el mensaje en cada suscriptor sin bloquear. El mensaje se serializa una sola vez:
+     * {@code SseEventBuilder.build()} no es reutilizable.
+     */
+    private void enviarATodos(SseEmitter.SseEventBuilder mensaje) {
+        Set<ResponseBodyEmitter.DataWithMediaType> datos = mensaje.build();
+        for (Suscriptor suscriptor : suscriptores) {
+            if (!suscriptor.pendientes.offer(datos)) {
+                // No consume al ritmo del resto: perdió mensajes, mejor que reconecte
+                descartar(suscriptor, new IOException("Cola de envío llena"));
+                continue;
+            }
+            programarEnvio(suscriptor);
+        }
+    }
+
+    /**
+     * Lanza la tarea que vacía la cola del suscriptor, salvo que ya haya una en curso. Así
+     * hay como mucho una tarea por suscriptor y sus mensajes salen en orden.
+     */
+    private void programarEnvio(Suscriptor suscriptor) {
+        if (!suscriptor.enviando.compareAndSet(false, true)) return;
+        try {
+            envios.execute(() -> vaciarCola(suscriptor));
+        } catch (RejectedExecutionException e) {
+            // La aplicación se está cerrando
+            suscriptor.enviando.set(false);
+        }
+    }
+
+    private void vaciarCola(Suscriptor suscriptor) {
+        try {
+            Set<ResponseBodyEmitter.DataWithMediaType> datos;
+            while (suscriptor.descarte == null && (datos = suscriptor.pendientes.poll()) != null) {
+                suscriptor.envioDesde = System.nanoTime();
+                suscriptor.emisor.send(datos);
+                suscriptor.envioDesde = 0;
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Cliente desconectado: se descarta sin afectar al resto
+            suscriptores.remove(suscriptor);
+            if (suscriptor.descarte == null) suscriptor.descarte = e;
+        } finally {
+            suscriptor.envioDesde = 0;
+        }
+        if (suscriptor.descarte != null) {
+            cerrar(suscriptor);
+            return;
+        }
+        suscriptor.enviando.set(false);
+        // Pudo entrar un mensaje (o un descarte) entre el último poll y liberar la marca
+        if (!suscriptor.pendientes.isEmpty() || suscriptor.descarte != null) programarEnvio(suscriptor);
+    }
+
+    /**
+     * {@code send} bloquea mientras el cliente no lee. Se descarta el suscriptor cuyo envío
+     * lleva más de {@code envioTimeoutMs}: deja de recibir mensajes enseguida y su conexión
+     * se cierra cuando la escritura pendiente vuelve (a más tardar, al vencer el timeout de
+     * escritura del contenedor).
+     */
+    private void descartarBloqueados() {
+        long limite = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(envioTimeoutMs);
+        for (Suscriptor suscriptor : suscriptores) {
+            long desde = suscriptor.envioDesde;
+            if (desde != 0 && desde - limite < 0) {
+                descartar(suscriptor, new IOException("Envío bloqueado por más de " + envioTimeoutMs + " ms"));
+            }
+        }
+    }
+
+    /**
+     * Saca al suscriptor de la difusión. {@code SseEmitter} sincroniza {@code send} y
+     * {@code completeWithError}, así que sólo se cierra acá si no hay un envío en curso;
+     * si lo hay, lo cierra la tarea de envío al terminar y este hilo no queda esperando.
+     */
+    private void descartar(Suscriptor suscriptor, Exception causa) {
+        if (!suscriptores.remove(suscriptor)) return;
+        suscriptor.descarte = causa;
+        suscriptor.pendientes.clear();
+        if (suscriptor.enviando.compareAndSet(false, true)) cerrar(suscriptor);
+    }
+
+    private void cerrar(Suscriptor suscriptor) {
+        try {
+            suscriptor.emisor.completeWithError(suscriptor.descarte);
+        } catch (IllegalStateException e) {
+            // Ya estaba cerrado
+        }
+    }
+
+    /**
+     * Una conexión SSE con su cola de mensajes por enviar.
+     */
+    private static final class Suscriptor {
+        private final SseEmitter emisor;
+        private final BlockingQueue<Set<ResponseBodyEmitter.DataWithMediaType>> pendientes;
+        /** Marca de uso exclusivo del emisor: la tiene la tarea de envío o quien lo cierra. */
+        private final AtomicBoolean enviando = new AtomicBoolean();
+        /** {@code System.nanoTime()} del envío en curso, o 0 si no hay ninguno. */
+        private volatile long envioDesde;
+        /** Motivo por el que se descartó; una vez puesto, el emisor sólo se cierra. */
+        private volatile Exception descarte;
+
+        private Suscriptor(SseEmitter emisor, int colaMaxima) {
+            this.emisor = emisor;
+            this.pendientes = new ArrayBlockingQueue<>(Math.max(1, colaMaxima));
+        }
+    }
+}
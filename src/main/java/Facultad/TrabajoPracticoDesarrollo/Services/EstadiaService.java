@@ -3,12 +3,18 @@ package Facultad.TrabajoPracticoDesarrollo.Services;
 import Facultad.TrabajoPracticoDesarrollo.Dominio.*;
 import Facultad.TrabajoPracticoDesarrollo.DTOs.DtoEstadia;
 import Facultad.TrabajoPracticoDesarrollo.DTOs.DtoHuesped;
+import Facultad.TrabajoPracticoDesarrollo.Eventos.CambioOcupacionEvento;
 import Facultad.TrabajoPracticoDesarrollo.Repositories.EstadiaRepository;
 import Facultad.TrabajoPracticoDesarrollo.Repositories.HabitacionRepository;
 import Facultad.TrabajoPracticoDesarrollo.Repositories.HuespedRepository;
+import Facultad.TrabajoPracticoDesarrollo.Utils.Inventario.HabitacionCatalogo;
 import Facultad.TrabajoPracticoDesarrollo.Utils.Mapear.MapearEstadia;
+import Facultad.TrabajoPracticoDesarrollo.Utils.Ocupacion.IndiceOcupacion;
+import Facultad.TrabajoPracticoDesarrollo.Utils.Ocupacion.IntervaloOcupacion;
+import Facultad.TrabajoPracticoDesarrollo.enums.EstadoOcupacion;
 import Facultad.TrabajoPracticoDesarrollo.enums.Responsable;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -23,14 +29,23 @@ public class EstadiaService {
     private final EstadiaRepository estadiaRepository;
     private final HuespedRepository huespedRepository;
     private final HabitacionRepository habitacionRepository;
+    private final InventarioHabitaciones inventarioHabitaciones;
+    private final CalendarioDisponibilidad calendarioDisponibilidad;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
     public EstadiaService(EstadiaRepository estadiaRepository,
                           HuespedRepository huespedRepository,
-                          HabitacionRepository habitacionRepository) {
+                          HabitacionRepository habitacionRepository,
+                          InventarioHabitaciones inventarioHabitaciones,
+                          CalendarioDisponibilidad calendarioDisponibilidad,
+                          ApplicationEventPublisher eventPublisher) {
         this.estadiaRepository = estadiaRepository;
         this.huespedRepository = huespedRepository;
         this.habitacionRepository = habitacionRepository;
+        this.inventarioHabitaciones = inventarioHabitaciones;
+        this.calendarioDisponibilidad = calendarioDisponibilidad;
+        this.eventPublisher = eventPublisher;
     }
 
     // --- BÚSQUEDAS PARA OTROS SERVICIOS ---
@@ -46,8 +61,17 @@ public class EstadiaService {
 
     // --- MÉTODOS DEL NEGOCIO ---
 
+    /**
+     * Si el rango está dentro del calendario en memoria se responde sin ir a la BD.
+     * Igual que la consulta, el día de fin cuenta (check-in &lt;= fin).
+     */
     @Transactional(readOnly = true)
     public boolean validarDisponibilidad(String idHabitacion, Date fechaInicio, Date fechaFin) {
+        LocalDate desde = IndiceOcupacion.convertToLocalDate(fechaInicio);
+        LocalDate hasta = IndiceOcupacion.convertToLocalDate(fechaFin).plusDays(1);
+        if (calendarioDisponibilidad.cubre(desde, hasta)) {
+            return !calendarioDisponibilidad.hayEstadia(idHabitacion, desde, hasta);
+        }
         return !estadiaRepository.existeEstadiaEnFechas(idHabitacion, fechaInicio, fechaFin);
     }
 
@@ -92,7 +116,7 @@ public class EstadiaService {
             }
         }
 
-        Habitacion habReal = habitacionRepository.findById(dtoEstadia.getDtoHabitacion().getNumero())
+        HabitacionCatalogo habReal = inventarioHabitaciones.buscar(dtoEstadia.getDtoHabitacion().getNumero())
                 .orElseThrow(() -> new Exception("La habitación no existe."));
 
         int cantidadPersonas = dtoEstadia.getDtoHuespedes().size();
@@ -102,7 +126,8 @@ public class EstadiaService {
         }
 
         Estadia estadiaNueva = MapearEstadia.mapearDtoAEntidad(dtoEstadia);
-        estadiaNueva.setHabitacion(habReal);
+        // La del inventario es una copia de sólo lectura: para la FK alcanza con la referencia
+        estadiaNueva.setHabitacion(habitacionRepository.getReferenceById(habReal.getNumero()));
         estadiaNueva = estadiaRepository.save(estadiaNueva);
 
         List<EstadiaHuesped> estadiaHuespedList = new ArrayList<>();
@@ -130,5 +155,18 @@ public class EstadiaService {
 
         estadiaNueva.setEstadiaHuespedes(estadiaHuespedList);
         estadiaRepository.save(estadiaNueva);
+
+        // El calendario lo aplica recién después del commit
+        eventPublisher.publishEvent(CambioOcupacionEvento.de(List.of(
+                CambioOcupacionEvento.Cambio.alta(habReal.getNumero(), aIntervalo(estadiaNueva)))));
+    }
+
+    /**
+     * Intervalo de ocupación de una estadía (sin check-out queda abierto).
+     */
+    public static IntervaloOcupacion aIntervalo(Estadia estadia) {
+        return new IntervaloOcupacion(EstadoOcupacion.OCUPADA, estadia.getIdEstadia(),
+                estadia.getFechaCheckIn() != null ? IndiceOcupacion.convertToLocalDate(estadia.getFechaCheckIn()) : null,
+                estadia.getFechaCheckOut() != null ? IndiceOcupacion.convertToLocalDate(estadia.getFechaCheckOut()) : null);
     }
 }
\ No newline at end of file
@@ -0,0 +1,125 @@
+package Facultad.TrabajoPracticoDesarrollo.Services;
+
+import Facultad.TrabajoPracticoDesarrollo.DTOs.DtoDireccion;
+import Facultad.TrabajoPracticoDesarrollo.DTOs.DtoHuesped;
+import Facultad.TrabajoPracticoDesarrollo.Repositories.HuespedRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Exportación del padrón completo de huéspedes en NDJSON o CSV.
+ *
+ * <p>Los huéspedes se leen con un cursor de la base ({@code hotel.exportacion.tamanio-fetch}
+ * filas por viaje) y se escriben a medida que llegan; después de cada viaje se vacía el buffer
+ * hacia el cliente. En memoria hay como mucho un viaje de filas, sin importar cuántos huéspedes
+ * haya. El CSV usa las mismas columnas que acepta {@link ImportadorHuespedes}, así un archivo
+ * exportado se puede volver a importar.</p>
+ */
+@Service
+public class ExportadorHuespedes {
+
+    static final List<String> COLUMNAS_CSV = List.of(
+            "tipoDocumento", "nroDocumento", "apellido", "nombres", "fechaNacimiento", "nacionalidad",
+            "posicionIva", "cuit", "telefono", "email", "ocupacion",
+            "calle", "numero", "departamento", "piso", "codPostal", "localidad", "provincia", "pais");
+
+    private final HuespedRepository huespedRepository;
+    private final ObjectWriter escritorHuesped;
+    private final TransactionTemplate transactionTemplate;
+    private final int tamanioFetch;
+
+    public ExportadorHuespedes(HuespedRepository huespedRepository,
+                               ObjectMapper objectMapper,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${hotel.exportacion.tamanio-fetch:1000}") int tamanioFetch) {
+        this.huespedRepository = huespedRepository;
+        this.escritorHuesped = objectMapper.writerFor(DtoHuesped.class);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.tamanioFetch = tamanioFetch;
+    }
+
+    /**
+     * Escribe todos los huéspedes en {@code salida}.
+     *
+     * @param salida  destino (UTF-8); se vacía pero no se cierra
+     * @param formato formato de salida
+     * @return cantidad de huéspedes exportados
+     * @throws IOException si falla la escritura (por ejemplo, el cliente cortó la descarga)
+     */
+    public long exportar(OutputStream salida, ImportadorHuespedes.Formato formato) throws IOException {
+        Writer escritor = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8));
+        SimpleDateFormat formatoFecha = new SimpleDateFormat("yyyy-MM-dd");
+        if (formato == ImportadorHuespedes.Formato.CSV) {
+            escritor.write(String.join(",", COLUMNAS_CSV));
+            escritor.write('\n');
+        }
+
+        long[] escritos = {0};
+        try {
+            // El cursor solo existe dentro de una transacción (autocommit desactivado)
+            transactionTemplate.executeWithoutResult(estado -> huespedRepository.recorrerTodos(tamanioFetch, dto -> {
+                try {
+                    escritor.write(formato == ImportadorHuespedes.Formato.CSV
+                            ? filaCsv(dto, formatoFecha) : escritorHuesped.writeValueAsString(dto));
+                    escritor.write('\n');
+                    if (++escritos[0] % tamanioFetch == 0) escritor.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        escritor.flush();
+        return escritos[0];
+    }
+
+    private static String filaCsv(DtoHuesped h, SimpleDateFormat formatoFecha) {
+        DtoDireccion d = h.getDtoDireccion() != null ? h.getDtoDireccion() : new DtoDireccion();
+        Object[] valores = {
+                h.getTipoDocumento() != null ? h.getTipoDocumento().name() : null,
+                h.getNroDocumento(), h.getApellido(), h.getNombres(),
+                h.getFechaNacimiento() != null ? formatoFecha.format(h.getFechaNacimiento()) : null,
+                h.getNacionalidad(),
+                h.getPosicionIva() != null ? h.getPosicionIva().name() : null,
+                h.getCuit(), lista(h.getTelefono()), lista(h.getEmail()), lista(h.getOcupacion()),
+                d.getCalle(), d.getNumero(), d.getDepartamento(), d.getPiso(), d.getCodPostal(),
+                d.getLocalidad(), d.getProvincia(), d.getPais()
+        };
+        StringBuilder fila = new StringBuilder();
+        for (int i = 0; i < valores.length; i++) {
+            if (i > 0) fila.append(',');
+            fila.append(campoCsv(valores[i]));
+        }
+        return fila.toString();
+    }
+
+    private static String lista(List<?> valores) {
+        if (valores == null) return null;
+        return valores.stream().map(String::valueOf).collect(Collectors.joining("|"));
+    }
+
+    /** Entre comillas solo si hace falta, con {@code ""} como comilla escapada (lo que lee el importador). */
+    private static String campoCsv(Object valor) {
+        if (valor == null) return "";
+        String texto = valor.toString();
+        if (texto.indexOf(',') < 0 && texto.indexOf('"') < 0) return texto;
+        return '"' + texto.replace("\"", "\"\"") + '"';
+    }
+}
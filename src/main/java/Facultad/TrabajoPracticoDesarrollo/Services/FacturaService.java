@@ -1,7 +1,9 @@
 package Facultad.TrabajoPracticoDesarrollo.Services;
 
+import Facultad.TrabajoPracticoDesarrollo.Config.FacturacionProperties;
 import Facultad.TrabajoPracticoDesarrollo.DTOs.*;
 import Facultad.TrabajoPracticoDesarrollo.Dominio.*;
+import Facultad.TrabajoPracticoDesarrollo.Eventos.CambioOcupacionEvento;
 import Facultad.TrabajoPracticoDesarrollo.Repositories.*;
 import Facultad.TrabajoPracticoDesarrollo.Utils.Mapear.MapearFactura;
 import Facultad.TrabajoPracticoDesarrollo.enums.EstadoFactura;
@@ -9,6 +11,7 @@ import Facultad.TrabajoPracticoDesarrollo.enums.PosIva;
 import Facultad.TrabajoPracticoDesarrollo.enums.TipoDocumento;
 import Facultad.TrabajoPracticoDesarrollo.enums.TipoFactura;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -36,9 +39,12 @@ public class FacturaService {
     private final PersonaFisicaRepository personaFisicaRepository;
     private final ServiciosAdicionalesRepository serviciosAdicionalesRepository;
     private final DireccionRepository direccionRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final NumeradorFacturas numeradorFacturas;
+    private final FacturacionProperties facturacionProperties;
 
     @Autowired
-    public FacturaService(DireccionRepository direccionRepository, ServiciosAdicionalesRepository serviciosAdicionalesRepository, PersonaFisicaRepository personaFisicaRepository, ResponsablePagoRepository responsablePagoRepository, HuespedRepository huespedRepository, EstadiaRepository estadiaRepository, FacturaRepository facturaRepository, NotaDeCreditoRepository notaDeCreditoRepository) {
+    public FacturaService(DireccionRepository direccionRepository, ServiciosAdicionalesRepository serviciosAdicionalesRepository, PersonaFisicaRepository personaFisicaRepository, ResponsablePagoRepository responsablePagoRepository, HuespedRepository huespedRepository, EstadiaRepository estadiaRepository, FacturaRepository facturaRepository, NotaDeCreditoRepository notaDeCreditoRepository, ApplicationEventPublisher eventPublisher, NumeradorFacturas numeradorFacturas, FacturacionProperties facturacionProperties) {
         this.estadiaRepository = estadiaRepository;
         this.facturaRepository = facturaRepository;
         this.responsablePagoRepository = responsablePagoRepository;
@@ -47,6 +53,9 @@ public class FacturaService {
         this.personaFisicaRepository = personaFisicaRepository;
         this.serviciosAdicionalesRepository = serviciosAdicionalesRepository;
         this.direccionRepository = direccionRepository;
+        this.eventPublisher = eventPublisher;
+        this.numeradorFacturas = numeradorFacturas;
+        this.facturacionProperties = facturacionProperties;
     }
 
     // --- MÉTODOS DE BÚSQUEDA ---
@@ -318,27 +327,13 @@ public class FacturaService {
                 .orElseThrow(() -> new IllegalArgumentException("No se encontró el responsable ID: " + idDelResponsable));
 
         //Genera numero de factura
-        String puntoVenta = "0005"; // Fijo
-        Factura ultimaFactura = facturaRepository.findTopByOrderByNumeroFacturaDesc();
-
-        String ultimoNumero = null;
-        if (ultimaFactura != null) {
-            ultimoNumero = ultimaFactura.getNumeroFactura();
+        // Formato final: "B-0005-XXXXXXXX" (8 dígitos con ceros a la izquierda). Cada punto de venta
+        // numera cada tipo de factura por separado, así los puntos de venta no se esperan entre sí
+        if (dto.getTipoFactura() == null) {
+            throw new IllegalArgumentException("Falta el tipo de factura.");
         }
-
-        int siguienteNumero = 1;
-
-        if (ultimoNumero != null && !ultimoNumero.isEmpty()) {
-            try {
-                String parteNumerica = ultimoNumero.split("-")[1];
-                siguienteNumero = Integer.parseInt(parteNumerica) + 1;
-            } catch (Exception e) {
-                System.err.println("Error al parsear último número: " + ultimoNumero);
-            }
-        }
-
-        // Formato final: "0005-XXXXXXXX" (8 dígitos con ceros a la izquierda)
-        String numeroGenerado = String.format("%s-%08d", puntoVenta, siguienteNumero);
+        String puntoVenta = facturacionProperties.resolver(dto.getPuntoVenta());
+        String numeroGenerado = numeradorFacturas.siguiente(puntoVenta, dto.getTipoFactura());
 
         Factura factura = MapearFactura.mapearDtoAEntidad(dto, responsable, estadia);
 
@@ -374,8 +369,14 @@ public class FacturaService {
 
         estadia.setFechaCheckOut(factura.getFechaEmision());
         estadiaRepository.save(estadia);
+        if (estadia.getHabitacion() != null) {
+            // El check-out cierra el intervalo de la estadía en el calendario (tras el commit)
+            eventPublisher.publishEvent(CambioOcupacionEvento.de(List.of(
+                    CambioOcupacionEvento.Cambio.alta(estadia.getHabitacion().getNumero(), EstadiaService.aIntervalo(estadia)))));
+        }
 
         dto.setNumeroFactura(numeroGenerado);
+        dto.setPuntoVenta(puntoVenta);
 
         return dto;
     }
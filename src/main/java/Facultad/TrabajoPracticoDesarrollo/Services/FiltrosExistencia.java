@@ -0,0 +1,263 @@
+package Facultad.TrabajoPracticoDesarrollo.Services;
+
+import Facultad.TrabajoPracticoDesarrollo.DTOs.DtoMetricasFiltroExistencia;
+import Facultad.TrabajoPracticoDesarrollo.Utils.Existencia.FiltroBloom;
+import Facultad.TrabajoPracticoDesarrollo.enums.TipoDocumento;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Filtros de Bloom en memoria para las consultas de existencia por clave primaria
+ * ({@code /api/huespedes/existe}, {@code /api/pagos/cheque-existe} y {@code /api/pagos/tarjeta-existe}).
+ *
+ * <p>Casi todas esas consultas contestan "no existe" (se llaman mientras se tipea el documento o el
+ * número). Con {@link #buscar} el filtro contesta esos casos sin ir a la base; si el filtro dice
+ * "puede existir" se consulta la base como siempre. Un filtro de Bloom no da falsos negativos, así
+ * que la respuesta nunca cambia; solo se evitan consultas.</p>
+ *
+ * <p>Los filtros se cargan al iniciar la aplicación (una lectura de las claves por tabla) y los
+ * servicios llaman a {@link #registrar} <b>antes</b> de insertar: si la transacción hace rollback
+ * queda un bit de más (a lo sumo un falso positivo), pero nunca hay una fila confirmada que el
+ * filtro desconozca. Mientras el filtro no está cargado se consulta siempre la base.</p>
+ *
+ * <p>Una recarga lee las claves con una foto de la base tomada al empezar la lectura. Las altas
+ * registradas durante la carga van a los dos filtros; las registradas poco antes (las de los
+ * últimos {@code hotel.filtros-existencia.ventana-altas-ms}) se copian al filtro nuevo, porque su
+ * transacción puede confirmar después de la foto. {@link #registrar} y la publicación del filtro
+ * nuevo comparten un lock de lectura/escritura: una alta o ve el filtro en carga o ya está en las
+ * recientes que se copian.</p>
+ *
+ * <p>Las filas insertadas por fuera de la aplicación (scripts, otra instancia) no se ven hasta
+ * {@link #recargar()}; por eso este atajo supone, como el calendario de disponibilidad, una sola
+ * instancia escribiendo. Los filtros no permiten borrar: las bajas solo suben la tasa de falsos
+ * positivos hasta la próxima recarga.</p>
+ */
+@Service
+public class FiltrosExistencia {
+
+    /** Espacios de claves con filtro propio; cada uno sabe contar y leer sus claves. */
+    public enum Espacio {
+        HUESPED("SELECT COUNT(*) FROM huesped",
+                "SELECT CAST(tipo_documento AS TEXT) || ' ' || numero_documento FROM huesped"),
+        CHEQUE("SELECT COUNT(*) FROM cheque", "SELECT numero_cheque FROM cheque"),
+        TARJETA("SELECT COUNT(*) FROM tarjeta", "SELECT numero_tarjeta FROM tarjeta");
+
+        private final String sqlContar;
+        private final String sqlClaves;
+
+        Espacio(String sqlContar, String sqlClaves) {
+            this.sqlContar = sqlContar;
+            this.sqlClaves = sqlClaves;
+        }
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(FiltrosExistencia.class);
+
+    private static final int TAMANIO_FETCH = 5000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaccionLectura;
+    private final double tasaObjetivo;
+    private final long capacidadMinima;
+    private final long ventanaAltasNanos;
+    private final Map<Espacio, Estado> estados = new EnumMap<>(Espacio.class);
+    // Lectura: registrar (pueden ser muchos a la vez). Escritura: publicar o cambiar el filtro en carga
+    private final ReadWriteLock cerrojo = new ReentrantReadWriteLock();
+
+    @Autowired
+    public FiltrosExistencia(JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${hotel.filtros-existencia.tasa-falsos-positivos:0.01}") double tasaObjetivo,
+                             @Value("${hotel.filtros-existencia.capacidad-minima:10000}") long capacidadMinima,
+                             @Value("${hotel.filtros-existencia.ventana-altas-ms:300000}") long ventanaAltasMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        // Postgres solo respeta el fetch size dentro de una transacción; la carga se llama
+        // también desde la propia clase (al iniciar), así que no alcanza con @Transactional
+        this.transaccionLectura = new TransactionTemplate(transactionManager);
+        this.transaccionLectura.setReadOnly(true);
+        this.tasaObjetivo = tasaObjetivo;
+        this.capacidadMinima = capacidadMinima;
+        this.ventanaAltasNanos = TimeUnit.MILLISECONDS.toNanos(ventanaAltasMs);
+        for (Espacio espacio : Espacio.values()) {
+            estados.put(espacio, new Estado());
+        }
+    }
+
+    /** Clave de un huésped en el espacio {@link Espacio#HUESPED} (la misma que arma la carga). */
+    public static String claveHuesped(TipoDocumento tipo, String nroDocumento) {
+        return tipo.name() + " " + nroDocumento;
+    }
+
+    // --- CONSULTAS ---
+
+    /**
+     * Busca por clave pasando primero por el filtro.
+     *
+     * @param enBase búsqueda en la base; debe devolver {@code null} si no existe
+     * @return {@code null} si el filtro descarta la clave; si no, lo que devuelva {@code enBase}
+     */
+    public <T> T buscar(Espacio espacio, String clave, Supplier<T> enBase) {
+        Estado estado = estados.get(espacio);
+        FiltroBloom filtro = estado.filtro;
+        if (filtro == null || clave == null) return enBase.get();
+
+        estado.consultas.increment();
+        if (!filtro.puedeContener(clave)) {
+            estado.respondidasSinBase.increment();
+            return null;
+        }
+        T encontrado = enBase.get();
+        if (encontrado == null) estado.falsosPositivos.increment();
+        return encontrado;
+    }
+
+    /**
+     * Agrega una clave que se va a insertar. Debe llamarse antes de guardar la fila.
+     */
+    public void registrar(Espacio espacio, String clave) {
+        if (clave == null) return;
+        Estado estado = estados.get(espacio);
+        long ahora = System.nanoTime();
+        cerrojo.readLock().lock();
+        try {
+            if (estado.enCarga != null) estado.enCarga.agregar(clave);
+            if (estado.filtro != null) estado.filtro.agregar(clave);
+            estado.recientes.add(new Alta(clave, ahora));
+        } finally {
+            cerrojo.readLock().unlock();
+        }
+        descartarViejas(estado, ahora);
+    }
+
+    public List<DtoMetricasFiltroExistencia> obtenerMetricas() {
+        List<DtoMetricasFiltroExistencia> metricas = new ArrayList<>();
+        for (Map.Entry<Espacio, Estado> entrada : estados.entrySet()) {
+            Estado estado = entrada.getValue();
+            FiltroBloom filtro = estado.filtro;
+            long sinBase = estado.respondidasSinBase.sum();
+            long falsos = estado.falsosPositivos.sum();
+            metricas.add(new DtoMetricasFiltroExistencia(
+                    entrada.getKey().name(),
+                    filtro != null,
+                    filtro != null ? filtro.getElementos() : 0,
+                    filtro != null ? filtro.getCapacidad() : 0,
+                    filtro != null ? filtro.getCantidadHashes() : 0,
+                    filtro != null ? filtro.getMemoriaBytes() : 0,
+                    filtro != null ? filtro.tasaFalsosPositivosEstimada() : 0,
+                    sinBase + falsos > 0 ? (double) falsos / (sinBase + falsos) : 0,
+                    estado.consultas.sum(),
+                    sinBase,
+                    falsos,
+                    estado.ultimaCarga != null ? estado.ultimaCarga.toString() : null));
+        }
+        return metricas;
+    }
+
+    // --- CARGA ---
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargarAlIniciar() {
+        try {
+            recargar();
+        } catch (Exception e) {
+            // Sin filtros se consulta siempre la base
+            log.warn("No se pudieron cargar los filtros de existencia: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Vuelve a armar los filtros leyendo todas las claves. Se dimensionan para el doble de las
+     * claves actuales (o {@code hotel.filtros-existencia.capacidad-minima}), así aguantan el
+     * crecimiento sin pasar de la tasa de falsos positivos configurada.
+     */
+    public synchronized void recargar() {
+        for (Espacio espacio : Espacio.values()) {
+            transaccionLectura.executeWithoutResult(status -> cargar(espacio, estados.get(espacio)));
+        }
+    }
+
+    private void cargar(Espacio espacio, Estado estado) {
+        Long cantidad = jdbcTemplate.queryForObject(espacio.sqlContar, Long.class);
+        FiltroBloom nuevo = FiltroBloom.paraCapacidad(
+                Math.max(capacidadMinima, 2 * (cantidad != null ? cantidad : 0)), tasaObjetivo);
+
+        cerrojo.writeLock().lock();
+        try {
+            // Desde acá las altas también van al filtro nuevo; las recientes pueden no estar
+            // confirmadas todavía y no salir en la lectura
+            estado.enCarga = nuevo;
+            descartarViejas(estado, System.nanoTime());
+            for (Alta alta : estado.recientes) nuevo.agregar(alta.clave);
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(espacio.sqlClaves,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(TAMANIO_FETCH);
+            return ps;
+        }, rs -> {
+            nuevo.agregar(rs.getString(1));
+        });
+
+        cerrojo.writeLock().lock();
+        try {
+            estado.filtro = nuevo;
+            estado.enCarga = null;
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+        estado.ultimaCarga = Instant.now();
+    }
+
+    /** Saca de las recientes las altas más viejas que la ventana (ya confirmadas o descartadas). */
+    private void descartarViejas(Estado estado, long ahora) {
+        Alta primera;
+        while ((primera = estado.recientes.peek()) != null && ahora - primera.instante > ventanaAltasNanos) {
+            estado.recientes.remove(primera);
+        }
+    }
+
+    private static final class Estado {
+        private volatile FiltroBloom filtro;
+        private volatile FiltroBloom enCarga;
+        private volatile Instant ultimaCarga;
+        private final ConcurrentLinkedQueue<Alta> recientes = new ConcurrentLinkedQueue<>();
+        private final LongAdder consultas = new LongAdder();
+        private final LongAdder respondidasSinBase = new LongAdder();
+        private final LongAdder falsosPositivos = new LongAdder();
+    }
+
+    private static final class Alta {
+        private final String clave;
+        private final long instante;
+
+        private Alta(String clave, long instante) {
+            this.clave = clave;
+            this.instante = instante;
+        }
+    }
+}
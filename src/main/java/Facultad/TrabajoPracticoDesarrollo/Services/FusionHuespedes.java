@@ -0,0 +1,328 @@
+package Facultad.TrabajoPracticoDesarrollo.Services;
+
+import Facultad.TrabajoPracticoDesarrollo.DTOs.DtoTrabajoFusion;
+import Facultad.TrabajoPracticoDesarrollo.Dominio.FusionHuesped;
+import Facultad.TrabajoPracticoDesarrollo.Dominio.Huesped;
+import Facultad.TrabajoPracticoDesarrollo.Dominio.HuespedId;
+import Facultad.TrabajoPracticoDesarrollo.Dominio.PersonaFisica;
+import Facultad.TrabajoPracticoDesarrollo.Eventos.FusionProgramadaEvento;
+import Facultad.TrabajoPracticoDesarrollo.Repositories.EstadiaHuespedRepository;
+import Facultad.TrabajoPracticoDesarrollo.Repositories.FacturaRepository;
+import Facultad.TrabajoPracticoDesarrollo.Repositories.FusionHuespedRepository;
+import Facultad.TrabajoPracticoDesarrollo.Repositories.HuespedRepository;
+import Facultad.TrabajoPracticoDesarrollo.Repositories.PersonaFisicaRepository;
+import Facultad.TrabajoPracticoDesarrollo.Repositories.ReservaRepository;
+import Facultad.TrabajoPracticoDesarrollo.enums.EstadoFusion;
+import Facultad.TrabajoPracticoDesarrollo.enums.PasoFusion;
+import Facultad.TrabajoPracticoDesarrollo.enums.TipoDocumento;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Fusión de un huésped en otro (CU10, "aceptar igualmente") como trabajo en segundo plano.
+ *
+ * <p>{@link #programar} valida y registra el trabajo dentro de la transacción del pedido;
+ * después del commit el hilo {@code fusion-huespedes} lo ejecuta por pasos
+ * ({@link PasoFusion}): reservas, estadías, facturas y, al final, el borrado del huésped
+ * original. Cada paso avanza por lotes de {@code hotel.fusion.tamanio-lote} filas, cada lote
+ * en su propia transacción corta, con una pausa de {@code hotel.fusion.pausa-ms} entre lotes,
+ * así un huésped con años de historial no bloquea los check-in mientras se migra.</p>
+ *
+ * <p>Cada lote guarda el avance ({@code paso} y {@code filas_migradas}) en la misma
+ * transacción que las filas que movió, y cada consulta de lote toma solo filas que todavía
+ * apuntan al original. Por eso, después de una caída, retomar desde el paso guardado no
+ * repite ni pierde filas: {@link #reanudarPendientes()} lo hace al iniciar la aplicación.</p>
+ */
+@Service
+public class FusionHuespedes {
+
+    private static final Logger log = LoggerFactory.getLogger(FusionHuespedes.class);
+
+    private static final Set<EstadoFusion> ACTIVAS = EnumSet.of(EstadoFusion.PENDIENTE, EstadoFusion.EN_CURSO);
+
+    private final FusionHuespedRepository fusionRepository;
+    private final HuespedRepository huespedRepository;
+    private final ReservaRepository reservaRepository;
+    private final EstadiaHuespedRepository estadiaHuespedRepository;
+    private final FacturaRepository facturaRepository;
+    private final PersonaFisicaRepository personaFisicaRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService executor;
+    private final int tamanioLote;
+    private final long pausaMs;
+
+    public FusionHuespedes(FusionHuespedRepository fusionRepository,
+                           HuespedRepository huespedRepository,
+                           ReservaRepository reservaRepository,
+                           EstadiaHuespedRepository estadiaHuespedRepository,
+                           FacturaRepository facturaRepository,
+                           PersonaFisicaRepository personaFisicaRepository,
+                           ApplicationEventPublisher eventPublisher,
+                           PlatformTransactionManager transactionManager,
+                           @Qualifier("fusionHuespedesExecutor") ExecutorService executor,
+                           @Value("${hotel.fusion.tamanio-lote:500}") int tamanioLote,
+                           @Value("${hotel.fusion.pausa-ms:50}") long pausaMs) {
+        this.fusionRepository = fusionRepository;
+        this.huespedRepository = huespedRepository;
+        this.reservaRepository = reservaRepository;
+        this.estadiaHuespedRepository = estadiaHuespedRepository;
+        this.facturaRepository = facturaRepository;
+        this.personaFisicaRepository = personaFisicaRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.executor = executor;
+        this.tamanioLote = tamanioLote;
+        this.pausaMs = pausaMs;
+    }
+
+    // --- ALTA Y CONSULTA ---
+
+    /**
+     * Registra la fusión de {@code origen} en {@code destino}. Se llama dentro de la transacción
+     * que actualiza al destino; la migración arranca recién después del commit.
+     *
+     * @throws IllegalArgumentException si los huéspedes son el mismo o alguno no existe
+     * @throws IllegalStateException    si alguno ya participa de una fusión sin terminar
+     */
+    @Transactional
+    public DtoTrabajoFusion programar(HuespedId origen, HuespedId destino) {
+        if (origen.equals(destino)) {
+            throw new IllegalArgumentException("No se puede fusionar un huésped consigo mismo.");
+        }
+        if (!huespedRepository.existsById(origen) || !huespedRepository.existsById(destino)) {
+            throw new IllegalArgumentException("Los huéspedes a fusionar deben existir.");
+        }
+        verificarSinFusionActiva(origen.getTipoDocumento(), origen.getNroDocumento());
+        verificarSinFusionActiva(destino.getTipoDocumento(), destino.getNroDocumento());
+
+        Date ahora = new Date();
+        FusionHuesped trabajo = new FusionHuesped();
+        trabajo.setTipoOrigen(origen.getTipoDocumento());
+        trabajo.setNroOrigen(origen.getNroDocumento());
+        trabajo.setTipoDestino(destino.getTipoDocumento());
+        trabajo.setNroDestino(destino.getNroDocumento());
+        trabajo.setEstado(EstadoFusion.PENDIENTE);
+        trabajo.setPaso(PasoFusion.RESERVAS);
+        trabajo.setFilasTotales(fusionRepository.contarFilasAMigrar(
+                origen.getTipoDocumento().name(), origen.getNroDocumento()));
+        trabajo.setCreadaEn(ahora);
+        trabajo.setActualizadaEn(ahora);
+        trabajo = fusionRepository.save(trabajo);
+
+        eventPublisher.publishEvent(new FusionProgramadaEvento(trabajo.getIdFusion()));
+        return aDto(trabajo);
+    }
+
+    @Transactional(readOnly = true)
+    public DtoTrabajoFusion consultar(Long idFusion) {
+        return fusionRepository.findById(idFusion)
+                .map(FusionHuespedes::aDto)
+                .orElseThrow(() -> new RuntimeException("No existe la fusión " + idFusion + "."));
+    }
+
+    /**
+     * Vuelve a encolar una fusión {@code FALLIDA}. Arranca otra vez desde las reservas: los
+     * pasos ya hechos no encuentran filas del original y pasan de largo, y así también se
+     * migra lo que se haya cargado para el original mientras el trabajo estaba detenido.
+     *
+     * @throws IllegalStateException si la fusión no está fallida
+     */
+    @Transactional
+    public DtoTrabajoFusion reintentar(Long idFusion) {
+        FusionHuesped trabajo = fusionRepository.findById(idFusion)
+                .orElseThrow(() -> new RuntimeException("No existe la fusión " + idFusion + "."));
+        if (trabajo.getEstado() != EstadoFusion.FALLIDA) {
+            throw new IllegalStateException("Solo se puede reintentar una fusión fallida (estado actual: "
+                    + trabajo.getEstado() + ").");
+        }
+        verificarSinFusionActiva(trabajo.getTipoOrigen(), trabajo.getNroOrigen());
+        verificarSinFusionActiva(trabajo.getTipoDestino(), trabajo.getNroDestino());
+
+        trabajo.setEstado(EstadoFusion.PENDIENTE);
+        trabajo.setPaso(PasoFusion.RESERVAS);
+        trabajo.setError(null);
+        trabajo.setFilasTotales(fusionRepository.contarFilasAMigrar(
+                trabajo.getTipoOrigen().name(), trabajo.getNroOrigen()));
+        trabajo.setFilasMigradas(0);
+        trabajo.setActualizadaEn(new Date());
+        fusionRepository.save(trabajo);
+
+        eventPublisher.publishEvent(new FusionProgramadaEvento(idFusion));
+        return aDto(trabajo);
+    }
+
+    /**
+     * Rechaza operaciones sobre un huésped que está siendo fusionado (modificarlo, darlo de
+     * baja o usarlo en otra fusión) hasta que el trabajo termine.
+     *
+     * @throws IllegalStateException si participa de una fusión pendiente o en curso
+     */
+    public void verificarSinFusionActiva(TipoDocumento tipo, String nro) {
+        if (fusionRepository.existeActivaPara(tipo, nro, ACTIVAS)) {
+            throw new IllegalStateException("El huésped " + tipo + " " + nro
+                    + " tiene una fusión en curso; espere a que termine.");
+        }
+    }
+
+    // --- EJECUCIÓN ---
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void alProgramar(FusionProgramadaEvento evento) {
+        executor.submit(() -> ejecutar(evento.getIdFusion()));
+    }
+
+    /** Retoma las fusiones que quedaron pendientes o a medias (reinicio, caída). */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reanudarPendientes() {
+        try {
+            List<FusionHuesped> pendientes = fusionRepository.findByEstadoInOrderByIdFusion(ACTIVAS);
+            for (FusionHuesped trabajo : pendientes) {
+                Long id = trabajo.getIdFusion();
+                executor.submit(() -> ejecutar(id));
+            }
+        } catch (Exception e) {
+            log.warn("No se pudieron reanudar las fusiones de huéspedes", e);
+        }
+    }
+
+    /**
+     * Ejecuta (o retoma) la fusión lote por lote hasta terminarla. Si un lote falla, el trabajo
+     * queda {@code FALLIDA} con el mensaje de error y lo ya migrado se conserva. Si el hilo se
+     * interrumpe (apagado), queda {@code EN_CURSO} para retomarse en el próximo arranque.
+     */
+    public void ejecutar(Long idFusion) {
+        FusionHuesped trabajo = transactionTemplate.execute(estado -> fusionRepository.findById(idFusion).orElse(null));
+        if (trabajo == null || !ACTIVAS.contains(trabajo.getEstado())) return;
+
+        transactionTemplate.executeWithoutResult(estado ->
+                fusionRepository.cambiarEstado(idFusion, EstadoFusion.EN_CURSO, null));
+        PasoFusion paso = trabajo.getPaso();
+        try {
+            while (paso != PasoFusion.TERMINADA) {
+                PasoFusion actual = paso;
+                paso = transactionTemplate.execute(estado -> ejecutarLote(trabajo, actual));
+                // Entre lotes del mismo paso se sueltan los locks un momento
+                if (paso == actual && pausaMs > 0) Thread.sleep(pausaMs);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            String mensaje = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            transactionTemplate.executeWithoutResult(estado ->
+                    fusionRepository.cambiarEstado(idFusion, EstadoFusion.FALLIDA, mensaje));
+        }
+    }
+
+    /**
+     * Un lote del paso indicado, dentro de la transacción del llamador.
+     *
+     * @return el paso siguiente, o el mismo si quedan filas
+     */
+    private PasoFusion ejecutarLote(FusionHuesped t, PasoFusion paso) {
+        String tipoOrigen = t.getTipoOrigen().name();
+        String tipoDestino = t.getTipoDestino().name();
+        long filas;
+        PasoFusion siguiente;
+
+        switch (paso) {
+            case RESERVAS: {
+                Huesped destino = huespedRepository.findById(new HuespedId(t.getTipoDestino(), t.getNroDestino()))
+                        .orElseThrow(() -> new RuntimeException("El huésped destino de la fusión ya no existe."));
+                int migradas = reservaRepository.migrarReservasLote(
+                        tipoOrigen, t.getNroOrigen(), tipoDestino, t.getNroDestino(),
+                        destino.getNombres(), destino.getApellido(),
+                        destino.getTelefono().isEmpty() ? null : String.valueOf(destino.getTelefono().get(0)),
+                        tamanioLote);
+                filas = migradas;
+                siguiente = migradas < tamanioLote ? PasoFusion.ESTADIAS : paso;
+                break;
+            }
+            case ESTADIAS: {
+                // Las estadías compartidas se resuelven primero para no chocar con la clave primaria
+                int borradas = estadiaHuespedRepository.borrarCompartidasParaFusion(
+                        tipoOrigen, t.getNroOrigen(), tipoDestino, t.getNroDestino());
+                int migradas = estadiaHuespedRepository.migrarHistorialEstadiasLote(
+                        tipoOrigen, t.getNroOrigen(), tipoDestino, t.getNroDestino(), tamanioLote);
+                filas = borradas + migradas;
+                siguiente = migradas < tamanioLote ? PasoFusion.FACTURAS : paso;
+                break;
+            }
+            case FACTURAS: {
+                Optional<PersonaFisica> pfOrigen = personaFisicaRepository
+                        .findByHuesped_TipoDocumentoAndHuesped_NroDocumento(t.getTipoOrigen(), t.getNroOrigen());
+                filas = 0;
+                siguiente = PasoFusion.LIMPIEZA;
+                if (pfOrigen.isPresent()) {
+                    Integer idOrigen = pfOrigen.get().getIdPersonaFisica();
+                    Optional<PersonaFisica> pfDestino = personaFisicaRepository
+                            .findByHuesped_TipoDocumentoAndHuesped_NroDocumento(t.getTipoDestino(), t.getNroDestino());
+                    if (pfDestino.isEmpty()) {
+                        // Transferencia: el rol de pagador pasa entero al destino
+                        filas = fusionRepository.contarFacturas(idOrigen);
+                        personaFisicaRepository.transferirAHuesped(idOrigen, tipoDestino, t.getNroDestino());
+                    } else {
+                        int migradas = facturaRepository.migrarFacturasLote(
+                                idOrigen, pfDestino.get().getIdPersonaFisica(), tamanioLote);
+                        filas = migradas;
+                        if (migradas < tamanioLote) {
+                            // Nativo para que Hibernate no borre en cascada al huésped y a la dirección
+                            personaFisicaRepository.borrarNativo(idOrigen);
+                        } else {
+                            siguiente = paso;
+                        }
+                    }
+                }
+                break;
+            }
+            case LIMPIEZA: {
+                huespedRepository.borrarTelefonos(tipoOrigen, t.getNroOrigen());
+                huespedRepository.borrarEmails(tipoOrigen, t.getNroOrigen());
+                huespedRepository.borrarOcupaciones(tipoOrigen, t.getNroOrigen());
+                huespedRepository.borrarObligatorio(tipoOrigen, t.getNroOrigen());
+                fusionRepository.cambiarEstado(t.getIdFusion(), EstadoFusion.COMPLETADA, null);
+                filas = 0;
+                siguiente = PasoFusion.TERMINADA;
+                break;
+            }
+            default:
+                return PasoFusion.TERMINADA;
+        }
+
+        fusionRepository.registrarAvance(t.getIdFusion(), siguiente, filas);
+        return siguiente;
+    }
+
+    private static DtoTrabajoFusion aDto(FusionHuesped t) {
+        int porcentaje;
+        if (t.getEstado() == EstadoFusion.COMPLETADA) {
+            porcentaje = 100;
+        } else if (t.getFilasTotales() > 0) {
+            porcentaje = (int) Math.min(99, t.getFilasMigradas() * 100 / t.getFilasTotales());
+        } else {
+            porcentaje = 0;
+        }
+        return new DtoTrabajoFusion(t.getIdFusion(), t.getTipoOrigen(), t.getNroOrigen(),
+                t.getTipoDestino(), t.getNroDestino(), t.getEstado(), t.getPaso(),
+                t.getFilasTotales(), t.getFilasMigradas(), porcentaje, t.getError(),
+                t.getCreadaEn(), t.getActualizadaEn());
+    }
+}
@@ -1,24 +1,42 @@
 package Facultad.TrabajoPracticoDesarrollo.Services;
 
-import Facultad.TrabajoPracticoDesarrollo.Dominio.Habitacion;
+import Facultad.TrabajoPracticoDesarrollo.Config.GrillaProperties;
+import Facultad.TrabajoPracticoDesarrollo.DTOs.DtoFilaGrillaCompacta;
+import Facultad.TrabajoPracticoDesarrollo.DTOs.DtoGrillaCompacta;
+import Facultad.TrabajoPracticoDesarrollo.DTOs.DtoMetricasInventario;
 import Facultad.TrabajoPracticoDesarrollo.Dominio.Reserva;
 import Facultad.TrabajoPracticoDesarrollo.Dominio.Estadia;
 import Facultad.TrabajoPracticoDesarrollo.Repositories.HabitacionRepository;
 // Quitamos Repositorios de Reserva/Estadía e importamos Servicios
 import Facultad.TrabajoPracticoDesarrollo.Services.ReservaService;
 import Facultad.TrabajoPracticoDesarrollo.Services.EstadiaService;
+import Facultad.TrabajoPracticoDesarrollo.Utils.Inventario.HabitacionCatalogo;
+import Facultad.TrabajoPracticoDesarrollo.Utils.Ocupacion.IndiceOcupacion;
+import Facultad.TrabajoPracticoDesarrollo.Utils.Ocupacion.IntervaloOcupacion;
+import Facultad.TrabajoPracticoDesarrollo.enums.EstadoOcupacion;
+import Facultad.TrabajoPracticoDesarrollo.enums.MotorGrilla;
+import Facultad.TrabajoPracticoDesarrollo.enums.TipoHabitacion;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.HashMap;
 import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
 import java.time.LocalDate;
 import java.time.ZoneId;
 
@@ -30,33 +48,129 @@ import java.time.ZoneId;
 public class HabitacionService {
 
     private final HabitacionRepository habitacionRepository;
+    private final InventarioHabitaciones inventarioHabitaciones;
     
     // Inyectamos Servicios en lugar de Repositorios
     private final ReservaService reservaService;
     private final EstadiaService estadiaService;
+    private final CalendarioDisponibilidad calendarioDisponibilidad;
+    private final GrillaProperties grillaProperties;
+    private final ForkJoinPool grillaPool;
+    private final TransactionTemplate transaccionLectura;
+
+    /** Rango máximo de {@link #buscarDisponibles}: un año completo. */
+    public static final int DIAS_MAXIMOS_BUSQUEDA = 366;
+
+    /** Identifica esta ejecución dentro del ETag de la grilla. */
+    private final String arranque = Long.toString(System.currentTimeMillis(), 36);
+
+    /**
+     * Habitaciones por bloque de la grilla: las filas se arman y se entregan de a un bloque, así
+     * en streaming la memoria de filas armadas no depende de la cantidad de habitaciones.
+     */
+    private static final int TAMANIO_BLOQUE = 256;
 
     @Autowired
     public HabitacionService(
             HabitacionRepository habitacionRepository,
+            InventarioHabitaciones inventarioHabitaciones,
             ReservaService reservaService,
-            EstadiaService estadiaService
+            EstadiaService estadiaService,
+            CalendarioDisponibilidad calendarioDisponibilidad,
+            GrillaProperties grillaProperties,
+            @Qualifier("grillaForkJoinPool") ForkJoinPool grillaPool,
+            PlatformTransactionManager transactionManager
     ) {
         this.habitacionRepository = habitacionRepository;
+        this.inventarioHabitaciones = inventarioHabitaciones;
         this.reservaService = reservaService;
         this.estadiaService = estadiaService;
+        this.calendarioDisponibilidad = calendarioDisponibilidad;
+        this.grillaProperties = grillaProperties;
+        this.grillaPool = grillaPool;
+        this.transaccionLectura = new TransactionTemplate(transactionManager);
+        this.transaccionLectura.setReadOnly(true);
     }
 
-    @Transactional(readOnly = true)
-    public List<Habitacion> obtenerTodas() {
-        List<Habitacion> habitaciones = habitacionRepository.findAll();
-        habitaciones.sort(Comparator.comparing(Habitacion::getTipoHabitacion)
-                .thenComparing(Habitacion::getNumero));
-        return habitaciones;
+    /**
+     * Habitaciones ordenadas por tipo y número, servidas desde el inventario en memoria.
+     * La lista es inmutable.
+     */
+    public List<HabitacionCatalogo> obtenerTodas() {
+        return inventarioHabitaciones.obtenerTodas();
+    }
+
+    public HabitacionCatalogo obtenerPorNumero(String numero) {
+        return inventarioHabitaciones.buscar(numero).orElse(null);
+    }
+
+    /**
+     * ETag de la grilla de estados para el formato indicado, o {@code null} si no se puede
+     * garantizar: sólo mientras el calendario está cargado cada cambio de ocupación confirmado
+     * se refleja en su versión. Incluye el arranque de la aplicación porque las versiones
+     * vuelven a empezar al reiniciar.
+     * <p>
+     * No consulta la base de datos; debe calcularse antes de armar la grilla.
+     */
+    public String calcularEtagGrilla(String formato) {
+        if (!calendarioDisponibilidad.estaCargado()) return null;
+        return "\"grilla-" + formato + "-" + arranque
+                + "-" + calendarioDisponibilidad.getVersion()
+                + "-" + inventarioHabitaciones.getVersion() + "\"";
     }
 
+    public DtoMetricasInventario obtenerMetricasInventario() {
+        return inventarioHabitaciones.obtenerMetricas();
+    }
+
+    public void recargarInventario() {
+        inventarioHabitaciones.recargar();
+    }
+
+    /**
+     * Búsqueda de disponibilidad: habitaciones del tipo indicado, con lugar para
+     * {@code capacidad} huéspedes, que se pueden reservar de {@code fechaDesde} a
+     * {@code fechaHasta} (mismas reglas que {@code /api/reservas/disponibilidad}).
+     * Se excluyen las que están fuera de servicio. El resultado viene ordenado por costo
+     * por noche y luego por número.
+     * <p>
+     * Se responde con el calendario en memoria; si el rango no está cubierto se arma un
+     * {@link IndiceOcupacion} con una sola consulta de reservas y otra de estadías, nunca
+     * una consulta por habitación.
+     *
+     * @param tipo      tipo de habitación, o {@code null} para cualquiera
+     * @param capacidad cantidad de huéspedes, o {@code null} para no filtrar
+     * @throws IllegalArgumentException si el rango es inválido o supera {@value #DIAS_MAXIMOS_BUSQUEDA} días
+     */
     @Transactional(readOnly = true)
-    public Habitacion obtenerPorNumero(String numero) {
-        return habitacionRepository.findById(numero).orElse(null);
+    public List<HabitacionCatalogo> buscarDisponibles(TipoHabitacion tipo, Integer capacidad,
+                                              String fechaDesdeStr, String fechaHastaStr) {
+        LocalDate fechaDesde = LocalDate.parse(fechaDesdeStr);
+        LocalDate fechaHasta = LocalDate.parse(fechaHastaStr);
+        if (!fechaDesde.isBefore(fechaHasta)) {
+            throw new IllegalArgumentException("La fecha desde debe ser anterior a la fecha hasta.");
+        }
+        if (fechaHasta.toEpochDay() - fechaDesde.toEpochDay() > DIAS_MAXIMOS_BUSQUEDA) {
+            throw new IllegalArgumentException("El rango de búsqueda no puede superar " + DIAS_MAXIMOS_BUSQUEDA + " días.");
+        }
+
+        List<HabitacionCatalogo> candidatas = new ArrayList<>();
+        for (HabitacionCatalogo hab : obtenerTodas()) {
+            if (tipo != null && hab.getTipoHabitacion() != tipo) continue;
+            if (capacidad != null && (hab.getCapacidad() == null || hab.getCapacidad() < capacidad)) continue;
+            if (IndiceOcupacion.estaFueraDeServicio(hab)) continue;
+            candidatas.add(hab);
+        }
+        if (candidatas.isEmpty()) return candidatas;
+
+        boolean[] libres = calcularLibres(candidatas, fechaDesde, fechaHasta);
+        List<HabitacionCatalogo> disponibles = new ArrayList<>();
+        for (int i = 0; i < libres.length; i++) {
+            if (libres[i]) disponibles.add(candidatas.get(i));
+        }
+        disponibles.sort(Comparator.comparing(HabitacionCatalogo::getCostoPorNoche, Comparator.nullsLast(Comparator.naturalOrder()))
+                .thenComparing(HabitacionCatalogo::getNumero));
+        return disponibles;
     }
 
     public boolean validarRangoFechas(Date inicio, Date fin) {
@@ -71,6 +185,13 @@ public class HabitacionService {
     /**
      * Genera el reporte completo para la pantalla de "Estado de Habitaciones".
      * Ahora devuelve información detallada (Map) y delega la búsqueda a los servicios.
+     * <p>
+     * Las reservas y estadías del rango se indexan una sola vez por habitación
+     * ({@link IndiceOcupacion}), así cada celda de la grilla se resuelve en O(log n)
+     * en lugar de recorrer todas las reservas y estadías.
+     * <p>
+     * Si el rango está dentro del {@link CalendarioDisponibilidad} no se consultan
+     * reservas ni estadías en la BD.
      */
     @Transactional(readOnly = true)
     public List<Map<String, Object>> obtenerEstadoPorFechas(String fechaDesdeStr, String fechaHastaStr) {
@@ -78,40 +199,8 @@ public class HabitacionService {
             LocalDate fechaDesde = LocalDate.parse(fechaDesdeStr);
             LocalDate fechaHasta = LocalDate.parse(fechaHastaStr);
             
-            Date inicio = convertToDate(fechaDesde);
-            Date fin = convertToDate(fechaHasta);
-            
-            // CAMBIO: Delegamos la búsqueda a los servicios correspondientes
-            List<Reserva> reservasActivas = reservaService.buscarReservasEnRango(inicio, fin);
-            List<Estadia> estadiasActivas = estadiaService.buscarEstadiasEnRango(inicio, fin);
-            
-            List<Habitacion> todasHabitaciones = obtenerTodas();
             List<Map<String, Object>> resultado = new ArrayList<>();
-            
-            for (Habitacion hab : todasHabitaciones) {
-                Map<String, Object> habInfo = new HashMap<>();
-                habInfo.put("numero", hab.getNumero());
-                habInfo.put("tipoHabitacion", hab.getTipoHabitacion() != null ? hab.getTipoHabitacion().toString() : "DESCONOCIDO");
-                habInfo.put("capacidad", hab.getCapacidad());
-                habInfo.put("costoPorNoche", hab.getCostoPorNoche());
-                
-                Map<String, Object> estadosPorDia = new HashMap<>();
-                LocalDate diaActual = fechaDesde;
-                
-                while (!diaActual.isAfter(fechaHasta)) {
-                    // Usamos la lógica detallada para el frontend nuevo
-                    Map<String, Object> estadoDetalle = determinarEstadoDetallado(hab, diaActual, reservasActivas, estadiasActivas);
-                    estadosPorDia.put(diaActual.toString(), estadoDetalle);
-                    diaActual = diaActual.plusDays(1);
-                }
-                
-                habInfo.put("estadosPorDia", estadosPorDia);
-                // Estado general para compatibilidad
-                Map<String, Object> infoHoy = (Map<String, Object>) estadosPorDia.get(fechaDesde.toString());
-                habInfo.put("estadoHabitacion", infoHoy.get("estado"));
-                
-                resultado.add(habInfo);
-            }
+            recorrerEstadoPorFechas(fechaDesde, fechaHasta, resultado::add);
             return resultado;
         } catch (Exception e) {
             e.printStackTrace();
@@ -119,79 +208,270 @@ public class HabitacionService {
         }
     }
 
+    /**
+     * Calcula la grilla por bloques de habitaciones y entrega cada fila a {@code consumidor}
+     * sin acumular el resultado completo. Lo usa la versión en streaming (NDJSON) del endpoint,
+     * que escribe cada fila en la respuesta a medida que llega.
+     * <p>
+     * No abre una transacción propia: cada lectura de la base usa una conexión solo mientras
+     * lee y la devuelve antes de entregar filas, así un cliente lento no retiene conexiones del
+     * pool. En memoria quedan las filas de un bloque (cada una con un objeto por día del rango)
+     * y, si el calendario no cubre el rango con el motor JVM, las reservas y estadías del rango.
+     */
+    public void recorrerEstadoPorFechas(LocalDate fechaDesde, LocalDate fechaHasta, Consumer<Map<String, Object>> consumidor) {
+        recorrerFilas(fechaDesde, fechaHasta, (hab, fila) -> armarFilaDetallada(hab, fila, fechaDesde), consumidor);
+    }
+
+    /**
+     * Misma grilla que {@link #obtenerEstadoPorFechas(String, String)} pero comprimida por tramos:
+     * los días consecutivos con igual estado y misma reserva/estadía se agrupan en un único
+     * {@code [diaDesde, diaHasta, estado, idReferencia]}. No crea ningún objeto por día.
+     */
+    @Transactional(readOnly = true)
+    public DtoGrillaCompacta obtenerEstadoCompacto(String fechaDesdeStr, String fechaHastaStr) {
+        try {
+            LocalDate fechaDesde = LocalDate.parse(fechaDesdeStr);
+            LocalDate fechaHasta = LocalDate.parse(fechaHastaStr);
+
+            List<DtoFilaGrillaCompacta> filas = new ArrayList<>();
+            recorrerFilas(fechaDesde, fechaHasta, (hab, fila) -> new DtoFilaGrillaCompacta(
+                    hab.getNumero(),
+                    hab.getTipoHabitacion() != null ? hab.getTipoHabitacion().toString() : "DESCONOCIDO",
+                    hab.getCapacidad(),
+                    hab.getCostoPorNoche(),
+                    comprimir(fila)), filas::add);
+
+            List<String> estados = Arrays.stream(EstadoOcupacion.values()).map(Enum::name).toList();
+            return new DtoGrillaCompacta(fechaDesde.toString(), fechaHasta.toString(), estados, filas);
+        } catch (Exception e) {
+            e.printStackTrace();
+            throw new RuntimeException("Error al calcular estados: " + e.getMessage(), e);
+        }
+    }
+
     // --- MÉTODOS PRIVADOS ---
 
     /**
-     * Determina el estado detallado (ID, Fechas, Estado) para el frontend.
+     * Arma con {@code armar} la fila de cada habitación a partir de sus estados por día
+     * ({@code null} = DISPONIBLE) y la entrega a {@code consumidor} en el orden de
+     * {@link #obtenerTodas()}, usando el motor configurado en {@code hotel.grilla.motor}.
+     * <p>
+     * Las filas se arman por bloques de {@value #TAMANIO_BLOQUE} habitaciones y cada bloque
+     * se entrega completo. En modo paralelo ({@code hotel.grilla.paralelo}) cada bloque se arma
+     * en el pool dedicado de la grilla; el orden de entrega no cambia.
      */
-    private Map<String, Object> determinarEstadoDetallado(
-            Habitacion hab, 
-            LocalDate fecha,
-            List<Reserva> reservasActivas,
-            List<Estadia> estadiasActivas
-    ) {
+    private <T> void recorrerFilas(LocalDate fechaDesde, LocalDate fechaHasta,
+                                   BiFunction<HabitacionCatalogo, IntervaloOcupacion[], T> armar,
+                                   Consumer<T> consumidor) {
+        if (grillaProperties.getMotor() == MotorGrilla.SQL) {
+            recorrerFilasEnBd(fechaDesde, fechaHasta, armar, consumidor);
+            return;
+        }
+        List<HabitacionCatalogo> todasHabitaciones = obtenerTodas();
+        // Las consultas (si hacen falta) se hacen acá, antes de entregar la primera fila
+        FuenteOcupacion fuente = obtenerFuente(todasHabitaciones, fechaDesde, fechaHasta);
+
+        for (int i = 0; i < todasHabitaciones.size(); i += TAMANIO_BLOQUE) {
+            List<HabitacionCatalogo> bloque = todasHabitaciones.subList(i, Math.min(i + TAMANIO_BLOQUE, todasHabitaciones.size()));
+            List<T> filas;
+            if (!grillaProperties.isParalelo() || grillaPool == null) {
+                filas = new ArrayList<>(bloque.size());
+                for (HabitacionCatalogo hab : bloque) {
+                    filas.add(armar.apply(hab, fuente.fila(hab, fechaDesde, fechaHasta)));
+                }
+            } else {
+                // Un parallelStream lanzado desde una tarea del pool corre en ese pool, no en el común.
+                // toList() respeta el orden de encuentro, así que el resultado queda ordenado.
+                filas = grillaPool.submit(() -> bloque.parallelStream()
+                        .map(hab -> armar.apply(hab, fuente.fila(hab, fechaDesde, fechaHasta)))
+                        .toList()).join();
+            }
+            filas.forEach(consumidor);
+        }
+    }
+
+    /**
+     * Motor SQL: una consulta por bloque de habitaciones devuelve el estado final de cada
+     * celda, ya ordenado por habitación y día. Acá solo se agrupan las filas por habitación.
+     * Cada consulta devuelve su conexión antes de entregar las filas del bloque.
+     */
+    private <T> void recorrerFilasEnBd(LocalDate fechaDesde, LocalDate fechaHasta,
+                                       BiFunction<HabitacionCatalogo, IntervaloOcupacion[], T> armar,
+                                       Consumer<T> consumidor) {
+        int cantidadDias = (int) (fechaHasta.toEpochDay() - fechaDesde.toEpochDay()) + 1;
+        for (int desplazamiento = 0; ; desplazamiento += TAMANIO_BLOQUE) {
+            List<HabitacionRepository.EstadoDiaSql> celdas =
+                    habitacionRepository.calcularGrillaEnBd(fechaDesde, fechaHasta, desplazamiento, TAMANIO_BLOQUE);
+            List<T> filas = new ArrayList<>();
+            agruparCeldas(celdas, fechaDesde, cantidadDias, (hab, fila) -> filas.add(armar.apply(hab, fila)));
+            filas.forEach(consumidor);
+            if (filas.size() < TAMANIO_BLOQUE) return;
+        }
+    }
+
+    private void agruparCeldas(List<HabitacionRepository.EstadoDiaSql> celdas, LocalDate fechaDesde, int cantidadDias,
+                               BiConsumer<HabitacionCatalogo, IntervaloOcupacion[]> consumidor) {
+        HabitacionCatalogo actual = null;
+        IntervaloOcupacion[] fila = null;
+        for (HabitacionRepository.EstadoDiaSql celda : celdas) {
+            if (actual == null || !actual.getNumero().equals(celda.getNumero())) {
+                if (actual != null) consumidor.accept(actual, fila);
+                actual = new HabitacionCatalogo(celda.getNumero(),
+                        celda.getTipoHabitacion() != null ? TipoHabitacion.fromString(celda.getTipoHabitacion()) : null,
+                        celda.getCapacidad(), null, celda.getCostoPorNoche());
+                fila = new IntervaloOcupacion[cantidadDias];
+            }
+            int offset = (int) (IndiceOcupacion.convertToLocalDate(celda.getDia()).toEpochDay() - fechaDesde.toEpochDay());
+            fila[offset] = intervaloDesdeCelda(celda);
+        }
+        if (actual != null) consumidor.accept(actual, fila);
+    }
+
+    private IntervaloOcupacion intervaloDesdeCelda(HabitacionRepository.EstadoDiaSql celda) {
+        EstadoOcupacion estado = EstadoOcupacion.valueOf(celda.getEstado());
+        switch (estado) {
+            case OCUPADA:
+                return new IntervaloOcupacion(estado, celda.getIdEstadia(), null, null);
+            case RESERVADA:
+                return new IntervaloOcupacion(estado, celda.getIdReserva(),
+                        IndiceOcupacion.convertToLocalDate(celda.getReservaDesde()),
+                        IndiceOcupacion.convertToLocalDate(celda.getReservaHasta()));
+            case MANTENIMIENTO:
+                return new IntervaloOcupacion(estado, null, null, null);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Arma la fila detallada (un Map por día) que consume el frontend.
+     */
+    private Map<String, Object> armarFilaDetallada(HabitacionCatalogo hab, IntervaloOcupacion[] fila, LocalDate fechaDesde) {
+        Map<String, Object> habInfo = new HashMap<>();
+        habInfo.put("numero", hab.getNumero());
+        habInfo.put("tipoHabitacion", hab.getTipoHabitacion() != null ? hab.getTipoHabitacion().toString() : "DESCONOCIDO");
+        habInfo.put("capacidad", hab.getCapacidad());
+        habInfo.put("costoPorNoche", hab.getCostoPorNoche());
+
+        Map<String, Object> estadosPorDia = new HashMap<>();
+        for (int i = 0; i < fila.length; i++) {
+            // Usamos la lógica detallada para el frontend nuevo
+            estadosPorDia.put(fechaDesde.plusDays(i).toString(), determinarEstadoDetallado(fila[i]));
+        }
+
+        habInfo.put("estadosPorDia", estadosPorDia);
+        // Estado general para compatibilidad
+        Map<String, Object> infoHoy = (Map<String, Object>) estadosPorDia.get(fechaDesde.toString());
+        habInfo.put("estadoHabitacion", infoHoy.get("estado"));
+        return habInfo;
+    }
+
+    /**
+     * Origen de los estados de la grilla: una fila por habitación, una posición por día
+     * ({@code null} = DISPONIBLE).
+     */
+    private interface FuenteOcupacion {
+        IntervaloOcupacion[] fila(HabitacionCatalogo hab, LocalDate desde, LocalDate hasta);
+    }
+
+    /**
+     * Usa el calendario en memoria si cubre el rango; si no, indexa lo que devuelve la BD.
+     */
+    private FuenteOcupacion obtenerFuente(List<HabitacionCatalogo> habitaciones, LocalDate fechaDesde, LocalDate fechaHasta) {
+        if (calendarioDisponibilidad.cubre(fechaDesde, fechaHasta.plusDays(1))) {
+            return (hab, desde, hasta) -> {
+                IntervaloOcupacion[] fila = calendarioDisponibilidad.obtenerFila(hab.getNumero(), desde, hasta);
+                if (IndiceOcupacion.estaFueraDeServicio(hab)) {
+                    Arrays.fill(fila, new IntervaloOcupacion(EstadoOcupacion.MANTENIMIENTO, null, null, null));
+                }
+                return fila;
+            };
+        }
+
+        // CAMBIO: Delegamos la búsqueda a los servicios correspondientes
+        // Las consultas son [inicio, fin): fin = hasta + 1 para incluir lo que empieza el último día
+        Date inicio = convertToDate(fechaDesde);
+        Date fin = convertToDate(fechaHasta.plusDays(1));
+        // Lectura e índice en una transacción corta: la conexión se devuelve antes de armar filas
+        IndiceOcupacion indice = transaccionLectura.execute(estado -> {
+            List<Reserva> reservasActivas = reservaService.buscarReservasEnRango(inicio, fin);
+            List<Estadia> estadiasActivas = estadiaService.buscarEstadiasEnRango(inicio, fin);
+            return IndiceOcupacion.construir(habitaciones, reservasActivas, estadiasActivas);
+        });
+
+        return (hab, desde, hasta) -> {
+            IntervaloOcupacion[] fila = new IntervaloOcupacion[(int) (hasta.toEpochDay() - desde.toEpochDay()) + 1];
+            for (int i = 0; i < fila.length; i++) {
+                fila[i] = indice.buscarEstado(hab.getNumero(), desde.plusDays(i));
+            }
+            return fila;
+        };
+    }
+
+    /**
+     * Disponibilidad de cada candidata en {@code [desde, hasta)} para reservas y
+     * {@code [desde, hasta]} para estadías.
+     */
+    private boolean[] calcularLibres(List<HabitacionCatalogo> candidatas, LocalDate desde, LocalDate hasta) {
+        if (calendarioDisponibilidad.cubre(desde, hasta.plusDays(1))) {
+            return calendarioDisponibilidad.estanLibres(candidatas.stream().map(HabitacionCatalogo::getNumero).toList(), desde, hasta);
+        }
+
+        // Las consultas son [inicio, fin): una estadía que entra el día "hasta" también ocupa
+        Date inicio = convertToDate(desde);
+        Date fin = convertToDate(hasta.plusDays(1));
+        IndiceOcupacion indice = IndiceOcupacion.construir(candidatas,
+                reservaService.buscarReservasEnRango(inicio, fin),
+                estadiaService.buscarEstadiasEnRango(inicio, fin));
+        boolean[] libres = new boolean[candidatas.size()];
+        for (int i = 0; i < libres.length; i++) {
+            libres[i] = indice.buscarIntervalos(candidatas.get(i).getNumero(), desde, hasta.plusDays(1)).stream()
+                    .noneMatch(intervalo -> intervalo.getEstado() != EstadoOcupacion.RESERVADA
+                            || intervalo.getDesde().isBefore(hasta));
+        }
+        return libres;
+    }
+
+    /**
+     * Determina el estado detallado (ID, Fechas, Estado) para el frontend
+     * a partir del intervalo que devolvió el índice ({@code null} = DISPONIBLE).
+     */
+    private Map<String, Object> determinarEstadoDetallado(IntervaloOcupacion intervalo) {
         Map<String, Object> detalle = new HashMap<>();
-        
-        // 1. Mantenimiento
-        if (hab.getEstadoHabitacion() != null && 
-            hab.getEstadoHabitacion().getDescripcion().contains("FUERA")) {
-            detalle.put("estado", "MANTENIMIENTO");
-            return detalle;
-        }
-        
-        // 2. Estadía (OCUPADA)
-        Estadia estadiaFound = estadiasActivas.stream()
-            .filter(e -> {
-                if (e.getHabitacion() == null || !e.getHabitacion().getNumero().equals(hab.getNumero())) return false;
-                if (e.getFechaCheckIn() == null) return false;
-                
-                LocalDate checkIn = convertToLocalDate(e.getFechaCheckIn());
-                LocalDate checkOut = e.getFechaCheckOut() != null ? 
-                    convertToLocalDate(e.getFechaCheckOut()) : fecha.plusYears(1);
-                    
-                return !fecha.isBefore(checkIn) && fecha.isBefore(checkOut);
-            })
-            .findFirst()
-            .orElse(null);
-        
-        if (estadiaFound != null) {
-            detalle.put("estado", "OCUPADA");
-            detalle.put("idEstadia", estadiaFound.getIdEstadia());
-            return detalle;
-        }
-        
-        // 3. Reserva (RESERVADA)
-        Reserva reservaFound = reservasActivas.stream()
-            .filter(r -> {
-                if (r.getHabitacion() == null || !r.getHabitacion().getNumero().equals(hab.getNumero())) return false;
-                if (r.getFechaDesde() == null || r.getFechaHasta() == null) return false;
-                
-                LocalDate desde = convertToLocalDate(r.getFechaDesde());
-                LocalDate hasta = convertToLocalDate(r.getFechaHasta());
-                
-                // [desde, hasta) -> incluye inicio, excluye fin (check-out)
-                return !fecha.isBefore(desde) && fecha.isBefore(hasta);
-            })
-            .findFirst()
-            .orElse(null);
-        
-        if (reservaFound != null) {
-            detalle.put("estado", "RESERVADA");
-            detalle.put("idReserva", reservaFound.getIdReserva());
-            detalle.put("fechaInicio", reservaFound.getFechaDesde().toString()); 
-            detalle.put("fechaFin", reservaFound.getFechaHasta().toString());
-            return detalle;
-        }
-        
-        detalle.put("estado", "DISPONIBLE");
+        EstadoOcupacion estado = intervalo != null ? intervalo.getEstado() : EstadoOcupacion.DISPONIBLE;
+        detalle.put("estado", estado.name());
+
+        if (estado == EstadoOcupacion.OCUPADA) {
+            detalle.put("idEstadia", intervalo.getId());
+        } else if (estado == EstadoOcupacion.RESERVADA) {
+            detalle.put("idReserva", intervalo.getId());
+            detalle.put("fechaInicio", intervalo.getDesde().toString());
+            detalle.put("fechaFin", intervalo.getHasta().toString());
+        }
         return detalle;
     }
 
-    private LocalDate convertToLocalDate(Date date) {
-        if (date instanceof java.sql.Date) {
-            return ((java.sql.Date) date).toLocalDate();
+    /**
+     * Agrupa los días consecutivos con el mismo estado y la misma referencia.
+     */
+    private List<int[]> comprimir(IntervaloOcupacion[] fila) {
+        List<int[]> tramos = new ArrayList<>();
+        int inicio = 0;
+        for (int i = 1; i <= fila.length; i++) {
+            if (i == fila.length || !mismoTramo(fila[inicio], fila[i])) {
+                IntervaloOcupacion actual = fila[inicio];
+                int estado = actual != null ? actual.getEstado().ordinal() : EstadoOcupacion.DISPONIBLE.ordinal();
+                int referencia = actual != null && actual.getId() != null ? actual.getId() : 0;
+                tramos.add(new int[]{inicio, i - 1, estado, referencia});
+                inicio = i;
+            }
         }
-        return date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+        return tramos;
+    }
+
+    private boolean mismoTramo(IntervaloOcupacion a, IntervaloOcupacion b) {
+        if (a == null || b == null) return a == b;
+        return a.getEstado() == b.getEstado() && Objects.equals(a.getId(), b.getId());
     }
 
     private Date convertToDate(LocalDate localDate) {
@@ -1,18 +1,23 @@
 package Facultad.TrabajoPracticoDesarrollo.Services;
 
+import Facultad.TrabajoPracticoDesarrollo.DTOs.DtoTrabajoFusion;
 import Facultad.TrabajoPracticoDesarrollo.DTOs.DtoHuespedBusqueda;
 import Facultad.TrabajoPracticoDesarrollo.Dominio.Direccion;
 import Facultad.TrabajoPracticoDesarrollo.Dominio.Huesped;
 import Facultad.TrabajoPracticoDesarrollo.Dominio.HuespedId;
 import Facultad.TrabajoPracticoDesarrollo.Dominio.PersonaFisica;
+import Facultad.TrabajoPracticoDesarrollo.Eventos.CambioOcupacionEvento;
 import Facultad.TrabajoPracticoDesarrollo.Repositories.*;
 import Facultad.TrabajoPracticoDesarrollo.DTOs.DtoHuesped;
 import Facultad.TrabajoPracticoDesarrollo.DTOs.DtoDireccion;
 import Facultad.TrabajoPracticoDesarrollo.Utils.Mapear.MapearDireccion;
 import Facultad.TrabajoPracticoDesarrollo.Utils.Mapear.MapearHuesped;
+import Facultad.TrabajoPracticoDesarrollo.Utils.Paginacion.CursorHuesped;
+import Facultad.TrabajoPracticoDesarrollo.Utils.Paginacion.Pagina;
 import Facultad.TrabajoPracticoDesarrollo.enums.PosIva;
 import Facultad.TrabajoPracticoDesarrollo.enums.TipoDocumento;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -29,6 +34,10 @@ import jakarta.persistence.EntityManager;
 public class HuespedService {
 
     //Pedimos la interfaz del repositorio y Spring te da una implementación que funciona
+    /** Tamaño de página si el cliente no lo indica, y máximo permitido para búsquedas de huéspedes. */
+    public static final int TAMANIO_PAGINA_DEFECTO = 50;
+    public static final int TAMANIO_PAGINA_MAXIMO = 200;
+
     private final HuespedRepository huespedRepository;
     private final DireccionRepository direccionRepository;
     private final ReservaRepository reservaRepository;
@@ -37,6 +46,9 @@ public class HuespedService {
     private final PersonaFisicaRepository personaFisicaRepository;
     private final EstadiaHuespedRepository estadiaHuespedRepository;
     private final EntityManager entityManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final FiltrosExistencia filtrosExistencia;
+    private final FusionHuespedes fusionHuespedes;
 
     @Autowired
     public HuespedService(
@@ -45,7 +57,10 @@ public class HuespedService {
             ReservaRepository reservaRepository,
             EstadiaRepository estadiaRepository,
             FacturaRepository facturaRepository,
-            PersonaFisicaRepository personaFisicaRepository, EstadiaHuespedRepository estadiaHuespedRepository, EntityManager entityManager) {
+            PersonaFisicaRepository personaFisicaRepository, EstadiaHuespedRepository estadiaHuespedRepository, EntityManager entityManager,
+            ApplicationEventPublisher eventPublisher,
+            FiltrosExistencia filtrosExistencia,
+            FusionHuespedes fusionHuespedes) {
         this.huespedRepository = huespedRepository;
         this.direccionRepository = direccionRepository;
         this.reservaRepository = reservaRepository;
@@ -54,37 +69,46 @@ public class HuespedService {
         this.personaFisicaRepository = personaFisicaRepository;
         this.estadiaHuespedRepository = estadiaHuespedRepository;
         this.entityManager = entityManager;
+        this.eventPublisher = eventPublisher;
+        this.filtrosExistencia = filtrosExistencia;
+        this.fusionHuespedes = fusionHuespedes;
     }
 
     /**
      * Buscador inteligente de huéspedes.
      * Puedes buscar por apellido, DNI, o cualquier combinación de datos que tengas a mano.
      *
+     * Devuelve una página por vez (también sin filtros), así nunca se carga la libreta entera.
+     *
      * @param criterios DTO con los filtros (si algo viene null, lo ignora).
-     * @return Lista de personas que coinciden con la búsqueda.
+     * @param cursor    token {@code siguiente} de la página anterior; {@code null} para la primera.
+     * @param limite    tamaño de página pedido (se acota a {@link #TAMANIO_PAGINA_MAXIMO}).
+     * @return Página de personas que coinciden con la búsqueda y el token de la siguiente.
+     * @throws IllegalArgumentException si el cursor no es válido.
      */
     @Transactional(readOnly = true)
-    public List<Huesped> buscarHuespedes(DtoHuespedBusqueda criterios) {
-
-        // 1. Decidimos qué metodo del Repository llamar
-        if (criterios != null && !criterios.estanVacios()) {
-            System.out.println("Buscando coincidencias...");
-
-            // Convertir el enum a String para la query nativa
-            String tipoStr = criterios.getTipoDocumento() != null ? 
-                           criterios.getTipoDocumento().name() : null;
-
-            // Usamos la query personalizada del Repository
-            return huespedRepository.buscarPorCriterios(
-                    criterios.getApellido(),
-                    criterios.getNombres(),
-                    tipoStr,
-                    criterios.getNroDocumento()
-            );
-        } else {
-            System.out.println("Sin filtro: Trayendo todos los huéspedes...");
-            return huespedRepository.findAll();
+    public Pagina<Huesped> buscarHuespedes(DtoHuespedBusqueda criterios, String cursor, Integer limite) {
+        int tamanio = (limite == null || limite <= 0) ? TAMANIO_PAGINA_DEFECTO : Math.min(limite, TAMANIO_PAGINA_MAXIMO);
+        CursorHuesped despues = (cursor == null || cursor.isBlank()) ? null : CursorHuesped.decodificar(cursor);
+
+        // Sin criterios: la misma consulta sin filtros, recorriendo el listado completo de a una página
+        boolean conFiltros = criterios != null && !criterios.estanVacios();
+        String tipoStr = conFiltros && criterios.getTipoDocumento() != null ? criterios.getTipoDocumento().name() : null;
+
+        // Se pide una fila de más para saber si hay página siguiente
+        List<Huesped> filas = huespedRepository.buscarPagina(
+                conFiltros ? criterios.getApellido() : null,
+                conFiltros ? criterios.getNombres() : null,
+                tipoStr,
+                conFiltros ? criterios.getNroDocumento() : null,
+                despues,
+                tamanio + 1);
+
+        if (filas.size() <= tamanio) {
+            return new Pagina<>(filas, null);
         }
+        List<Huesped> pagina = filas.subList(0, tamanio);
+        return new Pagina<>(pagina, CursorHuesped.despuesDe(pagina.get(tamanio - 1)).codificar());
     }
 
     /**
@@ -110,7 +134,10 @@ public class HuespedService {
     @Transactional(readOnly = true)
     public Huesped chequearDuplicado(DtoHuesped datos) {
         HuespedId id = new HuespedId(datos.getTipoDocumento(), datos.getNroDocumento());
-        return huespedRepository.findById(id).orElse(null);
+        // Se llama en cada documento que se tipea en el alta: casi siempre no existe y lo contesta el filtro
+        return filtrosExistencia.buscar(FiltrosExistencia.Espacio.HUESPED,
+                FiltrosExistencia.claveHuesped(datos.getTipoDocumento(), datos.getNroDocumento()),
+                () -> huespedRepository.findById(id).orElse(null));
     }
 
     private Huesped crearSinPersistirHuesped(DtoHuesped dto) {
@@ -191,6 +218,8 @@ public class HuespedService {
 
             // 4. Guardamos el Huésped
             // DIAGRAMA: "GHU -> DHU: persistirHuesped"
+            filtrosExistencia.registrar(FiltrosExistencia.Espacio.HUESPED,
+                    FiltrosExistencia.claveHuesped(nuevoHuesped.getTipoDocumento(), nuevoHuesped.getNroDocumento()));
             huespedRepository.save(nuevoHuesped);
 
 
@@ -221,15 +250,20 @@ public class HuespedService {
      * Método potente de migración (Cambio de DNI).
      * Si detecta que cambió la identidad (Tipo/Nro Doc), verifica si es una FUSIÓN
      * (unir dos perfiles en uno) o un CAMBIO DE CLAVE simple.
-     * Mueve reservas, estadías y facturas al nuevo perfil si es necesario.
+     * En una fusión el destino se actualiza en el momento y el resto (reservas, estadías, facturas
+     * y el borrado del original) queda programado como trabajo de {@link FusionHuespedes}.
+     *
+     * @return el trabajo de fusión programado, o {@code null} si no hubo fusión
+     * @throws IllegalStateException si el huésped (o el destino) está en medio de otra fusión
      */
     @Transactional
-    public void modificarHuesped(String tipoOrig, String nroOrig, DtoHuesped dtoNuevo) {
+    public DtoTrabajoFusion modificarHuesped(String tipoOrig, String nroOrig, DtoHuesped dtoNuevo) {
 
         // 1. Validar existencia del original (El que estamos editando)
         HuespedId idOriginal = new HuespedId(TipoDocumento.valueOf(tipoOrig), nroOrig);
         Huesped huespedOriginal = huespedRepository.findById(idOriginal)
                 .orElseThrow(() -> new RuntimeException("El huésped a modificar no existe."));
+        fusionHuespedes.verificarSinFusionActiva(idOriginal.getTipoDocumento(), nroOrig);
 
         // 2. Detectar si cambió la Identidad (PK)
         boolean cambioIdentidad = !tipoOrig.equals(dtoNuevo.getTipoDocumento().name()) ||
@@ -253,75 +287,17 @@ public class HuespedService {
                 // B. Guardamos al destino actualizado
                 huespedRepository.save(huespedDestino);
 
-                // --- C. MIGRACIÓN DE HISTORIAL ---
-
-                // 1. Reservas y Estadías (Apuntan directa e indirectamente a Huesped)
-                reservaRepository.migrarReservas(
-                        TipoDocumento.valueOf(tipoOrig), nroOrig, // Buscamos las del viejo
-                        huespedDestino.getTipoDocumento(), huespedDestino.getNroDocumento(), // Ponemos ID nuevo
-                        huespedDestino.getNombres(), huespedDestino.getApellido(), // Ponemos Nombre nuevo
-                        huespedDestino.getTelefono().isEmpty() ? null : String.valueOf(huespedDestino.getTelefono().get(0))
-                );
-
-
-                estadiaHuespedRepository.migrarHistorialEstadias(
-                        tipoOrig, nroOrig, // Viejo
-                        huespedDestino.getTipoDocumento().name(), huespedDestino.getNroDocumento()
-                );
-
-                // 2. FACTURAS
-                // Buscamos si el huésped original tenía un rol de Pagador (Persona Fisica)
-                Optional<PersonaFisica> pfOriginalOpt = personaFisicaRepository.findByHuesped(huespedOriginal);
-
-                if (pfOriginalOpt.isPresent()) {
-                    PersonaFisica pfOriginal = pfOriginalOpt.get();
-
-                    // Buscamos si el destino YA es pagador
-                    Optional<PersonaFisica> pfDestinoOpt = personaFisicaRepository.findByHuesped(huespedDestino);
-
-                    if (pfDestinoOpt.isPresent()) {
-                        // CASO A: Fusión de pagadores
-                        PersonaFisica pfDestino = pfDestinoOpt.get();
-                        facturaRepository.migrarFacturas(pfOriginal, pfDestino);
-                        personaFisicaRepository.flush();
-
-                        // --- BORRADO NATIVO DE PF ---
-                        // Usamos nativo para evitar que Hibernate borre en cascada al Huésped y a la Dirección
-                        personaFisicaRepository.borrarNativo(pfOriginal.getIdPersonaFisica());
-
-
-                    } else {
-                        //Transferencia
-                        pfOriginal.setHuesped(huespedDestino);
-                        personaFisicaRepository.save(pfOriginal);
-                    }
-                }
-
-                // 1. Guardamos cambios pendientes
-                reservaRepository.flush();
-                estadiaRepository.flush();
-                facturaRepository.flush();
-                estadiaHuespedRepository.flush();
-
-                // 2. LIMPIEZA SATÉLITE
-                // Borramos los datos hijos manualmente porque el delete nativo no lo hace solo
-                huespedRepository.borrarTelefonos(tipoOrig, nroOrig);
-                huespedRepository.borrarEmails(tipoOrig, nroOrig);
-                huespedRepository.borrarOcupaciones(tipoOrig, nroOrig);
-
-                // 3. Limpieza de memoria (Hibernate olvida todo)
-                entityManager.clear();
-
-                // 4. Borrado Nativo del Huésped
-                huespedRepository.borrarObligatorio(tipoOrig, nroOrig);
-
-                return; // FIN
+                // C. La migración de historial (reservas, estadías, facturas) y el borrado del
+                // original corren en segundo plano y por lotes; el front consulta el avance
+                return fusionHuespedes.programar(idOriginal, idNuevo);
 
 
             } else {
                 // === CASO CAMBIO DE DNI LIMPIO (Migración) ===
                 // El nuevo DNI está libre. Hacemos el UPDATE de ID mágico.
 
+                filtrosExistencia.registrar(FiltrosExistencia.Espacio.HUESPED,
+                        FiltrosExistencia.claveHuesped(dtoNuevo.getTipoDocumento(), dtoNuevo.getNroDocumento()));
                 huespedRepository.actualizarIdentidad(
                         TipoDocumento.valueOf(tipoOrig), nroOrig,
                         dtoNuevo.getTipoDocumento(), dtoNuevo.getNroDocumento()
@@ -342,6 +318,7 @@ public class HuespedService {
         asignarDireccionSegura(huesped, dtoNuevo.getDtoDireccion());
 
         huespedRepository.save(huesped);
+        return null;
     }
 
     // Helper para dirección
@@ -398,6 +375,7 @@ public class HuespedService {
         HuespedId id = new HuespedId(TipoDocumento.valueOf(tipo), nro);
         Huesped huesped = huespedRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("El huésped a eliminar no existe."));
+        fusionHuespedes.verificarSinFusionActiva(huesped.getTipoDocumento(), nro);
 
         // FILTRO 1: ¿Se alojó?
         if (estadiaHuespedRepository.existsByHuesped(huesped)) {
@@ -424,6 +402,8 @@ public class HuespedService {
 
         // 2. Limpieza de reservas
         reservaRepository.deleteByHuesped(huesped.getTipoDocumento(), huesped.getNroDocumento());
+        // El DELETE masivo no dice qué reservas borró: el calendario se recarga tras el commit
+        eventPublisher.publishEvent(CambioOcupacionEvento.recargaCompleta());
 
         huespedRepository.delete(huesped);
 
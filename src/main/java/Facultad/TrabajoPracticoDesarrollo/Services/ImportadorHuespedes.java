@@ -0,0 +1,239 @@
+package Facultad.TrabajoPracticoDesarrollo.Services;
+
+import Facultad.TrabajoPracticoDesarrollo.DTOs.DtoErrorImportacion;
+import Facultad.TrabajoPracticoDesarrollo.DTOs.DtoHuesped;
+import Facultad.TrabajoPracticoDesarrollo.DTOs.DtoReporteImportacion;
+import Facultad.TrabajoPracticoDesarrollo.Dominio.Huesped;
+import Facultad.TrabajoPracticoDesarrollo.Repositories.HuespedRepository;
+import Facultad.TrabajoPracticoDesarrollo.Utils.Mapear.MapearHuesped;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Importación masiva de huéspedes desde un archivo NDJSON o CSV (migración desde otro sistema).
+ *
+ * <p>El archivo se lee línea por línea; cada fila se valida con las mismas reglas que
+ * {@code POST /api/huespedes/crear} (anotaciones de {@link DtoHuesped} más
+ * {@link HuespedService#validarDatosHuesped}) y las válidas se guardan de a lotes de
+ * {@code hotel.importacion.tamanio-lote}, cada lote en su propia transacción y con batches JDBC.
+ * En memoria solo hay un lote y, como mucho, {@code hotel.importacion.max-errores} errores,
+ * sin importar el tamaño del archivo.</p>
+ *
+ * <p>Formato CSV: primera línea con los nombres de columna, iguales a los campos de
+ * {@link DtoHuesped} y {@code DtoDireccion} (ej. {@code nroDocumento}, {@code calle},
+ * {@code codPostal}); {@code telefono}, {@code email} y {@code ocupacion} separan sus valores con {@code |}.</p>
+ */
+@Service
+public class ImportadorHuespedes {
+
+    public enum Formato { NDJSON, CSV }
+
+    private static final Set<String> CAMPOS_DIRECCION =
+            Set.of("calle", "numero", "departamento", "piso", "codPostal", "localidad", "provincia", "pais");
+    private static final Set<String> CAMPOS_LISTA = Set.of("telefono", "email", "ocupacion");
+
+    private final HuespedRepository huespedRepository;
+    private final HuespedService huespedService;
+    private final FiltrosExistencia filtrosExistencia;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ObjectReader lectorHuesped;
+    private final TransactionTemplate transactionTemplate;
+    private final int tamanioLote;
+    private final int maxErrores;
+
+    public ImportadorHuespedes(HuespedRepository huespedRepository,
+                               HuespedService huespedService,
+                               FiltrosExistencia filtrosExistencia,
+                               Validator validator,
+                               ObjectMapper objectMapper,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${hotel.importacion.tamanio-lote:500}") int tamanioLote,
+                               @Value("${hotel.importacion.max-errores:1000}") int maxErrores) {
+        this.huespedRepository = huespedRepository;
+        this.huespedService = huespedService;
+        this.filtrosExistencia = filtrosExistencia;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.lectorHuesped = objectMapper.readerFor(DtoHuesped.class);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.tamanioLote = tamanioLote;
+        this.maxErrores = maxErrores;
+    }
+
+    /**
+     * Lee, valida y guarda todos los huéspedes del archivo.
+     *
+     * @param entrada contenido del archivo (UTF-8); no se cierra
+     * @param formato formato del archivo
+     * @return cantidad de filas leídas e importadas y detalle de las rechazadas
+     * @throws IOException si falla la lectura de la entrada
+     */
+    public DtoReporteImportacion importar(InputStream entrada, Formato formato) throws IOException {
+        DtoReporteImportacion reporte = new DtoReporteImportacion();
+        // Clave tipo+número -> fila pendiente; la misma clave dos veces en un lote no se puede guardar en un batch
+        Map<String, FilaPendiente> lote = new LinkedHashMap<>();
+
+        BufferedReader lector = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8));
+        List<String> encabezado = null;
+        String linea;
+        int nroLinea = 0;
+        while ((linea = lector.readLine()) != null) {
+            nroLinea++;
+            if (nroLinea == 1 && linea.startsWith("\uFEFF")) linea = linea.substring(1);
+            if (linea.isBlank()) continue;
+            if (formato == Formato.CSV && encabezado == null) {
+                encabezado = separarCsv(linea);
+                continue;
+            }
+            reporte.setFilasLeidas(reporte.getFilasLeidas() + 1);
+
+            DtoHuesped dto;
+            try {
+                dto = formato == Formato.CSV ? desdeCsv(encabezado, separarCsv(linea)) : lectorHuesped.readValue(linea);
+            } catch (JsonProcessingException | IllegalArgumentException e) {
+                String detalle = e instanceof JsonProcessingException j ? j.getOriginalMessage() : e.getMessage();
+                registrarError(reporte, nroLinea, null, List.of("Formato inválido: " + detalle));
+                continue;
+            }
+
+            List<String> errores = validar(dto);
+            if (!errores.isEmpty()) {
+                registrarError(reporte, nroLinea, documento(dto), errores);
+                continue;
+            }
+
+            String clave = documento(dto);
+            if (lote.containsKey(clave)) guardarLote(lote, reporte);
+            lote.put(clave, new FilaPendiente(nroLinea, MapearHuesped.mapearDtoAEntidad(dto)));
+            if (lote.size() >= tamanioLote) guardarLote(lote, reporte);
+        }
+        guardarLote(lote, reporte);
+        return reporte;
+    }
+
+    private List<String> validar(DtoHuesped dto) {
+        List<String> errores = new ArrayList<>();
+        for (ConstraintViolation<DtoHuesped> violacion : validator.validate(dto)) {
+            errores.add(violacion.getPropertyPath() + ": " + violacion.getMessage());
+        }
+        if (errores.isEmpty()) {
+            errores.addAll(huespedService.validarDatosHuesped(dto));
+        }
+        return errores;
+    }
+
+    private void guardarLote(Map<String, FilaPendiente> lote, DtoReporteImportacion reporte) {
+        if (lote.isEmpty()) return;
+        List<Huesped> entidades = new ArrayList<>(lote.size());
+        for (FilaPendiente fila : lote.values()) entidades.add(fila.huesped);
+        for (String clave : lote.keySet()) filtrosExistencia.registrar(FiltrosExistencia.Espacio.HUESPED, clave);
+        try {
+            transactionTemplate.executeWithoutResult(estado -> huespedRepository.upsertEnLote(entidades));
+            reporte.setImportadas(reporte.getImportadas() + entidades.size());
+        } catch (DataAccessException e) {
+            // El lote entero se deshizo: se informan todas sus filas
+            String mensaje = "No se pudo guardar el lote: " + e.getMostSpecificCause().getMessage();
+            for (Map.Entry<String, FilaPendiente> fila : lote.entrySet()) {
+                registrarError(reporte, fila.getValue().nroLinea, fila.getKey(), List.of(mensaje));
+            }
+        }
+        lote.clear();
+    }
+
+    private void registrarError(DtoReporteImportacion reporte, int nroLinea, String documento, List<String> errores) {
+        reporte.setFilasConError(reporte.getFilasConError() + 1);
+        if (reporte.getErrores().size() < maxErrores) {
+            reporte.getErrores().add(new DtoErrorImportacion(nroLinea, documento, errores));
+        } else {
+            reporte.setErroresTruncados(true);
+        }
+    }
+
+    private static String documento(DtoHuesped dto) {
+        return dto.getTipoDocumento() + " " + dto.getNroDocumento();
+    }
+
+    /** Arma el mismo JSON que recibiría {@code /crear} y lo convierte con Jackson (fechas y enums iguales). */
+    private DtoHuesped desdeCsv(List<String> encabezado, List<String> valores) throws JsonProcessingException {
+        if (valores.size() != encabezado.size()) {
+            throw new IllegalArgumentException("se esperaban " + encabezado.size() + " columnas y hay " + valores.size());
+        }
+        ObjectNode huesped = objectMapper.createObjectNode();
+        ObjectNode direccion = huesped.putObject("dtoDireccion");
+        for (int i = 0; i < encabezado.size(); i++) {
+            String campo = encabezado.get(i);
+            String valor = valores.get(i);
+            if (valor.isEmpty()) continue;
+            if (CAMPOS_LISTA.contains(campo)) {
+                ArrayNode lista = huesped.putArray(campo);
+                for (String elemento : valor.split("\\|")) lista.add(elemento.trim());
+            } else if (CAMPOS_DIRECCION.contains(campo)) {
+                direccion.put(campo, valor);
+            } else {
+                huesped.put(campo, valor);
+            }
+        }
+        return objectMapper.treeToValue(huesped, DtoHuesped.class);
+    }
+
+    /** Separa una línea CSV por comas; admite valores entre comillas con {@code ""} como comilla escapada. */
+    private static List<String> separarCsv(String linea) {
+        List<String> campos = new ArrayList<>();
+        StringBuilder actual = new StringBuilder();
+        boolean entreComillas = false;
+        for (int i = 0; i < linea.length(); i++) {
+            char c = linea.charAt(i);
+            if (entreComillas) {
+                if (c == '"' && i + 1 < linea.length() && linea.charAt(i + 1) == '"') {
+                    actual.append('"');
+                    i++;
+                } else if (c == '"') {
+                    entreComillas = false;
+                } else {
+                    actual.append(c);
+                }
+            } else if (c == '"') {
+                entreComillas = true;
+            } else if (c == ',') {
+                campos.add(actual.toString().trim());
+                actual.setLength(0);
+            } else {
+                actual.append(c);
+            }
+        }
+        campos.add(actual.toString().trim());
+        return campos;
+    }
+
+    private static final class FilaPendiente {
+        private final int nroLinea;
+        private final Huesped huesped;
+
+        private FilaPendiente(int nroLinea, Huesped huesped) {
+            this.nroLinea = nroLinea;
+            this.huesped = huesped;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package Facultad.TrabajoPracticoDesarrollo.Services;
+
+import Facultad.TrabajoPracticoDesarrollo.DTOs.DtoMetricasInventario;
+import Facultad.TrabajoPracticoDesarrollo.Repositories.HabitacionRepository;
+import Facultad.TrabajoPracticoDesarrollo.Utils.Inventario.HabitacionCatalogo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Catálogo de habitaciones residente en memoria.
+ *
+ * <p>Las habitaciones casi nunca cambian, así que en lugar de hacer {@code findAll()} y
+ * ordenar en cada pedido se guarda una foto inmutable, ya ordenada por tipo y número.
+ * La foto guarda {@link HabitacionCatalogo} (valores inmutables, no entidades), así que
+ * ningún llamador puede modificarla.</p>
+ *
+ * <p>La aplicación no da de alta ni modifica habitaciones: el catálogo se mantiene por
+ * fuera (scripts SQL). Después de cambiarlo hay que llamar a {@link #recargar()} desde el
+ * endpoint de administración ({@code POST /api/habitaciones/inventario/recargar}).</p>
+ */
+@Service
+public class InventarioHabitaciones {
+
+    private static final Comparator<HabitacionCatalogo> ORDEN = Comparator
+            .comparing(HabitacionCatalogo::getTipoHabitacion, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(HabitacionCatalogo::getNumero, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private final HabitacionRepository habitacionRepository;
+
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+    private final LongAdder recargas = new LongAdder();
+    private final AtomicLong version = new AtomicLong();
+
+    private volatile Foto foto;
+
+    @Autowired
+    public InventarioHabitaciones(HabitacionRepository habitacionRepository) {
+        this.habitacionRepository = habitacionRepository;
+    }
+
+    // --- LECTURAS ---
+
+    /**
+     * Todas las habitaciones ordenadas por tipo y número. La lista es inmutable.
+     */
+    public List<HabitacionCatalogo> obtenerTodas() {
+        return obtenerFoto().ordenadas;
+    }
+
+    public Optional<HabitacionCatalogo> buscar(String numero) {
+        if (numero == null) return Optional.empty();
+        return Optional.ofNullable(obtenerFoto().porNumero.get(numero));
+    }
+
+    /**
+     * Cambia cada vez que se descarta o se recarga la foto. Sirve para validar cachés
+     * derivadas del catálogo (por ejemplo, un ETag).
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    public DtoMetricasInventario obtenerMetricas() {
+        Foto actual = foto;
+        return new DtoMetricasInventario(
+                aciertos.sum(),
+                fallos.sum(),
+                recargas.sum(),
+                version.get(),
+                actual != null ? actual.ordenadas.size() : 0,
+                actual != null ? actual.cargadaEn.toString() : null);
+    }
+
+    // --- INVALIDACIÓN ---
+
+    /**
+     * Vuelve a leer el catálogo desde la base de datos y reemplaza la foto. Es una sola
+     * consulta y {@link HabitacionCatalogo#de} no toca asociaciones perezosas, así que no
+     * hace falta una transacción propia.
+     */
+    public synchronized void recargar() {
+        List<HabitacionCatalogo> ordenadas = habitacionRepository.findAll().stream()
+                .map(HabitacionCatalogo::de)
+                .sorted(ORDEN)
+                .toList();
+        Map<String, HabitacionCatalogo> porNumero = new HashMap<>();
+        for (HabitacionCatalogo h : ordenadas) {
+            porNumero.put(h.getNumero(), h);
+        }
+        foto = new Foto(ordenadas, Map.copyOf(porNumero), Instant.now());
+        version.incrementAndGet();
+        recargas.increment();
+    }
+
+    /**
+     * Descarta la foto; la próxima lectura la vuelve a armar.
+     */
+    public void invalidar() {
+        foto = null;
+        version.incrementAndGet();
+    }
+
+    // --- PRIVADOS ---
+
+    private Foto obtenerFoto() {
+        Foto actual = foto;
+        if (actual != null) {
+            aciertos.increment();
+            return actual;
+        }
+        fallos.increment();
+        synchronized (this) {
+            // Otro hilo pudo haberla cargado mientras esperábamos
+            if (foto == null) {
+                recargar();
+            }
+            return foto;
+        }
+    }
+
+    private static final class Foto {
+        private final List<HabitacionCatalogo> ordenadas;
+        private final Map<String, HabitacionCatalogo> porNumero;
+        private final Instant cargadaEn;
+
+        private Foto(List<HabitacionCatalogo> ordenadas, Map<String, HabitacionCatalogo> porNumero, Instant cargadaEn) {
+            this.ordenadas = ordenadas;
+            this.porNumero = porNumero;
+            this.cargadaEn = cargadaEn;
+        }
+    }
+}
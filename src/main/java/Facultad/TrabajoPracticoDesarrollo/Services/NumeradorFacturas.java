@@ -0,0 +1,250 @@
+package Facultad.TrabajoPracticoDesarrollo.Services;
+
+import Facultad.TrabajoPracticoDesarrollo.Config.FacturacionProperties;
+import Facultad.TrabajoPracticoDesarrollo.Config.PoolNumerador;
+import Facultad.TrabajoPracticoDesarrollo.Repositories.NumeradorFacturaRepository;
+import Facultad.TrabajoPracticoDesarrollo.enums.TipoFactura;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToIntFunction;
+
+/**
+ * Entrega números de factura ({@code T-PPPP-NNNNNNNN}): una serie por punto de venta y tipo
+ * de factura, independiente de las demás. Cada serie tiene su propio lock y su propia fila en
+ * la base, así los puntos de venta facturan en paralelo sin esperarse entre sí.
+ *
+ * <p>Cada nodo reserva en la base un bloque de números consecutivos (un
+ * {@code UPDATE ... RETURNING} sobre {@code numerador_factura}, en su propia transacción) y los
+ * entrega en memoria. Los bloques de distintos nodos nunca se pisan, así que dos check-out
+ * simultáneos no pueden recibir el mismo número. Por defecto el bloque es de 1: cada factura
+ * reserva su número y la serie mantiene el orden estricto. Solo los puntos de venta de
+ * {@code hotel.facturacion.puntos-venta-en-bloque} reservan {@code hotel.facturacion.tamanio-bloque}
+ * números de una vez y van a la base una vez por bloque en lugar de una vez por factura.</p>
+ *
+ * <p>La reserva usa las conexiones de {@link PoolNumerador} y corre fuera del lock de la serie:
+ * mientras un hilo reserva, los demás de la misma serie esperan el bloque nuevo (o toman un
+ * número devuelto) sin tener tomada una conexión que la reserva necesite.</p>
+ *
+ * <p>Para no dejar huecos en la numeración:</p>
+ * <ul>
+ *   <li>si la transacción que pidió un número hace rollback, el número vuelve al nodo y es
+ *       el próximo en entregarse (siempre el menor devuelto primero);</li>
+ *   <li>al apagar la aplicación, la cola sin usar del bloque actual se devuelve a la base si
+ *       ningún otro nodo reservó un bloque después.</li>
+ * </ul>
+ *
+ * <p>Lo que esto no cubre:</p>
+ * <ul>
+ *   <li>si el nodo muere sin apagarse ({@code kill -9}, falta de memoria, corte de luz), se
+ *       pierden los números sin entregar de su bloque actual y los devueltos sin reutilizar:
+ *       hasta {@code tamanio-bloque - 1} números por serie y por nodo quedan como hueco;</li>
+ *   <li>un número devuelto por rollback sale en una factura posterior a otras con números
+ *       mayores, así que la numeración deja de seguir el orden cronológico de emisión;</li>
+ *   <li>con varios nodos emitiendo para el mismo punto de venta, los números son correlativos
+ *       dentro de cada bloque pero se intercalan entre nodos.</li>
+ * </ul>
+ * <p>Con bloques de 1 cada factura reserva su número en la base: no hay cola que perder y el
+ * orden entre nodos es el de las reservas. Sigue habiendo un hueco si la factura hace rollback
+ * y no hay otra factura de la serie en el mismo nodo que lo reutilice.</p>
+ */
+@Service
+public class NumeradorFacturas {
+
+    private static final Logger log = LoggerFactory.getLogger(NumeradorFacturas.class);
+
+    private final NumeradorFacturaRepository numeradorRepository;
+    private final TransactionTemplate transaccionPropia;
+    // Por punto de venta: 1 salvo en los que pueden numerar en bloques
+    private final ToIntFunction<String> tamanioBloque;
+    private final Map<Serie, Bloque> bloques = new ConcurrentHashMap<>();
+
+    /**
+     * @throws IllegalStateException si la configuración numeraría en bloques puntos de venta
+     *         que necesitan orden estricto (ver {@link FacturacionProperties#validarNumeracion()})
+     */
+    @Autowired
+    public NumeradorFacturas(NumeradorFacturaRepository numeradorRepository,
+                             PoolNumerador poolNumerador,
+                             FacturacionProperties facturacionProperties) {
+        this(numeradorRepository, poolNumerador.getTransactionManager(), validada(facturacionProperties)::tamanioBloque);
+    }
+
+    /** Numerador con el mismo tamaño de bloque en todas las series. */
+    public NumeradorFacturas(NumeradorFacturaRepository numeradorRepository,
+                             PlatformTransactionManager transactionManager,
+                             int tamanioBloque) {
+        this(numeradorRepository, transactionManager, puntoVenta -> tamanioBloque);
+        if (tamanioBloque < 1) throw new IllegalArgumentException("El tamaño de bloque debe ser positivo");
+    }
+
+    private NumeradorFacturas(NumeradorFacturaRepository numeradorRepository,
+                              PlatformTransactionManager transactionManager,
+                              ToIntFunction<String> tamanioBloque) {
+        this.numeradorRepository = numeradorRepository;
+        // El lock de la fila del numerador no debe durar lo que dura la factura
+        this.transaccionPropia = new TransactionTemplate(transactionManager);
+        this.transaccionPropia.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.tamanioBloque = tamanioBloque;
+    }
+
+    private static FacturacionProperties validada(FacturacionProperties facturacionProperties) {
+        facturacionProperties.validarNumeracion();
+        return facturacionProperties;
+    }
+
+    /** Formato de los números de factura: tipo, punto de venta y número de 8 dígitos. */
+    public static String formatear(TipoFactura tipo, String puntoVenta, long numero) {
+        return String.format("%s-%s-%08d", tipo.name(), puntoVenta, numero);
+    }
+
+    /**
+     * Próximo número de factura de la serie. Si hay una transacción activa y termina en
+     * rollback, el número se devuelve para la próxima factura de la misma serie.
+     */
+    public String siguiente(String puntoVenta, TipoFactura tipo) {
+        Serie serie = new Serie(puntoVenta, tipo);
+        long numero = siguienteNumero(serie);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int estado) {
+                    if (estado == STATUS_ROLLED_BACK) devolver(serie, numero);
+                }
+            });
+        }
+        return formatear(tipo, puntoVenta, numero);
+    }
+
+    private long siguienteNumero(Serie serie) {
+        Bloque bloque = bloques.computeIfAbsent(serie, s -> new Bloque(tamanioBloque.applyAsInt(s.puntoVenta)));
+        synchronized (bloque) {
+            while (true) {
+                Long devuelto = bloque.devueltos.poll();
+                if (devuelto != null) return devuelto;
+                if (bloque.proximo <= bloque.limite) return bloque.proximo++;
+                if (!bloque.reservando) break;
+                esperar(bloque);
+            }
+            // Este hilo reserva; los demás de la serie esperan sin tener el lock
+            bloque.reservando = true;
+        }
+
+        Long limite = null;
+        try {
+            limite = transaccionPropia.execute(estado ->
+                    numeradorRepository.reservarBloque(serie.puntoVenta, serie.tipo, bloque.tamanio));
+        } finally {
+            synchronized (bloque) {
+                // Si la reserva falló, el próximo que pida un número vuelve a intentar
+                if (limite != null) {
+                    bloque.limite = limite;
+                    bloque.proximo = limite - bloque.tamanio + 2;
+                }
+                bloque.reservando = false;
+                bloque.notifyAll();
+            }
+        }
+        return limite - bloque.tamanio + 1;
+    }
+
+    private static void esperar(Bloque bloque) {
+        try {
+            bloque.wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Se interrumpió la espera de un bloque de números de factura", e);
+        }
+    }
+
+    private void devolver(Serie serie, long numero) {
+        Bloque bloque = bloques.get(serie);
+        if (bloque == null) return;
+        synchronized (bloque) {
+            bloque.devueltos.add(numero);
+            bloque.notifyAll();
+        }
+    }
+
+    /**
+     * Devuelve a la base la parte sin usar de cada bloque. Los números devueltos por rollback
+     * que no se llegaron a reutilizar quedan como hueco (se informan en el log).
+     */
+    @PreDestroy
+    public void liberarSobrantes() {
+        for (Map.Entry<Serie, Bloque> entrada : bloques.entrySet()) {
+            Serie serie = entrada.getKey();
+            Bloque bloque = entrada.getValue();
+            synchronized (bloque) {
+                try {
+                    if (!bloque.devueltos.isEmpty()) {
+                        log.warn("Números de factura sin reutilizar en {}: {}", serie, bloque.devueltos);
+                    }
+                    if (bloque.proximo <= bloque.limite) {
+                        long limite = bloque.limite;
+                        long ultimoUsado = bloque.proximo - 1;
+                        transaccionPropia.executeWithoutResult(estado ->
+                                numeradorRepository.devolverSobrante(serie.puntoVenta, serie.tipo, limite, ultimoUsado));
+                        bloque.limite = ultimoUsado;
+                    }
+                } catch (Exception e) {
+                    log.warn("No se pudo devolver el sobrante del numerador {}: {}", serie, e.getMessage());
+                }
+            }
+        }
+    }
+
+    /** Punto de venta y tipo de factura: cada combinación numera por separado. */
+    private static final class Serie {
+        private final String puntoVenta;
+        private final TipoFactura tipo;
+
+        private Serie(String puntoVenta, TipoFactura tipo) {
+            this.puntoVenta = puntoVenta;
+            this.tipo = tipo;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Serie)) return false;
+            Serie otra = (Serie) o;
+            return puntoVenta.equals(otra.puntoVenta) && tipo == otra.tipo;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(puntoVenta, tipo);
+        }
+
+        @Override
+        public String toString() {
+            return tipo + "-" + puntoVenta;
+        }
+    }
+
+    private static final class Bloque {
+        private final int tamanio;
+        // Vacío al inicio: el primer pedido reserva un bloque
+        private long proximo = 1;
+        private long limite = 0;
+        private boolean reservando;
+        private final PriorityQueue<Long> devueltos = new PriorityQueue<>();
+
+        private Bloque(int tamanio) {
+            this.tamanio = tamanio;
+        }
+    }
+}
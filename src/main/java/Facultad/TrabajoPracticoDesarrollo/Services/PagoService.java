@@ -13,7 +13,6 @@ import org.springframework.transaction.annotation.Transactional;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Servicio de Cobranzas.
@@ -25,46 +24,50 @@ public class PagoService {
     @Transactional
     public TarjetaCredito crearTarjetaCredito(DtoTarjetaCredito dto) {
         TarjetaCredito tarjeta = MapearTarjetaCredito.mapearDtoAEntidad(dto);
+        filtrosExistencia.registrar(FiltrosExistencia.Espacio.TARJETA, tarjeta.getNumeroTarjeta());
         return tarjetaRepository.save(tarjeta);
     }
 
     @Transactional
     public TarjetaDebito crearTarjetaDebito(DtoTarjetaDebito dto) {
         TarjetaDebito tarjeta = MapearTarjetaDebito.mapearDtoAEntidad(dto);
+        filtrosExistencia.registrar(FiltrosExistencia.Espacio.TARJETA, tarjeta.getNumeroTarjeta());
         return tarjetaRepository.save(tarjeta);
     }
 
     private final FacturaRepository facturaRepository;
     private final PagoRepository pagoRepository;
     private final MedioDePagoRepository medioDePagoRepository;
-    private final EstadiaRepository estadiaRepository;
-    private final HabitacionRepository habitacionRepository;
+    private final InventarioHabitaciones inventarioHabitaciones;
     private final FacturaService facturaService;
     private final TarjetaRepository tarjetaRepository;
     private final ChequeRepository chequeRepository;
+    private final FiltrosExistencia filtrosExistencia;
 
     @Autowired
     public PagoService(FacturaRepository facturaRepository,
                        PagoRepository pagoRepository,
                        MedioDePagoRepository medioDePagoRepository,
-                       EstadiaRepository estadiaRepository,
-                       HabitacionRepository habitacionRepository,
+                       InventarioHabitaciones inventarioHabitaciones,
                        FacturaService facturaService,
                        TarjetaRepository tarjetaRepository,
-                       ChequeRepository chequeRepository) {
+                       ChequeRepository chequeRepository,
+                       FiltrosExistencia filtrosExistencia) {
         this.facturaRepository = facturaRepository;
         this.pagoRepository = pagoRepository;
         this.medioDePagoRepository = medioDePagoRepository;
-        this.estadiaRepository = estadiaRepository;
-        this.habitacionRepository = habitacionRepository;
+        this.inventarioHabitaciones = inventarioHabitaciones;
         this.facturaService = facturaService;
         this.tarjetaRepository = tarjetaRepository;
         this.chequeRepository = chequeRepository;
+        this.filtrosExistencia = filtrosExistencia;
     }
 
     @Transactional(readOnly = true)
     public Cheque buscarChequePorNumero(String numeroCheque) {
-        return chequeRepository.findById(numeroCheque).orElse(null);
+        // La mayoría de los números consultados no existen: el filtro los descarta sin ir a la BD
+        return filtrosExistencia.buscar(FiltrosExistencia.Espacio.CHEQUE, numeroCheque,
+                () -> chequeRepository.findById(numeroCheque).orElse(null));
     }
 
     /**
@@ -73,34 +76,17 @@ public class PagoService {
     @Transactional(readOnly = true)
     public List<DtoFactura> buscarFacturasPendientesPorHabitacion(String numeroHabitacion) {
         // Verificar que la habitación existe
-        Habitacion habitacion = habitacionRepository.findById(numeroHabitacion)
+        inventarioHabitaciones.buscar(numeroHabitacion)
                 .orElseThrow(() -> new IllegalArgumentException("Número de habitación incorrecto"));
 
-        // Buscar todas las estadías de la habitación (activas o pasadas)
-        List<Estadia> estadias = estadiaRepository.findByHabitacion_Numero(numeroHabitacion);
-        
-        if (estadias.isEmpty()) {
-            throw new IllegalArgumentException("No existen facturas pendientes de pago");
-        }
-
-        // Buscar todas las facturas pendientes de todas las estadías de esta habitación
-        List<Factura> facturasPendientes = new ArrayList<>();
-        for (Estadia estadia : estadias) {
-            List<Factura> facturasEstadia = facturaRepository.findByEstadia_IdEstadia(estadia.getIdEstadia())
-                    .stream()
-                    .filter(f -> f.getEstadoFactura() == EstadoFactura.PENDIENTE)
-                    .collect(Collectors.toList());
-            facturasPendientes.addAll(facturasEstadia);
-        }
+        // Una sola consulta: solo las facturas pendientes, sin recorrer el historial de estadías
+        List<DtoFactura> facturasPendientes = facturaRepository.buscarPendientesPorHabitacion(numeroHabitacion);
 
         if (facturasPendientes.isEmpty()) {
             throw new IllegalArgumentException("No existen facturas pendientes de pago");
         }
 
-        // Mapear a DTO usando el mapeador existente
-        return facturasPendientes.stream()
-                .map(MapearFactura::mapearEntidadADto)
-                .collect(Collectors.toList());
+        return facturasPendientes;
     }
 
     /**
@@ -190,6 +176,15 @@ public class PagoService {
         }
 
         // 6. Guardar el pago (en cascada guardará los medios de pago)
+        // Cheques y tarjetas nuevos se registran en los filtros de existencia antes de insertarse
+        for (MedioPago mp : mediosPago) {
+            if (mp.getCheque() != null) {
+                filtrosExistencia.registrar(FiltrosExistencia.Espacio.CHEQUE, mp.getCheque().getNumeroCheque());
+            }
+            if (mp.getTarjeta() != null) {
+                filtrosExistencia.registrar(FiltrosExistencia.Espacio.TARJETA, mp.getTarjeta().getNumeroTarjeta());
+            }
+        }
         pagoRepository.save(pago);
 
         // 7. Marcar la factura como PAGADA (sin cambiar su importeTotal)
@@ -223,9 +218,9 @@ public class PagoService {
 
     @Transactional(readOnly = true)
 public Object buscarTarjetaPorNumeroYTipo(String numero, String tipo) {
-    var opt = tarjetaRepository.findById(numero);
-    if (opt.isEmpty()) return null;
-    var tarjeta = opt.get();
+    var tarjeta = filtrosExistencia.buscar(FiltrosExistencia.Espacio.TARJETA, numero,
+            () -> tarjetaRepository.findById(numero).orElse(null));
+    if (tarjeta == null) return null;
     if ("credito".equalsIgnoreCase(tipo) && tarjeta instanceof Facultad.TrabajoPracticoDesarrollo.Dominio.TarjetaCredito tc) {
         Facultad.TrabajoPracticoDesarrollo.DTOs.DtoTarjetaCredito dto = new Facultad.TrabajoPracticoDesarrollo.DTOs.DtoTarjetaCredito();
         dto.setNumeroDeTarjeta(tc.getNumeroTarjeta());
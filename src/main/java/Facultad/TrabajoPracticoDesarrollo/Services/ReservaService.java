@@ -2,23 +2,33 @@ package Facultad.TrabajoPracticoDesarrollo.Services;
 
 import Facultad.TrabajoPracticoDesarrollo.Dominio.Reserva;
 import Facultad.TrabajoPracticoDesarrollo.DTOs.DtoReserva;
+import Facultad.TrabajoPracticoDesarrollo.DTOs.DtoReservaCancelable;
+import Facultad.TrabajoPracticoDesarrollo.DTOs.DtoResultadoCancelacion;
+import Facultad.TrabajoPracticoDesarrollo.Eventos.CambioOcupacionEvento;
+import Facultad.TrabajoPracticoDesarrollo.Excepciones.ReservaSuperpuestaException;
 import Facultad.TrabajoPracticoDesarrollo.Repositories.ReservaRepository;
 import Facultad.TrabajoPracticoDesarrollo.Utils.Mapear.MapearReserva;
+import Facultad.TrabajoPracticoDesarrollo.Utils.Ocupacion.IndiceOcupacion;
+import Facultad.TrabajoPracticoDesarrollo.Utils.Ocupacion.IntervaloOcupacion;
+import Facultad.TrabajoPracticoDesarrollo.enums.EstadoOcupacion;
 import Facultad.TrabajoPracticoDesarrollo.enums.EstadoReserva;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import java.util.Map;
-import java.text.SimpleDateFormat;
+import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
-import Facultad.TrabajoPracticoDesarrollo.Repositories.EstadiaRepository; // Importar
-import Facultad.TrabajoPracticoDesarrollo.Dominio.Estadia; // Importar
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
 /**
  * Servicio para manejar las Reservas.
  * Se encarga de validar que las habitaciones estén libres antes de confirmar nada
@@ -27,13 +37,19 @@ import java.util.Optional;
 @Service
 public class ReservaService {
 
+    /** Violación de una restricción EXCLUDE (ver db/migraciones/V013__reservas_sin_superposicion.sql). */
+    private static final String SQLSTATE_VIOLACION_EXCLUSION = "23P01";
+
     private final ReservaRepository reservaRepository;
-    private final EstadiaRepository estadiaRepository;
+    private final CalendarioDisponibilidad calendarioDisponibilidad;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public ReservaService(ReservaRepository reservaRepository, EstadiaRepository estadiaRepository) {
+    public ReservaService(ReservaRepository reservaRepository,
+                          CalendarioDisponibilidad calendarioDisponibilidad, ApplicationEventPublisher eventPublisher) {
         this.reservaRepository = reservaRepository;
-        this.estadiaRepository = estadiaRepository;
+        this.calendarioDisponibilidad = calendarioDisponibilidad;
+        this.eventPublisher = eventPublisher;
     }
 
     // --- BÚSQUEDAS PARA OTROS SERVICIOS ---
@@ -60,30 +76,73 @@ public class ReservaService {
         return dtos;
     }
 
+    /**
+     * Si el rango está dentro del calendario en memoria se responde sin ir a la BD.
+     */
     @Transactional(readOnly = true)
     public boolean validarDisponibilidad(String idHabitacion, Date fechaInicio, Date fechaFin) {
+        LocalDate desde = IndiceOcupacion.convertToLocalDate(fechaInicio);
+        LocalDate hasta = IndiceOcupacion.convertToLocalDate(fechaFin);
+        if (calendarioDisponibilidad.cubre(desde, hasta)) {
+            return !calendarioDisponibilidad.hayReserva(idHabitacion, desde, hasta);
+        }
         return !reservaRepository.existeReservaEnFecha(idHabitacion, fechaInicio, fechaFin);
     }
 
     // --- CREACIÓN (Lógica Principal) ---
 
+    /**
+     * Crea un grupo de reservas (una por habitación) de forma atómica.
+     * <p>
+     * El grupo se valida y se guarda en dos viajes a la base sin importar su tamaño: primero
+     * se controla que las reservas pedidas no se pisen entre sí, luego una única consulta las
+     * compara a todas contra las reservas activas y por último se insertan en un batch JDBC.
+     * <p>
+     * Si otra transacción reserva la misma habitación entre la consulta y el insert, la
+     * restricción {@code reserva_sin_superposicion} de la base lo rechaza y se informa
+     * igual que un solapamiento detectado por la consulta.
+     *
+     * @throws ReservaSuperpuestaException si alguna habitación ya está reservada en esas fechas
+     */
     @Transactional(rollbackFor = Exception.class)
     public void crearReservas(List<DtoReserva> listaDtos) throws Exception {
         validarListaReservas(listaDtos);
 
+        List<Reserva> nuevas = new ArrayList<>(listaDtos.size());
         for (DtoReserva dto : listaDtos) {
             validarFechaIngreso(dto.getFechaDesde());
 
-            if (reservaRepository.existeReservaEnFecha(dto.getIdHabitacion(), dto.getFechaDesde(), dto.getFechaHasta())) {
-                throw new Exception("La habitación " + dto.getIdHabitacion() + " ya está reservada en las fechas seleccionadas.");
+            if (dto.getFechaHasta() == null || !dto.getFechaHasta().after(dto.getFechaDesde())) {
+                throw new Exception("La fecha de egreso debe ser posterior a la fecha de ingreso.");
             }
 
             Reserva reservaEntidad = MapearReserva.mapearDtoAEntidad(dto);
             reservaEntidad.setEstadoReserva(EstadoReserva.ACTIVA);
-            reservaEntidad.setFechaReserva(new Date()); 
+            reservaEntidad.setFechaReserva(new Date());
+            nuevas.add(reservaEntidad);
+        }
+        validarSolapamientoEntrePedidas(nuevas);
 
-            reservaRepository.save(reservaEntidad);
+        List<Integer> conflictos = reservaRepository.buscarSolapamientos(nuevas);
+        if (!conflictos.isEmpty()) {
+            String numero = nuevas.get(conflictos.get(0)).getHabitacion().getNumero();
+            throw new ReservaSuperpuestaException("La habitación " + numero + " ya está reservada en las fechas seleccionadas.");
         }
+
+        try {
+            reservaRepository.insertarEnLote(nuevas);
+        } catch (DataAccessException e) {
+            if (!esViolacionDeExclusion(e)) throw e;
+            throw new ReservaSuperpuestaException(
+                    "Otra reserva tomó una de las habitaciones en esas fechas mientras se confirmaba. Vuelva a buscar disponibilidad.", e);
+        }
+
+        List<CambioOcupacionEvento.Cambio> cambios = new ArrayList<>();
+        for (Reserva reserva : nuevas) {
+            cambios.add(CambioOcupacionEvento.Cambio.alta(reserva.getHabitacion().getNumero(), aIntervalo(reserva)));
+        }
+        // El calendario lo aplica recién después del commit
+        eventPublisher.publishEvent(CambioOcupacionEvento.de(cambios));
     }
 
     // --- VALIDACIONES PRIVADAS ---
@@ -123,6 +182,40 @@ public class ReservaService {
         }
     }
 
+    /**
+     * Dos reservas del mismo pedido para la misma habitación no pueden solaparse
+     * ({@code [desde, hasta)}, igual que contra las existentes).
+     */
+    private void validarSolapamientoEntrePedidas(List<Reserva> pedidas) throws Exception {
+        Map<String, List<Reserva>> porHabitacion = new HashMap<>();
+        for (Reserva r : pedidas) {
+            porHabitacion.computeIfAbsent(r.getHabitacion().getNumero(), k -> new ArrayList<>()).add(r);
+        }
+        for (Map.Entry<String, List<Reserva>> entrada : porHabitacion.entrySet()) {
+            List<Reserva> lista = entrada.getValue();
+            if (lista.size() < 2) continue;
+            lista.sort(Comparator.comparing(Reserva::getFechaDesde));
+            for (int i = 1; i < lista.size(); i++) {
+                if (lista.get(i).getFechaDesde().before(lista.get(i - 1).getFechaHasta())) {
+                    throw new Exception("La habitación " + entrada.getKey() + " figura dos veces en el pedido con fechas que se superponen.");
+                }
+            }
+        }
+    }
+
+    /**
+     * {@code true} si el error viene de una restricción de exclusión de Postgres (SQLSTATE 23P01).
+     * En un batch el error real puede estar en la causa o en {@code getNextException()}.
+     */
+    private static boolean esViolacionDeExclusion(DataAccessException e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            for (SQLException sql = t instanceof SQLException s ? s : null; sql != null; sql = sql.getNextException()) {
+                if (SQLSTATE_VIOLACION_EXCLUSION.equals(sql.getSQLState())) return true;
+            }
+        }
+        return false;
+    }
+
     private void validarFechaIngreso(Date fechaDesde) throws Exception {
         LocalDate hoy = LocalDate.now();
         LocalDate fechaIngreso = fechaDesde.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
@@ -134,59 +227,65 @@ public class ReservaService {
 
     // CU06 - Búsqueda
   @Transactional(readOnly = true)
-    public List<Map<String, Object>> buscarReservasPorHuesped(String apellido, String nombre) {
+    public List<DtoReservaCancelable> buscarReservasPorHuesped(String apellido, String nombre) {
         String apellidoParam = (apellido != null && !apellido.isBlank()) ? apellido + "%" : null;
         String nombreParam = (nombre != null && !nombre.isBlank()) ? nombre + "%" : null;
 
-        List<Reserva> reservas = reservaRepository.buscarParaCancelar(apellidoParam, nombreParam);
-        List<Map<String, Object>> resultado = new ArrayList<>();
-        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
-
-        for (Reserva r : reservas) {
-            Map<String, Object> map = new HashMap<>();
-            
-            // 1. Datos de la Reserva
-            map.put("idReserva", r.getIdReserva());
-            map.put("apellidoHuespedResponsable", r.getApellidoHuespedResponsable());
-            map.put("nombreHuespedResponsable", r.getNombreHuespedResponsable());
-            if (r.getFechaDesde() != null) map.put("fechaDesde", sdf.format(r.getFechaDesde()));
-            if (r.getFechaHasta() != null) map.put("fechaHasta", sdf.format(r.getFechaHasta())); // Usamos fechaHasta para coincidir con DTO
-            
-            // 2. Datos de la Habitación (Soluciona el problema de "Estándar")
-            if (r.getHabitacion() != null) {
-                map.put("idHabitacion", r.getHabitacion().getNumero());
-                map.put("tipoHabitacion", r.getHabitacion().getTipoHabitacion().toString());
-            }
-
-            // 3. DATOS DE ESTADÍA (Soluciona el problema de validación)
-            // Buscamos si hay una estadía con este id_reserva
-            Optional<Estadia> estadiaAsociada = estadiaRepository.findByReservaId(r.getIdReserva());
-            if (estadiaAsociada.isPresent()) {
-                map.put("idEstadia", estadiaAsociada.get().getIdEstadia());
-            } else {
-                map.put("idEstadia", null);
-            }
-
-            resultado.add(map);
-        }
-        return resultado;
+        // Reserva, habitación y estadía asociada llegan juntas en una sola consulta
+        return reservaRepository.buscarParaCancelar(apellidoParam, nombreParam);
     }
 
     // CU06 - Cancelación
+    /**
+     * Cancela las reservas indicadas con un único {@code UPDATE ... RETURNING}.
+     * <p>
+     * Solo se cancelan las que estaban ACTIVAS; el resto se informa como ya cancelada o
+     * inexistente (esa segunda consulta solo se hace si hace falta). La disponibilidad en
+     * memoria se actualiza únicamente para las habitaciones y fechas de las canceladas.
+     */
     @Transactional(rollbackFor = Exception.class)
-    public void cancelarReservas(List<Integer> idsReservas) throws Exception {
+    public DtoResultadoCancelacion cancelarReservas(List<Integer> idsReservas) throws Exception {
         if (idsReservas == null || idsReservas.isEmpty()) {
             throw new Exception("No se seleccionaron reservas para cancelar.");
         }
+        Set<Integer> pedidas = new LinkedHashSet<>(idsReservas);
+        pedidas.remove(null);
 
-        for (Integer id : idsReservas) {
-            Reserva r = reservaRepository.findById(id)
-                    .orElseThrow(() -> new Exception("La reserva " + id + " no existe."));
+        List<Reserva> canceladas = reservaRepository.cancelarEnLote(pedidas);
+        Set<Integer> idsCanceladas = new HashSet<>();
+        List<CambioOcupacionEvento.Cambio> cambios = new ArrayList<>();
+        for (Reserva r : canceladas) {
+            idsCanceladas.add(r.getIdReserva());
+            if (r.getHabitacion() != null) {
+                cambios.add(CambioOcupacionEvento.Cambio.baja(r.getHabitacion().getNumero(), aIntervalo(r)));
+            }
+        }
 
-            if (r.getEstadoReserva() == EstadoReserva.CANCELADA) continue;
+        List<Integer> restantes = pedidas.stream().filter(id -> !idsCanceladas.contains(id)).toList();
+        Set<Integer> existentes = restantes.isEmpty()
+                ? Set.of()
+                : new HashSet<>(reservaRepository.buscarIdsExistentes(restantes));
 
-            r.setEstadoReserva(EstadoReserva.CANCELADA);
-            reservaRepository.save(r);
+        List<Integer> yaCanceladas = new ArrayList<>();
+        List<Integer> inexistentes = new ArrayList<>();
+        for (Integer id : restantes) {
+            (existentes.contains(id) ? yaCanceladas : inexistentes).add(id);
         }
+
+        if (!cambios.isEmpty()) {
+            eventPublisher.publishEvent(CambioOcupacionEvento.de(cambios));
+        }
+
+        List<Integer> idsOrdenados = pedidas.stream().filter(idsCanceladas::contains).toList();
+        String mensaje = idsOrdenados.size() == pedidas.size()
+                ? "Reservas canceladas correctamente."
+                : "Se cancelaron " + idsOrdenados.size() + " de " + pedidas.size() + " reservas.";
+        return new DtoResultadoCancelacion(mensaje, idsOrdenados, yaCanceladas, inexistentes);
+    }
+
+    private IntervaloOcupacion aIntervalo(Reserva r) {
+        return new IntervaloOcupacion(EstadoOcupacion.RESERVADA, r.getIdReserva(),
+                r.getFechaDesde() != null ? IndiceOcupacion.convertToLocalDate(r.getFechaDesde()) : null,
+                r.getFechaHasta() != null ? IndiceOcupacion.convertToLocalDate(r.getFechaHasta()) : null);
     }
 }
\ No newline at end of file
@@ -2,8 +2,10 @@ package Facultad.TrabajoPracticoDesarrollo;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class TrabajoPracticoDesarrolloApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,141 @@
+package Facultad.TrabajoPracticoDesarrollo.Utils.Existencia;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom sobre claves de texto, seguro para uso concurrente.
+ *
+ * <p>{@link #puedeContener(CharSequence)} nunca da un falso negativo: si devuelve
+ * {@code false} la clave no se agregó. Si devuelve {@code true} la clave puede estar o no
+ * (falso positivo), con una probabilidad que crece a medida que se agregan claves.
+ * No se pueden quitar claves.</p>
+ *
+ * <p>Las {@code k} posiciones de cada clave salen de dos hashes de 64 bits combinados
+ * ({@code h1 + i * h2}), y los bits se guardan en un {@link AtomicLongArray}, así agregar
+ * y consultar no necesitan lock.</p>
+ */
+public final class FiltroBloom {
+
+    private static final long SEMILLA_1 = 0x9E3779B97F4A7C15L;
+    private static final long SEMILLA_2 = 0xC2B2AE3D27D4EB4FL;
+    private static final int MAXIMO_HASHES = 16;
+
+    private final AtomicLongArray bits;
+    private final long cantidadBits;
+    private final int cantidadHashes;
+    private final long capacidad;
+    private final AtomicLong bitsEncendidos = new AtomicLong();
+    private final AtomicLong elementos = new AtomicLong();
+
+    private FiltroBloom(long cantidadBits, int cantidadHashes, long capacidad) {
+        long palabras = (cantidadBits + 63) / 64;
+        if (palabras > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Filtro demasiado grande: " + cantidadBits + " bits");
+        }
+        this.bits = new AtomicLongArray((int) palabras);
+        this.cantidadBits = palabras * 64;
+        this.cantidadHashes = cantidadHashes;
+        this.capacidad = capacidad;
+    }
+
+    /**
+     * Dimensiona el filtro para que, con {@code capacidad} claves, la tasa de falsos
+     * positivos sea {@code tasaObjetivo}: {@code m = -n ln p / (ln 2)^2} bits y
+     * {@code k = (m / n) ln 2} hashes.
+     *
+     * @param capacidad    cantidad de claves esperada (mayor a cero)
+     * @param tasaObjetivo probabilidad de falso positivo buscada, entre 0 y 1
+     */
+    public static FiltroBloom paraCapacidad(long capacidad, double tasaObjetivo) {
+        if (capacidad <= 0) throw new IllegalArgumentException("La capacidad debe ser positiva");
+        if (tasaObjetivo <= 0 || tasaObjetivo >= 1) {
+            throw new IllegalArgumentException("La tasa de falsos positivos debe estar entre 0 y 1");
+        }
+        double ln2 = Math.log(2);
+        long m = (long) Math.ceil(-capacidad * Math.log(tasaObjetivo) / (ln2 * ln2));
+        int k = (int) Math.round((double) m / capacidad * ln2);
+        return new FiltroBloom(Math.max(m, 64), Math.max(1, Math.min(k, MAXIMO_HASHES)), capacidad);
+    }
+
+    /**
+     * Agrega la clave.
+     *
+     * @return {@code true} si se encendió algún bit (la clave seguro no estaba)
+     */
+    public boolean agregar(CharSequence clave) {
+        long h1 = hash(clave, SEMILLA_1);
+        long h2 = hash(clave, SEMILLA_2) | 1; // impar: las k posiciones no se repiten por ciclo corto
+        boolean cambio = false;
+        for (int i = 0; i < cantidadHashes; i++) {
+            if (encender(Math.floorMod(h1 + i * h2, cantidadBits))) cambio = true;
+        }
+        if (cambio) elementos.incrementAndGet();
+        return cambio;
+    }
+
+    /**
+     * @return {@code false} si la clave seguro no se agregó; {@code true} si puede haberse agregado
+     */
+    public boolean puedeContener(CharSequence clave) {
+        long h1 = hash(clave, SEMILLA_1);
+        long h2 = hash(clave, SEMILLA_2) | 1;
+        for (int i = 0; i < cantidadHashes; i++) {
+            long posicion = Math.floorMod(h1 + i * h2, cantidadBits);
+            if ((bits.get((int) (posicion >>> 6)) & (1L << posicion)) == 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Probabilidad de falso positivo con el llenado actual: (bits encendidos / bits)^k.
+     */
+    public double tasaFalsosPositivosEstimada() {
+        return Math.pow((double) bitsEncendidos.get() / cantidadBits, cantidadHashes);
+    }
+
+    /** Claves distintas agregadas (aproximado: una clave que choca en todos sus bits no se cuenta). */
+    public long getElementos() {
+        return elementos.get();
+    }
+
+    public long getCapacidad() {
+        return capacidad;
+    }
+
+    public int getCantidadHashes() {
+        return cantidadHashes;
+    }
+
+    public long getCantidadBits() {
+        return cantidadBits;
+    }
+
+    public long getMemoriaBytes() {
+        return (long) bits.length() * Long.BYTES;
+    }
+
+    private boolean encender(long posicion) {
+        int palabra = (int) (posicion >>> 6);
+        long mascara = 1L << posicion;
+        long anterior = bits.getAndUpdate(palabra, v -> v | mascara);
+        if ((anterior & mascara) != 0) return false;
+        bitsEncendidos.incrementAndGet();
+        return true;
+    }
+
+    /** FNV-1a sobre los caracteres, con el finalizador de MurmurHash3 para repartir bien los bits. */
+    private static long hash(CharSequence clave, long semilla) {
+        long h = semilla;
+        for (int i = 0; i < clave.length(); i++) {
+            h ^= clave.charAt(i);
+            h *= 0x100000001B3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,62 @@
+package Facultad.TrabajoPracticoDesarrollo.Utils.Inventario;
+
+import Facultad.TrabajoPracticoDesarrollo.Dominio.Habitacion;
+import Facultad.TrabajoPracticoDesarrollo.enums.EstadoHabitacion;
+import Facultad.TrabajoPracticoDesarrollo.enums.TipoHabitacion;
+import lombok.Getter;
+
+import java.util.Objects;
+
+/**
+ * Datos de catálogo de una habitación, tal como los guarda el inventario en memoria.
+ *
+ * <p>Es inmutable y no es una entidad: se puede compartir entre hilos y pedidos sin que
+ * nadie cambie la foto del inventario. Se serializa a JSON con los mismos campos que
+ * {@link Habitacion}. Para asociar una habitación a una entidad nueva se usa
+ * {@code habitacionRepository.getReferenceById(numero)}.</p>
+ */
+@Getter
+public final class HabitacionCatalogo {
+
+    private final String numero;
+    private final TipoHabitacion tipoHabitacion;
+    private final Integer capacidad;
+    private final EstadoHabitacion estadoHabitacion;
+    private final Float costoPorNoche;
+
+    public HabitacionCatalogo(String numero, TipoHabitacion tipoHabitacion, Integer capacidad,
+                              EstadoHabitacion estadoHabitacion, Float costoPorNoche) {
+        this.numero = numero;
+        this.tipoHabitacion = tipoHabitacion;
+        this.capacidad = capacidad;
+        this.estadoHabitacion = estadoHabitacion;
+        this.costoPorNoche = costoPorNoche;
+    }
+
+    public static HabitacionCatalogo de(Habitacion habitacion) {
+        return new HabitacionCatalogo(habitacion.getNumero(), habitacion.getTipoHabitacion(),
+                habitacion.getCapacidad(), habitacion.getEstadoHabitacion(), habitacion.getCostoPorNoche());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof HabitacionCatalogo)) return false;
+        HabitacionCatalogo otra = (HabitacionCatalogo) o;
+        return Objects.equals(numero, otra.numero)
+                && tipoHabitacion == otra.tipoHabitacion
+                && Objects.equals(capacidad, otra.capacidad)
+                && estadoHabitacion == otra.estadoHabitacion
+                && Objects.equals(costoPorNoche, otra.costoPorNoche);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(numero, tipoHabitacion, capacidad, estadoHabitacion, costoPorNoche);
+    }
+
+    @Override
+    public String toString() {
+        return "Habitacion " + numero + " (" + tipoHabitacion + ")";
+    }
+}
@@ -0,0 +1,123 @@
+package Facultad.TrabajoPracticoDesarrollo.Utils.Ocupacion;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Árbol de intervalos estático (inmutable) sobre intervalos semiabiertos
+ * {@code [inicio, fin)} de días epoch.
+ *
+ * <p>Los intervalos se ordenan por inicio y se guardan en arreglos paralelos; el
+ * árbol binario es implícito (la raíz de cada rango {@code [lo, hi]} es su
+ * punto medio) y cada nodo guarda el fin máximo de su subárbol. Así:
+ * <ul>
+ *   <li>{@link #buscarQueContiene(long)} responde en O(log n).</li>
+ *   <li>{@link #buscarSolapados(long, long)} responde en O(log n + k).</li>
+ * </ul>
+ * Los intervalos vacíos ({@code fin <= inicio}) se descartan al construir.</p>
+ */
+public final class IndiceIntervalos {
+
+    private static final IndiceIntervalos VACIO = new IndiceIntervalos(List.of());
+
+    private final long[] inicios;
+    private final long[] fines;
+    private final long[] maxFin;
+    private final IntervaloOcupacion[] valores;
+
+    private IndiceIntervalos(List<IntervaloOcupacion> ordenados) {
+        int n = ordenados.size();
+        this.inicios = new long[n];
+        this.fines = new long[n];
+        this.maxFin = new long[n];
+        this.valores = new IntervaloOcupacion[n];
+        for (int i = 0; i < n; i++) {
+            IntervaloOcupacion intervalo = ordenados.get(i);
+            inicios[i] = intervalo.inicioEpoch();
+            fines[i] = intervalo.finEpoch();
+            valores[i] = intervalo;
+        }
+        calcularMaxFin(0, n - 1);
+    }
+
+    public static IndiceIntervalos construir(Collection<IntervaloOcupacion> intervalos) {
+        List<IntervaloOcupacion> ordenados = new ArrayList<>(intervalos.size());
+        for (IntervaloOcupacion i : intervalos) {
+            if (i.finEpoch() > i.inicioEpoch()) ordenados.add(i);
+        }
+        if (ordenados.isEmpty()) return VACIO;
+        ordenados.sort(Comparator.comparingLong(IntervaloOcupacion::inicioEpoch)
+                .thenComparingLong(IntervaloOcupacion::finEpoch));
+        return new IndiceIntervalos(ordenados);
+    }
+
+    public static IndiceIntervalos vacio() {
+        return VACIO;
+    }
+
+    public int tamanio() {
+        return valores.length;
+    }
+
+    /**
+     * Devuelve un intervalo que contiene al día {@code dia}, o {@code null} si no hay ninguno.
+     *
+     * <p>Descenso clásico: si el subárbol izquierdo tiene un fin máximo mayor que el punto,
+     * o el punto está allí o no está en ningún lado, por lo que nunca se visitan ambas ramas.</p>
+     */
+    public IntervaloOcupacion buscarQueContiene(long dia) {
+        int lo = 0;
+        int hi = valores.length - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (maxFin[mid] <= dia) return null;
+            if (inicios[mid] <= dia && dia < fines[mid]) return valores[mid];
+
+            int loIzq = lo;
+            int hiIzq = mid - 1;
+            if (loIzq <= hiIzq && maxFin[(loIzq + hiIzq) >>> 1] > dia) {
+                hi = hiIzq;
+            } else if (inicios[mid] > dia) {
+                // Todo el subárbol derecho empieza después del punto
+                return null;
+            } else {
+                lo = mid + 1;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Devuelve, ordenados por inicio, todos los intervalos que se solapan con {@code [desde, hasta)}.
+     */
+    public List<IntervaloOcupacion> buscarSolapados(long desde, long hasta) {
+        List<IntervaloOcupacion> resultado = new ArrayList<>();
+        if (desde < hasta) {
+            recolectar(0, valores.length - 1, desde, hasta, resultado);
+        }
+        return resultado;
+    }
+
+    // --- MÉTODOS PRIVADOS ---
+
+    private long calcularMaxFin(int lo, int hi) {
+        if (lo > hi) return Long.MIN_VALUE;
+        int mid = (lo + hi) >>> 1;
+        long max = Math.max(fines[mid], Math.max(calcularMaxFin(lo, mid - 1), calcularMaxFin(mid + 1, hi)));
+        maxFin[mid] = max;
+        return max;
+    }
+
+    private void recolectar(int lo, int hi, long desde, long hasta, List<IntervaloOcupacion> resultado) {
+        if (lo > hi) return;
+        int mid = (lo + hi) >>> 1;
+        if (maxFin[mid] <= desde) return;
+
+        recolectar(lo, mid - 1, desde, hasta, resultado);
+        if (inicios[mid] >= hasta) return;
+        if (fines[mid] > desde) resultado.add(valores[mid]);
+        recolectar(mid + 1, hi, desde, hasta, resultado);
+    }
+}
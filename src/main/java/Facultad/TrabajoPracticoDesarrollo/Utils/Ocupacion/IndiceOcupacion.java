@@ -0,0 +1,132 @@
+package Facultad.TrabajoPracticoDesarrollo.Utils.Ocupacion;
+
+import Facultad.TrabajoPracticoDesarrollo.Dominio.Estadia;
+import Facultad.TrabajoPracticoDesarrollo.Utils.Inventario.HabitacionCatalogo;
+import Facultad.TrabajoPracticoDesarrollo.Dominio.Reserva;
+import Facultad.TrabajoPracticoDesarrollo.enums.EstadoHabitacion;
+import Facultad.TrabajoPracticoDesarrollo.enums.EstadoOcupacion;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Índice de ocupación por habitación, construido a partir de reservas, estadías
+ * y habitaciones fuera de servicio.
+ *
+ * <p>Cada habitación tiene un {@link IndiceIntervalos} para estadías y otro para
+ * reservas, de modo que "estado de la habitación R el día D" se responde en
+ * O(log n) respetando la misma prioridad que la grilla del CU05:
+ * <ol>
+ *   <li>MANTENIMIENTO (habitación fuera de servicio).</li>
+ *   <li>OCUPADA (estadía con check-in &lt;= D &lt; check-out; sin check-out es abierta).</li>
+ *   <li>RESERVADA (reserva con desde &lt;= D &lt; hasta).</li>
+ *   <li>DISPONIBLE.</li>
+ * </ol>
+ * El índice es inmutable: ante cambios se construye uno nuevo.</p>
+ */
+public final class IndiceOcupacion {
+
+    private final Set<String> enMantenimiento;
+    private final Map<String, IndiceIntervalos> estadiasPorHabitacion;
+    private final Map<String, IndiceIntervalos> reservasPorHabitacion;
+
+    private IndiceOcupacion(Set<String> enMantenimiento,
+                            Map<String, IndiceIntervalos> estadiasPorHabitacion,
+                            Map<String, IndiceIntervalos> reservasPorHabitacion) {
+        this.enMantenimiento = enMantenimiento;
+        this.estadiasPorHabitacion = estadiasPorHabitacion;
+        this.reservasPorHabitacion = reservasPorHabitacion;
+    }
+
+    /**
+     * Construye el índice. Se ignoran reservas/estadías sin habitación o sin fechas,
+     * igual que en el cálculo lineal original.
+     */
+    public static IndiceOcupacion construir(Collection<HabitacionCatalogo> habitaciones,
+                                            Collection<Reserva> reservas,
+                                            Collection<Estadia> estadias) {
+        Set<String> enMantenimiento = new HashSet<>();
+        for (HabitacionCatalogo hab : habitaciones) {
+            if (estaFueraDeServicio(hab)) enMantenimiento.add(hab.getNumero());
+        }
+
+        Map<String, List<IntervaloOcupacion>> porHabEstadia = new HashMap<>();
+        for (Estadia e : estadias) {
+            if (e.getHabitacion() == null || e.getFechaCheckIn() == null) continue;
+            LocalDate checkOut = e.getFechaCheckOut() != null ? convertToLocalDate(e.getFechaCheckOut()) : null;
+            porHabEstadia.computeIfAbsent(e.getHabitacion().getNumero(), k -> new ArrayList<>())
+                    .add(new IntervaloOcupacion(EstadoOcupacion.OCUPADA, e.getIdEstadia(),
+                            convertToLocalDate(e.getFechaCheckIn()), checkOut));
+        }
+
+        Map<String, List<IntervaloOcupacion>> porHabReserva = new HashMap<>();
+        for (Reserva r : reservas) {
+            if (r.getHabitacion() == null || r.getFechaDesde() == null || r.getFechaHasta() == null) continue;
+            porHabReserva.computeIfAbsent(r.getHabitacion().getNumero(), k -> new ArrayList<>())
+                    .add(new IntervaloOcupacion(EstadoOcupacion.RESERVADA, r.getIdReserva(),
+                            convertToLocalDate(r.getFechaDesde()), convertToLocalDate(r.getFechaHasta())));
+        }
+
+        return new IndiceOcupacion(enMantenimiento, indexar(porHabEstadia), indexar(porHabReserva));
+    }
+
+    /**
+     * Estado de la habitación {@code numero} el día {@code dia}.
+     *
+     * @return el intervalo que determina el estado, o {@code null} si la habitación está DISPONIBLE
+     */
+    public IntervaloOcupacion buscarEstado(String numero, LocalDate dia) {
+        if (enMantenimiento.contains(numero)) {
+            return new IntervaloOcupacion(EstadoOcupacion.MANTENIMIENTO, null, null, null);
+        }
+        long d = dia.toEpochDay();
+        IntervaloOcupacion estadia = estadiasPorHabitacion.getOrDefault(numero, IndiceIntervalos.vacio())
+                .buscarQueContiene(d);
+        if (estadia != null) return estadia;
+        return reservasPorHabitacion.getOrDefault(numero, IndiceIntervalos.vacio())
+                .buscarQueContiene(d);
+    }
+
+    /**
+     * Todos los intervalos (estadías y reservas) de la habitación que se solapan con
+     * {@code [desde, hasta)}, sin resolver prioridades entre ellos.
+     */
+    public List<IntervaloOcupacion> buscarIntervalos(String numero, LocalDate desde, LocalDate hasta) {
+        long a = desde.toEpochDay();
+        long b = hasta.toEpochDay();
+        List<IntervaloOcupacion> resultado = new ArrayList<>();
+        if (enMantenimiento.contains(numero)) {
+            resultado.add(new IntervaloOcupacion(EstadoOcupacion.MANTENIMIENTO, null, null, null));
+        }
+        resultado.addAll(estadiasPorHabitacion.getOrDefault(numero, IndiceIntervalos.vacio()).buscarSolapados(a, b));
+        resultado.addAll(reservasPorHabitacion.getOrDefault(numero, IndiceIntervalos.vacio()).buscarSolapados(a, b));
+        return resultado;
+    }
+
+    public static boolean estaFueraDeServicio(HabitacionCatalogo hab) {
+        return hab.getEstadoHabitacion() == EstadoHabitacion.FUERA_DE_SERVICIO;
+    }
+
+    public static LocalDate convertToLocalDate(Date date) {
+        if (date instanceof java.sql.Date) {
+            return ((java.sql.Date) date).toLocalDate();
+        }
+        return date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+
+    // --- MÉTODOS PRIVADOS ---
+
+    private static Map<String, IndiceIntervalos> indexar(Map<String, List<IntervaloOcupacion>> porHabitacion) {
+        Map<String, IndiceIntervalos> indices = new HashMap<>(porHabitacion.size() * 2);
+        porHabitacion.forEach((numero, lista) -> indices.put(numero, IndiceIntervalos.construir(lista)));
+        return indices;
+    }
+}
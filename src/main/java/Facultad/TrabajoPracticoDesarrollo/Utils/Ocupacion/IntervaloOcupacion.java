@@ -0,0 +1,51 @@
+package Facultad.TrabajoPracticoDesarrollo.Utils.Ocupacion;
+
+import Facultad.TrabajoPracticoDesarrollo.enums.EstadoOcupacion;
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+/**
+ * Intervalo semiabierto {@code [desde, hasta)} durante el cual una habitación
+ * se encuentra en un estado distinto de {@link EstadoOcupacion#DISPONIBLE}.
+ *
+ * <p>{@code id} referencia la reserva o estadía que originó el intervalo
+ * ({@code null} para mantenimiento). {@code hasta} es {@code null} cuando el
+ * intervalo no tiene fin conocido (estadía sin check-out o habitación fuera de
+ * servicio).</p>
+ */
+@Getter
+public final class IntervaloOcupacion {
+
+    private final EstadoOcupacion estado;
+    private final Integer id;
+    private final LocalDate desde;
+    private final LocalDate hasta;
+
+    public IntervaloOcupacion(EstadoOcupacion estado, Integer id, LocalDate desde, LocalDate hasta) {
+        this.estado = estado;
+        this.id = id;
+        this.desde = desde;
+        this.hasta = hasta;
+    }
+
+    /** Inicio del intervalo en días epoch ({@link Long#MIN_VALUE} si no tiene inicio). */
+    long inicioEpoch() {
+        return desde != null ? desde.toEpochDay() : Long.MIN_VALUE;
+    }
+
+    /** Fin exclusivo del intervalo en días epoch ({@link Long#MAX_VALUE} si es abierto). */
+    long finEpoch() {
+        return hasta != null ? hasta.toEpochDay() : Long.MAX_VALUE;
+    }
+
+    public boolean contiene(LocalDate dia) {
+        long d = dia.toEpochDay();
+        return inicioEpoch() <= d && d < finEpoch();
+    }
+
+    @Override
+    public String toString() {
+        return estado + "#" + id + "[" + desde + ", " + hasta + ")";
+    }
+}
@@ -0,0 +1,63 @@
+package Facultad.TrabajoPracticoDesarrollo.Utils.Paginacion;
+
+import Facultad.TrabajoPracticoDesarrollo.Dominio.Huesped;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Posición dentro del listado de huéspedes ordenado por apellido y nombres normalizados
+ * y después por (tipo_documento, numero_documento).
+ *
+ * <p>Guarda la clave del último huésped entregado, con apellido y nombres tal como están en
+ * la base (la consulta los normaliza al comparar); la página siguiente empieza en el primero
+ * estrictamente mayor. Viaja al cliente como un token opaco (Base64 URL) y vuelve sin cambios.</p>
+ */
+public final class CursorHuesped {
+
+    private static final String SEPARADOR = "\u001F";
+
+    private final String apellido;
+    private final String nombres;
+    private final String tipoDocumento;
+    private final String nroDocumento;
+
+    public CursorHuesped(String apellido, String nombres, String tipoDocumento, String nroDocumento) {
+        this.apellido = apellido;
+        this.nombres = nombres;
+        this.tipoDocumento = tipoDocumento;
+        this.nroDocumento = nroDocumento;
+    }
+
+    /** Cursor que apunta justo después de {@code h}. */
+    public static CursorHuesped despuesDe(Huesped h) {
+        return new CursorHuesped(h.getApellido(), h.getNombres(),
+                h.getTipoDocumento() != null ? h.getTipoDocumento().name() : null, h.getNroDocumento());
+    }
+
+    public String codificar() {
+        String plano = String.join(SEPARADOR, apellido, nombres, tipoDocumento, nroDocumento);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(plano.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException si el token no fue generado por {@link #codificar()}
+     */
+    public static CursorHuesped decodificar(String token) {
+        String[] partes;
+        try {
+            partes = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(SEPARADOR, -1);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor de paginación inválido.");
+        }
+        if (partes.length != 4) {
+            throw new IllegalArgumentException("Cursor de paginación inválido.");
+        }
+        return new CursorHuesped(partes[0], partes[1], partes[2], partes[3]);
+    }
+
+    public String getApellido() { return apellido; }
+    public String getNombres() { return nombres; }
+    public String getTipoDocumento() { return tipoDocumento; }
+    public String getNroDocumento() { return nroDocumento; }
+}
@@ -0,0 +1,16 @@
+package Facultad.TrabajoPracticoDesarrollo.Utils.Paginacion;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Una página de resultados y el token para pedir la siguiente ({@code null} si es la última).
+ */
+@Getter
+@AllArgsConstructor
+public class Pagina<T> {
+    private final List<T> elementos;
+    private final String siguiente;
+}
@@ -0,0 +1,8 @@
+package Facultad.TrabajoPracticoDesarrollo.enums;
+
+public enum EstadoFusion {
+    PENDIENTE,
+    EN_CURSO,
+    COMPLETADA,
+    FALLIDA
+}
@@ -0,0 +1,15 @@
+package Facultad.TrabajoPracticoDesarrollo.enums;
+
+/**
+ * Estado de una habitación en un día puntual, tal como se muestra en la grilla
+ * de "Estado de Habitaciones" (CU05).
+ *
+ * <p>El orden de declaración es estable: el ordinal se usa como código compacto
+ * de un byte en las estructuras en memoria.</p>
+ */
+public enum EstadoOcupacion {
+    DISPONIBLE,
+    RESERVADA,
+    OCUPADA,
+    MANTENIMIENTO
+}
@@ -0,0 +1,11 @@
+package Facultad.TrabajoPracticoDesarrollo.enums;
+
+/**
+ * Motor usado para calcular la grilla de "Estado de Habitaciones" (CU05).
+ */
+public enum MotorGrilla {
+    /** Reservas y estadías se traen a la JVM y se resuelven con el índice/calendario en memoria. */
+    JVM,
+    /** La matriz habitación x día se calcula en Postgres con una única consulta. */
+    SQL
+}
@@ -0,0 +1,12 @@
+package Facultad.TrabajoPracticoDesarrollo.enums;
+
+/**
+ * Pasos de una fusión de huéspedes, en el orden en que se ejecutan.
+ */
+public enum PasoFusion {
+    RESERVAS,
+    ESTADIAS,
+    FACTURAS,
+    LIMPIEZA,
+    TERMINADA
+}
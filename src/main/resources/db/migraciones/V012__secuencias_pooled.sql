@@ -0,0 +1,46 @@
+-- =====================================================================================
+-- Secuencias con asignación en bloques para las entidades de mucha escritura.
+--
+-- Reemplaza el default de las columnas SERIAL por una secuencia propia con INCREMENT 50,
+-- que debe coincidir con el allocationSize de @SequenceGenerator. Hibernate (optimizador
+-- pooled) pide un valor cada 50 inserts y usa el rango (valor - 49 .. valor], así puede
+-- agrupar los INSERT en batches JDBC. Los inserts hechos por fuera de Hibernate siguen
+-- funcionando con el DEFAULT (consumen un valor entero de la secuencia y no se pisan).
+--
+-- Se ejecuta una sola vez, a mano (spring.jpa.hibernate.ddl-auto=none):
+--   psql "$DATABASE_URL" -f V012__secuencias_pooled.sql
+-- =====================================================================================
+
+BEGIN;
+
+CREATE SEQUENCE IF NOT EXISTS reserva_seq INCREMENT BY 50;
+SELECT setval('reserva_seq', COALESCE((SELECT MAX(id_reserva) FROM reserva), 0) + 50);
+ALTER TABLE reserva ALTER COLUMN id_reserva SET DEFAULT nextval('reserva_seq');
+ALTER SEQUENCE reserva_seq OWNED BY reserva.id_reserva;
+
+CREATE SEQUENCE IF NOT EXISTS estadia_seq INCREMENT BY 50;
+SELECT setval('estadia_seq', COALESCE((SELECT MAX(id_estadia) FROM estadia), 0) + 50);
+ALTER TABLE estadia ALTER COLUMN id_estadia SET DEFAULT nextval('estadia_seq');
+ALTER SEQUENCE estadia_seq OWNED BY estadia.id_estadia;
+
+CREATE SEQUENCE IF NOT EXISTS pago_seq INCREMENT BY 50;
+SELECT setval('pago_seq', COALESCE((SELECT MAX(id_pago) FROM pago), 0) + 50);
+ALTER TABLE pago ALTER COLUMN id_pago SET DEFAULT nextval('pago_seq');
+ALTER SEQUENCE pago_seq OWNED BY pago.id_pago;
+
+CREATE SEQUENCE IF NOT EXISTS cama_seq INCREMENT BY 50;
+SELECT setval('cama_seq', COALESCE((SELECT MAX(id_cama) FROM cama), 0) + 50);
+ALTER TABLE cama ALTER COLUMN id_cama SET DEFAULT nextval('cama_seq');
+ALTER SEQUENCE cama_seq OWNED BY cama.id_cama;
+
+CREATE SEQUENCE IF NOT EXISTS servicios_adicionales_seq INCREMENT BY 50;
+SELECT setval('servicios_adicionales_seq', COALESCE((SELECT MAX(id_servicio_adicional) FROM servicios_adicionales), 0) + 50);
+ALTER TABLE servicios_adicionales ALTER COLUMN id_servicio_adicional SET DEFAULT nextval('servicios_adicionales_seq');
+ALTER SEQUENCE servicios_adicionales_seq OWNED BY servicios_adicionales.id_servicio_adicional;
+
+CREATE SEQUENCE IF NOT EXISTS nota_de_credito_seq INCREMENT BY 50;
+SELECT setval('nota_de_credito_seq', COALESCE((SELECT MAX(numero_nota_credito) FROM nota_de_credito), 0) + 50);
+ALTER TABLE nota_de_credito ALTER COLUMN numero_nota_credito SET DEFAULT nextval('nota_de_credito_seq');
+ALTER SEQUENCE nota_de_credito_seq OWNED BY nota_de_credito.numero_nota_credito;
+
+COMMIT;
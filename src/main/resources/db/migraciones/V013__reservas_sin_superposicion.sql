@@ -0,0 +1,28 @@
+-- =====================================================================================
+-- Impide en la base de datos que dos reservas ACTIVAS de la misma habitación se superpongan.
+--
+-- La validación de ReservaService (consultar y después insertar) no alcanza con dos
+-- recepcionistas reservando a la vez: ambas consultas ven la habitación libre. Con esta
+-- restricción de exclusión el segundo INSERT falla (SQLSTATE 23P01) y el servicio lo
+-- informa como ReservaSuperpuestaException.
+--
+-- Rango [fecha_desde, fecha_hasta): el día de salida puede ser el de ingreso de otra
+-- reserva, igual que en ReservaRepository.existeReservaEnFecha.
+--
+-- Antes de aplicarla, verificar que no haya superposiciones previas:
+--   SELECT a.id_reserva, b.id_reserva FROM reserva a JOIN reserva b
+--     ON a.id_habitacion = b.id_habitacion AND a.id_reserva < b.id_reserva
+--    AND a.fecha_desde < b.fecha_hasta AND a.fecha_hasta > b.fecha_desde
+--   WHERE a.estado_reserva = 'ACTIVA' AND b.estado_reserva = 'ACTIVA';
+--
+-- Se ejecuta una sola vez, a mano (spring.jpa.hibernate.ddl-auto=none).
+-- =====================================================================================
+
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+ALTER TABLE reserva ADD CONSTRAINT reserva_sin_superposicion
+    EXCLUDE USING gist (
+        id_habitacion WITH =,
+        daterange(fecha_desde, fecha_hasta, '[)') WITH &&
+    )
+    WHERE (estado_reserva = 'ACTIVA');
@@ -0,0 +1,31 @@
+-- =====================================================================================
+-- Índices para la búsqueda de huéspedes por prefijo sin distinguir mayúsculas ni acentos.
+--
+-- f_normalizar pasa el texto a minúsculas y le quita los acentos ("Pérez" -> "perez").
+-- unaccent() no se puede indexar porque es STABLE, por eso se envuelve en una función
+-- IMMUTABLE con el diccionario fijo.
+--
+-- Los índices usan COLLATE "C": HuespedRepositoryImpl busca el prefijo como un rango
+-- [prefijo, prefijo || chr(1114111)), que en orden binario es exacto y el planner lo
+-- resuelve con un index range scan aunque el valor llegue como parámetro.
+--
+-- Se ejecuta una sola vez, a mano (spring.jpa.hibernate.ddl-auto=none):
+--   psql "$DATABASE_URL" -f V014__busqueda_huesped_normalizada.sql
+-- =====================================================================================
+
+CREATE EXTENSION IF NOT EXISTS unaccent;
+
+CREATE OR REPLACE FUNCTION f_normalizar(texto text) RETURNS text
+    LANGUAGE sql IMMUTABLE STRICT PARALLEL SAFE
+    AS $$ SELECT lower(public.unaccent('public.unaccent'::regdictionary, texto)) $$;
+
+CREATE INDEX IF NOT EXISTS huesped_apellido_normalizado_idx
+    ON huesped (f_normalizar(apellido) COLLATE "C");
+
+CREATE INDEX IF NOT EXISTS huesped_nombres_normalizado_idx
+    ON huesped (f_normalizar(nombres) COLLATE "C");
+
+CREATE INDEX IF NOT EXISTS huesped_numero_documento_prefijo_idx
+    ON huesped (numero_documento COLLATE "C");
+
+ANALYZE huesped;
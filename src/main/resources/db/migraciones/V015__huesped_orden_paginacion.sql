@@ -0,0 +1,14 @@
+-- =====================================================================================
+-- Índice para la paginación por clave (keyset) de la búsqueda de huéspedes.
+--
+-- HuespedRepositoryImpl.buscarPagina ordena por (apellido, nombres, tipo_documento,
+-- numero_documento) y continúa con "(...) > (último entregado)". Con este índice cada
+-- página es un recorrido corto del índice, sin importar el tamaño de la tabla ni cuántas
+-- páginas se pidieron antes (a diferencia de OFFSET).
+--
+-- Se ejecuta una sola vez, a mano (spring.jpa.hibernate.ddl-auto=none):
+--   psql "$DATABASE_URL" -f V015__huesped_orden_paginacion.sql
+-- =====================================================================================
+
+CREATE INDEX IF NOT EXISTS huesped_orden_idx
+    ON huesped (apellido, nombres, tipo_documento, numero_documento);
@@ -0,0 +1,40 @@
+-- =====================================================================================
+-- Trabajos de fusión de huéspedes (CU10, "aceptar igualmente" con un documento existente).
+--
+-- La migración de reservas, estadías y facturas del huésped original al destino se hace
+-- en segundo plano y por lotes (FusionHuespedes). Cada lote actualiza sus filas y el avance
+-- de esta tabla en la misma transacción, así que después de una caída el trabajo sigue
+-- desde el paso guardado sin repetir ni perder filas.
+--
+-- El índice parcial impide dos fusiones activas sobre el mismo huésped original. Los lotes
+-- buscan las filas del huésped original por documento; la clave primaria de estadia_huesped
+-- empieza por id_estadia y no sirve para eso. Las facturas ya tienen idx_factura_responsable.
+--
+-- Se ejecuta una sola vez, a mano (spring.jpa.hibernate.ddl-auto=none):
+--   psql "$DATABASE_URL" -f V016__fusion_huesped_trabajos.sql
+-- =====================================================================================
+
+CREATE TABLE IF NOT EXISTS fusion_huesped (
+    id_fusion       BIGSERIAL PRIMARY KEY,
+    tipo_origen     VARCHAR(20)  NOT NULL,
+    nro_origen      VARCHAR(20)  NOT NULL,
+    tipo_destino    VARCHAR(20)  NOT NULL,
+    nro_destino     VARCHAR(20)  NOT NULL,
+    estado          VARCHAR(20)  NOT NULL,
+    paso            VARCHAR(20)  NOT NULL,
+    filas_totales   BIGINT       NOT NULL DEFAULT 0,
+    filas_migradas  BIGINT       NOT NULL DEFAULT 0,
+    error           TEXT,
+    creada_en       TIMESTAMP    NOT NULL DEFAULT now(),
+    actualizada_en  TIMESTAMP    NOT NULL DEFAULT now()
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS fusion_huesped_origen_activa_idx
+    ON fusion_huesped (tipo_origen, nro_origen)
+    WHERE estado IN ('PENDIENTE', 'EN_CURSO');
+
+-- Lotes de la migración: buscan por el documento del huésped original
+CREATE INDEX IF NOT EXISTS reserva_responsable_idx
+    ON reserva ("TipoDocumentoResponsable", "NroDocumentoResponsable");
+CREATE INDEX IF NOT EXISTS estadia_huesped_documento_idx
+    ON estadia_huesped (tipo_documento, nro_documento);
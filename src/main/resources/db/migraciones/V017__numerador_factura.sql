@@ -0,0 +1,30 @@
+-- =====================================================================================
+-- Numeración de facturas por punto de venta con asignación en bloques.
+--
+-- Cada fila guarda el último número ya entregado de un punto de venta. NumeradorFacturas
+-- reserva un bloque con un único UPDATE ... RETURNING (el lock de la fila serializa a los
+-- nodos solo durante ese UPDATE) y reparte los números del bloque en memoria. Los bloques
+-- de distintos nodos son rangos contiguos que no se pisan, así que no hay números repetidos
+-- aunque se emitan facturas en paralelo.
+--
+-- La fila del punto de venta 0005 arranca desde la última factura existente; los puntos de
+-- venta nuevos se crean solos con el primer bloque.
+--
+-- Se ejecuta una sola vez, a mano (spring.jpa.hibernate.ddl-auto=none):
+--   psql "$DATABASE_URL" -f V017__numerador_factura.sql
+-- =====================================================================================
+
+BEGIN;
+
+CREATE TABLE IF NOT EXISTS numerador_factura (
+    punto_venta      VARCHAR(4) PRIMARY KEY,
+    ultimo_asignado  BIGINT     NOT NULL
+);
+
+INSERT INTO numerador_factura (punto_venta, ultimo_asignado)
+SELECT '0005', COALESCE(MAX(CAST(split_part(numero_factura, '-', 2) AS BIGINT)), 0)
+FROM factura
+WHERE numero_factura LIKE '0005-%' AND split_part(numero_factura, '-', 2) ~ '^[0-9]+$'
+ON CONFLICT (punto_venta) DO NOTHING;
+
+COMMIT;
@@ -0,0 +1,31 @@
+-- =====================================================================================
+-- Numeración independiente por punto de venta y tipo de factura (A / B).
+--
+-- AFIP numera cada tipo de comprobante por separado dentro de cada punto de venta, así que
+-- el numerador pasa a tener una fila por (punto_venta, tipo_factura). Los números nuevos
+-- llevan el tipo adelante ("A-0005-00000001") para que la clave de factura no se repita
+-- entre series; las facturas anteriores ("0005-XXXXXXXX") no se tocan y cada serie de 0005
+-- sigue desde el último número que ya tenía ese tipo.
+--
+-- Los puntos de venta nuevos (hotel.facturacion.puntos-venta.*) se crean solos con la
+-- primera factura. Ejecutar con la aplicación detenida (los nodos tienen bloques en memoria):
+--   psql "$DATABASE_URL" -f V018__numerador_factura_por_tipo.sql
+-- =====================================================================================
+
+BEGIN;
+
+ALTER TABLE numerador_factura ADD COLUMN IF NOT EXISTS tipo_factura VARCHAR(1);
+DELETE FROM numerador_factura;
+ALTER TABLE numerador_factura ALTER COLUMN tipo_factura SET NOT NULL;
+ALTER TABLE numerador_factura DROP CONSTRAINT IF EXISTS numerador_factura_pkey;
+ALTER TABLE numerador_factura ADD PRIMARY KEY (punto_venta, tipo_factura);
+
+INSERT INTO numerador_factura (punto_venta, tipo_factura, ultimo_asignado)
+SELECT '0005', t.tipo, COALESCE((
+    SELECT MAX(CAST(substring(numero_factura FROM '([0-9]+)$') AS BIGINT)) FROM factura
+    WHERE (numero_factura LIKE t.tipo || '-0005-%')
+       OR (numero_factura LIKE '0005-%' AND CAST(tipo_factura AS TEXT) = t.tipo)), 0)
+FROM (VALUES ('A'), ('B')) AS t(tipo)
+ON CONFLICT (punto_venta, tipo_factura) DO NOTHING;
+
+COMMIT;
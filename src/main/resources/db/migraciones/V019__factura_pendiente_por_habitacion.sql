@@ -0,0 +1,21 @@
+-- =====================================================================================
+-- Facturas pendientes por habitación (CU16, pantalla de caja).
+--
+-- FacturaRepository.buscarPendientesPorHabitacion resuelve la búsqueda en una sola
+-- consulta: factura JOIN estadia por la habitación, con estado = 'PENDIENTE'.
+--
+--   * estadia(numero_habitacion) no tenía índice: sin él cada búsqueda recorre todas las
+--     estadías del hotel.
+--   * El índice parcial de factura solo guarda las facturas pendientes, así que crece con
+--     lo que hay para cobrar y no con el historial de la habitación.
+--
+-- Se ejecuta una sola vez, a mano (spring.jpa.hibernate.ddl-auto=none):
+--   psql "$DATABASE_URL" -f V019__factura_pendiente_por_habitacion.sql
+-- =====================================================================================
+
+CREATE INDEX IF NOT EXISTS estadia_habitacion_idx
+    ON estadia (numero_habitacion);
+
+CREATE INDEX IF NOT EXISTS factura_pendiente_estadia_idx
+    ON factura (id_estadia)
+    WHERE estado = 'PENDIENTE';
@@ -0,0 +1,23 @@
+-- =====================================================================================
+-- Orden de la paginación de huéspedes sobre las columnas normalizadas.
+--
+-- HuespedRepositoryImpl.buscarPagina filtra por f_normalizar(apellido/nombres) (V014) y
+-- ahora también ordena y continúa desde el cursor con esas mismas expresiones:
+--   ORDER BY f_normalizar(apellido) COLLATE "C", f_normalizar(nombres) COLLATE "C",
+--            tipo_documento, numero_documento
+-- Con el orden sobre las columnas originales el filtro y el orden usaban índices distintos
+-- y "Pérez" y "Perez" quedaban en posiciones que no coincidían con el rango buscado.
+--
+-- Este índice reemplaza a huesped_orden_idx (V015), que ya no usa ninguna consulta.
+--
+-- Se ejecuta una sola vez, a mano (spring.jpa.hibernate.ddl-auto=none):
+--   psql "$DATABASE_URL" -f V020__huesped_orden_normalizado.sql
+-- =====================================================================================
+
+CREATE INDEX IF NOT EXISTS huesped_orden_normalizado_idx
+    ON huesped (f_normalizar(apellido) COLLATE "C", f_normalizar(nombres) COLLATE "C",
+                tipo_documento, numero_documento);
+
+DROP INDEX IF EXISTS huesped_orden_idx;
+
+ANALYZE huesped;
@@ -0,0 +1,24 @@
+-- =====================================================================================
+-- Teléfonos, emails y ocupaciones por documento del huésped.
+--
+-- Las claves primarias de telefono_huesped, email_huesped y ocupacion_huesped empiezan por
+-- el valor (telefono, email, ocupacion), así que no sirven para buscar las listas de un
+-- huésped. Todas las lecturas filtran por (tipo_documento, nro_documento):
+--
+--   * la exportación (HuespedRepositoryImpl.recorrerTodos), con un ARRAY(SELECT ...) por
+--     huésped y por lista: sin estos índices, cada fila exportada recorre las tres tablas;
+--   * el DELETE de la importación por lotes (HuespedRepositoryImpl.reemplazarLista);
+--   * la carga por lotes de las colecciones (@BatchSize en Huesped).
+--
+-- Se ejecuta una sola vez, a mano (spring.jpa.hibernate.ddl-auto=none):
+--   psql "$DATABASE_URL" -f V021__listas_huesped_por_documento.sql
+-- =====================================================================================
+
+CREATE INDEX IF NOT EXISTS telefono_huesped_documento_idx
+    ON telefono_huesped (tipo_documento, nro_documento);
+
+CREATE INDEX IF NOT EXISTS email_huesped_documento_idx
+    ON email_huesped (tipo_documento, nro_documento);
+
+CREATE INDEX IF NOT EXISTS ocupacion_huesped_documento_idx
+    ON ocupacion_huesped (tipo_documento, nro_documento);
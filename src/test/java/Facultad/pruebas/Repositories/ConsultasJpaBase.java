@@ -0,0 +1,60 @@
+package Facultad.pruebas.Repositories;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+import java.util.Properties;
+
+/**
+ * Base de las pruebas que cuentan sentencias SQL contra la base del hotel.
+ * <p>
+ * Arma un {@link EntityManager} sobre {@code stress.db.url} (usuario {@code stress.db.user},
+ * clave {@code stress.db.password}) con las entidades del dominio y las estadísticas de
+ * Hibernate activas, y abre una transacción que se deshace al terminar cada prueba.
+ */
+abstract class ConsultasJpaBase {
+
+    private LocalContainerEntityManagerFactoryBean fabrica;
+    protected EntityManager em;
+
+    @BeforeEach
+    void crearEntityManager() {
+        fabrica = new LocalContainerEntityManagerFactoryBean();
+        fabrica.setDataSource(new DriverManagerDataSource(
+                System.getProperty("stress.db.url"),
+                System.getProperty("stress.db.user", "postgres"),
+                System.getProperty("stress.db.password", "")));
+        // Como Spring Boot: entidades del dominio y convertidores con autoApply
+        fabrica.setPackagesToScan("Facultad.TrabajoPracticoDesarrollo");
+        fabrica.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        Properties propiedades = new Properties();
+        propiedades.put("hibernate.physical_naming_strategy",
+                "org.hibernate.boot.model.naming.PhysicalNamingStrategyStandardImpl");
+        propiedades.put("hibernate.generate_statistics", "true");
+        fabrica.setJpaProperties(propiedades);
+        fabrica.afterPropertiesSet();
+
+        em = fabrica.getObject().createEntityManager();
+        em.getTransaction().begin();
+    }
+
+    @AfterEach
+    void deshacer() {
+        if (em.getTransaction().isActive()) em.getTransaction().rollback();
+        em.close();
+        fabrica.destroy();
+    }
+
+    /** Estadísticas de Hibernate puestas en cero: cuentan desde acá. */
+    protected Statistics estadisticasEnCero() {
+        Statistics estadisticas = fabrica.getObject().unwrap(SessionFactory.class).getStatistics();
+        estadisticas.clear();
+        return estadisticas;
+    }
+}
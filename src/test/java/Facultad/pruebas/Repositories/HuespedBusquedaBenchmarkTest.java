@@ -0,0 +1,110 @@
+package Facultad.pruebas.Repositories;
+
+import Facultad.TrabajoPracticoDesarrollo.Repositories.HuespedRepositoryImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Mide la búsqueda de huéspedes por prefijo (pantalla "buscar huésped") sobre un millón de
+ * filas en un PostgreSQL real, con los índices de {@code V014__busqueda_huesped_normalizada.sql}.
+ * <p>
+ * Controla que el plan use los índices (sin Seq Scan), que la búsqueda ignore acentos y
+ * mayúsculas, e imprime la latencia p50/p99 de consultas de autocompletado.
+ * <p>
+ * Necesita una base: {@code mvn test -Dtest=HuespedBusquedaBenchmarkTest
+ * -Dstress.db.url=jdbc:postgresql://localhost:5432/hotel -Dstress.db.user=... -Dstress.db.password=...}
+ */
+@EnabledIfSystemProperty(named = "stress.db.url", matches = ".+")
+class HuespedBusquedaBenchmarkTest {
+
+    private static final String ESQUEMA = "stress_huespedes";
+    private static final int HUESPEDES = 1_000_000;
+    private static final int CONSULTAS = 2_000;
+
+    private JdbcTemplate jdbc;
+
+    @BeforeEach
+    void crearEsquema() {
+        String url = System.getProperty("stress.db.url");
+        String separador = url.contains("?") ? "&" : "?";
+        jdbc = new JdbcTemplate(new DriverManagerDataSource(
+                url + separador + "currentSchema=" + ESQUEMA + ",public",
+                System.getProperty("stress.db.user", "postgres"),
+                System.getProperty("stress.db.password", "")));
+
+        jdbc.execute("DROP SCHEMA IF EXISTS " + ESQUEMA + " CASCADE");
+        jdbc.execute("CREATE SCHEMA " + ESQUEMA);
+        jdbc.execute("CREATE TABLE " + ESQUEMA + ".huesped (tipo_documento text, numero_documento text, " +
+                "apellido text, nombres text, PRIMARY KEY (tipo_documento, numero_documento))");
+        jdbc.execute("INSERT INTO " + ESQUEMA + ".huesped " +
+                "SELECT 'DNI', (10000000 + i)::text, initcap(substr(md5(i::text), 1, 10)), " +
+                "initcap(substr(md5((i * 7)::text), 1, 8)) FROM generate_series(1, " + HUESPEDES + ") i");
+        jdbc.execute("INSERT INTO " + ESQUEMA + ".huesped VALUES " +
+                "('DNI', '1', 'Pérez', 'José'), ('DNI', '2', 'PEREZ', 'Ana'), ('DNI', '3', 'Muñoz', 'Iñaki')");
+
+        jdbc.execute((Connection conexion) -> {
+            ScriptUtils.executeSqlScript(conexion, new ClassPathResource("db/migraciones/V014__busqueda_huesped_normalizada.sql"));
+            return null;
+        });
+    }
+
+    @AfterEach
+    void borrarEsquema() {
+        jdbc.execute("DROP SCHEMA IF EXISTS " + ESQUEMA + " CASCADE");
+    }
+
+    @Test
+    @DisplayName("Rendimiento - Búsqueda por prefijo sin acentos usa índices en un millón de huéspedes")
+    void buscarPorPrefijo_UsaIndices() {
+        // Ignora acentos y mayúsculas
+        assertEquals(2, contar("perez", null, null));
+        assertEquals(1, contar("MUNO", "inak", null));
+
+        // El plan usa los índices, también con el valor como parámetro
+        List<Object> parametros = new ArrayList<>();
+        String sql = HuespedRepositoryImpl.armarConsulta("ab", null, null, null, parametros);
+        String plan = String.join("\n", jdbc.queryForList("EXPLAIN " + sql, String.class, parametros.toArray()));
+        assertFalse(plan.contains("Seq Scan"), plan);
+        assertTrue(contar(null, null, "1000012") > 0);
+
+        // Autocompletado: prefijos de 1 a 4 letras
+        long[] nanos = new long[CONSULTAS];
+        String letras = "abcdef0123456789";
+        for (int i = 0; i < CONSULTAS; i++) {
+            int largo = 1 + ThreadLocalRandom.current().nextInt(4);
+            StringBuilder prefijo = new StringBuilder();
+            for (int j = 0; j < largo; j++) prefijo.append(letras.charAt(ThreadLocalRandom.current().nextInt(letras.length())));
+            List<Object> p = new ArrayList<>();
+            String consulta = HuespedRepositoryImpl.armarConsulta(prefijo.toString(), null, null, null, p) + " LIMIT 20";
+            long inicio = System.nanoTime();
+            jdbc.queryForList(consulta, p.toArray());
+            nanos[i] = System.nanoTime() - inicio;
+        }
+        Arrays.sort(nanos);
+        System.out.printf("Búsqueda de huéspedes (%d filas, LIMIT 20): p50 %.3f ms, p99 %.3f ms%n",
+                HUESPEDES, nanos[CONSULTAS / 2] / 1e6, nanos[CONSULTAS * 99 / 100] / 1e6);
+    }
+
+    private int contar(String apellido, String nombres, String nroDoc) {
+        List<Object> parametros = new ArrayList<>();
+        String sql = HuespedRepositoryImpl.armarConsulta(apellido, nombres, null, nroDoc, parametros);
+        return jdbc.queryForList(sql, parametros.toArray()).size();
+    }
+}
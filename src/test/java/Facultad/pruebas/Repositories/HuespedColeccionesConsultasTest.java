@@ -0,0 +1,85 @@
+package Facultad.pruebas.Repositories;
+
+import Facultad.TrabajoPracticoDesarrollo.Dominio.Direccion;
+import Facultad.TrabajoPracticoDesarrollo.Dominio.Huesped;
+import Facultad.TrabajoPracticoDesarrollo.Repositories.HuespedRepositoryImpl;
+import Facultad.TrabajoPracticoDesarrollo.Utils.Mapear.MapearHuesped;
+import Facultad.TrabajoPracticoDesarrollo.enums.PosIva;
+import Facultad.TrabajoPracticoDesarrollo.enums.TipoDocumento;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Cuenta las sentencias SQL que cuesta mapear una página de huéspedes a DTO.
+ * <p>
+ * Sin {@code @BatchSize}, {@link MapearHuesped#mapearEntidadADto} disparaba tres consultas
+ * por huésped (teléfonos, emails, ocupaciones). Con la carga por lotes tiene que ser una
+ * consulta por colección para toda la página, más la de direcciones.
+ * <p>
+ * Necesita la base del hotel (con su esquema y las migraciones); los datos se insertan en
+ * una transacción que se deshace al final (ver {@link ConsultasJpaBase}):
+ * {@code mvn test -Dtest=HuespedColeccionesConsultasTest
+ * -Dstress.db.url=jdbc:postgresql://localhost:5432/hotel -Dstress.db.user=... -Dstress.db.password=...}
+ */
+@EnabledIfSystemProperty(named = "stress.db.url", matches = ".+")
+class HuespedColeccionesConsultasTest extends ConsultasJpaBase {
+
+    private static final int HUESPEDES = 60;
+
+    @Test
+    @DisplayName("CU02 - Búsqueda: mapear una página de huéspedes no dispara consultas por huésped")
+    void mapearPagina_CargaColeccionesPorLote() {
+        // ARRANGE: 60 huéspedes con dos teléfonos, un email y una ocupación cada uno
+        for (int i = 0; i < HUESPEDES; i++) {
+            Direccion direccion = new Direccion();
+            direccion.setCalle("CALLE " + i);
+            direccion.setNumero(i + 1);
+            direccion.setLocalidad("SANTA FE");
+            direccion.setProvincia("SANTA FE");
+            direccion.setPais("ARGENTINA");
+            direccion.setCodPostal(3000);
+            em.persist(direccion);
+
+            em.persist(new Huesped.Builder()
+                    .tipoDocumento(TipoDocumento.DNI)
+                    .nroDocumento(String.valueOf(98_000_000 + i))
+                    .apellido("ZZLOTE")
+                    .nombres("HUESPED " + i)
+                    .fechaNacimiento(new Date(0))
+                    .nacionalidad("ARGENTINA")
+                    .posicionIva(PosIva.CONSUMIDOR_FINAL)
+                    .direccion(direccion)
+                    .telefonos(List.of(3420000000L + i, 3430000000L + i))
+                    .emails(List.of("h" + i + "@hotel.com"))
+                    .ocupaciones(List.of("EMPLEADO"))
+                    .build());
+        }
+        em.flush();
+        em.clear();
+
+        // El JdbcTemplate solo lo usan la importación y la exportación
+        HuespedRepositoryImpl repositorio = new HuespedRepositoryImpl(null);
+        ReflectionTestUtils.setField(repositorio, "entityManager", em);
+        Statistics estadisticas = estadisticasEnCero();
+
+        // ACT: la consulta paginada de la búsqueda (la que usa HuespedService) y el mapeo del controller
+        List<Huesped> pagina = repositorio.buscarPagina("ZZLOTE", null, null, null, null, HUESPEDES + 1);
+        int telefonos = pagina.stream().map(MapearHuesped::mapearEntidadADto).mapToInt(d -> d.getTelefono().size()).sum();
+
+        // ASSERT: consulta + direcciones + 3 colecciones (antes: 1 + N + 3N)
+        assertEquals(HUESPEDES, pagina.size());
+        assertEquals(2 * HUESPEDES, telefonos);
+        long sentencias = estadisticas.getPrepareStatementCount();
+        assertTrue(sentencias <= 5,
+                "Se ejecutaron " + sentencias + " sentencias para mapear " + HUESPEDES + " huéspedes");
+    }
+}
@@ -0,0 +1,130 @@
+package Facultad.pruebas.Repositories;
+
+import Facultad.TrabajoPracticoDesarrollo.Repositories.NumeradorFacturaRepository;
+import Facultad.TrabajoPracticoDesarrollo.Services.NumeradorFacturas;
+import Facultad.TrabajoPracticoDesarrollo.enums.TipoFactura;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Prueba de estrés del numerador de facturas contra un PostgreSQL real.
+ * <p>
+ * Varios {@link NumeradorFacturas} (uno por "nodo", cada uno con su pool de conexiones)
+ * reservan bloques de la misma fila de {@code numerador_factura} mientras varios hilos por
+ * nodo piden números. Se corre primero con bloques de 1 (un viaje a la base por factura)
+ * y después con bloques de 50, e informa los números por segundo de cada caso.
+ * <p>
+ * Necesita una base: {@code mvn test -Dtest=NumeradorFacturaStressTest
+ * -Dstress.db.url=jdbc:postgresql://localhost:5432/hotel -Dstress.db.user=... -Dstress.db.password=...}
+ */
+@EnabledIfSystemProperty(named = "stress.db.url", matches = ".+")
+class NumeradorFacturaStressTest {
+
+    private static final String ESQUEMA = "stress_numerador";
+    private static final int NODOS = 4;
+    private static final int HILOS_POR_NODO = 4;
+    private static final int NUMEROS_POR_HILO = 500;
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbc;
+
+    @BeforeEach
+    void crearEsquema() {
+        String url = System.getProperty("stress.db.url");
+        String separador = url.contains("?") ? "&" : "?";
+        dataSource = new DriverManagerDataSource(
+                url + separador + "currentSchema=" + ESQUEMA + ",public",
+                System.getProperty("stress.db.user", "postgres"),
+                System.getProperty("stress.db.password", ""));
+        jdbc = new JdbcTemplate(dataSource);
+
+        jdbc.execute("DROP SCHEMA IF EXISTS " + ESQUEMA + " CASCADE");
+        jdbc.execute("CREATE SCHEMA " + ESQUEMA);
+        jdbc.execute("CREATE TABLE " + ESQUEMA + ".factura (numero_factura varchar(20) PRIMARY KEY, tipo_factura text)");
+        jdbc.execute("CREATE TABLE " + ESQUEMA + ".numerador_factura (" +
+                "punto_venta varchar(4), tipo_factura varchar(1), ultimo_asignado bigint NOT NULL, " +
+                "PRIMARY KEY (punto_venta, tipo_factura))");
+    }
+
+    @AfterEach
+    void borrarEsquema() {
+        jdbc.execute("DROP SCHEMA IF EXISTS " + ESQUEMA + " CASCADE");
+    }
+
+    @Test
+    @DisplayName("Estrés - Varios nodos numeran en paralelo sin repetidos ni huecos")
+    void numeracionConcurrente_SinRepetidosNiHuecos() throws Exception {
+        double porFactura = correr("0001", 1);
+        double porBloque = correr("0002", 50);
+
+        System.out.printf("Bloques de 1: %.0f números/s; bloques de 50: %.0f números/s%n", porFactura, porBloque);
+        assertTrue(porBloque > 0);
+    }
+
+    /** @return números por segundo */
+    private double correr(String puntoVenta, int tamanioBloque) throws Exception {
+        List<NumeradorFacturas> numeradores = new ArrayList<>();
+        for (int n = 0; n < NODOS; n++) {
+            numeradores.add(new NumeradorFacturas(new NumeradorFacturaRepository(jdbc),
+                    new DataSourceTransactionManager(dataSource), tamanioBloque));
+        }
+
+        Set<String> entregados = ConcurrentHashMap.newKeySet();
+        ExecutorService pool = Executors.newFixedThreadPool(NODOS * HILOS_POR_NODO);
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<Integer>> futuros = new ArrayList<>();
+        for (NumeradorFacturas numerador : numeradores) {
+            for (int h = 0; h < HILOS_POR_NODO; h++) {
+                futuros.add(pool.submit(() -> {
+                    largada.await();
+                    int repetidos = 0;
+                    for (int i = 0; i < NUMEROS_POR_HILO; i++) {
+                        String numero = numerador.siguiente(puntoVenta, TipoFactura.B);
+                        if (!entregados.add(numero)) repetidos++;
+                        jdbc.update("INSERT INTO " + ESQUEMA + ".factura VALUES (?, 'B')", numero);
+                    }
+                    return repetidos;
+                }));
+            }
+        }
+
+        long inicio = System.nanoTime();
+        largada.countDown();
+        int repetidos = 0;
+        for (Future<Integer> f : futuros) repetidos += f.get();
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+
+        // Al apagar, cada nodo devuelve su cola si nadie reservó después (a lo sumo uno lo logra)
+        numeradores.forEach(NumeradorFacturas::liberarSobrantes);
+
+        int total = NODOS * HILOS_POR_NODO * NUMEROS_POR_HILO;
+        assertEquals(0, repetidos);
+        assertEquals(total, entregados.size());
+        Long ultimo = jdbc.queryForObject("SELECT ultimo_asignado FROM " + ESQUEMA
+                + ".numerador_factura WHERE punto_venta = ? AND tipo_factura = 'B'", Long.class, puntoVenta);
+        // Lo reservado y no usado son las colas de los bloques de los otros nodos
+        assertTrue(ultimo - total < (long) NODOS * tamanioBloque);
+        return total / segundos;
+    }
+}
@@ -0,0 +1,112 @@
+package Facultad.pruebas.Repositories;
+
+import Facultad.TrabajoPracticoDesarrollo.DTOs.DtoReservaCancelable;
+import Facultad.TrabajoPracticoDesarrollo.Dominio.Estadia;
+import Facultad.TrabajoPracticoDesarrollo.Dominio.Habitacion;
+import Facultad.TrabajoPracticoDesarrollo.Dominio.Reserva;
+import Facultad.TrabajoPracticoDesarrollo.Repositories.ReservaRepository;
+import Facultad.TrabajoPracticoDesarrollo.enums.EstadoHabitacion;
+import Facultad.TrabajoPracticoDesarrollo.enums.EstadoReserva;
+import Facultad.TrabajoPracticoDesarrollo.enums.TipoDocumento;
+import Facultad.TrabajoPracticoDesarrollo.enums.TipoHabitacion;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Cuenta las sentencias SQL de la búsqueda de reservas a cancelar (CU06).
+ * <p>
+ * Antes se hacía una consulta de estadía y una carga de habitación por cada reserva
+ * encontrada. {@link ReservaRepository#buscarParaCancelar} tiene que resolver reserva,
+ * habitación y estadía asociada con una sola sentencia, sin importar cuántas reservas haya.
+ * Se ejecuta la misma JPQL de la anotación {@code @Query} del repositorio.
+ * <p>
+ * Necesita la base del hotel (con su esquema); los datos se insertan en una transacción
+ * que se deshace al final (ver {@link ConsultasJpaBase}): {@code mvn test -Dtest=ReservaCancelableConsultasTest
+ * -Dstress.db.url=jdbc:postgresql://localhost:5432/hotel -Dstress.db.user=... -Dstress.db.password=...}
+ */
+@EnabledIfSystemProperty(named = "stress.db.url", matches = ".+")
+class ReservaCancelableConsultasTest extends ConsultasJpaBase {
+
+    private static final int RESERVAS = 60;
+
+    @Test
+    @DisplayName("CU06 - Búsqueda: reservas, habitación y estadía asociada en una sola sentencia")
+    void buscarParaCancelar_UnaSolaSentencia() throws Exception {
+        // ARRANGE: 60 reservas activas en dos habitaciones, la primera ya con check-in.
+        // La reserva i va del día i al i + 1: desde < hasta y sin superponerse en la misma habitación
+        Habitacion[] habitaciones = {crearHabitacion("ZZ91"), crearHabitacion("ZZ92")};
+        LocalDate inicio = LocalDate.of(2090, 1, 1);
+        Reserva primera = null;
+        for (int i = 0; i < RESERVAS; i++) {
+            Reserva reserva = new Reserva();
+            reserva.setHabitacion(habitaciones[i % 2]);
+            reserva.setEstadoReserva(EstadoReserva.ACTIVA);
+            reserva.setFechaReserva(new Date());
+            reserva.setFechaDesde(dia(inicio.plusDays(i)));
+            reserva.setFechaHasta(dia(inicio.plusDays(i + 1)));
+            reserva.setNombreHuespedResponsable("HUESPED " + i);
+            reserva.setApellidoHuespedResponsable("ZZCANCELA");
+            reserva.setTipoDocumentoResponsable(TipoDocumento.DNI);
+            reserva.setNroDocumentoResponsable(String.valueOf(97_000_000 + i));
+            em.persist(reserva);
+            if (primera == null) primera = reserva;
+        }
+        Estadia estadia = new Estadia();
+        estadia.setReserva(primera);
+        estadia.setHabitacion(habitaciones[0]);
+        estadia.setFechaCheckIn(dia(inicio));
+        em.persist(estadia);
+        em.flush();
+        em.clear();
+
+        String jpql = ReservaRepository.class.getMethod("buscarParaCancelar", String.class, String.class)
+                .getAnnotation(Query.class).value();
+        Statistics estadisticas = estadisticasEnCero();
+
+        // ACT: los mismos parámetros que arma ReservaService.buscarReservasPorHuesped
+        List<DtoReservaCancelable> resultado = em.createQuery(jpql, DtoReservaCancelable.class)
+                .setParameter("apellido", "ZZCANCELA%")
+                .setParameter("nombre", null)
+                .getResultList();
+
+        // ASSERT
+        assertEquals(RESERVAS, resultado.size());
+        assertEquals(1, estadisticas.getPrepareStatementCount(),
+                "Se ejecutaron " + estadisticas.getPrepareStatementCount() + " sentencias");
+        for (DtoReservaCancelable fila : resultado) {
+            if (fila.getIdReserva().equals(primera.getIdReserva())) {
+                assertEquals(estadia.getIdEstadia(), fila.getIdEstadia());
+                assertEquals("ZZ91", fila.getIdHabitacion());
+                assertEquals(TipoHabitacion.DOBLE_ESTANDAR, fila.getTipoHabitacion());
+            } else {
+                assertNull(fila.getIdEstadia());
+            }
+        }
+    }
+
+    private static Date dia(LocalDate fecha) {
+        return Date.from(fecha.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+
+    private Habitacion crearHabitacion(String numero) {
+        Habitacion habitacion = new Habitacion();
+        habitacion.setNumero(numero);
+        habitacion.setTipoHabitacion(TipoHabitacion.DOBLE_ESTANDAR);
+        habitacion.setEstadoHabitacion(EstadoHabitacion.HABILITADA);
+        habitacion.setCapacidad(2);
+        habitacion.setCostoPorNoche(1000.00F);
+        em.persist(habitacion);
+        return habitacion;
+    }
+}
@@ -0,0 +1,184 @@
+package Facultad.pruebas.Repositories;
+
+import Facultad.TrabajoPracticoDesarrollo.Dominio.Habitacion;
+import Facultad.TrabajoPracticoDesarrollo.Dominio.Reserva;
+import Facultad.TrabajoPracticoDesarrollo.Repositories.ReservaRepositoryImpl;
+import Facultad.TrabajoPracticoDesarrollo.enums.EstadoReserva;
+import Facultad.TrabajoPracticoDesarrollo.enums.TipoDocumento;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import java.sql.Connection;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Prueba de estrés de la reserva concurrente contra un PostgreSQL real.
+ * <p>
+ * Varios hilos hacen lo mismo que {@code ReservaService.crearReservas} (consultar
+ * solapamientos y después insertar) sobre pocas habitaciones y fechas que se pisan.
+ * Se corre dos veces sobre un esquema descartable: sin la restricción, para contar las
+ * superposiciones que deja pasar la validación sola, y con la restricción de
+ * {@code V013__reservas_sin_superposicion.sql}, donde tiene que haber cero.
+ * <p>
+ * Necesita una base: {@code mvn test -Dtest=ReservaConcurrenciaStressTest
+ * -Dstress.db.url=jdbc:postgresql://localhost:5432/hotel -Dstress.db.user=... -Dstress.db.password=...}
+ */
+@EnabledIfSystemProperty(named = "stress.db.url", matches = ".+")
+class ReservaConcurrenciaStressTest {
+
+    private static final String ESQUEMA = "stress_reservas";
+    private static final int HILOS = 16;
+    private static final int INTENTOS_POR_HILO = 300;
+    private static final int HABITACIONES = 4;
+    private static final int DIAS = 30;
+
+    private JdbcTemplate jdbc;
+    private ReservaRepositoryImpl repositorio;
+
+    @BeforeEach
+    void crearEsquema() {
+        String url = System.getProperty("stress.db.url");
+        String separador = url.contains("?") ? "&" : "?";
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                url + separador + "currentSchema=" + ESQUEMA + ",public",
+                System.getProperty("stress.db.user", "postgres"),
+                System.getProperty("stress.db.password", ""));
+        jdbc = new JdbcTemplate(dataSource);
+        repositorio = new ReservaRepositoryImpl(jdbc);
+
+        jdbc.execute("DROP SCHEMA IF EXISTS " + ESQUEMA + " CASCADE");
+        jdbc.execute("CREATE SCHEMA " + ESQUEMA);
+        jdbc.execute("CREATE TABLE " + ESQUEMA + ".reserva (" +
+                "id_reserva serial PRIMARY KEY, estado_reserva text, fecha_reserva timestamp, " +
+                "fecha_desde date, fecha_hasta date, \"NombreHuespedResponsable\" text, " +
+                "\"ApellidoHuespedResponsable\" text, \"TelefonoHuespedResponsable\" text, " +
+                "\"TipoDocumentoResponsable\" text, \"NroDocumentoResponsable\" text, id_habitacion text)");
+    }
+
+    @AfterEach
+    void borrarEsquema() {
+        jdbc.execute("DROP SCHEMA IF EXISTS " + ESQUEMA + " CASCADE");
+    }
+
+    @Test
+    @DisplayName("Estrés - Con la restricción de exclusión no quedan reservas superpuestas")
+    void reservasConcurrentes_SinSuperposiciones() throws Exception {
+        // Sin restricción: solo la validación previa (camino anterior)
+        Resultado sinRestriccion = correr();
+        int superpuestasSinRestriccion = contarSuperposiciones();
+
+        // Con restricción: mismo escenario con la migración aplicada
+        jdbc.execute("TRUNCATE " + ESQUEMA + ".reserva");
+        jdbc.execute((Connection conexion) -> {
+            ScriptUtils.executeSqlScript(conexion, new ClassPathResource("db/migraciones/V013__reservas_sin_superposicion.sql"));
+            return null;
+        });
+        Resultado conRestriccion = correr();
+        int superpuestasConRestriccion = contarSuperposiciones();
+
+        System.out.printf("Sin restricción: %d insertadas, %d superpuestas, %.0f intentos/s%n",
+                sinRestriccion.insertadas, superpuestasSinRestriccion, sinRestriccion.intentosPorSegundo());
+        System.out.printf("Con restricción: %d insertadas, %d rechazadas por la BD, %.0f intentos/s%n",
+                conRestriccion.insertadas, conRestriccion.rechazadas, conRestriccion.intentosPorSegundo());
+
+        assertEquals(0, superpuestasConRestriccion);
+        assertTrue(conRestriccion.insertadas > 0);
+    }
+
+    private Resultado correr() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(HILOS);
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<int[]>> futuros = new ArrayList<>();
+        for (int h = 0; h < HILOS; h++) {
+            futuros.add(pool.submit(() -> {
+                largada.await();
+                int insertadas = 0, rechazadas = 0;
+                for (int i = 0; i < INTENTOS_POR_HILO; i++) {
+                    List<Reserva> pedido = List.of(reservaAlAzar());
+                    if (!repositorio.buscarSolapamientos(pedido).isEmpty()) continue;
+                    try {
+                        repositorio.insertarEnLote(pedido);
+                        insertadas++;
+                    } catch (DataIntegrityViolationException e) {
+                        rechazadas++;
+                    }
+                }
+                return new int[]{insertadas, rechazadas};
+            }));
+        }
+
+        long inicio = System.nanoTime();
+        largada.countDown();
+        Resultado resultado = new Resultado();
+        for (Future<int[]> futuro : futuros) {
+            int[] parcial = futuro.get();
+            resultado.insertadas += parcial[0];
+            resultado.rechazadas += parcial[1];
+        }
+        resultado.nanos = System.nanoTime() - inicio;
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.SECONDS);
+        return resultado;
+    }
+
+    private int contarSuperposiciones() {
+        Integer cantidad = jdbc.queryForObject(
+                "SELECT COUNT(*) FROM reserva a JOIN reserva b " +
+                "ON a.id_habitacion = b.id_habitacion AND a.id_reserva < b.id_reserva " +
+                "AND a.fecha_desde < b.fecha_hasta AND a.fecha_hasta > b.fecha_desde " +
+                "WHERE a.estado_reserva = 'ACTIVA' AND b.estado_reserva = 'ACTIVA'", Integer.class);
+        return cantidad == null ? 0 : cantidad;
+    }
+
+    private static Reserva reservaAlAzar() {
+        ThreadLocalRandom azar = ThreadLocalRandom.current();
+        LocalDate desde = LocalDate.now().plusDays(1 + azar.nextInt(DIAS));
+        LocalDate hasta = desde.plusDays(1 + azar.nextInt(4));
+
+        Habitacion habitacion = new Habitacion();
+        habitacion.setNumero(String.valueOf(101 + azar.nextInt(HABITACIONES)));
+
+        Reserva reserva = new Reserva();
+        reserva.setHabitacion(habitacion);
+        reserva.setEstadoReserva(EstadoReserva.ACTIVA);
+        reserva.setFechaReserva(new Date());
+        reserva.setFechaDesde(Date.from(desde.atStartOfDay(ZoneId.systemDefault()).toInstant()));
+        reserva.setFechaHasta(Date.from(hasta.atStartOfDay(ZoneId.systemDefault()).toInstant()));
+        reserva.setNombreHuespedResponsable("JUAN");
+        reserva.setApellidoHuespedResponsable("PEREZ");
+        reserva.setTipoDocumentoResponsable(TipoDocumento.DNI);
+        reserva.setNroDocumentoResponsable("12345678");
+        return reserva;
+    }
+
+    private static class Resultado {
+        int insertadas;
+        int rechazadas;
+        long nanos;
+
+        double intentosPorSegundo() {
+            return HILOS * INTENTOS_POR_HILO / (nanos / 1e9);
+        }
+    }
+}
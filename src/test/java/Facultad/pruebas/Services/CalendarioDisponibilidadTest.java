@@ -0,0 +1,230 @@
+package Facultad.pruebas.Services;
+
+import Facultad.TrabajoPracticoDesarrollo.Dominio.Estadia;
+import Facultad.TrabajoPracticoDesarrollo.Dominio.Habitacion;
+import Facultad.TrabajoPracticoDesarrollo.Dominio.Reserva;
+import Facultad.TrabajoPracticoDesarrollo.Eventos.CambioOcupacionEvento;
+import Facultad.TrabajoPracticoDesarrollo.Repositories.EstadiaRepository;
+import Facultad.TrabajoPracticoDesarrollo.Repositories.ReservaRepository;
+import Facultad.TrabajoPracticoDesarrollo.Services.CalendarioDisponibilidad;
+import Facultad.TrabajoPracticoDesarrollo.Utils.Ocupacion.IntervaloOcupacion;
+import Facultad.TrabajoPracticoDesarrollo.enums.EstadoOcupacion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para {@link CalendarioDisponibilidad}.
+ * <p>
+ * Verifica la carga inicial desde los repositorios y la aplicación incremental de
+ * los {@link CambioOcupacionEvento} (altas, cancelaciones y check-out).
+ */
+@ExtendWith(MockitoExtension.class)
+class CalendarioDisponibilidadTest {
+
+    @Mock
+    private ReservaRepository reservaRepository;
+
+    @Mock
+    private EstadiaRepository estadiaRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CalendarioDisponibilidad calendario;
+
+    private final LocalDate hoy = LocalDate.now();
+
+    @BeforeEach
+    void setUp() {
+        calendario = new CalendarioDisponibilidad(reservaRepository, estadiaRepository, transactionManager, 10, 30);
+    }
+
+    @Test
+    @DisplayName("CU05 - Calendario: Sin cargar no cubre ningún rango e ignora eventos")
+    void sinCargar_NoCubre() {
+        calendario.aplicar(CambioOcupacionEvento.de(List.of(
+                CambioOcupacionEvento.Cambio.alta("101", reserva(1, 0, 2)))));
+
+        assertFalse(calendario.estaCargado());
+        assertFalse(calendario.cubre(hoy, hoy.plusDays(1)));
+        verifyNoInteractions(reservaRepository, estadiaRepository);
+    }
+
+    @Test
+    @DisplayName("CU05 - Calendario: Carga inicial con reservas y estadías")
+    void recargar_CargaEstados() {
+        // ARRANGE
+        Reserva r = new Reserva();
+        r.setIdReserva(7);
+        r.setHabitacion(habitacion("101"));
+        r.setFechaDesde(aDate(hoy.plusDays(2)));
+        r.setFechaHasta(aDate(hoy.plusDays(4)));
+
+        Estadia e = new Estadia();
+        e.setIdEstadia(3);
+        e.setHabitacion(habitacion("101"));
+        e.setFechaCheckIn(aDate(hoy.minusDays(1)));
+        e.setFechaCheckOut(aDate(hoy.plusDays(1)));
+
+        when(reservaRepository.buscarReservasActivasEnRango(any(), any())).thenReturn(List.of(r));
+        when(estadiaRepository.buscarEstadiasEnRango(any(), any())).thenReturn(List.of(e));
+
+        // ACT
+        calendario.recargar();
+        IntervaloOcupacion[] fila = calendario.obtenerFila("101", hoy, hoy.plusDays(4));
+
+        // ASSERT
+        assertTrue(calendario.cubre(hoy.minusDays(10), hoy.plusDays(20)));
+        assertFalse(calendario.cubre(hoy, hoy.plusDays(31)));
+        assertEquals(EstadoOcupacion.OCUPADA, fila[0].getEstado());
+        assertEquals(3, fila[0].getId());
+        assertNull(fila[1], "El día de check-out queda libre");
+        assertEquals(EstadoOcupacion.RESERVADA, fila[2].getEstado());
+        assertEquals(7, fila[3].getId());
+        assertNull(fila[4]);
+        assertTrue(calendario.hayReserva("101", hoy, hoy.plusDays(3)));
+        assertFalse(calendario.hayEstadia("101", hoy.plusDays(1), hoy.plusDays(5)));
+    }
+
+    @Test
+    @DisplayName("CU04/CU06 - Calendario: Aplica altas y bajas de reservas")
+    void aplicar_AltaYBaja() {
+        cargarVacio();
+
+        long versionInicial = calendario.getVersion();
+
+        calendario.aplicar(CambioOcupacionEvento.de(List.of(
+                CambioOcupacionEvento.Cambio.alta("202", reserva(5, 1, 3)))));
+        assertTrue(calendario.hayReserva("202", hoy, hoy.plusDays(2)));
+        long versionAlta = calendario.getVersion();
+        assertTrue(versionAlta > versionInicial);
+
+        calendario.aplicar(CambioOcupacionEvento.de(List.of(
+                CambioOcupacionEvento.Cambio.baja("202", reserva(5, 1, 3)))));
+        assertFalse(calendario.hayReserva("202", hoy, hoy.plusDays(10)));
+        assertTrue(calendario.getVersion() > versionAlta);
+    }
+
+    @Test
+    @DisplayName("CU07/CU15 - Calendario: Estadía abierta y luego cerrada por check-out")
+    void aplicar_EstadiaAbiertaYCheckOut() {
+        cargarVacio();
+
+        calendario.aplicar(CambioOcupacionEvento.de(List.of(CambioOcupacionEvento.Cambio.alta("303",
+                new IntervaloOcupacion(EstadoOcupacion.OCUPADA, 9, hoy, null)))));
+        assertTrue(calendario.hayEstadia("303", hoy.plusDays(25), hoy.plusDays(26)));
+
+        // El check-out reemplaza el intervalo de la misma estadía
+        calendario.aplicar(CambioOcupacionEvento.de(List.of(CambioOcupacionEvento.Cambio.alta("303",
+                new IntervaloOcupacion(EstadoOcupacion.OCUPADA, 9, hoy, hoy.plusDays(2))))));
+        assertTrue(calendario.hayEstadia("303", hoy, hoy.plusDays(2)));
+        assertFalse(calendario.hayEstadia("303", hoy.plusDays(2), hoy.plusDays(30)));
+    }
+
+    @Test
+    @DisplayName("Búsqueda de disponibilidad: Mismas reglas que /api/reservas/disponibilidad")
+    void estanLibres_ReglasDeReservaYEstadia() {
+        cargarVacio();
+        calendario.aplicar(CambioOcupacionEvento.de(List.of(
+                CambioOcupacionEvento.Cambio.alta("101", reserva(1, 3, 5)),
+                CambioOcupacionEvento.Cambio.alta("102", new IntervaloOcupacion(EstadoOcupacion.OCUPADA, 2, hoy.plusDays(3), hoy.plusDays(4))))));
+
+        // [hoy+1, hoy+3): la reserva de la 101 empieza justo al salir; la estadía de la 102 cae el día de salida
+        boolean[] libres = calendario.estanLibres(List.of("101", "102", "103"), hoy.plusDays(1), hoy.plusDays(3));
+        assertArrayEquals(new boolean[]{true, false, true}, libres);
+
+        libres = calendario.estanLibres(List.of("101", "102", "103"), hoy.plusDays(4), hoy.plusDays(6));
+        assertArrayEquals(new boolean[]{false, true, true}, libres);
+    }
+
+    /**
+     * <b>Caso de Prueba: Commit durante la carga</b>
+     * <p>
+     * Una reserva confirmada mientras se leen las estadías (la lectura de reservas ya no la vio)
+     * no se pierde al publicar la tabla nueva. Cubre también el arranque: el calendario todavía
+     * no estaba cargado cuando llegó el evento.
+     */
+    @Test
+    @DisplayName("CU04 - Calendario: Un cambio confirmado durante la carga no se pierde")
+    void recargar_EventoDuranteLaCarga() {
+        // ARRANGE
+        when(reservaRepository.buscarReservasActivasEnRango(any(), any())).thenReturn(Collections.emptyList());
+        when(estadiaRepository.buscarEstadiasEnRango(any(), any())).thenAnswer(inv -> {
+            calendario.aplicar(CambioOcupacionEvento.de(List.of(
+                    CambioOcupacionEvento.Cambio.alta("101", reserva(8, 1, 3)))));
+            return Collections.emptyList();
+        });
+
+        // ACT
+        calendario.recargar();
+
+        // ASSERT
+        assertTrue(calendario.estaCargado());
+        assertTrue(calendario.hayReserva("101", hoy.plusDays(1), hoy.plusDays(2)));
+    }
+
+    /**
+     * <b>Caso de Prueba: Recarga pedida durante la carga</b>
+     * <p>
+     * Si durante la lectura llega un evento de recarga completa, la tabla leída puede estar
+     * vieja: se vuelve a leer.
+     */
+    @Test
+    @DisplayName("CU05 - Calendario: Una recarga completa durante la carga vuelve a leer")
+    void recargar_RecargaCompletaDuranteLaCarga() {
+        // ARRANGE
+        when(reservaRepository.buscarReservasActivasEnRango(any(), any())).thenReturn(Collections.emptyList());
+        when(estadiaRepository.buscarEstadiasEnRango(any(), any()))
+                .thenAnswer(inv -> {
+                    calendario.aplicar(CambioOcupacionEvento.recargaCompleta());
+                    return Collections.emptyList();
+                })
+                .thenReturn(Collections.emptyList());
+
+        // ACT
+        calendario.recargar();
+
+        // ASSERT
+        verify(estadiaRepository, times(2)).buscarEstadiasEnRango(any(), any());
+        assertTrue(calendario.estaCargado());
+    }
+
+    // ============================================================================================
+    // HELPERS
+    // ============================================================================================
+
+    private void cargarVacio() {
+        when(reservaRepository.buscarReservasActivasEnRango(any(), any())).thenReturn(Collections.emptyList());
+        when(estadiaRepository.buscarEstadiasEnRango(any(), any())).thenReturn(Collections.emptyList());
+        calendario.recargar();
+    }
+
+    private IntervaloOcupacion reserva(int id, int desde, int hasta) {
+        return new IntervaloOcupacion(EstadoOcupacion.RESERVADA, id, hoy.plusDays(desde), hoy.plusDays(hasta));
+    }
+
+    private Habitacion habitacion(String numero) {
+        Habitacion h = new Habitacion();
+        h.setNumero(numero);
+        return h;
+    }
+
+    private Date aDate(LocalDate localDate) {
+        return Date.from(localDate.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+}
@@ -0,0 +1,239 @@
+package Facultad.pruebas.Services;
+
+import Facultad.TrabajoPracticoDesarrollo.DTOs.DtoCambioEstadoHabitacion;
+import Facultad.TrabajoPracticoDesarrollo.Eventos.CambioOcupacionEvento;
+import Facultad.TrabajoPracticoDesarrollo.Services.CalendarioDisponibilidad;
+import Facultad.TrabajoPracticoDesarrollo.Services.DifusorEstadosHabitacion;
+import Facultad.TrabajoPracticoDesarrollo.Services.InventarioHabitaciones;
+import Facultad.TrabajoPracticoDesarrollo.Utils.Ocupacion.IntervaloOcupacion;
+import Facultad.TrabajoPracticoDesarrollo.enums.EstadoOcupacion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Clase de pruebas unitarias para {@link DifusorEstadosHabitacion}.
+ * <p>
+ * Verifica que un cambio de ocupación confirmado llegue a todos los suscriptores como
+ * delta por habitación y día, y que un suscriptor caído no afecte al resto.
+ */
+@ExtendWith(MockitoExtension.class)
+class DifusorEstadosHabitacionTest {
+
+    @Mock
+    private CalendarioDisponibilidad calendarioDisponibilidad;
+
+    @Mock
+    private InventarioHabitaciones inventarioHabitaciones;
+
+    @Mock
+    private ScheduledExecutorService executor;
+
+    @Mock
+    private ExecutorService envios;
+
+    private DifusorEstadosHabitacion difusor;
+    private final List<EmisorDePrueba> emisores = new ArrayList<>();
+    private final LocalDate hoy = LocalDate.now();
+
+    @BeforeEach
+    void setUp() {
+        // El executor corre las tareas en el mismo hilo
+        lenient().doAnswer(inv -> {
+            ((Runnable) inv.getArgument(0)).run();
+            return null;
+        }).when(executor).execute(any());
+        lenient().doAnswer(inv -> {
+            ((Runnable) inv.getArgument(0)).run();
+            return null;
+        }).when(envios).execute(any());
+
+        difusor = crearDifusor(envios, 256);
+    }
+
+    @Test
+    @DisplayName("CU05 - Stream: Una reserva nueva llega a todos los suscriptores como delta por día")
+    void alCambiarOcupacion_EnviaDeltaATodos() {
+        // ARRANGE
+        difusor.suscribir();
+        difusor.suscribir();
+        IntervaloOcupacion reserva = new IntervaloOcupacion(EstadoOcupacion.RESERVADA, 5, hoy.plusDays(1), hoy.plusDays(2));
+        when(calendarioDisponibilidad.estaCargado()).thenReturn(true);
+        when(calendarioDisponibilidad.cubre(any(), any())).thenReturn(true);
+        when(calendarioDisponibilidad.getVersion()).thenReturn(42L);
+        when(inventarioHabitaciones.buscar("101")).thenReturn(Optional.empty());
+        when(calendarioDisponibilidad.obtenerFila("101", hoy.plusDays(1), hoy.plusDays(2)))
+                .thenReturn(new IntervaloOcupacion[]{reserva, null});
+
+        // ACT
+        difusor.alCambiarOcupacion(CambioOcupacionEvento.de(List.of(CambioOcupacionEvento.Cambio.alta("101", reserva))));
+
+        // ASSERT
+        for (EmisorDePrueba emisor : emisores) {
+            DtoCambioEstadoHabitacion delta = emisor.ultimoDelta();
+            assertEquals("101", delta.getNumero());
+            assertEquals(42L, delta.getVersion());
+            assertEquals(2, delta.getDias().size());
+            assertEquals("RESERVADA", delta.getDias().get(0).getEstado());
+            assertEquals(5, delta.getDias().get(0).getIdReferencia());
+            assertEquals("DISPONIBLE", delta.getDias().get(1).getEstado());
+        }
+        verify(calendarioDisponibilidad, times(1)).obtenerFila(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("CU05 - Stream: Un suscriptor caído se descarta sin cortar a los demás")
+    void alCambiarOcupacion_DescartaSuscriptorCaido() {
+        // ARRANGE
+        difusor.suscribir();
+        difusor.suscribir();
+        emisores.get(0).caido = true;
+
+        // ACT
+        difusor.alCambiarOcupacion(CambioOcupacionEvento.recargaCompleta());
+
+        // ASSERT
+        assertEquals(1, difusor.cantidadSuscriptores());
+        assertTrue(emisores.get(1).texto().contains("event:recargar"));
+    }
+
+    @Test
+    @DisplayName("CU05 - Stream: Un cliente lento se descarta al llenar su cola y no demora a los demás")
+    void alCambiarOcupacion_DescartaSuscriptorLento() throws Exception {
+        // ARRANGE
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            difusor = crearDifusor(pool, 2);
+            difusor.suscribir();
+            difusor.suscribir();
+            EmisorDePrueba lento = emisores.get(0);
+            EmisorDePrueba rapido = emisores.get(1);
+            lento.bloqueo = new CountDownLatch(1);
+
+            // ACT: el lento se queda en el primer envío, su cola admite 2 más y el cuarto no entra.
+            // El rápido recibe cada mensaje antes del siguiente, así que su cola nunca se llena.
+            for (int i = 1; i <= 4; i++) {
+                difusor.alCambiarOcupacion(CambioOcupacionEvento.recargaCompleta());
+                final int esperados = i;
+                esperar(() -> rapido.cantidad() == esperados);
+            }
+
+            // ASSERT
+            assertEquals(1, difusor.cantidadSuscriptores());
+            assertEquals(4, rapido.cantidad());
+            assertFalse(rapido.cerrado);
+
+            lento.bloqueo.countDown();
+            esperar(() -> lento.cerrado);
+            assertEquals(1, lento.cantidad());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("CU05 - Stream: Sin suscriptores no se hace ningún trabajo")
+    void alCambiarOcupacion_SinSuscriptores() {
+        difusor.alCambiarOcupacion(CambioOcupacionEvento.recargaCompleta());
+
+        verifyNoInteractions(executor, calendarioDisponibilidad);
+    }
+
+    // ============================================================================================
+    // HELPERS
+    // ============================================================================================
+
+    private static void esperar(BooleanSupplier condicion) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condicion.getAsBoolean()) {
+            if (System.nanoTime() > limite) fail("La condición no se cumplió a tiempo");
+            Thread.sleep(5);
+        }
+    }
+
+    private DifusorEstadosHabitacion crearDifusor(ExecutorService envios, int colaMaxima) {
+        return new DifusorEstadosHabitacion(calendarioDisponibilidad, inventarioHabitaciones, executor, envios,
+                60000, 0, 60, colaMaxima, 0) {
+            @Override
+            protected SseEmitter crearEmisor(long timeoutMs) {
+                EmisorDePrueba emisor = new EmisorDePrueba();
+                emisores.add(emisor);
+                return emisor;
+            }
+        };
+    }
+
+    /**
+     * Emisor que guarda lo enviado en lugar de escribirlo en una respuesta HTTP.
+     */
+    private static class EmisorDePrueba extends SseEmitter {
+        private final List<Object> enviados = new ArrayList<>();
+        private volatile boolean caido = false;
+        private volatile CountDownLatch bloqueo;
+        private volatile boolean cerrado = false;
+        private int mensajes = 0;
+
+        @Override
+        public void send(Set<ResponseBodyEmitter.DataWithMediaType> items) throws IOException {
+            if (bloqueo != null) {
+                // Simula un cliente que no lee: la escritura queda bloqueada
+                try {
+                    bloqueo.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            synchronized (this) {
+                if (caido) throw new IOException("Conexión cerrada por el cliente");
+                mensajes++;
+                for (ResponseBodyEmitter.DataWithMediaType item : items) {
+                    enviados.add(item.getData());
+                }
+            }
+        }
+
+        @Override
+        public void completeWithError(Throwable ex) {
+            cerrado = true;
+        }
+
+        synchronized int cantidad() {
+            return mensajes;
+        }
+
+        DtoCambioEstadoHabitacion ultimoDelta() {
+            for (int i = enviados.size() - 1; i >= 0; i--) {
+                if (enviados.get(i) instanceof DtoCambioEstadoHabitacion delta) return delta;
+            }
+            return fail("No se envió ningún delta");
+        }
+
+        String texto() {
+            StringBuilder sb = new StringBuilder();
+            enviados.forEach(sb::append);
+            return sb.toString();
+        }
+    }
+}
@@ -7,7 +7,10 @@ import Facultad.TrabajoPracticoDesarrollo.Dominio.*;
 import Facultad.TrabajoPracticoDesarrollo.Repositories.EstadiaRepository;
 import Facultad.TrabajoPracticoDesarrollo.Repositories.HabitacionRepository;
 import Facultad.TrabajoPracticoDesarrollo.Repositories.HuespedRepository;
+import Facultad.TrabajoPracticoDesarrollo.Services.CalendarioDisponibilidad;
 import Facultad.TrabajoPracticoDesarrollo.Services.EstadiaService;
+import Facultad.TrabajoPracticoDesarrollo.Services.InventarioHabitaciones;
+import Facultad.TrabajoPracticoDesarrollo.Utils.Inventario.HabitacionCatalogo;
 import Facultad.TrabajoPracticoDesarrollo.enums.TipoDocumento;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -16,6 +19,7 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.LocalDate;
 import java.time.ZoneId;
@@ -50,6 +54,12 @@ class EstadiaServiceTest {
     private HuespedRepository huespedRepository;
     @Mock
     private HabitacionRepository habitacionRepository;
+    @Mock
+    private InventarioHabitaciones inventarioHabitaciones;
+    @Mock
+    private CalendarioDisponibilidad calendarioDisponibilidad;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
 
     @InjectMocks
     private EstadiaService estadiaService;
@@ -67,8 +77,9 @@ class EstadiaServiceTest {
         habitacionMock.setNumero("101");
         habitacionMock.setCapacidad(3); // Capacidad de sobra
 
-        // Mock: Habitación existe
-        when(habitacionRepository.findById("101")).thenReturn(Optional.of(habitacionMock));
+        // Mock: Habitación existe en el inventario
+        when(inventarioHabitaciones.buscar("101")).thenReturn(Optional.of(HabitacionCatalogo.de(habitacionMock)));
+        when(habitacionRepository.getReferenceById("101")).thenReturn(habitacionMock);
 
         // Mock: Habitación libre
         when(estadiaRepository.existeEstadiaEnFechas(any(), any(), any())).thenReturn(false);
@@ -120,7 +131,7 @@ class EstadiaServiceTest {
         habitacionMock.setNumero("101");
         habitacionMock.setCapacidad(2); // Solo entran 2
 
-        when(habitacionRepository.findById("101")).thenReturn(Optional.of(habitacionMock));
+        when(inventarioHabitaciones.buscar("101")).thenReturn(Optional.of(HabitacionCatalogo.de(habitacionMock)));
         when(estadiaRepository.existeEstadiaEnFechas(any(), any(), any())).thenReturn(false);
 
         // ACT & ASSERT
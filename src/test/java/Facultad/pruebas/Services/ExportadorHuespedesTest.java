@@ -0,0 +1,189 @@
+package Facultad.pruebas.Services;
+
+import Facultad.TrabajoPracticoDesarrollo.DTOs.DtoDireccion;
+import Facultad.TrabajoPracticoDesarrollo.DTOs.DtoHuesped;
+import Facultad.TrabajoPracticoDesarrollo.DTOs.DtoReporteImportacion;
+import Facultad.TrabajoPracticoDesarrollo.Dominio.Huesped;
+import Facultad.TrabajoPracticoDesarrollo.Repositories.HuespedRepository;
+import Facultad.TrabajoPracticoDesarrollo.Services.ExportadorHuespedes;
+import Facultad.TrabajoPracticoDesarrollo.Services.FiltrosExistencia;
+import Facultad.TrabajoPracticoDesarrollo.Services.HuespedService;
+import Facultad.TrabajoPracticoDesarrollo.Services.ImportadorHuespedes;
+import Facultad.TrabajoPracticoDesarrollo.enums.PosIva;
+import Facultad.TrabajoPracticoDesarrollo.enums.TipoDocumento;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para {@link ExportadorHuespedes} (exportación del padrón de huéspedes).
+ * <p>
+ * El cursor de la base se simula: el repositorio entrega los huéspedes de a uno al consumidor.
+ */
+@ExtendWith(MockitoExtension.class)
+class ExportadorHuespedesTest {
+
+    @Mock
+    private HuespedRepository huespedRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private FiltrosExistencia filtrosExistencia;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private ExportadorHuespedes exportador;
+
+    @BeforeEach
+    void setUp() {
+        exportador = new ExportadorHuespedes(huespedRepository, objectMapper, transactionManager, 2);
+    }
+
+    /**
+     * <b>Caso de Prueba: NDJSON</b>
+     * <p>
+     * Una línea JSON por huésped, con la dirección y las listas, usando el tamaño de fetch configurado.
+     */
+    @Test
+    @DisplayName("Exportación - NDJSON: una línea por huésped con dirección y listas")
+    void exportar_Ndjson() throws Exception {
+        // ARRANGE
+        simularCursor(crearHuesped("11111111", "PEREZ", "SAN MARTIN"), crearHuesped("22222222", "GOMEZ", "BELGRANO"));
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+
+        // ACT
+        long exportados = exportador.exportar(salida, ImportadorHuespedes.Formato.NDJSON);
+
+        // ASSERT
+        assertEquals(2, exportados);
+        String[] lineas = salida.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lineas.length);
+        JsonNode primero = objectMapper.readTree(lineas[0]);
+        assertEquals("11111111", primero.get("nroDocumento").asText());
+        assertEquals("SAN MARTIN", primero.get("dtoDireccion").get("calle").asText());
+        assertEquals(3424000000L, primero.get("telefono").get(0).asLong());
+        verify(huespedRepository).recorrerTodos(eq(2), any());
+    }
+
+    /**
+     * <b>Caso de Prueba: CSV exportado se vuelve a importar</b>
+     * <p>
+     * Las columnas del CSV son las que espera {@link ImportadorHuespedes}, incluso con comas
+     * dentro de los valores.
+     */
+    @Test
+    @DisplayName("Exportación - CSV: el archivo exportado se puede volver a importar")
+    @SuppressWarnings("unchecked")
+    void exportar_Csv_IdaYVuelta() throws Exception {
+        // ARRANGE
+        simularCursor(crearHuesped("11111111", "PEREZ", "SAN MARTIN, ESQUINA 2"));
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+
+        HuespedService huespedService = mock(HuespedService.class);
+        when(huespedService.validarDatosHuesped(any())).thenReturn(List.of());
+        ImportadorHuespedes importador = new ImportadorHuespedes(huespedRepository, huespedService, filtrosExistencia,
+                Validation.buildDefaultValidatorFactory().getValidator(), objectMapper, transactionManager, 10, 10);
+
+        // ACT
+        exportador.exportar(salida, ImportadorHuespedes.Formato.CSV);
+        DtoReporteImportacion reporte = importador.importar(
+                new ByteArrayInputStream(salida.toByteArray()), ImportadorHuespedes.Formato.CSV);
+
+        // ASSERT
+        assertTrue(salida.toString(StandardCharsets.UTF_8).startsWith("tipoDocumento,nroDocumento,"));
+        assertEquals(1, reporte.getImportadas(), () -> reporte.getErrores().toString());
+        ArgumentCaptor<List<Huesped>> lote = ArgumentCaptor.forClass(List.class);
+        verify(huespedRepository).upsertEnLote(lote.capture());
+        Huesped h = lote.getValue().get(0);
+        assertEquals("SAN MARTIN, ESQUINA 2", h.getDireccion().getCalle());
+        assertEquals(List.of(3424000000L, 3425000000L), h.getTelefono());
+        assertEquals(PosIva.CONSUMIDOR_FINAL, h.getPosicionIva());
+    }
+
+    /**
+     * <b>Caso de Prueba: El cliente corta la descarga</b>
+     * <p>
+     * El error de escritura corta el recorrido del cursor y se propaga como {@link IOException}.
+     */
+    @Test
+    @DisplayName("Exportación - Falla de escritura: se corta el recorrido y se propaga la IOException")
+    void exportar_FallaDeEscritura() {
+        // ARRANGE
+        simularCursor(crearHuesped("11111111", "PEREZ", "SAN MARTIN"), crearHuesped("22222222", "GOMEZ", "BELGRANO"));
+        OutputStream cortada = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        // ACT & ASSERT
+        IOException ex = assertThrows(IOException.class,
+                () -> exportador.exportar(cortada, ImportadorHuespedes.Formato.NDJSON));
+        assertEquals("Broken pipe", ex.getMessage());
+        verify(huespedRepository, never()).upsertEnLote(anyList());
+    }
+
+    // ============================================================================================
+    // MÉTODOS AUXILIARES
+    // ============================================================================================
+
+    @SuppressWarnings("unchecked")
+    private void simularCursor(DtoHuesped... huespedes) {
+        doAnswer(inv -> {
+            Consumer<DtoHuesped> porCada = inv.getArgument(1);
+            for (DtoHuesped h : huespedes) porCada.accept(h);
+            return null;
+        }).when(huespedRepository).recorrerTodos(anyInt(), any(Consumer.class));
+    }
+
+    private static DtoHuesped crearHuesped(String dni, String apellido, String calle) {
+        DtoHuesped h = new DtoHuesped();
+        h.setTipoDocumento(TipoDocumento.DNI);
+        h.setNroDocumento(dni);
+        h.setApellido(apellido);
+        h.setNombres("JUAN");
+        h.setFechaNacimiento(new GregorianCalendar(1990, 4, 10).getTime());
+        h.setNacionalidad("ARGENTINA");
+        h.setPosicionIva(PosIva.CONSUMIDOR_FINAL);
+        h.setTelefono(List.of(3424000000L, 3425000000L));
+        h.setEmail(List.of());
+        h.setOcupacion(List.of("DOCENTE"));
+
+        DtoDireccion d = new DtoDireccion();
+        d.setCalle(calle);
+        d.setNumero(123);
+        d.setCodPostal(3000);
+        d.setLocalidad("SANTA FE");
+        d.setProvincia("SANTA FE");
+        d.setPais("ARGENTINA");
+        h.setDtoDireccion(d);
+        return h;
+    }
+}
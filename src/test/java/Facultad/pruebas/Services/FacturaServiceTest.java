@@ -1,16 +1,20 @@
 package Facultad.pruebas.Services;
 
+import Facultad.TrabajoPracticoDesarrollo.Config.FacturacionProperties;
 import Facultad.TrabajoPracticoDesarrollo.DTOs.*;
 import Facultad.TrabajoPracticoDesarrollo.Dominio.*;
 import Facultad.TrabajoPracticoDesarrollo.Repositories.*;
 import Facultad.TrabajoPracticoDesarrollo.Services.FacturaService;
+import Facultad.TrabajoPracticoDesarrollo.Services.NumeradorFacturas;
 import Facultad.TrabajoPracticoDesarrollo.enums.*;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.LocalDate;
 import java.time.ZoneId;
@@ -21,6 +25,7 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
@@ -48,6 +53,9 @@ class FacturaServiceTest {
     @Mock private NotaDeCreditoRepository notaDeCreditoRepository;
     @Mock private PersonaFisicaRepository personaFisicaRepository;
     @Mock private DireccionRepository direccionRepository;
+    @Mock private ApplicationEventPublisher eventPublisher;
+    @Mock private NumeradorFacturas numeradorFacturas;
+    @Spy private FacturacionProperties facturacionProperties = new FacturacionProperties();
 
     @InjectMocks
     private FacturaService facturaService;
@@ -219,6 +227,7 @@ class FacturaServiceTest {
         dto.getIdEstadia().setIdEstadia(50);
         dto.getIdResponsable().setIdResponsable(99);
         dto.setImporteTotal(12100.0); // Total con IVA
+        dto.setTipoFactura(TipoFactura.B);
 
         // Mock Estadía y Responsable
         Estadia estadiaSpy = spy(new Estadia());
@@ -228,22 +237,20 @@ class FacturaServiceTest {
         PersonaFisica pf = crearPersonaFisica(PosIva.CONSUMIDOR_FINAL);
         when(responsablePagoRepository.findById(99)).thenReturn(Optional.of(pf));
 
-        // Mock Numeración: La última fue la 0005-00000020
-        Factura ultimaFactura = new Factura();
-        ultimaFactura.setNumeroFactura("0005-00000020");
-        when(facturaRepository.findTopByOrderByNumeroFacturaDesc()).thenReturn(ultimaFactura);
+        // Mock Numeración: el numerador entrega el que sigue a la B-0005-00000020
+        when(numeradorFacturas.siguiente("0005", TipoFactura.B)).thenReturn("B-0005-00000021");
 
         // ACT
         DtoFactura resultado = facturaService.generarFactura(dto);
 
         // ASSERT
         // 1. Verificamos que el número siga la secuencia (+1)
-        assertEquals("0005-00000021", resultado.getNumeroFactura());
+        assertEquals("B-0005-00000021", resultado.getNumeroFactura());
 
         // 2. Verificamos que se haya guardado con estado PENDIENTE
         verify(facturaRepository).save(argThat(f ->
                 f.getEstadoFactura() == EstadoFactura.PENDIENTE &&
-                        f.getNumeroFactura().equals("0005-00000021")
+                        f.getNumeroFactura().equals("B-0005-00000021")
         ));
 
         // 3. Verificamos que se haya cerrado la estadía (Set fecha check-out)
@@ -251,6 +258,57 @@ class FacturaServiceTest {
         verify(estadiaRepository).save(estadiaSpy);
     }
 
+    /**
+     * <b>Punto de venta:</b> la factura se numera en la serie del punto de venta y el tipo pedidos.
+     */
+    @Test
+    @DisplayName("Generar Factura - Punto de venta: numera en la serie del punto de venta y tipo")
+    void generarFactura_PuntoVentaConfigurado() throws Exception {
+        // ARRANGE
+        facturacionProperties.getPuntosVenta().put("0010", "Restaurante");
+        DtoFactura dto = crearDtoFactura(TipoFactura.A, "0010");
+        when(estadiaRepository.findById(50)).thenReturn(Optional.of(new Estadia()));
+        when(responsablePagoRepository.findById(99)).thenReturn(Optional.of(crearPersonaFisica(PosIva.RESPONSABLE_INSCRIPTO)));
+        when(numeradorFacturas.siguiente("0010", TipoFactura.A)).thenReturn("A-0010-00000001");
+
+        // ACT
+        DtoFactura resultado = facturaService.generarFactura(dto);
+
+        // ASSERT
+        assertEquals("A-0010-00000001", resultado.getNumeroFactura());
+        assertEquals("0010", resultado.getPuntoVenta());
+        verify(numeradorFacturas, never()).siguiente(eq("0005"), any());
+    }
+
+    /**
+     * <b>Punto de venta no habilitado:</b> se rechaza sin consumir un número.
+     */
+    @Test
+    @DisplayName("Generar Factura - Punto de venta: rechaza uno que no está configurado")
+    void generarFactura_PuntoVentaNoHabilitado() {
+        // ARRANGE
+        DtoFactura dto = crearDtoFactura(TipoFactura.B, "0099");
+        when(estadiaRepository.findById(50)).thenReturn(Optional.of(new Estadia()));
+        when(responsablePagoRepository.findById(99)).thenReturn(Optional.of(crearPersonaFisica(PosIva.CONSUMIDOR_FINAL)));
+
+        // ACT & ASSERT
+        assertThrows(IllegalArgumentException.class, () -> facturaService.generarFactura(dto));
+        verifyNoInteractions(numeradorFacturas);
+        verify(facturaRepository, never()).save(any());
+    }
+
+    private DtoFactura crearDtoFactura(TipoFactura tipo, String puntoVenta) {
+        DtoFactura dto = new DtoFactura();
+        dto.setIdEstadia(new DtoEstadiaSimple());
+        dto.getIdEstadia().setIdEstadia(50);
+        dto.setIdResponsable(new DtoResponsableSimple());
+        dto.getIdResponsable().setIdResponsable(99);
+        dto.setImporteTotal(12100.0);
+        dto.setTipoFactura(tipo);
+        dto.setPuntoVenta(puntoVenta);
+        return dto;
+    }
+
     // --- HELPER ---
     private PersonaFisica crearPersonaFisica(PosIva posIva) {
         PersonaFisica pf = new PersonaFisica();
@@ -0,0 +1,214 @@
+package Facultad.pruebas.Services;
+
+import Facultad.TrabajoPracticoDesarrollo.DTOs.DtoMetricasFiltroExistencia;
+import Facultad.TrabajoPracticoDesarrollo.Services.FiltrosExistencia;
+import Facultad.TrabajoPracticoDesarrollo.enums.TipoDocumento;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para {@link FiltrosExistencia}.
+ * <p>
+ * La lectura de claves se simula: cada tabla tiene claves fijas que se entregan al
+ * {@link RowCallbackHandler} como si vinieran del cursor.
+ */
+@ExtendWith(MockitoExtension.class)
+class FiltrosExistenciaTest {
+
+    private static final Map<String, List<String>> CLAVES = Map.of(
+            "huesped", List.of("DNI 11111111", "PASAPORTE AB123456"),
+            "cheque", List.of("CH-0001"),
+            "tarjeta", List.of());
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private FiltrosExistencia filtros;
+
+    @BeforeEach
+    void setUp() {
+        filtros = new FiltrosExistencia(jdbcTemplate, transactionManager, 0.01, 1000, 60_000);
+    }
+
+    /**
+     * <b>Caso de Prueba: Filtro sin cargar</b>
+     * <p>
+     * Antes de la carga se consulta siempre la base y no se cuentan métricas.
+     */
+    @Test
+    @DisplayName("Filtros - Sin cargar: siempre consulta la base")
+    void buscar_SinCargar_VaALaBase() {
+        AtomicInteger consultasBase = new AtomicInteger();
+
+        Object resultado = filtros.buscar(FiltrosExistencia.Espacio.CHEQUE, "CH-9999",
+                () -> { consultasBase.incrementAndGet(); return null; });
+
+        assertNull(resultado);
+        assertEquals(1, consultasBase.get());
+        assertFalse(metricas(FiltrosExistencia.Espacio.CHEQUE).isCargado());
+    }
+
+    /**
+     * <b>Caso de Prueba: Negativo seguro</b>
+     * <p>
+     * Con el filtro cargado, una clave que no está se contesta sin ir a la base; una que
+     * está se busca en la base.
+     */
+    @Test
+    @DisplayName("Filtros - Cargado: los inexistentes se contestan sin consultar la base")
+    void buscar_Cargado_NegativoSinBase() {
+        // ARRANGE
+        simularCarga();
+        filtros.recargar();
+        AtomicInteger consultasBase = new AtomicInteger();
+
+        // ACT
+        Object inexistente = filtros.buscar(FiltrosExistencia.Espacio.HUESPED,
+                FiltrosExistencia.claveHuesped(TipoDocumento.DNI, "99999999"),
+                () -> { consultasBase.incrementAndGet(); return null; });
+        Object existente = filtros.buscar(FiltrosExistencia.Espacio.HUESPED,
+                FiltrosExistencia.claveHuesped(TipoDocumento.DNI, "11111111"),
+                () -> { consultasBase.incrementAndGet(); return "HUESPED"; });
+
+        // ASSERT
+        assertNull(inexistente);
+        assertEquals("HUESPED", existente);
+        assertEquals(1, consultasBase.get());
+
+        DtoMetricasFiltroExistencia m = metricas(FiltrosExistencia.Espacio.HUESPED);
+        assertTrue(m.isCargado());
+        assertEquals(2, m.getElementos());
+        assertEquals(2, m.getConsultas());
+        assertEquals(1, m.getRespondidasSinBase());
+        assertEquals(0, m.getFalsosPositivos());
+        assertTrue(m.getMemoriaBytes() > 0);
+    }
+
+    /**
+     * <b>Caso de Prueba: Alta posterior a la carga</b>
+     * <p>
+     * Una clave registrada antes de insertarse ya no se descarta: nunca hay falsos negativos.
+     */
+    @Test
+    @DisplayName("Filtros - Registrar: una clave nueva pasa a consultarse en la base")
+    void registrar_ClaveNuevaVaALaBase() {
+        // ARRANGE
+        simularCarga();
+        filtros.recargar();
+        AtomicInteger consultasBase = new AtomicInteger();
+
+        // ACT
+        filtros.registrar(FiltrosExistencia.Espacio.TARJETA, "4509000011112222");
+        Object tarjeta = filtros.buscar(FiltrosExistencia.Espacio.TARJETA, "4509000011112222",
+                () -> { consultasBase.incrementAndGet(); return "TARJETA"; });
+
+        // ASSERT
+        assertEquals("TARJETA", tarjeta);
+        assertEquals(1, consultasBase.get());
+    }
+
+    /**
+     * <b>Caso de Prueba: Alta en curso durante la recarga</b>
+     * <p>
+     * Una clave registrada antes de la recarga cuya fila todavía no se confirmó (no sale en la
+     * lectura de claves) sigue yendo a la base con el filtro nuevo.
+     */
+    @Test
+    @DisplayName("Filtros - Recarga: las altas recientes sin confirmar pasan al filtro nuevo")
+    void recargar_AltaRecienteSinConfirmar() {
+        // ARRANGE: filtro cargado y una alta registrada que la lectura siguiente no va a ver
+        simularCarga();
+        filtros.recargar();
+        filtros.registrar(FiltrosExistencia.Espacio.CHEQUE, "CH-0002");
+        AtomicInteger consultasBase = new AtomicInteger();
+
+        // ACT
+        filtros.recargar();
+        Object cheque = filtros.buscar(FiltrosExistencia.Espacio.CHEQUE, "CH-0002",
+                () -> { consultasBase.incrementAndGet(); return "CHEQUE"; });
+
+        // ASSERT
+        assertEquals("CHEQUE", cheque);
+        assertEquals(1, consultasBase.get());
+    }
+
+    /**
+     * <b>Caso de Prueba: Falla de la carga</b>
+     * <p>
+     * Si la base no responde al iniciar, la aplicación sigue consultando la base.
+     */
+    @Test
+    @DisplayName("Filtros - Carga fallida: se sigue consultando la base")
+    void cargarAlIniciar_FallaDeBase() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class)))
+                .thenThrow(new org.springframework.jdbc.CannotGetJdbcConnectionException("sin conexión"));
+
+        filtros.cargarAlIniciar();
+
+        assertTrue(filtros.obtenerMetricas().stream().noneMatch(DtoMetricasFiltroExistencia::isCargado));
+    }
+
+    // ============================================================================================
+    // MÉTODOS AUXILIARES
+    // ============================================================================================
+
+    private void simularCarga() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class)))
+                .thenAnswer(inv -> (long) CLAVES.get(tabla(inv.getArgument(0))).size());
+        doAnswer(inv -> {
+            RowCallbackHandler porFila = inv.getArgument(1);
+            ResultSet rs = mock(ResultSet.class);
+            for (String clave : CLAVES.get(tablaDeCreador(inv.getArgument(0)))) {
+                when(rs.getString(1)).thenReturn(clave);
+                porFila.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+    }
+
+    private static String tabla(String sql) {
+        return sql.substring(sql.lastIndexOf("FROM ") + 5).trim();
+    }
+
+    /** El creador arma el statement sobre una conexión simulada que devuelve el SQL pedido. */
+    private static String tablaDeCreador(PreparedStatementCreator creador) throws Exception {
+        java.sql.Connection conexion = mock(java.sql.Connection.class);
+        java.sql.PreparedStatement ps = mock(java.sql.PreparedStatement.class);
+        String[] sql = new String[1];
+        when(conexion.prepareStatement(anyString(), anyInt(), anyInt())).thenAnswer(inv -> {
+            sql[0] = inv.getArgument(0);
+            return ps;
+        });
+        creador.createPreparedStatement(conexion);
+        return tabla(sql[0]);
+    }
+
+    private DtoMetricasFiltroExistencia metricas(FiltrosExistencia.Espacio espacio) {
+        return filtros.obtenerMetricas().stream()
+                .filter(m -> m.getEspacio().equals(espacio.name()))
+                .findFirst().orElseThrow();
+    }
+}
@@ -0,0 +1,195 @@
+package Facultad.pruebas.Services;
+
+import Facultad.TrabajoPracticoDesarrollo.Dominio.FusionHuesped;
+import Facultad.TrabajoPracticoDesarrollo.Dominio.Huesped;
+import Facultad.TrabajoPracticoDesarrollo.Dominio.HuespedId;
+import Facultad.TrabajoPracticoDesarrollo.Dominio.PersonaFisica;
+import Facultad.TrabajoPracticoDesarrollo.Eventos.FusionProgramadaEvento;
+import Facultad.TrabajoPracticoDesarrollo.Repositories.EstadiaHuespedRepository;
+import Facultad.TrabajoPracticoDesarrollo.Repositories.FacturaRepository;
+import Facultad.TrabajoPracticoDesarrollo.Repositories.FusionHuespedRepository;
+import Facultad.TrabajoPracticoDesarrollo.Repositories.HuespedRepository;
+import Facultad.TrabajoPracticoDesarrollo.Repositories.PersonaFisicaRepository;
+import Facultad.TrabajoPracticoDesarrollo.Repositories.ReservaRepository;
+import Facultad.TrabajoPracticoDesarrollo.Services.FusionHuespedes;
+import Facultad.TrabajoPracticoDesarrollo.enums.EstadoFusion;
+import Facultad.TrabajoPracticoDesarrollo.enums.PasoFusion;
+import Facultad.TrabajoPracticoDesarrollo.enums.TipoDocumento;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para {@link FusionHuespedes} (fusión de huéspedes en segundo plano, CU10).
+ * <p>
+ * Verifica que la migración avance por lotes y registre el paso con cada lote, que un trabajo
+ * interrumpido se retome desde el paso guardado y que un error deje el trabajo fallido.
+ */
+@ExtendWith(MockitoExtension.class)
+class FusionHuespedesTest {
+
+    private static final long ID = 7L;
+
+    @Mock private FusionHuespedRepository fusionRepository;
+    @Mock private HuespedRepository huespedRepository;
+    @Mock private ReservaRepository reservaRepository;
+    @Mock private EstadiaHuespedRepository estadiaHuespedRepository;
+    @Mock private FacturaRepository facturaRepository;
+    @Mock private PersonaFisicaRepository personaFisicaRepository;
+    @Mock private ApplicationEventPublisher eventPublisher;
+    @Mock private PlatformTransactionManager transactionManager;
+    @Mock private ExecutorService executor;
+
+    private FusionHuespedes fusionHuespedes;
+
+    @BeforeEach
+    void setUp() {
+        // Lotes de 2 filas y sin pausa entre lotes
+        fusionHuespedes = new FusionHuespedes(fusionRepository, huespedRepository, reservaRepository,
+                estadiaHuespedRepository, facturaRepository, personaFisicaRepository, eventPublisher,
+                transactionManager, executor, 2, 0);
+    }
+
+    /**
+     * <b>Caso de Prueba: Fusión completa por lotes</b>
+     * <p>
+     * Las reservas se migran en dos lotes (2 + 1 filas), luego las estadías, y al final se borra
+     * el huésped original. Cada lote registra su avance y el trabajo termina {@code COMPLETADA}.
+     */
+    @Test
+    @DisplayName("Fusión - Ejecutar: migra por lotes, registra el avance y borra al original")
+    void ejecutar_PorLotesHastaCompletar() {
+        // ARRANGE
+        when(fusionRepository.findById(ID)).thenReturn(Optional.of(trabajo(PasoFusion.RESERVAS, EstadoFusion.PENDIENTE)));
+        when(huespedRepository.findById(new HuespedId(TipoDocumento.DNI, "200"))).thenReturn(Optional.of(new Huesped()));
+        when(reservaRepository.migrarReservasLote(eq("DNI"), eq("100"), eq("DNI"), eq("200"), any(), any(), any(), eq(2)))
+                .thenReturn(2, 1);
+        when(estadiaHuespedRepository.borrarCompartidasParaFusion("DNI", "100", "DNI", "200")).thenReturn(1);
+        when(estadiaHuespedRepository.migrarHistorialEstadiasLote("DNI", "100", "DNI", "200", 2)).thenReturn(1);
+        when(personaFisicaRepository.findByHuesped_TipoDocumentoAndHuesped_NroDocumento(TipoDocumento.DNI, "100"))
+                .thenReturn(Optional.empty());
+
+        // ACT
+        fusionHuespedes.ejecutar(ID);
+
+        // ASSERT
+        InOrder orden = inOrder(fusionRepository, huespedRepository);
+        orden.verify(fusionRepository).cambiarEstado(ID, EstadoFusion.EN_CURSO, null);
+        orden.verify(fusionRepository).registrarAvance(ID, PasoFusion.RESERVAS, 2);
+        orden.verify(fusionRepository).registrarAvance(ID, PasoFusion.ESTADIAS, 1);
+        orden.verify(fusionRepository).registrarAvance(ID, PasoFusion.FACTURAS, 2);
+        orden.verify(fusionRepository).registrarAvance(ID, PasoFusion.LIMPIEZA, 0);
+        orden.verify(huespedRepository).borrarObligatorio("DNI", "100");
+        orden.verify(fusionRepository).cambiarEstado(ID, EstadoFusion.COMPLETADA, null);
+        orden.verify(fusionRepository).registrarAvance(ID, PasoFusion.TERMINADA, 0);
+        verify(huespedRepository).borrarTelefonos("DNI", "100");
+        verify(fusionRepository, never()).cambiarEstado(eq(ID), eq(EstadoFusion.FALLIDA), any());
+    }
+
+    /**
+     * <b>Caso de Prueba: Reanudar desde el paso guardado</b>
+     * <p>
+     * Un trabajo que quedó en {@code FACTURAS} no vuelve a tocar reservas ni estadías. Como los
+     * dos huéspedes son pagadores, las facturas se migran por lotes y después se borra el rol
+     * de pagador del original.
+     */
+    @Test
+    @DisplayName("Fusión - Reanudar: sigue desde el paso guardado sin repetir los anteriores")
+    void ejecutar_ReanudaDesdePasoGuardado() {
+        // ARRANGE
+        when(fusionRepository.findById(ID)).thenReturn(Optional.of(trabajo(PasoFusion.FACTURAS, EstadoFusion.EN_CURSO)));
+        PersonaFisica pfOrigen = new PersonaFisica();
+        pfOrigen.setIdResponsable(1);
+        PersonaFisica pfDestino = new PersonaFisica();
+        pfDestino.setIdResponsable(2);
+        when(personaFisicaRepository.findByHuesped_TipoDocumentoAndHuesped_NroDocumento(TipoDocumento.DNI, "100"))
+                .thenReturn(Optional.of(pfOrigen));
+        when(personaFisicaRepository.findByHuesped_TipoDocumentoAndHuesped_NroDocumento(TipoDocumento.DNI, "200"))
+                .thenReturn(Optional.of(pfDestino));
+        when(facturaRepository.migrarFacturasLote(1, 2, 2)).thenReturn(2, 0);
+
+        // ACT
+        fusionHuespedes.ejecutar(ID);
+
+        // ASSERT
+        verifyNoInteractions(reservaRepository, estadiaHuespedRepository);
+        verify(facturaRepository, times(2)).migrarFacturasLote(1, 2, 2);
+        verify(personaFisicaRepository).borrarNativo(1);
+        verify(personaFisicaRepository, never()).transferirAHuesped(anyInt(), anyString(), anyString());
+        verify(fusionRepository).cambiarEstado(ID, EstadoFusion.COMPLETADA, null);
+    }
+
+    /**
+     * <b>Caso de Prueba: Error en un lote</b>
+     * <p>
+     * El trabajo queda {@code FALLIDA} con el mensaje del error y el huésped original no se borra.
+     */
+    @Test
+    @DisplayName("Fusión - Error: deja el trabajo fallido y no borra al original")
+    void ejecutar_ErrorMarcaFallida() {
+        // ARRANGE
+        when(fusionRepository.findById(ID)).thenReturn(Optional.of(trabajo(PasoFusion.RESERVAS, EstadoFusion.PENDIENTE)));
+        when(huespedRepository.findById(new HuespedId(TipoDocumento.DNI, "200"))).thenReturn(Optional.of(new Huesped()));
+        when(reservaRepository.migrarReservasLote(any(), any(), any(), any(), any(), any(), any(), anyInt()))
+                .thenThrow(new QueryTimeoutException("lock timeout"));
+
+        // ACT
+        fusionHuespedes.ejecutar(ID);
+
+        // ASSERT
+        verify(fusionRepository).cambiarEstado(ID, EstadoFusion.FALLIDA, "lock timeout");
+        verify(fusionRepository, never()).registrarAvance(anyLong(), any(), anyLong());
+        verify(huespedRepository, never()).borrarObligatorio(any(), any());
+    }
+
+    /**
+     * <b>Caso de Prueba: Programar con una fusión activa</b>
+     * <p>
+     * Si el huésped ya participa de una fusión sin terminar, se rechaza sin registrar otro trabajo.
+     */
+    @Test
+    @DisplayName("Fusión - Programar: rechaza un huésped que ya se está fusionando")
+    void programar_ConFusionActiva() {
+        // ARRANGE
+        HuespedId origen = new HuespedId(TipoDocumento.DNI, "100");
+        HuespedId destino = new HuespedId(TipoDocumento.DNI, "200");
+        when(huespedRepository.existsById(any())).thenReturn(true);
+        when(fusionRepository.existeActivaPara(eq(TipoDocumento.DNI), eq("100"), any())).thenReturn(true);
+
+        // ACT & ASSERT
+        assertThrows(IllegalStateException.class, () -> fusionHuespedes.programar(origen, destino));
+        verify(fusionRepository, never()).save(any());
+        verify(eventPublisher, never()).publishEvent(any(FusionProgramadaEvento.class));
+    }
+
+    private static FusionHuesped trabajo(PasoFusion paso, EstadoFusion estado) {
+        FusionHuesped t = new FusionHuesped();
+        t.setIdFusion(ID);
+        t.setTipoOrigen(TipoDocumento.DNI);
+        t.setNroOrigen("100");
+        t.setTipoDestino(TipoDocumento.DNI);
+        t.setNroDestino("200");
+        t.setPaso(paso);
+        t.setEstado(estado);
+        return t;
+    }
+}
@@ -1,28 +1,41 @@
 package Facultad.pruebas.Services;
 
+import Facultad.TrabajoPracticoDesarrollo.Config.GrillaProperties;
+import Facultad.TrabajoPracticoDesarrollo.DTOs.DtoGrillaCompacta;
 import Facultad.TrabajoPracticoDesarrollo.Dominio.Estadia;
 import Facultad.TrabajoPracticoDesarrollo.Dominio.Habitacion;
 import Facultad.TrabajoPracticoDesarrollo.Dominio.Reserva;
 import Facultad.TrabajoPracticoDesarrollo.Repositories.HabitacionRepository;
+import Facultad.TrabajoPracticoDesarrollo.Services.CalendarioDisponibilidad;
 import Facultad.TrabajoPracticoDesarrollo.Services.EstadiaService;
 import Facultad.TrabajoPracticoDesarrollo.Services.HabitacionService;
+import Facultad.TrabajoPracticoDesarrollo.Services.InventarioHabitaciones;
 import Facultad.TrabajoPracticoDesarrollo.Services.ReservaService;
+import Facultad.TrabajoPracticoDesarrollo.Utils.Inventario.HabitacionCatalogo;
 import Facultad.TrabajoPracticoDesarrollo.enums.EstadoHabitacion;
+import Facultad.TrabajoPracticoDesarrollo.enums.MotorGrilla;
 import Facultad.TrabajoPracticoDesarrollo.enums.TipoHabitacion;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.when;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
 
 /**
  * Clase de pruebas unitarias para {@link HabitacionService}.
@@ -40,12 +53,24 @@ class HabitacionServiceTest {
     @Mock
     private HabitacionRepository habitacionRepository;
 
+    @Mock
+    private InventarioHabitaciones inventarioHabitaciones;
+
     @Mock
     private ReservaService reservaService;
 
     @Mock
     private EstadiaService estadiaService;
 
+    @Mock
+    private CalendarioDisponibilidad calendarioDisponibilidad;
+
+    @Spy
+    private GrillaProperties grillaProperties = new GrillaProperties();
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @InjectMocks
     private HabitacionService habitacionService;
 
@@ -67,7 +92,7 @@ class HabitacionServiceTest {
 
         // 1. Mock Habitaciones
         Habitacion hab101 = crearHabitacion("101", EstadoHabitacion.HABILITADA);
-        when(habitacionRepository.findAll()).thenReturn(List.of(hab101));
+        when(inventarioHabitaciones.obtenerTodas()).thenReturn(catalogo(List.of(hab101)));
 
         // 2. Mock Servicios vacíos (Nadie reservó ni ocupó)
         when(reservaService.buscarReservasEnRango(any(), any())).thenReturn(Collections.emptyList());
@@ -106,7 +131,7 @@ class HabitacionServiceTest {
 
         // 1. Habitación
         Habitacion hab = crearHabitacion("202", EstadoHabitacion.HABILITADA);
-        when(habitacionRepository.findAll()).thenReturn(List.of(hab));
+        when(inventarioHabitaciones.obtenerTodas()).thenReturn(catalogo(List.of(hab)));
 
         // 2. Mock Estadía Activa hoy
         Estadia estadia = new Estadia();
@@ -136,7 +161,7 @@ class HabitacionServiceTest {
         String fechaStr = hoy.toString();
 
         Habitacion hab = crearHabitacion("303", EstadoHabitacion.HABILITADA);
-        when(habitacionRepository.findAll()).thenReturn(List.of(hab));
+        when(inventarioHabitaciones.obtenerTodas()).thenReturn(catalogo(List.of(hab)));
 
         // Mock Reserva Activa hoy
         Reserva reserva = new Reserva();
@@ -167,7 +192,7 @@ class HabitacionServiceTest {
 
         // Habitación rota
         Habitacion hab = crearHabitacion("404", EstadoHabitacion.FUERA_DE_SERVICIO);
-        when(habitacionRepository.findAll()).thenReturn(List.of(hab));
+        when(inventarioHabitaciones.obtenerTodas()).thenReturn(catalogo(List.of(hab)));
 
         // Aunque haya reserva (error de datos), el mantenimiento manda visualmente
         Reserva reserva = new Reserva();
@@ -186,6 +211,315 @@ class HabitacionServiceTest {
         assertEquals("MANTENIMIENTO", estadoDia.get("estado"));
     }
 
+    /**
+     * <b>Caso de Prueba: Grilla comprimida por tramos</b>
+     * <p>
+     * Un mes con una reserva en el medio debe producir 3 tramos (libre, reservada, libre).
+     * Para 20 habitaciones, la grilla serializada debe pesar al menos 8 veces menos que la día por día.
+     */
+    @Test
+    @DisplayName("CU05 - Grilla RLE: Agrupa días consecutivos y reduce el tamaño del JSON")
+    void obtenerEstadoCompacto_Tramos() throws Exception {
+        // ARRANGE
+        LocalDate hoy = LocalDate.now();
+        String desde = hoy.toString();
+        String hasta = hoy.plusDays(30).toString();
+
+        List<Habitacion> habitaciones = new ArrayList<>();
+        for (int i = 0; i < 20; i++) habitaciones.add(crearHabitacion(String.valueOf(300 + i), EstadoHabitacion.HABILITADA));
+        when(inventarioHabitaciones.obtenerTodas()).thenReturn(catalogo(habitaciones));
+
+        Reserva reserva = new Reserva();
+        reserva.setIdReserva(99);
+        reserva.setHabitacion(habitaciones.get(0));
+        reserva.setFechaDesde(convertToDate(hoy.plusDays(10)));
+        reserva.setFechaHasta(convertToDate(hoy.plusDays(13)));
+
+        when(reservaService.buscarReservasEnRango(any(), any())).thenReturn(List.of(reserva));
+        when(estadiaService.buscarEstadiasEnRango(any(), any())).thenReturn(Collections.emptyList());
+
+        // ACT
+        DtoGrillaCompacta compacta = habitacionService.obtenerEstadoCompacto(desde, hasta);
+        List<Map<String, Object>> completa = habitacionService.obtenerEstadoPorFechas(desde, hasta);
+
+        // ASSERT
+        List<int[]> tramos = compacta.getHabitaciones().get(0).getTramos();
+        int reservada = compacta.getEstados().indexOf("RESERVADA");
+        assertEquals(3, tramos.size());
+        assertArrayEquals(new int[]{0, 9, 0, 0}, tramos.get(0));
+        assertArrayEquals(new int[]{10, 12, reservada, 99}, tramos.get(1));
+        assertArrayEquals(new int[]{13, 30, 0, 0}, tramos.get(2));
+        assertEquals(1, compacta.getHabitaciones().get(1).getTramos().size());
+
+        ObjectMapper mapper = new ObjectMapper();
+        int bytesCompacta = mapper.writeValueAsBytes(compacta).length;
+        int bytesCompleta = mapper.writeValueAsBytes(completa).length;
+        assertTrue(bytesCompleta >= 8 * bytesCompacta,
+                "Completa: " + bytesCompleta + " bytes, compacta: " + bytesCompacta + " bytes");
+    }
+
+    /**
+     * <b>Caso de Prueba: Grilla en streaming</b>
+     * <p>
+     * Cada habitación se entrega al consumidor por separado y en el mismo orden que la lista completa.
+     */
+    @Test
+    @DisplayName("CU05 - Grilla NDJSON: Entrega una fila por habitación a medida que se calcula")
+    void recorrerEstadoPorFechas_UnaFilaPorHabitacion() {
+        // ARRANGE
+        LocalDate hoy = LocalDate.now();
+        Habitacion hab1 = crearHabitacion("101", EstadoHabitacion.HABILITADA);
+        Habitacion hab2 = crearHabitacion("102", EstadoHabitacion.FUERA_DE_SERVICIO);
+        // El inventario ya entrega las habitaciones ordenadas
+        when(inventarioHabitaciones.obtenerTodas()).thenReturn(catalogo(List.of(hab1, hab2)));
+        when(reservaService.buscarReservasEnRango(any(), any())).thenReturn(Collections.emptyList());
+        when(estadiaService.buscarEstadiasEnRango(any(), any())).thenReturn(Collections.emptyList());
+
+        // ACT
+        List<Map<String, Object>> filas = new ArrayList<>();
+        habitacionService.recorrerEstadoPorFechas(hoy, hoy.plusDays(2), filas::add);
+
+        // ASSERT
+        assertEquals(2, filas.size());
+        assertEquals("101", filas.get(0).get("numero"));
+        assertEquals("DISPONIBLE", filas.get(0).get("estadoHabitacion"));
+        assertEquals("MANTENIMIENTO", filas.get(1).get("estadoHabitacion"));
+        assertEquals(3, ((Map<?, ?>) filas.get(1).get("estadosPorDia")).size());
+    }
+
+    /**
+     * <b>Caso de Prueba: Streaming sin conexión tomada</b>
+     * <p>
+     * Sin calendario, reservas y estadías se leen en una transacción que termina antes de
+     * entregar la primera fila: un cliente lento no retiene una conexión del pool.
+     */
+    @Test
+    @DisplayName("CU05 - Grilla NDJSON: La lectura termina antes de entregar filas")
+    void recorrerEstadoPorFechas_TransaccionCerradaAlEntregar() {
+        // ARRANGE
+        LocalDate hoy = LocalDate.now();
+        when(inventarioHabitaciones.obtenerTodas()).thenReturn(catalogo(List.of(crearHabitacion("101", EstadoHabitacion.HABILITADA))));
+        when(reservaService.buscarReservasEnRango(any(), any())).thenReturn(Collections.emptyList());
+        when(estadiaService.buscarEstadiasEnRango(any(), any())).thenReturn(Collections.emptyList());
+
+        // ACT
+        List<Map<String, Object>> filas = new ArrayList<>();
+        habitacionService.recorrerEstadoPorFechas(hoy, hoy.plusDays(1), fila -> {
+            // ASSERT: al escribir la fila la transacción de lectura ya hizo commit
+            verify(transactionManager).commit(any());
+            filas.add(fila);
+        });
+        assertEquals(1, filas.size());
+    }
+
+    /**
+     * <b>Caso de Prueba: Motor SQL</b>
+     * <p>
+     * Con {@code hotel.grilla.motor=SQL} la grilla sale de una única consulta ya resuelta en la BD:
+     * no se consultan habitaciones, reservas ni estadías por separado.
+     */
+    @Test
+    @DisplayName("CU05 - Grilla motor SQL: Agrupa las celdas de la consulta por habitación")
+    void obtenerEstadoPorFechas_MotorSql() {
+        // ARRANGE
+        grillaProperties.setMotor(MotorGrilla.SQL);
+        LocalDate hoy = LocalDate.now();
+        String desde = hoy.toString();
+        String hasta = hoy.plusDays(1).toString();
+
+        when(habitacionRepository.calcularGrillaEnBd(eq(hoy), eq(hoy.plusDays(1)), eq(0), anyInt())).thenReturn(List.of(
+                celdaSql("101", hoy, "OCUPADA", 50, null),
+                celdaSql("101", hoy.plusDays(1), "DISPONIBLE", null, null),
+                celdaSql("202", hoy, "RESERVADA", null, 99),
+                celdaSql("202", hoy.plusDays(1), "RESERVADA", null, 99)
+        ));
+
+        // ACT
+        List<Map<String, Object>> grilla = habitacionService.obtenerEstadoPorFechas(desde, hasta);
+
+        // ASSERT
+        assertEquals(2, grilla.size());
+        assertEquals("DOBLE_ESTANDAR", grilla.get(0).get("tipoHabitacion"));
+        assertEquals(50, obtenerEstadoDelDia(grilla, 0, desde).get("idEstadia"));
+        assertEquals("DISPONIBLE", obtenerEstadoDelDia(grilla, 0, hasta).get("estado"));
+        assertEquals(99, obtenerEstadoDelDia(grilla, 1, hasta).get("idReserva"));
+        assertEquals(desde, obtenerEstadoDelDia(grilla, 1, hasta).get("fechaInicio"));
+        verify(inventarioHabitaciones, never()).obtenerTodas();
+        verifyNoInteractions(reservaService, estadiaService);
+    }
+
+    /**
+     * <b>Caso de Prueba: Grilla en paralelo</b>
+     * <p>
+     * Con {@code hotel.grilla.paralelo=true} las filas se calculan en el pool propio de la grilla,
+     * pero el resultado debe ser idéntico (y en el mismo orden) que el cálculo secuencial.
+     * Se usan más habitaciones que un bloque para cruzar el límite entre bloques.
+     */
+    @Test
+    @DisplayName("CU05 - Grilla paralela: Mismo resultado y orden que la secuencial")
+    void obtenerEstadoPorFechas_ParaleloMantieneOrden() {
+        // ARRANGE
+        LocalDate hoy = LocalDate.now();
+        List<Habitacion> habitaciones = crearHotel(600);
+        List<Reserva> reservas = crearReservas(habitaciones, hoy);
+        when(inventarioHabitaciones.obtenerTodas()).thenReturn(catalogo(habitaciones));
+        when(reservaService.buscarReservasEnRango(any(), any())).thenReturn(reservas);
+        when(estadiaService.buscarEstadiasEnRango(any(), any())).thenReturn(Collections.emptyList());
+
+        String desde = hoy.toString();
+        String hasta = hoy.plusDays(14).toString();
+        List<Map<String, Object>> secuencial = habitacionService.obtenerEstadoPorFechas(desde, hasta);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            grillaProperties.setParalelo(true);
+            HabitacionService paralelo = new HabitacionService(habitacionRepository, inventarioHabitaciones, reservaService,
+                    estadiaService, calendarioDisponibilidad, grillaProperties, pool, transactionManager);
+
+            // ACT
+            List<Map<String, Object>> resultado = paralelo.obtenerEstadoPorFechas(desde, hasta);
+
+            // ASSERT
+            assertEquals(600, resultado.size());
+            assertEquals(secuencial, resultado);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * <b>Benchmark: Throughput de la grilla según cantidad de hilos</b>
+     * <p>
+     * No corre en el build normal; se habilita con {@code mvn test -Dbenchmark=true}.
+     * Compara grillas por segundo (3000 habitaciones x 90 días) en secuencial y con pools de
+     * 1, 2, 4 y 8 hilos. Con menos núcleos que hilos la mejora se aplana.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    @DisplayName("Benchmark - Grilla secuencial vs. paralela por cantidad de hilos")
+    void benchmark_GrillaParalelaPorHilos() {
+        LocalDate hoy = LocalDate.now();
+        List<Habitacion> habitaciones = crearHotel(3000);
+        when(inventarioHabitaciones.obtenerTodas()).thenReturn(catalogo(habitaciones));
+        when(reservaService.buscarReservasEnRango(any(), any())).thenReturn(crearReservas(habitaciones, hoy));
+        when(estadiaService.buscarEstadiasEnRango(any(), any())).thenReturn(Collections.emptyList());
+        String desde = hoy.toString();
+        String hasta = hoy.plusDays(89).toString();
+
+        System.out.printf("Núcleos disponibles: %d%n", Runtime.getRuntime().availableProcessors());
+        System.out.printf("Secuencial: %.1f grillas/s%n", medirGrillasPorSegundo(habitacionService, desde, hasta));
+
+        grillaProperties.setParalelo(true);
+        for (int hilos : new int[]{1, 2, 4, 8}) {
+            ForkJoinPool pool = new ForkJoinPool(hilos);
+            try {
+                HabitacionService servicio = new HabitacionService(habitacionRepository, inventarioHabitaciones, reservaService,
+                        estadiaService, calendarioDisponibilidad, grillaProperties, pool, transactionManager);
+                System.out.printf("Pool de %d hilos: %.1f grillas/s%n", hilos, medirGrillasPorSegundo(servicio, desde, hasta));
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    /**
+     * <b>Caso de Prueba: Búsqueda de disponibilidad</b>
+     * <p>
+     * Filtra por tipo y capacidad, descarta las ocupadas y fuera de servicio y ordena por precio.
+     * Sin calendario se resuelve con una sola consulta de reservas y otra de estadías.
+     */
+    @Test
+    @DisplayName("Búsqueda de disponibilidad: Filtra por tipo, capacidad y fechas y ordena por precio")
+    void buscarDisponibles_FiltraYOrdenaPorPrecio() {
+        // ARRANGE
+        LocalDate hoy = LocalDate.now();
+        Habitacion cara = crearHabitacion("101", EstadoHabitacion.HABILITADA);
+        cara.setCostoPorNoche(2000.00F);
+        Habitacion barata = crearHabitacion("102", EstadoHabitacion.HABILITADA);
+        barata.setCostoPorNoche(800.00F);
+        Habitacion reservada = crearHabitacion("103", EstadoHabitacion.HABILITADA);
+        Habitacion chica = crearHabitacion("104", EstadoHabitacion.HABILITADA);
+        chica.setCapacidad(1);
+        Habitacion rota = crearHabitacion("105", EstadoHabitacion.FUERA_DE_SERVICIO);
+        Habitacion otroTipo = crearHabitacion("106", EstadoHabitacion.HABILITADA);
+        otroTipo.setTipoHabitacion(TipoHabitacion.SUITE_DOBLE);
+        when(inventarioHabitaciones.obtenerTodas()).thenReturn(catalogo(List.of(cara, barata, reservada, chica, rota, otroTipo)));
+
+        Reserva reserva = new Reserva();
+        reserva.setIdReserva(1);
+        reserva.setHabitacion(reservada);
+        reserva.setFechaDesde(convertToDate(hoy.plusDays(2)));
+        reserva.setFechaHasta(convertToDate(hoy.plusDays(4)));
+        when(reservaService.buscarReservasEnRango(any(), any())).thenReturn(List.of(reserva));
+        when(estadiaService.buscarEstadiasEnRango(any(), any())).thenReturn(Collections.emptyList());
+
+        // ACT
+        List<HabitacionCatalogo> disponibles = habitacionService.buscarDisponibles(TipoHabitacion.DOBLE_ESTANDAR, 2,
+                hoy.toString(), hoy.plusDays(3).toString());
+
+        // ASSERT
+        assertEquals(List.of("102", "101"), disponibles.stream().map(HabitacionCatalogo::getNumero).toList());
+        verify(reservaService, times(1)).buscarReservasEnRango(any(), any());
+        assertThrows(IllegalArgumentException.class, () -> habitacionService.buscarDisponibles(null, null,
+                hoy.toString(), hoy.plusDays(400).toString()));
+    }
+
+    /**
+     * <b>Caso de Prueba: Búsqueda de disponibilidad, último día</b>
+     * <p>
+     * Para estadías el día de egreso cuenta: una estadía que entra justo ese día deja la
+     * habitación no disponible. Sin calendario, las consultas deben llegar hasta el día siguiente.
+     */
+    @Test
+    @DisplayName("Búsqueda de disponibilidad: Una estadía que entra el último día ocupa la habitación")
+    void buscarDisponibles_EstadiaQueEntraElUltimoDia() {
+        // ARRANGE
+        LocalDate hoy = LocalDate.now();
+        LocalDate hasta = hoy.plusDays(3);
+        Habitacion libre = crearHabitacion("101", EstadoHabitacion.HABILITADA);
+        Habitacion ocupada = crearHabitacion("102", EstadoHabitacion.HABILITADA);
+        when(inventarioHabitaciones.obtenerTodas()).thenReturn(catalogo(List.of(libre, ocupada)));
+
+        Estadia estadia = new Estadia();
+        estadia.setIdEstadia(7);
+        estadia.setHabitacion(ocupada);
+        estadia.setFechaCheckIn(convertToDate(hasta));
+        Date inicio = convertToDate(hoy);
+        Date fin = convertToDate(hasta.plusDays(1));
+        when(reservaService.buscarReservasEnRango(inicio, fin)).thenReturn(Collections.emptyList());
+        when(estadiaService.buscarEstadiasEnRango(inicio, fin)).thenReturn(List.of(estadia));
+
+        // ACT
+        List<HabitacionCatalogo> disponibles = habitacionService.buscarDisponibles(null, null,
+                hoy.toString(), hasta.toString());
+
+        // ASSERT
+        assertEquals(List.of("101"), disponibles.stream().map(HabitacionCatalogo::getNumero).toList());
+    }
+
+    /**
+     * <b>Caso de Prueba: ETag de la grilla</b>
+     * <p>
+     * El ETag sólo se ofrece con el calendario cargado y cambia cuando cambia la versión del
+     * calendario o del inventario. Calcularlo no consulta habitaciones, reservas ni estadías.
+     */
+    @Test
+    @DisplayName("CU05 - Grilla: ETag ligado a la versión del calendario y del inventario")
+    void calcularEtagGrilla_CambiaConLaVersion() {
+        // Sin calendario no hay garantía: no se emite ETag
+        assertNull(habitacionService.calcularEtagGrilla("json"));
+
+        when(calendarioDisponibilidad.estaCargado()).thenReturn(true);
+        when(calendarioDisponibilidad.getVersion()).thenReturn(7L, 7L, 8L);
+        when(inventarioHabitaciones.getVersion()).thenReturn(1L);
+
+        String etag = habitacionService.calcularEtagGrilla("json");
+        assertEquals(etag, habitacionService.calcularEtagGrilla("json"));
+        assertNotEquals(etag, habitacionService.calcularEtagGrilla("json"));
+        assertTrue(etag.startsWith("\"grilla-json-") && etag.endsWith("-7-1\""));
+        verifyNoInteractions(habitacionRepository, reservaService, estadiaService);
+    }
+
     // ============================================================================================
     // VALIDACIONES SIMPLES
     // ============================================================================================
@@ -224,6 +558,73 @@ class HabitacionServiceTest {
         return h;
     }
 
+    /**
+     * Hotel sintético con tipos mezclados y números desordenados, para que el orden
+     * de la grilla dependa realmente del comparador de {@code obtenerTodas()}.
+     */
+    /** Foto del inventario para las habitaciones de la prueba, como la arma {@link InventarioHabitaciones}. */
+    private List<HabitacionCatalogo> catalogo(List<Habitacion> habitaciones) {
+        return habitaciones.stream().map(HabitacionCatalogo::de).toList();
+    }
+
+    private List<Habitacion> crearHotel(int cantidad) {
+        TipoHabitacion[] tipos = TipoHabitacion.values();
+        List<Habitacion> habitaciones = new ArrayList<>();
+        for (int i = 0; i < cantidad; i++) {
+            Habitacion h = crearHabitacion(String.valueOf(1000 + i),
+                    i % 37 == 0 ? EstadoHabitacion.FUERA_DE_SERVICIO : EstadoHabitacion.HABILITADA);
+            h.setTipoHabitacion(tipos[i % tipos.length]);
+            habitaciones.add(h);
+        }
+        Collections.shuffle(habitaciones, new Random(42));
+        return habitaciones;
+    }
+
+    private List<Reserva> crearReservas(List<Habitacion> habitaciones, LocalDate desde) {
+        List<Reserva> reservas = new ArrayList<>();
+        Random random = new Random(7);
+        int id = 1;
+        for (Habitacion hab : habitaciones) {
+            for (int inicio = random.nextInt(5); inicio < 90; inicio += 5 + random.nextInt(10)) {
+                Reserva reserva = new Reserva();
+                reserva.setIdReserva(id++);
+                reserva.setHabitacion(hab);
+                reserva.setFechaDesde(convertToDate(desde.plusDays(inicio)));
+                reserva.setFechaHasta(convertToDate(desde.plusDays(inicio + 1 + random.nextInt(4))));
+                reservas.add(reserva);
+            }
+        }
+        return reservas;
+    }
+
+    private double medirGrillasPorSegundo(HabitacionService servicio, String desde, String hasta) {
+        for (int i = 0; i < 3; i++) {
+            servicio.obtenerEstadoPorFechas(desde, hasta); // calentamiento
+        }
+        int repeticiones = 10;
+        long inicio = System.nanoTime();
+        for (int i = 0; i < repeticiones; i++) {
+            servicio.obtenerEstadoPorFechas(desde, hasta);
+        }
+        return repeticiones / ((System.nanoTime() - inicio) / 1e9);
+    }
+
+    private HabitacionRepository.EstadoDiaSql celdaSql(String numero, LocalDate dia, String estado,
+                                                        Integer idEstadia, Integer idReserva) {
+        return new HabitacionRepository.EstadoDiaSql() {
+            public String getNumero() { return numero; }
+            public String getTipoHabitacion() { return "DOBLE ESTANDAR"; }
+            public Integer getCapacidad() { return 2; }
+            public Float getCostoPorNoche() { return 1000.00F; }
+            public Date getDia() { return java.sql.Date.valueOf(dia); }
+            public String getEstado() { return estado; }
+            public Integer getIdEstadia() { return idEstadia; }
+            public Integer getIdReserva() { return idReserva; }
+            public Date getReservaDesde() { return idReserva != null ? java.sql.Date.valueOf(LocalDate.now()) : null; }
+            public Date getReservaHasta() { return idReserva != null ? java.sql.Date.valueOf(LocalDate.now().plusDays(2)) : null; }
+        };
+    }
+
     private Date convertToDate(LocalDate localDate) {
         return Date.from(localDate.atStartOfDay(ZoneId.systemDefault()).toInstant());
     }
@@ -3,9 +3,14 @@ package Facultad.pruebas.Services;
 import Facultad.TrabajoPracticoDesarrollo.DTOs.DtoDireccion;
 import Facultad.TrabajoPracticoDesarrollo.DTOs.DtoHuesped;
 import Facultad.TrabajoPracticoDesarrollo.DTOs.DtoHuespedBusqueda;
+import Facultad.TrabajoPracticoDesarrollo.DTOs.DtoTrabajoFusion;
 import Facultad.TrabajoPracticoDesarrollo.Dominio.*;
 import Facultad.TrabajoPracticoDesarrollo.Repositories.*;
+import Facultad.TrabajoPracticoDesarrollo.Services.FiltrosExistencia;
+import Facultad.TrabajoPracticoDesarrollo.Services.FusionHuespedes;
 import Facultad.TrabajoPracticoDesarrollo.Services.HuespedService;
+import Facultad.TrabajoPracticoDesarrollo.Utils.Paginacion.CursorHuesped;
+import Facultad.TrabajoPracticoDesarrollo.Utils.Paginacion.Pagina;
 import Facultad.TrabajoPracticoDesarrollo.enums.PosIva;
 import Facultad.TrabajoPracticoDesarrollo.enums.TipoDocumento;
 import jakarta.persistence.EntityManager;
@@ -15,12 +20,17 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 /**
@@ -45,6 +55,9 @@ class HuespedServiceTest {
     @Mock private PersonaFisicaRepository personaFisicaRepository;
     @Mock private EstadiaHuespedRepository estadiaHuespedRepository;
     @Mock private EntityManager entityManager;
+    @Mock private ApplicationEventPublisher eventPublisher;
+    @Mock private FiltrosExistencia filtrosExistencia;
+    @Mock private FusionHuespedes fusionHuespedes;
 
     @InjectMocks
     private HuespedService huespedService;
@@ -61,30 +74,59 @@ class HuespedServiceTest {
         criteria.setApellido("Doe");
         criteria.setNroDocumento("12345");
 
-        when(huespedRepository.buscarPorCriterios("Doe", null, null, "12345"))
+        when(huespedRepository.buscarPagina("Doe", null, null, "12345", null, HuespedService.TAMANIO_PAGINA_DEFECTO + 1))
                 .thenReturn(List.of(new Huesped()));
 
         // ACT
-        List<Huesped> result = huespedService.buscarHuespedes(criteria);
+        Pagina<Huesped> result = huespedService.buscarHuespedes(criteria, null, null);
 
         // ASSERT
-        assertFalse(result.isEmpty());
-        verify(huespedRepository).buscarPorCriterios("Doe", null, null, "12345");
+        assertFalse(result.getElementos().isEmpty());
+        assertNull(result.getSiguiente());
         verify(huespedRepository, never()).findAll();
     }
 
     @Test
-    @DisplayName("CU02 - Search: Should return all guests when criteria is null or empty")
+    @DisplayName("CU02 - Search: Should page through all guests when criteria is empty, never loading them all")
     void buscarHuespedes_NoFilters() {
+        // ARRANGE: 3 guests, page size 2
+        when(huespedRepository.buscarPagina(null, null, null, null, null, 3))
+                .thenReturn(List.of(createGuest("ALVAREZ", "1"), createGuest("BENITEZ", "2"), createGuest("CASTRO", "3")));
+
+        // ACT
+        Pagina<Huesped> primera = huespedService.buscarHuespedes(new DtoHuespedBusqueda(), null, 2);
+
+        // ASSERT: 2 guests and a cursor pointing after the last one returned
+        assertEquals(2, primera.getElementos().size());
+        assertNotNull(primera.getSiguiente());
+        CursorHuesped cursor = CursorHuesped.decodificar(primera.getSiguiente());
+        assertEquals("BENITEZ", cursor.getApellido());
+        assertEquals("2", cursor.getNroDocumento());
+        verify(huespedRepository, never()).findAll();
+
+        // ACT 2: next page resumes from the cursor
+        when(huespedRepository.buscarPagina(isNull(), isNull(), isNull(), isNull(),
+                argThat(c -> c != null && c.getApellido().equals("BENITEZ")), eq(3)))
+                .thenReturn(List.of(createGuest("CASTRO", "3")));
+        Pagina<Huesped> segunda = huespedService.buscarHuespedes(new DtoHuespedBusqueda(), primera.getSiguiente(), 2);
+
+        assertEquals(1, segunda.getElementos().size());
+        assertNull(segunda.getSiguiente());
+    }
+
+    @Test
+    @DisplayName("CU02 - Search: Page size is capped and invalid cursors are rejected")
+    void buscarHuespedes_PageSizeCapAndInvalidCursor() {
         // ARRANGE
-        when(huespedRepository.findAll()).thenReturn(List.of(new Huesped(), new Huesped()));
+        when(huespedRepository.buscarPagina(any(), any(), any(), any(), any(), anyInt())).thenReturn(List.of());
 
         // ACT
-        List<Huesped> result = huespedService.buscarHuespedes(new DtoHuespedBusqueda());
+        huespedService.buscarHuespedes(new DtoHuespedBusqueda(), null, 100_000);
 
         // ASSERT
-        assertEquals(2, result.size());
-        verify(huespedRepository).findAll();
+        verify(huespedRepository).buscarPagina(null, null, null, null, null, HuespedService.TAMANIO_PAGINA_MAXIMO + 1);
+        assertThrows(IllegalArgumentException.class,
+                () -> huespedService.buscarHuespedes(new DtoHuespedBusqueda(), "not-a-cursor", null));
     }
 
     // ============================================================================================
@@ -205,7 +247,7 @@ class HuespedServiceTest {
     }
 
     @Test
-    @DisplayName("CU10 - Modify: Identity Change (Migration/Fusion)")
+    @DisplayName("CU10 - Modify: Identity Change to an existing guest schedules a background merge")
     void modificarHuesped_Fusion_TargetExists() {
         // ARRANGE
         String oldDoc = "100";
@@ -214,6 +256,8 @@ class HuespedServiceTest {
 
         Huesped oldHuesped = new Huesped();
         Huesped targetHuesped = new Huesped(); // The one that stays
+        DtoTrabajoFusion trabajo = new DtoTrabajoFusion();
+        trabajo.setIdFusion(7L);
 
         // 1. Find Old
         when(huespedRepository.findById(new HuespedId(TipoDocumento.DNI, oldDoc)))
@@ -223,19 +267,35 @@ class HuespedServiceTest {
         when(huespedRepository.findById(new HuespedId(TipoDocumento.DNI, newDoc)))
                 .thenReturn(Optional.of(targetHuesped));
 
-        // Mock PersonaFisica check (simple case, no fiscal role)
-        when(personaFisicaRepository.findByHuesped(any())).thenReturn(Optional.empty());
+        when(fusionHuespedes.programar(new HuespedId(TipoDocumento.DNI, oldDoc), new HuespedId(TipoDocumento.DNI, newDoc)))
+                .thenReturn(trabajo);
 
         // ACT
-        huespedService.modificarHuesped(TipoDocumento.DNI.name(), oldDoc, dtoNew);
+        DtoTrabajoFusion resultado = huespedService.modificarHuesped(TipoDocumento.DNI.name(), oldDoc, dtoNew);
 
         // ASSERT
-        // Verify migration logic
-        verify(reservaRepository).migrarReservas(eq(TipoDocumento.DNI), eq(oldDoc), any(), any(), any(), any(), any());
-        verify(estadiaHuespedRepository).migrarHistorialEstadias(eq(TipoDocumento.DNI.name()), eq(oldDoc), any(), any());
+        assertSame(trabajo, resultado);
+        // The target is updated right away...
+        verify(huespedRepository).save(targetHuesped);
+        // ...but the history migration and the deletion run in the background job
+        verify(reservaRepository, never()).migrarReservas(any(), any(), any(), any(), any(), any(), any());
+        verify(estadiaHuespedRepository, never()).migrarHistorialEstadias(any(), any(), any(), any());
+        verify(huespedRepository, never()).borrarObligatorio(any(), any());
+    }
+
+    @Test
+    @DisplayName("CU10 - Modify: Should be rejected while the guest is being merged")
+    void modificarHuesped_FusionEnCurso() {
+        // ARRANGE
+        when(huespedRepository.findById(new HuespedId(TipoDocumento.DNI, "100")))
+                .thenReturn(Optional.of(new Huesped()));
+        doThrow(new IllegalStateException("fusión en curso"))
+                .when(fusionHuespedes).verificarSinFusionActiva(TipoDocumento.DNI, "100");
 
-        // Verify deletion of old guest
-        verify(huespedRepository).borrarObligatorio(TipoDocumento.DNI.name(), oldDoc);
+        // ACT & ASSERT
+        assertThrows(IllegalStateException.class,
+                () -> huespedService.modificarHuesped(TipoDocumento.DNI.name(), "100", createValidDto("100")));
+        verify(huespedRepository, never()).save(any());
     }
 
     // ============================================================================================
@@ -307,6 +367,15 @@ class HuespedServiceTest {
     }
 
     // --- HELPER ---
+    private Huesped createGuest(String apellido, String doc) {
+        Huesped h = new Huesped();
+        h.setApellido(apellido);
+        h.setNombres("JUAN");
+        h.setTipoDocumento(TipoDocumento.DNI);
+        h.setNroDocumento(doc);
+        return h;
+    }
+
     private DtoHuesped createValidDto(String doc) {
         DtoHuesped dto = new DtoHuesped();
         dto.setTipoDocumento(TipoDocumento.DNI);
@@ -0,0 +1,215 @@
+package Facultad.pruebas.Services;
+
+import Facultad.TrabajoPracticoDesarrollo.DTOs.DtoReporteImportacion;
+import Facultad.TrabajoPracticoDesarrollo.Dominio.Huesped;
+import Facultad.TrabajoPracticoDesarrollo.Repositories.HuespedRepository;
+import Facultad.TrabajoPracticoDesarrollo.Services.FiltrosExistencia;
+import Facultad.TrabajoPracticoDesarrollo.Services.HuespedService;
+import Facultad.TrabajoPracticoDesarrollo.Services.ImportadorHuespedes;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para {@link ImportadorHuespedes} (importación masiva de huéspedes).
+ * <p>
+ * Verifica la lectura NDJSON y CSV, que las reglas de validación sean las mismas que en el
+ * alta individual, el guardado por lotes y que el reporte de errores tenga un tope.
+ */
+@ExtendWith(MockitoExtension.class)
+class ImportadorHuespedesTest {
+
+    private static final Validator VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Mock
+    private HuespedRepository huespedRepository;
+
+    @Mock
+    private HuespedService huespedService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private FiltrosExistencia filtrosExistencia;
+
+    private ImportadorHuespedes importador;
+
+    @BeforeEach
+    void setUp() {
+        importador = crearImportador(2, 1000);
+    }
+
+    /**
+     * <b>Caso de Prueba: NDJSON con filas válidas e inválidas</b>
+     * <p>
+     * Las válidas se guardan de a lotes (tamaño 2) y las inválidas se informan con su número de línea.
+     */
+    @Test
+    @DisplayName("Importación - NDJSON: guarda las válidas por lotes e informa las inválidas por fila")
+    void importar_Ndjson_LotesYErrores() throws Exception {
+        // ARRANGE
+        when(huespedService.validarDatosHuesped(any())).thenReturn(List.of());
+        String archivo = String.join("\n",
+                huespedJson("11111111", "PEREZ"),
+                huespedJson("22222222", "GOMEZ"),
+                huespedJson("33333333", "1NVALIDO"),   // apellido con números
+                "{ esto no es json",
+                huespedJson("44444444", "LOPEZ"));
+
+        // ACT
+        DtoReporteImportacion reporte = importador.importar(entrada(archivo), ImportadorHuespedes.Formato.NDJSON);
+
+        // ASSERT
+        assertEquals(5, reporte.getFilasLeidas());
+        assertEquals(3, reporte.getImportadas());
+        assertEquals(2, reporte.getFilasConError());
+        assertEquals(3, reporte.getErrores().get(0).getFila());
+        assertEquals("DNI 33333333", reporte.getErrores().get(0).getDocumento());
+        assertTrue(reporte.getErrores().get(0).getErrores().get(0).startsWith("apellido"));
+        assertEquals(4, reporte.getErrores().get(1).getFila());
+        assertTrue(reporte.getErrores().get(1).getErrores().get(0).startsWith("Formato inválido"));
+
+        // Dos lotes: [11111111, 22222222] y [44444444]
+        verify(huespedRepository, times(1)).upsertEnLote(argThat(l -> l.size() == 2));
+        verify(huespedRepository, times(1)).upsertEnLote(argThat(l -> l.size() == 1));
+    }
+
+    /**
+     * <b>Caso de Prueba: CSV con encabezado</b>
+     * <p>
+     * Las columnas de dirección arman la dirección y las listas se separan con "|".
+     */
+    @Test
+    @DisplayName("Importación - CSV: mapea columnas de dirección y listas")
+    @SuppressWarnings("unchecked")
+    void importar_Csv() throws Exception {
+        // ARRANGE
+        when(huespedService.validarDatosHuesped(any())).thenReturn(List.of());
+        String archivo = "tipoDocumento,nroDocumento,apellido,nombres,fechaNacimiento,nacionalidad,posicionIva,telefono,email,calle,numero,codPostal,localidad,provincia,pais\n"
+                + "DNI,11111111,PÉREZ,JOSÉ,1990-05-10,ARGENTINA,CONSUMIDOR_FINAL,3424000000|3425000000,jose@mail.com,\"SAN MARTIN, 2\",123,3000,SANTA FE,SANTA FE,ARGENTINA\n";
+
+        // ACT
+        DtoReporteImportacion reporte = importador.importar(entrada(archivo), ImportadorHuespedes.Formato.CSV);
+
+        // ASSERT
+        assertEquals(1, reporte.getImportadas(), () -> reporte.getErrores().toString());
+        ArgumentCaptor<List<Huesped>> lote = ArgumentCaptor.forClass(List.class);
+        verify(huespedRepository).upsertEnLote(lote.capture());
+        Huesped h = lote.getValue().get(0);
+        assertEquals("PÉREZ", h.getApellido());
+        assertEquals(List.of(3424000000L, 3425000000L), h.getTelefono());
+        assertEquals("SAN MARTIN, 2", h.getDireccion().getCalle());
+        assertEquals(3000, h.getDireccion().getCodPostal());
+    }
+
+    /**
+     * <b>Caso de Prueba: Mismo huésped dos veces</b>
+     * <p>
+     * Si un documento se repite dentro del lote, el lote se guarda antes de agregarlo
+     * (gana la última versión y el batch no choca consigo mismo).
+     */
+    @Test
+    @DisplayName("Importación - Documento repetido: se guarda en lotes separados")
+    void importar_DocumentoRepetido() throws Exception {
+        // ARRANGE
+        importador = crearImportador(10, 1000);
+        when(huespedService.validarDatosHuesped(any())).thenReturn(List.of());
+        String archivo = huespedJson("11111111", "PEREZ") + "\n" + huespedJson("11111111", "PERES");
+
+        // ACT
+        DtoReporteImportacion reporte = importador.importar(entrada(archivo), ImportadorHuespedes.Formato.NDJSON);
+
+        // ASSERT
+        assertEquals(2, reporte.getImportadas());
+        verify(huespedRepository, times(2)).upsertEnLote(argThat(l -> l.size() == 1));
+    }
+
+    /**
+     * <b>Caso de Prueba: Tope del reporte</b>
+     * <p>
+     * Los errores se cuentan todos pero solo se detallan los primeros, para que la memoria no
+     * crezca con el archivo.
+     */
+    @Test
+    @DisplayName("Importación - Reporte: detalla como máximo max-errores filas")
+    void importar_TopeDeErrores() throws Exception {
+        // ARRANGE
+        importador = crearImportador(2, 1);
+        String archivo = "{}\n{}\n{}\n";
+
+        // ACT
+        DtoReporteImportacion reporte = importador.importar(entrada(archivo), ImportadorHuespedes.Formato.NDJSON);
+
+        // ASSERT
+        assertEquals(3, reporte.getFilasConError());
+        assertEquals(1, reporte.getErrores().size());
+        assertTrue(reporte.isErroresTruncados());
+        verify(huespedRepository, never()).upsertEnLote(anyList());
+    }
+
+    /**
+     * <b>Caso de Prueba: Falla de la base en un lote</b>
+     * <p>
+     * Si el lote no se puede guardar, sus filas se informan como error y se sigue con el siguiente.
+     */
+    @Test
+    @DisplayName("Importación - Falla de BD: las filas del lote se informan y se continúa")
+    void importar_FallaDeLote() throws Exception {
+        // ARRANGE
+        when(huespedService.validarDatosHuesped(any())).thenReturn(List.of());
+        doThrow(new DataIntegrityViolationException("valor demasiado largo"))
+                .doNothing()
+                .when(huespedRepository).upsertEnLote(anyList());
+        String archivo = String.join("\n",
+                huespedJson("11111111", "PEREZ"), huespedJson("22222222", "GOMEZ"), huespedJson("33333333", "LOPEZ"));
+
+        // ACT
+        DtoReporteImportacion reporte = importador.importar(entrada(archivo), ImportadorHuespedes.Formato.NDJSON);
+
+        // ASSERT
+        assertEquals(1, reporte.getImportadas());
+        assertEquals(2, reporte.getFilasConError());
+        assertEquals(List.of(1, 2), reporte.getErrores().stream().map(e -> e.getFila()).toList());
+    }
+
+    // ============================================================================================
+    // MÉTODOS AUXILIARES
+    // ============================================================================================
+
+    private ImportadorHuespedes crearImportador(int tamanioLote, int maxErrores) {
+        return new ImportadorHuespedes(huespedRepository, huespedService, filtrosExistencia, VALIDATOR, new ObjectMapper(),
+                transactionManager, tamanioLote, maxErrores);
+    }
+
+    private static InputStream entrada(String contenido) {
+        return new ByteArrayInputStream(contenido.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String huespedJson(String dni, String apellido) {
+        return "{\"tipoDocumento\":\"DNI\",\"nroDocumento\":\"" + dni + "\",\"apellido\":\"" + apellido + "\","
+                + "\"nombres\":\"JUAN\",\"fechaNacimiento\":\"1990-05-10\",\"nacionalidad\":\"ARGENTINA\","
+                + "\"posicionIva\":\"CONSUMIDOR_FINAL\",\"telefono\":[3424000000],"
+                + "\"dtoDireccion\":{\"calle\":\"SAN MARTIN\",\"numero\":123,\"codPostal\":3000,"
+                + "\"localidad\":\"SANTA FE\",\"provincia\":\"SANTA FE\",\"pais\":\"ARGENTINA\"}}";
+    }
+}
@@ -0,0 +1,121 @@
+package Facultad.pruebas.Services;
+
+import Facultad.TrabajoPracticoDesarrollo.DTOs.DtoMetricasInventario;
+import Facultad.TrabajoPracticoDesarrollo.Dominio.Cama;
+import Facultad.TrabajoPracticoDesarrollo.Dominio.Habitacion;
+import Facultad.TrabajoPracticoDesarrollo.Repositories.HabitacionRepository;
+import Facultad.TrabajoPracticoDesarrollo.Services.InventarioHabitaciones;
+import Facultad.TrabajoPracticoDesarrollo.Utils.Inventario.HabitacionCatalogo;
+import Facultad.TrabajoPracticoDesarrollo.enums.EstadoHabitacion;
+import Facultad.TrabajoPracticoDesarrollo.enums.TipoCama;
+import Facultad.TrabajoPracticoDesarrollo.enums.TipoHabitacion;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Clase de pruebas unitarias para {@link InventarioHabitaciones}.
+ * <p>
+ * Verifica que el catálogo de habitaciones se lea una sola vez, se entregue ordenado e
+ * inmutable, y que sólo se vuelva a leer al invalidarlo o recargarlo.
+ */
+@ExtendWith(MockitoExtension.class)
+class InventarioHabitacionesTest {
+
+    @Mock
+    private HabitacionRepository habitacionRepository;
+
+    @InjectMocks
+    private InventarioHabitaciones inventarioHabitaciones;
+
+    @Test
+    @DisplayName("Inventario: Lee una sola vez y entrega la foto ordenada por tipo y número")
+    void obtenerTodas_LeeUnaVezYOrdena() {
+        // ARRANGE
+        when(habitacionRepository.findAll()).thenReturn(List.of(
+                crearHabitacion("202", TipoHabitacion.SUITE_DOBLE),
+                crearHabitacion("102", TipoHabitacion.INDIVIDUAL_ESTANDAR),
+                crearHabitacion("101", TipoHabitacion.INDIVIDUAL_ESTANDAR)));
+
+        // ACT
+        List<HabitacionCatalogo> primera = inventarioHabitaciones.obtenerTodas();
+        List<HabitacionCatalogo> segunda = inventarioHabitaciones.obtenerTodas();
+
+        // ASSERT
+        assertEquals(List.of("101", "102", "202"), primera.stream().map(HabitacionCatalogo::getNumero).toList());
+        assertSame(primera, segunda);
+        assertThrows(UnsupportedOperationException.class, () -> primera.add(primera.get(0)));
+        verify(habitacionRepository, times(1)).findAll();
+
+        DtoMetricasInventario metricas = inventarioHabitaciones.obtenerMetricas();
+        assertEquals(1, metricas.getFallos());
+        assertEquals(1, metricas.getAciertos());
+        assertEquals(1, metricas.getRecargas());
+        assertEquals(3, metricas.getHabitaciones());
+    }
+
+    @Test
+    @DisplayName("Inventario: La foto no cambia aunque se modifique la entidad leída")
+    void obtenerTodas_FotoIndependienteDeLaEntidad() {
+        // ARRANGE
+        Habitacion entidad = crearHabitacion("101", TipoHabitacion.INDIVIDUAL_ESTANDAR);
+        when(habitacionRepository.findAll()).thenReturn(List.of(entidad));
+        HabitacionCatalogo enFoto = inventarioHabitaciones.buscar("101").orElseThrow();
+
+        // ACT
+        entidad.setEstadoHabitacion(EstadoHabitacion.FUERA_DE_SERVICIO);
+        entidad.setCostoPorNoche(1.00F);
+
+        // ASSERT
+        assertEquals(EstadoHabitacion.HABILITADA, inventarioHabitaciones.buscar("101").orElseThrow().getEstadoHabitacion());
+        assertEquals(1000.00F, enFoto.getCostoPorNoche());
+    }
+
+    @Test
+    @DisplayName("Inventario: Al recargar se vuelve a leer el catálogo y cambia la versión")
+    void recargar_VuelveALeer() {
+        // ARRANGE
+        when(habitacionRepository.findAll())
+                .thenReturn(List.of(crearHabitacion("101", TipoHabitacion.INDIVIDUAL_ESTANDAR)))
+                .thenReturn(List.of(crearHabitacion("101", TipoHabitacion.INDIVIDUAL_ESTANDAR),
+                        crearHabitacion("102", TipoHabitacion.INDIVIDUAL_ESTANDAR)));
+        assertTrue(inventarioHabitaciones.buscar("102").isEmpty());
+        long versionAnterior = inventarioHabitaciones.getVersion();
+
+        // ACT
+        inventarioHabitaciones.recargar();
+
+        // ASSERT
+        assertTrue(inventarioHabitaciones.getVersion() > versionAnterior);
+        assertTrue(inventarioHabitaciones.buscar("102").isPresent());
+        verify(habitacionRepository, times(2)).findAll();
+        assertEquals(2, inventarioHabitaciones.obtenerMetricas().getRecargas());
+    }
+
+    // ============================================================================================
+    // HELPERS
+    // ============================================================================================
+
+    private Habitacion crearHabitacion(String numero, TipoHabitacion tipo) {
+        Habitacion h = new Habitacion();
+        h.setNumero(numero);
+        h.setTipoHabitacion(tipo);
+        h.setEstadoHabitacion(EstadoHabitacion.HABILITADA);
+        h.setCapacidad(2);
+        h.setCostoPorNoche(1000.00F);
+        Cama cama = new Cama();
+        cama.setTipoCama(TipoCama.values()[0]);
+        cama.setHabitacion(h);
+        h.setCamas(new ArrayList<>(List.of(cama)));
+        return h;
+    }
+}
@@ -0,0 +1,311 @@
+package Facultad.pruebas.Services;
+
+import Facultad.TrabajoPracticoDesarrollo.Config.FacturacionProperties;
+import Facultad.TrabajoPracticoDesarrollo.Config.PoolNumerador;
+import Facultad.TrabajoPracticoDesarrollo.Repositories.NumeradorFacturaRepository;
+import Facultad.TrabajoPracticoDesarrollo.Services.NumeradorFacturas;
+import Facultad.TrabajoPracticoDesarrollo.enums.TipoFactura;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para {@link NumeradorFacturas} (numeración de facturas por bloques).
+ * <p>
+ * La fila de {@code numerador_factura} se simula con un contador atómico, igual que el
+ * {@code UPDATE ... RETURNING} de la base: cada reserva de bloque es indivisible.
+ */
+@ExtendWith(MockitoExtension.class)
+class NumeradorFacturasTest {
+
+    @Mock
+    private NumeradorFacturaRepository numeradorRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private PoolNumerador poolNumerador;
+
+    @AfterEach
+    void limpiarSincronizacion() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    /**
+     * <b>Caso de Prueba: Números correlativos por bloques</b>
+     * <p>
+     * Con bloques de 3 se va a la base una vez cada 3 facturas y los números siguen la serie
+     * desde la última factura existente.
+     */
+    @Test
+    @DisplayName("Numerador - Entrega correlativos y reserva un bloque cada N números")
+    void siguiente_CorrelativosPorBloque() {
+        // ARRANGE: la última factura B emitida fue la 0005-00000020
+        AtomicLong fila = new AtomicLong(20);
+        when(numeradorRepository.reservarBloque(eq("0005"), eq(TipoFactura.B), anyInt()))
+                .thenAnswer(inv -> fila.addAndGet(inv.getArgument(2, Integer.class)));
+        NumeradorFacturas numerador = new NumeradorFacturas(numeradorRepository, transactionManager, 3);
+
+        // ACT
+        List<String> numeros = new ArrayList<>();
+        for (int i = 0; i < 7; i++) numeros.add(numerador.siguiente("0005", TipoFactura.B));
+
+        // ASSERT
+        assertEquals(List.of("B-0005-00000021", "B-0005-00000022", "B-0005-00000023", "B-0005-00000024",
+                "B-0005-00000025", "B-0005-00000026", "B-0005-00000027"), numeros);
+        verify(numeradorRepository, times(3)).reservarBloque("0005", TipoFactura.B, 3);
+    }
+
+    /**
+     * <b>Caso de Prueba: Series independientes</b>
+     * <p>
+     * Cada punto de venta numera cada tipo de factura por separado: emitir en una serie no
+     * consume números de las otras.
+     */
+    @Test
+    @DisplayName("Numerador - Cada punto de venta y tipo de factura tiene su propia serie")
+    void siguiente_SeriesIndependientes() {
+        // ARRANGE
+        when(numeradorRepository.reservarBloque("0005", TipoFactura.A, 10)).thenReturn(10L);
+        when(numeradorRepository.reservarBloque("0005", TipoFactura.B, 10)).thenReturn(110L);
+        when(numeradorRepository.reservarBloque("0010", TipoFactura.B, 10)).thenReturn(10L);
+        NumeradorFacturas numerador = new NumeradorFacturas(numeradorRepository, transactionManager, 10);
+
+        // ACT & ASSERT
+        assertEquals("A-0005-00000001", numerador.siguiente("0005", TipoFactura.A));
+        assertEquals("B-0005-00000101", numerador.siguiente("0005", TipoFactura.B));
+        assertEquals("B-0010-00000001", numerador.siguiente("0010", TipoFactura.B));
+        assertEquals("A-0005-00000002", numerador.siguiente("0005", TipoFactura.A));
+        assertEquals("B-0010-00000002", numerador.siguiente("0010", TipoFactura.B));
+    }
+
+    /**
+     * <b>Caso de Prueba: Orden estricto por defecto</b>
+     * <p>
+     * Con la configuración de los puntos de venta, solo los que pueden numerar en bloques
+     * reservan varios números de una vez; los demás reservan cada número al emitir.
+     */
+    @Test
+    @DisplayName("Numerador - Los puntos de venta numeran de a uno salvo los habilitados en bloque")
+    void siguiente_OrdenEstrictoSalvoPuntosVentaEnBloque() {
+        // ARRANGE
+        FacturacionProperties propiedades = new FacturacionProperties();
+        propiedades.setPuntosVenta(Map.of("0005", "Recepción", "0010", "Restaurante"));
+        propiedades.setTamanioBloque(20);
+        propiedades.setPuntosVentaEnBloque(Set.of("0010"));
+        when(poolNumerador.getTransactionManager()).thenReturn(transactionManager);
+        when(numeradorRepository.reservarBloque("0005", TipoFactura.B, 1)).thenReturn(1L, 2L);
+        when(numeradorRepository.reservarBloque("0010", TipoFactura.B, 20)).thenReturn(20L);
+        NumeradorFacturas numerador = new NumeradorFacturas(numeradorRepository, poolNumerador, propiedades);
+
+        // ACT & ASSERT
+        assertEquals("B-0005-00000001", numerador.siguiente("0005", TipoFactura.B));
+        assertEquals("B-0005-00000002", numerador.siguiente("0005", TipoFactura.B));
+        assertEquals("B-0010-00000001", numerador.siguiente("0010", TipoFactura.B));
+        assertEquals("B-0010-00000002", numerador.siguiente("0010", TipoFactura.B));
+        verify(numeradorRepository, times(2)).reservarBloque("0005", TipoFactura.B, 1);
+        verify(numeradorRepository, times(1)).reservarBloque("0010", TipoFactura.B, 20);
+    }
+
+    /**
+     * <b>Caso de Prueba: Bloques sin puntos de venta habilitados</b>
+     * <p>
+     * Un tamaño de bloque mayor a 1 sin ningún punto de venta que pueda numerar en bloques
+     * rompería el orden estricto: el numerador no se crea y la aplicación no arranca.
+     */
+    @Test
+    @DisplayName("Numerador - Bloques mayores a 1 sin puntos de venta en bloque fallan al iniciar")
+    void constructor_BloqueConOrdenEstricto_Falla() {
+        // ARRANGE
+        FacturacionProperties propiedades = new FacturacionProperties();
+        propiedades.setTamanioBloque(20);
+
+        // ACT & ASSERT
+        assertThrows(IllegalStateException.class,
+                () -> new NumeradorFacturas(numeradorRepository, poolNumerador, propiedades));
+
+        propiedades.setPuntosVentaEnBloque(Set.of("0099"));
+        assertThrows(IllegalStateException.class,
+                () -> new NumeradorFacturas(numeradorRepository, poolNumerador, propiedades));
+    }
+
+    /**
+     * <b>Caso de Prueba: Rollback de la factura</b>
+     * <p>
+     * Si la transacción que pidió el número hace rollback, ese número es el próximo en salir.
+     */
+    @Test
+    @DisplayName("Numerador - Un número de una transacción revertida se reutiliza")
+    void siguiente_RollbackDevuelveElNumero() {
+        // ARRANGE
+        when(numeradorRepository.reservarBloque("0005", TipoFactura.B, 10)).thenReturn(10L);
+        NumeradorFacturas numerador = new NumeradorFacturas(numeradorRepository, transactionManager, 10);
+
+        // ACT: la primera factura falla y se revierte
+        TransactionSynchronizationManager.initSynchronization();
+        String revertido = numerador.siguiente("0005", TipoFactura.B);
+        for (TransactionSynchronization s : TransactionSynchronizationManager.getSynchronizations()) {
+            s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+        TransactionSynchronizationManager.clearSynchronization();
+
+        String siguiente = numerador.siguiente("0005", TipoFactura.B);
+        String otro = numerador.siguiente("0005", TipoFactura.B);
+
+        // ASSERT
+        assertEquals("B-0005-00000001", revertido);
+        assertEquals("B-0005-00000001", siguiente);
+        assertEquals("B-0005-00000002", otro);
+    }
+
+    /**
+     * <b>Caso de Prueba: Apagado con bloque a medio usar</b>
+     * <p>
+     * La cola sin usar del bloque se devuelve a la base para que no quede un hueco.
+     */
+    @Test
+    @DisplayName("Numerador - Al apagar devuelve la parte sin usar del bloque")
+    void liberarSobrantes_DevuelveLaCola() {
+        // ARRANGE
+        when(numeradorRepository.reservarBloque("0005", TipoFactura.B, 10)).thenReturn(10L);
+        NumeradorFacturas numerador = new NumeradorFacturas(numeradorRepository, transactionManager, 10);
+        numerador.siguiente("0005", TipoFactura.B);
+        numerador.siguiente("0005", TipoFactura.B);
+
+        // ACT
+        numerador.liberarSobrantes();
+
+        // ASSERT: se usaron 1 y 2, el bloque llegaba hasta 10
+        verify(numeradorRepository).devolverSobrante("0005", TipoFactura.B, 10, 2);
+    }
+
+    /**
+     * <b>Caso de Prueba: Reserva fuera del lock de la serie</b>
+     * <p>
+     * Mientras un hilo espera la reserva de un bloque, una factura revertida devuelve su número
+     * y otro pedido de la misma serie lo recibe sin esperar a que la reserva termine.
+     */
+    @Test
+    @DisplayName("Numerador - Un número devuelto se entrega mientras otro hilo reserva un bloque")
+    void siguiente_DevueltoMientrasOtroHiloReserva() throws Exception {
+        // ARRANGE: bloques de 1; la segunda reserva queda trabada hasta que se la libere
+        CountDownLatch enReserva = new CountDownLatch(1);
+        CountDownLatch liberarReserva = new CountDownLatch(1);
+        when(numeradorRepository.reservarBloque("0005", TipoFactura.B, 1))
+                .thenReturn(1L)
+                .thenAnswer(inv -> {
+                    enReserva.countDown();
+                    liberarReserva.await();
+                    return 2L;
+                });
+        NumeradorFacturas numerador = new NumeradorFacturas(numeradorRepository, transactionManager, 1);
+
+        TransactionSynchronizationManager.initSynchronization();
+        String revertido = numerador.siguiente("0005", TipoFactura.B);
+        List<TransactionSynchronization> sincronizaciones = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> reservando = pool.submit(() -> numerador.siguiente("0005", TipoFactura.B));
+            assertTrue(enReserva.await(5, TimeUnit.SECONDS));
+
+            // ACT: con la reserva en curso, la primera factura hace rollback y llega otro pedido
+            Future<String> reutilizado = pool.submit(() -> {
+                for (TransactionSynchronization s : sincronizaciones) {
+                    s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+                }
+                return numerador.siguiente("0005", TipoFactura.B);
+            });
+
+            // ASSERT
+            assertEquals(revertido, reutilizado.get(5, TimeUnit.SECONDS));
+            liberarReserva.countDown();
+            assertEquals("B-0005-00000002", reservando.get(5, TimeUnit.SECONDS));
+        } finally {
+            liberarReserva.countDown();
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * <b>Caso de Prueba: Estrés con varios nodos</b>
+     * <p>
+     * Cuatro numeradores (uno por nodo) comparten la misma fila y ocho hilos por nodo piden
+     * números a la vez. No puede haber repetidos y los únicos números sin entregar son las
+     * colas de los bloques en uso. La fila es un contador en memoria, así que no mide la base.
+     * Se corre con {@code -Dbenchmark=true}.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    @DisplayName("Numerador - Estrés: varios nodos y hilos sin números repetidos")
+    void siguiente_ConcurrenteSinRepetidos() throws Exception {
+        // ARRANGE
+        final int nodos = 4, hilosPorNodo = 8, porHilo = 5_000, bloque = 50;
+        AtomicLong fila = new AtomicLong();
+        when(numeradorRepository.reservarBloque(eq("0005"), eq(TipoFactura.B), anyInt()))
+                .thenAnswer(inv -> fila.addAndGet(inv.getArgument(2, Integer.class)));
+        List<NumeradorFacturas> numeradores = new ArrayList<>();
+        for (int n = 0; n < nodos; n++) {
+            numeradores.add(new NumeradorFacturas(numeradorRepository, transactionManager, bloque));
+        }
+
+        Set<String> entregados = ConcurrentHashMap.newKeySet();
+        ExecutorService pool = Executors.newFixedThreadPool(nodos * hilosPorNodo);
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<Integer>> futuros = new ArrayList<>();
+        for (NumeradorFacturas numerador : numeradores) {
+            for (int h = 0; h < hilosPorNodo; h++) {
+                futuros.add(pool.submit(() -> {
+                    largada.await();
+                    int repetidos = 0;
+                    for (int i = 0; i < porHilo; i++) {
+                        if (!entregados.add(numerador.siguiente("0005", TipoFactura.B))) repetidos++;
+                    }
+                    return repetidos;
+                }));
+            }
+        }
+
+        // ACT
+        largada.countDown();
+        int repetidos = 0;
+        for (Future<Integer> f : futuros) repetidos += f.get();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        // ASSERT
+        int total = nodos * hilosPorNodo * porHilo;
+        assertEquals(0, repetidos);
+        assertEquals(total, entregados.size());
+        // Lo reservado y no entregado son, como mucho, las colas de un bloque por nodo
+        assertTrue(fila.get() - total < (long) nodos * bloque);
+    }
+}
@@ -3,7 +3,10 @@ package Facultad.pruebas.Services;
 import Facultad.TrabajoPracticoDesarrollo.DTOs.*;
 import Facultad.TrabajoPracticoDesarrollo.Dominio.*;
 import Facultad.TrabajoPracticoDesarrollo.Repositories.*;
+import Facultad.TrabajoPracticoDesarrollo.Services.FiltrosExistencia;
+import Facultad.TrabajoPracticoDesarrollo.Services.InventarioHabitaciones;
 import Facultad.TrabajoPracticoDesarrollo.Services.PagoService;
+import Facultad.TrabajoPracticoDesarrollo.Utils.Inventario.HabitacionCatalogo;
 import Facultad.TrabajoPracticoDesarrollo.enums.EstadoFactura;
 import Facultad.TrabajoPracticoDesarrollo.enums.Moneda;
 import org.junit.jupiter.api.DisplayName;
@@ -32,7 +35,7 @@ import static org.mockito.Mockito.*;
  * <li><b>CU16:</b> Ingresar Pago.</li>
  * </ul>
  * Verifica:
- * 1. Búsqueda de facturas pendientes (filtrando las ya pagadas).
+ * 1. Búsqueda de facturas pendientes por habitación (una sola consulta).
  * 2. Validación de montos (Pago insuficiente, Pago con vuelto).
  * 3. Conversión de divisas (Cotización).
  * 4. Actualización de estado de Factura.
@@ -43,10 +46,10 @@ class PagoServiceTest {
     @Mock private FacturaRepository facturaRepository;
     @Mock private PagoRepository pagoRepository;
     @Mock private MedioDePagoRepository medioDePagoRepository;
-    @Mock private EstadiaRepository estadiaRepository;
-    @Mock private HabitacionRepository habitacionRepository;
+    @Mock private InventarioHabitaciones inventarioHabitaciones;
     @Mock private TarjetaRepository tarjetaRepository;
     @Mock private ChequeRepository chequeRepository;
+    @Mock private FiltrosExistencia filtrosExistencia;
     // FacturaService se inyecta pero no se usa en los métodos principales testados aquí
 
     @InjectMocks
@@ -57,7 +60,7 @@ class PagoServiceTest {
     // ============================================================================================
 
     @Test
-    @DisplayName("CU16 - Búsqueda: Debe retornar solo las facturas con estado PENDIENTE")
+    @DisplayName("CU16 - Búsqueda: Debe retornar las facturas PENDIENTE de la habitación en una sola consulta")
     void buscarFacturasPendientes_Exito() {
         // ARRANGE
         String nroHabitacion = "101";
@@ -65,26 +68,13 @@ class PagoServiceTest {
         // 1. Mock Habitación
         Habitacion habitacion = new Habitacion();
         habitacion.setNumero(nroHabitacion);
-        when(habitacionRepository.findById(nroHabitacion)).thenReturn(Optional.of(habitacion));
+        when(inventarioHabitaciones.buscar(nroHabitacion)).thenReturn(Optional.of(HabitacionCatalogo.de(habitacion)));
 
-        // 2. Mock Estadía
-        Estadia estadia = new Estadia();
-        estadia.setIdEstadia(1);
-        when(estadiaRepository.findByHabitacion_Numero(nroHabitacion)).thenReturn(List.of(estadia));
-
-        // 3. Mock Facturas: Una PAGADA (no debe volver) y una PENDIENTE (sí debe volver)
-        Factura facturaPagada = new Factura();
-        facturaPagada.setEstadoFactura(EstadoFactura.PAGADA);
-
-        Factura facturaPendiente = new Factura();
-        facturaPendiente.setEstadoFactura(EstadoFactura.PENDIENTE);
-        facturaPendiente.setNumeroFactura("A-0001");
-        facturaPendiente.setImporteTotal(5000.0);
-        // Datos necesarios para el mapper
-        facturaPendiente.setEstadia(estadia);
-        facturaPendiente.setFechaEmision(Date.from(LocalDate.now().atStartOfDay(ZoneId.systemDefault()).toInstant()));
-
-        when(facturaRepository.findByEstadia_IdEstadia(1)).thenReturn(List.of(facturaPagada, facturaPendiente));
+        // 2. Mock Facturas: la consulta ya filtra por estado y arma los DTO
+        Date emision = Date.from(LocalDate.now().atStartOfDay(ZoneId.systemDefault()).toInstant());
+        DtoFactura pendiente = new DtoFactura("A-0001", emision, emision, EstadoFactura.PENDIENTE, null,
+                5000.0, null, null, 1, 3, null, null);
+        when(facturaRepository.buscarPendientesPorHabitacion(nroHabitacion)).thenReturn(List.of(pendiente));
 
         // ACT
         List<DtoFactura> resultado = pagoService.buscarFacturasPendientesPorHabitacion(nroHabitacion);
@@ -92,12 +82,31 @@ class PagoServiceTest {
         // ASSERT
         assertEquals(1, resultado.size());
         assertEquals("A-0001", resultado.get(0).getNumeroFactura());
+        assertEquals(1, resultado.get(0).getIdEstadia().getIdEstadia());
+        assertEquals(3, resultado.get(0).getIdResponsable().getIdResponsable());
+        assertNull(resultado.get(0).getDtoNotaDeCredito());
+        // No se recorre el historial de estadías de la habitación
+        verify(facturaRepository, never()).findByEstadia_IdEstadia(any());
+    }
+
+    @Test
+    @DisplayName("CU16 - Búsqueda: Debe lanzar error si la habitación no tiene facturas pendientes")
+    void buscarFacturasPendientes_SinPendientes() {
+        Habitacion habitacion = new Habitacion();
+        habitacion.setNumero("101");
+        when(inventarioHabitaciones.buscar("101")).thenReturn(Optional.of(HabitacionCatalogo.de(habitacion)));
+        when(facturaRepository.buscarPendientesPorHabitacion("101")).thenReturn(List.of());
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () ->
+                pagoService.buscarFacturasPendientesPorHabitacion("101")
+        );
+        assertEquals("No existen facturas pendientes de pago", ex.getMessage());
     }
 
     @Test
     @DisplayName("CU16 - Búsqueda: Debe lanzar error si la habitación no existe")
     void buscarFacturasPendientes_HabitacionInexistente() {
-        when(habitacionRepository.findById("999")).thenReturn(Optional.empty());
+        when(inventarioHabitaciones.buscar("999")).thenReturn(Optional.empty());
 
         assertThrows(IllegalArgumentException.class, () ->
                 pagoService.buscarFacturasPendientesPorHabitacion("999")
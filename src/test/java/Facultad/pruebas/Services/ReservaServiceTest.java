@@ -1,29 +1,38 @@
 package Facultad.pruebas.Services;
 
 import Facultad.TrabajoPracticoDesarrollo.DTOs.DtoReserva;
-import Facultad.TrabajoPracticoDesarrollo.Dominio.Estadia;
+import Facultad.TrabajoPracticoDesarrollo.DTOs.DtoReservaCancelable;
+import Facultad.TrabajoPracticoDesarrollo.DTOs.DtoResultadoCancelacion;
 import Facultad.TrabajoPracticoDesarrollo.Dominio.Habitacion;
 import Facultad.TrabajoPracticoDesarrollo.Dominio.Reserva;
-import Facultad.TrabajoPracticoDesarrollo.Repositories.EstadiaRepository;
+import Facultad.TrabajoPracticoDesarrollo.Eventos.CambioOcupacionEvento;
+import Facultad.TrabajoPracticoDesarrollo.Excepciones.ReservaSuperpuestaException;
 import Facultad.TrabajoPracticoDesarrollo.Repositories.ReservaRepository;
+import Facultad.TrabajoPracticoDesarrollo.Services.CalendarioDisponibilidad;
 import Facultad.TrabajoPracticoDesarrollo.Services.ReservaService;
 import Facultad.TrabajoPracticoDesarrollo.enums.EstadoReserva;
 import Facultad.TrabajoPracticoDesarrollo.enums.TipoDocumento;
 import Facultad.TrabajoPracticoDesarrollo.enums.TipoHabitacion;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 
+import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 /**
@@ -43,7 +52,10 @@ class ReservaServiceTest {
     private ReservaRepository reservaRepository;
 
     @Mock
-    private EstadiaRepository estadiaRepository;
+    private CalendarioDisponibilidad calendarioDisponibilidad;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
 
     @InjectMocks
     private ReservaService reservaService;
@@ -64,15 +76,17 @@ class ReservaServiceTest {
         // ARRANGE: Preparamos un DTO válido y simulamos que la habitación está libre
         DtoReserva dto = crearDtoValido();
 
-        // Mock: Cuando el repo busque conflictos, devuelve 'false' (no hay nadie ocupando)
-        when(reservaRepository.existeReservaEnFecha(anyString(), any(Date.class), any(Date.class)))
-                .thenReturn(false);
+        // Mock: Cuando el repo busque conflictos, no encuentra ninguno (nadie ocupando)
+        when(reservaRepository.buscarSolapamientos(anyList())).thenReturn(List.of());
 
         // ACT: Ejecutamos el método del servicio
         reservaService.crearReservas(List.of(dto));
 
-        // ASSERT: Verificamos que se haya llamado a 'save' exactamente una vez
-        verify(reservaRepository, times(1)).save(any(Reserva.class));
+        // ASSERT: Verificamos que se haya insertado el lote exactamente una vez
+        verify(reservaRepository, times(1)).insertarEnLote(anyList());
+        verify(reservaRepository, never()).save(any(Reserva.class));
+        // El cambio se publica para que el calendario lo aplique tras el commit
+        verify(eventPublisher, times(1)).publishEvent(any(CambioOcupacionEvento.class));
     }
 
     /**
@@ -87,9 +101,8 @@ class ReservaServiceTest {
         // ARRANGE: DTO válido
         DtoReserva dto = crearDtoValido();
 
-        // Mock: Simulamos que el repositorio encuentra un conflicto (devuelve 'true')
-        when(reservaRepository.existeReservaEnFecha(anyString(), any(Date.class), any(Date.class)))
-                .thenReturn(true);
+        // Mock: Simulamos que el repositorio encuentra un conflicto en la primera reserva pedida
+        when(reservaRepository.buscarSolapamientos(anyList())).thenReturn(List.of(0));
 
         // ACT & ASSERT: Esperamos que lance una excepción genérica (según tu código actual)
         Exception exception = assertThrows(Exception.class, () -> {
@@ -100,9 +113,102 @@ class ReservaServiceTest {
         assertTrue(exception.getMessage().contains("ya está reservada"));
 
         // Verificación clave: Aseguramos que NUNCA se intentó guardar en la BD
+        verify(reservaRepository, never()).insertarEnLote(anyList());
+    }
+
+    /**
+     * <b>Caso de Prueba: Reserva grupal en lote</b>
+     * <p>
+     * Sin importar el tamaño del grupo, se hace una sola validación contra la BD y un solo
+     * insert en lote (antes eran una consulta y un save por habitación).
+     */
+    @Test
+    @DisplayName("CU04 - Grupo: 20 habitaciones se validan y guardan en dos viajes a la BD")
+    void crearReservas_GrupoEnLote() throws Exception {
+        // ARRANGE
+        List<DtoReserva> grupo = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            DtoReserva dto = crearDtoValido();
+            dto.setIdHabitacion(String.valueOf(101 + i));
+            grupo.add(dto);
+        }
+        when(reservaRepository.buscarSolapamientos(anyList())).thenReturn(List.of());
+
+        // ACT
+        reservaService.crearReservas(grupo);
+
+        // ASSERT
+        verify(reservaRepository, times(1)).buscarSolapamientos(argThat(l -> l.size() == 20));
+        verify(reservaRepository, times(1)).insertarEnLote(argThat(l -> l.size() == 20));
+        verify(reservaRepository, never()).existeReservaEnFecha(any(), any(), any());
         verify(reservaRepository, never()).save(any(Reserva.class));
     }
 
+    /**
+     * <b>Caso de Prueba: Solapamiento dentro del mismo pedido</b>
+     * <p>
+     * Dos reservas del grupo para la misma habitación con fechas cruzadas se rechazan
+     * antes de consultar la BD.
+     */
+    @Test
+    @DisplayName("CU04 - Fallo: Misma habitación dos veces en el pedido con fechas superpuestas")
+    void crearReservas_Fallo_SolapamientoDentroDelPedido() {
+        // ARRANGE
+        DtoReserva primera = crearDtoValido();
+        DtoReserva segunda = crearDtoValido();
+        LocalDate cruce = LocalDate.now().plusDays(6);
+        segunda.setFechaDesde(Date.from(cruce.atStartOfDay(ZoneId.systemDefault()).toInstant()));
+        segunda.setFechaHasta(Date.from(cruce.plusDays(3).atStartOfDay(ZoneId.systemDefault()).toInstant()));
+
+        // ACT & ASSERT
+        Exception exception = assertThrows(Exception.class, () -> reservaService.crearReservas(List.of(primera, segunda)));
+        assertTrue(exception.getMessage().contains("se superponen"));
+        verifyNoInteractions(reservaRepository);
+    }
+
+    /**
+     * <b>Caso de Prueba: Reserva simultánea (carrera entre dos recepcionistas)</b>
+     * <p>
+     * La consulta previa no encuentra conflicto pero otra transacción ya insertó la misma
+     * habitación: la restricción de exclusión de la BD (SQLSTATE 23P01) rechaza el insert
+     * y el servicio lo informa como reserva superpuesta.
+     */
+    @Test
+    @DisplayName("CU04 - Fallo: La restricción de la BD rechaza una reserva simultánea de la misma habitación")
+    void crearReservas_Fallo_ReservaSimultanea() {
+        // ARRANGE
+        DtoReserva dto = crearDtoValido();
+        when(reservaRepository.buscarSolapamientos(anyList())).thenReturn(List.of());
+        SQLException exclusion = new SQLException("conflicting key value violates exclusion constraint", "23P01");
+        doThrow(new DataIntegrityViolationException("insert", exclusion))
+                .when(reservaRepository).insertarEnLote(anyList());
+
+        // ACT & ASSERT
+        ReservaSuperpuestaException exception = assertThrows(ReservaSuperpuestaException.class,
+                () -> reservaService.crearReservas(List.of(dto)));
+        assertTrue(exception.getMessage().contains("Otra reserva"));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    /**
+     * <b>Caso de Prueba: Otros errores de integridad</b>
+     * <p>
+     * Un error de integridad que no es de superposición (ej: habitación inexistente) se propaga tal cual.
+     */
+    @Test
+    @DisplayName("CU04 - Fallo: Otros errores de integridad no se informan como superposición")
+    void crearReservas_Fallo_OtroErrorDeIntegridad() {
+        // ARRANGE
+        DtoReserva dto = crearDtoValido();
+        when(reservaRepository.buscarSolapamientos(anyList())).thenReturn(List.of());
+        SQLException fk = new SQLException("violates foreign key constraint", "23503");
+        doThrow(new DataIntegrityViolationException("insert", fk))
+                .when(reservaRepository).insertarEnLote(anyList());
+
+        // ACT & ASSERT
+        assertThrows(DataIntegrityViolationException.class, () -> reservaService.crearReservas(List.of(dto)));
+    }
+
     /**
      * <b>Caso de Prueba: Validación de Fechas</b>
      * <p>
@@ -124,7 +230,7 @@ class ReservaServiceTest {
         assertEquals("La fecha de ingreso no puede ser anterior al día de hoy.", exception.getMessage());
 
         // Optimizacion: Ni siquiera debería llamar a la BD para validar disponibilidad
-        verify(reservaRepository, never()).existeReservaEnFecha(any(), any(), any());
+        verify(reservaRepository, never()).buscarSolapamientos(anyList());
     }
 
     /**
@@ -165,103 +271,154 @@ class ReservaServiceTest {
     // ============================================================================================
 
     /**
-     * <b>Caso de Prueba: Búsqueda y Mapeo de Datos</b>
+     * <b>Caso de Prueba: Búsqueda de reservas a cancelar</b>
      * <p>
-     * Este test es complejo porque verifica la integración entre Reserva y Estadía.
-     * El servicio debe devolver un Mapa con datos planos para el Frontend, incluyendo
-     * si la reserva ya se convirtió en Estadía (Check-in realizado).
+     * La búsqueda devuelve, para cada reserva, la habitación y si ya se convirtió en Estadía
+     * (Check-in realizado), tal como llegan del repositorio y con los filtros como prefijo.
+     * La cantidad de sentencias contra el esquema real la cuenta {@code ReservaCancelableConsultasTest}.
      */
     @Test
-    @DisplayName("CU06 - Búsqueda: Debería retornar datos mapeados y detectar si hay estadía asociada")
+    @DisplayName("CU06 - Búsqueda: Debería retornar reserva, habitación y estadía asociada")
     void buscarReservasPorHuesped_Exito() {
-        // ARRANGE: Preparamos datos simulados de la BD
-        Reserva reservaMock = new Reserva();
-        reservaMock.setIdReserva(1);
-        reservaMock.setApellidoHuespedResponsable("GARCIA");
-        reservaMock.setNombreHuespedResponsable("AGUSTIN");
-        reservaMock.setFechaDesde(new Date());
-        reservaMock.setFechaHasta(new Date());
-
-        Habitacion habMock = new Habitacion();
-        habMock.setNumero("101");
-        habMock.setTipoHabitacion(TipoHabitacion.DOBLE_SUPERIOR);
-        reservaMock.setHabitacion(habMock);
-
-        // Mock 1: El repositorio de reservas encuentra coincidencias
-        when(reservaRepository.buscarParaCancelar(any(), anyString()))
-                .thenReturn(List.of(reservaMock));
-
-        // Mock 2: El repositorio de estadías confirma que esta reserva YA TIENE check-in (ID 500)
-        Estadia estadiaMock = new Estadia();
-        estadiaMock.setIdEstadia(500);
-        when(estadiaRepository.findByReservaId(1)).thenReturn(Optional.of(estadiaMock));
+        // ARRANGE: 200 coincidencias, la primera ya con check-in (estadía 500)
+        List<DtoReservaCancelable> filas = new ArrayList<>();
+        filas.add(new DtoReservaCancelable(1, "GARCIA", "AGUSTIN", new Date(), new Date(),
+                "101", TipoHabitacion.DOBLE_SUPERIOR, 500));
+        for (int i = 2; i <= 200; i++) {
+            filas.add(new DtoReservaCancelable(i, "GARCIA", "AGUSTIN", new Date(), new Date(),
+                    String.valueOf(100 + i), TipoHabitacion.DOBLE_ESTANDAR, null));
+        }
+        when(reservaRepository.buscarParaCancelar(any(), anyString())).thenReturn(filas);
 
         // ACT
-        List<Map<String, Object>> resultado = reservaService.buscarReservasPorHuesped(null, "AGUSTIN");
+        List<DtoReservaCancelable> resultado = reservaService.buscarReservasPorHuesped(null, "AGUSTIN");
+
+        // ASSERT: Validamos el contenido de la primera fila
+        assertEquals(200, resultado.size());
+        DtoReservaCancelable item = resultado.get(0);
+        assertEquals(1, item.getIdReserva());
+        assertEquals("GARCIA", item.getApellidoHuespedResponsable());
+        assertEquals("101", item.getIdHabitacion());
+        // Validación crítica: ¿Encontró el ID de la estadía?
+        assertEquals(500, item.getIdEstadia());
+        assertNull(resultado.get(1).getIdEstadia());
 
-        // ASSERT: Validamos el contenido del mapa resultante
-        assertFalse(resultado.isEmpty());
-        Map<String, Object> item = resultado.get(0);
+        // Filtros: el nombre como prefijo, sin apellido
+        verify(reservaRepository).buscarParaCancelar(null, "AGUSTIN%");
+    }
 
-        assertEquals(1, item.get("idReserva"));
-        assertEquals("GARCIA", item.get("apellidoHuespedResponsable"));
-        assertEquals("101", item.get("idHabitacion"));
-        // Validación crítica: ¿Encontró el ID de la estadía?
-        assertEquals(500, item.get("idEstadia"));
+    /**
+     * <b>Caso de Prueba: Forma del JSON de la búsqueda</b>
+     * <p>
+     * Igual que el mapa que se armaba antes: sin habitación ni fechas esas claves no se
+     * envían, mientras que {@code idEstadia} viaja siempre, aunque sea {@code null}.
+     */
+    @Test
+    @DisplayName("CU06 - Búsqueda: El JSON omite habitación y fechas faltantes y siempre incluye idEstadia")
+    void buscarReservasPorHuesped_FormaDelJson() throws Exception {
+        // ARRANGE
+        DtoReservaCancelable sinHabitacion = new DtoReservaCancelable(3, "GARCIA", "AGUSTIN", null, null,
+                null, null, null);
+
+        // ACT
+        String json = new ObjectMapper().writeValueAsString(sinHabitacion);
+
+        // ASSERT
+        assertEquals("{\"idReserva\":3,\"apellidoHuespedResponsable\":\"GARCIA\","
+                + "\"nombreHuespedResponsable\":\"AGUSTIN\",\"idEstadia\":null}", json);
     }
 
     /**
      * <b>Caso de Prueba: Cancelación Exitosa</b>
      * <p>
-     * Verifica que el servicio cambie el estado de la reserva a CANCELADA y actualice la BD.
+     * Verifica que la cancelación se haga con una única sentencia masiva (sin leer ni guardar
+     * reserva por reserva) y que se avise el cambio de disponibilidad de esa habitación.
      */
     @Test
-    @DisplayName("CU06 - Cancelar: Debería cambiar el estado de la reserva a CANCELADA")
+    @DisplayName("CU06 - Cancelar: Debería cancelar las reservas ACTIVAS con un único UPDATE")
     void cancelarReservas_Exito() throws Exception {
         // ARRANGE
         Integer idReserva = 10;
-        Reserva reservaMock = new Reserva();
-        reservaMock.setIdReserva(idReserva);
-        reservaMock.setEstadoReserva(EstadoReserva.ACTIVA); // Estado inicial
+        when(reservaRepository.cancelarEnLote(any())).thenReturn(List.of(crearReservaCancelada(idReserva, "101")));
 
-        when(reservaRepository.findById(idReserva)).thenReturn(Optional.of(reservaMock));
+        // ACT
+        DtoResultadoCancelacion resultado = reservaService.cancelarReservas(List.of(idReserva));
+
+        // ASSERT
+        assertEquals(List.of(idReserva), resultado.getCanceladas());
+        assertTrue(resultado.getYaCanceladas().isEmpty());
+        assertTrue(resultado.getInexistentes().isEmpty());
+        verify(reservaRepository, never()).findById(any());
+        verify(reservaRepository, never()).save(any(Reserva.class));
+        // Si se cancelaron todas, no hace falta consultar cuáles existen
+        verify(reservaRepository, never()).buscarIdsExistentes(any());
+        verify(eventPublisher, times(1)).publishEvent(argThat((Object e) ->
+                e instanceof CambioOcupacionEvento ev && ev.getCambios().size() == 1
+                        && ev.getCambios().get(0).getNumeroHabitacion().equals("101")));
+    }
+
+    /**
+     * <b>Caso de Prueba: Cancelación con ids mezclados</b>
+     * <p>
+     * De los ids pedidos, informa cuáles se cancelaron, cuáles ya estaban canceladas y cuáles no existen.
+     */
+    @Test
+    @DisplayName("CU06 - Cancelar: Debería informar canceladas, ya canceladas e inexistentes")
+    void cancelarReservas_ReporteMixto() throws Exception {
+        // ARRANGE: 10 activa, 11 ya cancelada, 12 no existe
+        when(reservaRepository.cancelarEnLote(any())).thenReturn(List.of(crearReservaCancelada(10, "101")));
+        when(reservaRepository.buscarIdsExistentes(List.of(11, 12))).thenReturn(List.of(11));
 
         // ACT
-        reservaService.cancelarReservas(List.of(idReserva));
+        DtoResultadoCancelacion resultado = reservaService.cancelarReservas(List.of(10, 11, 12, 10));
 
         // ASSERT
-        assertEquals(EstadoReserva.CANCELADA, reservaMock.getEstadoReserva());
-        verify(reservaRepository, times(1)).save(reservaMock);
+        assertEquals(List.of(10), resultado.getCanceladas());
+        assertEquals(List.of(11), resultado.getYaCanceladas());
+        assertEquals(List.of(12), resultado.getInexistentes());
+        verify(reservaRepository, times(1)).cancelarEnLote(argThat(ids -> ids.size() == 3));
     }
 
     /**
      * <b>Caso de Prueba: Cancelación Idempotente</b>
      * <p>
-     * Si una reserva ya estaba cancelada, el sistema no debería hacer nada (ni lanzar error ni intentar guardar de nuevo).
+     * Si una reserva ya estaba cancelada, el sistema no debería hacer nada (ni lanzar error ni avisar cambios de disponibilidad).
      */
     @Test
     @DisplayName("CU06 - Cancelar: No debería realizar acciones si la reserva ya estaba cancelada")
     void cancelarReservas_IgnorarYaCancelada() throws Exception {
-        // ARRANGE
+        // ARRANGE: el UPDATE no toca ninguna fila (la reserva no estaba ACTIVA)
         Integer idReserva = 10;
-        Reserva reservaMock = new Reserva();
-        reservaMock.setIdReserva(idReserva);
-        reservaMock.setEstadoReserva(EstadoReserva.CANCELADA); // YA está cancelada
-
-        when(reservaRepository.findById(idReserva)).thenReturn(Optional.of(reservaMock));
+        when(reservaRepository.cancelarEnLote(any())).thenReturn(List.of());
+        when(reservaRepository.buscarIdsExistentes(List.of(idReserva))).thenReturn(List.of(idReserva));
 
         // ACT
-        reservaService.cancelarReservas(List.of(idReserva));
+        DtoResultadoCancelacion resultado = reservaService.cancelarReservas(List.of(idReserva));
 
         // ASSERT
-        // Verify times(0) asegura que no se gastaron recursos en un update innecesario
-        verify(reservaRepository, times(0)).save(reservaMock);
+        assertEquals(List.of(idReserva), resultado.getYaCanceladas());
+        verify(eventPublisher, never()).publishEvent(any());
     }
 
     // ============================================================================================
     // MÉTODOS AUXILIARES
     // ============================================================================================
 
+    /**
+     * Helper que simula una fila devuelta por el UPDATE ... RETURNING de la cancelación.
+     */
+    private Reserva crearReservaCancelada(Integer id, String numeroHabitacion) {
+        Habitacion habitacion = new Habitacion();
+        habitacion.setNumero(numeroHabitacion);
+        Reserva reserva = new Reserva();
+        reserva.setIdReserva(id);
+        reserva.setEstadoReserva(EstadoReserva.CANCELADA);
+        reserva.setHabitacion(habitacion);
+        reserva.setFechaDesde(java.sql.Date.valueOf(LocalDate.now().plusDays(5)));
+        reserva.setFechaHasta(java.sql.Date.valueOf(LocalDate.now().plusDays(7)));
+        return reserva;
+    }
+
     /**
      * Helper para crear un DTO con datos válidos y fechas futuras.
      */
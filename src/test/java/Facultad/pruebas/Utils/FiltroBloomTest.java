@@ -0,0 +1,65 @@
+package Facultad.pruebas.Utils;
+
+import Facultad.TrabajoPracticoDesarrollo.Utils.Existencia.FiltroBloom;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para {@link FiltroBloom}.
+ * <p>
+ * Verifica que no haya falsos negativos y que, lleno hasta su capacidad, la tasa de falsos
+ * positivos medida quede cerca de la configurada.
+ */
+class FiltroBloomTest {
+
+    @Test
+    @DisplayName("Filtro de Bloom: toda clave agregada se reconoce (sin falsos negativos)")
+    void agregar_SinFalsosNegativos() {
+        FiltroBloom filtro = FiltroBloom.paraCapacidad(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) filtro.agregar("DNI " + (20_000_000 + i));
+
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filtro.puedeContener("DNI " + (20_000_000 + i)));
+        }
+        assertEquals(10_000, filtro.getElementos(), 50);
+    }
+
+    @Test
+    @DisplayName("Filtro de Bloom: la tasa de falsos positivos medida y estimada queda cerca de la configurada")
+    void puedeContener_TasaDeFalsosPositivos() {
+        FiltroBloom filtro = FiltroBloom.paraCapacidad(50_000, 0.01);
+        for (int i = 0; i < 50_000; i++) filtro.agregar("DNI " + (30_000_000 + i));
+
+        int falsosPositivos = 0;
+        int consultas = 100_000;
+        for (int i = 0; i < consultas; i++) {
+            if (filtro.puedeContener("DNI " + (40_000_000 + i))) falsosPositivos++;
+        }
+        double medida = (double) falsosPositivos / consultas;
+        assertTrue(medida < 0.02, "tasa medida: " + medida);
+        assertEquals(0.01, filtro.tasaFalsosPositivosEstimada(), 0.005);
+        // ~9,6 bits por clave para el 1%
+        assertTrue(filtro.getMemoriaBytes() < 50_000 * 10 / 8 + 64);
+    }
+
+    @Test
+    @DisplayName("Filtro de Bloom: vacío no contiene nada y agregar dos veces no cuenta doble")
+    void filtroVacio_YRepetidos() {
+        FiltroBloom filtro = FiltroBloom.paraCapacidad(100, 0.01);
+        assertFalse(filtro.puedeContener("12345678"));
+        assertEquals(0.0, filtro.tasaFalsosPositivosEstimada());
+
+        assertTrue(filtro.agregar("12345678"));
+        assertFalse(filtro.agregar("12345678"));
+        assertEquals(1, filtro.getElementos());
+    }
+
+    @Test
+    @DisplayName("Filtro de Bloom: parámetros inválidos")
+    void paraCapacidad_ParametrosInvalidos() {
+        assertThrows(IllegalArgumentException.class, () -> FiltroBloom.paraCapacidad(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> FiltroBloom.paraCapacidad(100, 1.5));
+    }
+}
@@ -0,0 +1,286 @@
+package Facultad.pruebas.Utils;
+
+import Facultad.TrabajoPracticoDesarrollo.Dominio.Estadia;
+import Facultad.TrabajoPracticoDesarrollo.Dominio.Habitacion;
+import Facultad.TrabajoPracticoDesarrollo.Dominio.Reserva;
+import Facultad.TrabajoPracticoDesarrollo.Utils.Inventario.HabitacionCatalogo;
+import Facultad.TrabajoPracticoDesarrollo.Utils.Ocupacion.IndiceIntervalos;
+import Facultad.TrabajoPracticoDesarrollo.Utils.Ocupacion.IndiceOcupacion;
+import Facultad.TrabajoPracticoDesarrollo.Utils.Ocupacion.IntervaloOcupacion;
+import Facultad.TrabajoPracticoDesarrollo.enums.EstadoHabitacion;
+import Facultad.TrabajoPracticoDesarrollo.enums.EstadoOcupacion;
+import Facultad.TrabajoPracticoDesarrollo.enums.TipoHabitacion;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para {@link IndiceOcupacion} e {@link IndiceIntervalos}.
+ * <p>
+ * Compara el índice contra la búsqueda lineal que usaba la grilla del CU05
+ * (filtrar todas las reservas y estadías por cada celda) sobre datos aleatorios.
+ * El benchmark solo corre con {@code -Dbenchmark=true}.
+ */
+class IndiceOcupacionTest {
+
+    private static final LocalDate BASE = LocalDate.of(2025, 1, 1);
+
+    // ============================================================================================
+    // ÁRBOL DE INTERVALOS
+    // ============================================================================================
+
+    @Test
+    @DisplayName("Índice: Punto dentro, en el borde y fuera de los intervalos")
+    void buscarQueContiene_Bordes() {
+        IndiceIntervalos indice = IndiceIntervalos.construir(List.of(
+                intervalo(EstadoOcupacion.RESERVADA, 1, 0, 3),
+                intervalo(EstadoOcupacion.RESERVADA, 2, 5, 6),
+                intervalo(EstadoOcupacion.RESERVADA, 3, 10, 10) // vacío, se descarta
+        ));
+
+        assertEquals(2, indice.tamanio());
+        assertEquals(1, indice.buscarQueContiene(dia(0)).getId());
+        assertEquals(1, indice.buscarQueContiene(dia(2)).getId());
+        assertNull(indice.buscarQueContiene(dia(3)), "El fin es exclusivo (día de check-out)");
+        assertEquals(2, indice.buscarQueContiene(dia(5)).getId());
+        assertNull(indice.buscarQueContiene(dia(10)));
+    }
+
+    @Test
+    @DisplayName("Índice: Intervalos abiertos y solapados en un rango")
+    void buscarSolapados_Rango() {
+        IndiceIntervalos indice = IndiceIntervalos.construir(List.of(
+                new IntervaloOcupacion(EstadoOcupacion.OCUPADA, 7, BASE.plusDays(20), null),
+                intervalo(EstadoOcupacion.RESERVADA, 1, 0, 3),
+                intervalo(EstadoOcupacion.RESERVADA, 2, 2, 8),
+                intervalo(EstadoOcupacion.RESERVADA, 3, 9, 12)
+        ));
+
+        List<Integer> ids = indice.buscarSolapados(dia(3), dia(10)).stream().map(IntervaloOcupacion::getId).toList();
+        assertEquals(List.of(2, 3), ids);
+
+        assertEquals(7, indice.buscarQueContiene(dia(5000)).getId(), "Sin check-out la estadía queda abierta");
+        assertTrue(indice.buscarSolapados(dia(5), dia(5)).isEmpty());
+    }
+
+    // ============================================================================================
+    // EQUIVALENCIA CON LA GRILLA LINEAL (CU05)
+    // ============================================================================================
+
+    @Test
+    @DisplayName("CU05 - Índice: Mismo estado que la búsqueda lineal en datos aleatorios")
+    void buscarEstado_EquivalenteALineal() {
+        Escenario esc = generarEscenario(new Random(42), 40, 90, 6);
+        IndiceOcupacion indice = IndiceOcupacion.construir(esc.catalogo(), esc.reservas, esc.estadias);
+
+        for (Habitacion hab : esc.habitaciones) {
+            for (int d = 0; d < 90; d++) {
+                LocalDate dia = BASE.plusDays(d);
+                Map<String, Object> esperado = estadoLineal(hab, dia, esc.reservas, esc.estadias);
+                IntervaloOcupacion obtenido = indice.buscarEstado(hab.getNumero(), dia);
+
+                String estado = obtenido != null ? obtenido.getEstado().name() : "DISPONIBLE";
+                assertEquals(esperado.get("estado"), estado, hab.getNumero() + " " + dia);
+                if (obtenido != null && obtenido.getEstado() == EstadoOcupacion.OCUPADA) {
+                    assertEquals(esperado.get("idEstadia"), obtenido.getId());
+                }
+                if (obtenido != null && obtenido.getEstado() == EstadoOcupacion.RESERVADA) {
+                    assertEquals(esperado.get("idReserva"), obtenido.getId());
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("CU05 - Índice: Intervalos de una habitación en [a,b)")
+    void buscarIntervalos_PorHabitacion() {
+        Escenario esc = generarEscenario(new Random(7), 10, 60, 4);
+        IndiceOcupacion indice = IndiceOcupacion.construir(esc.catalogo(), esc.reservas, esc.estadias);
+        LocalDate a = BASE.plusDays(10);
+        LocalDate b = BASE.plusDays(30);
+
+        for (Habitacion hab : esc.habitaciones) {
+            long esperados = esc.reservas.stream()
+                    .filter(r -> r.getHabitacion().getNumero().equals(hab.getNumero()))
+                    .filter(r -> aLocal(r.getFechaDesde()).isBefore(b) && aLocal(r.getFechaHasta()).isAfter(a))
+                    .count()
+                    + esc.estadias.stream()
+                    .filter(e -> e.getHabitacion().getNumero().equals(hab.getNumero()))
+                    .filter(e -> aLocal(e.getFechaCheckIn()).isBefore(b)
+                            && (e.getFechaCheckOut() == null || aLocal(e.getFechaCheckOut()).isAfter(a)))
+                    .count()
+                    + (IndiceOcupacion.estaFueraDeServicio(HabitacionCatalogo.de(hab)) ? 1 : 0);
+
+            assertEquals(esperados, indice.buscarIntervalos(hab.getNumero(), a, b).size(), hab.getNumero());
+        }
+    }
+
+    // ============================================================================================
+    // BENCHMARK (-Dbenchmark=true)
+    // ============================================================================================
+
+    /**
+     * Grilla de 60 días x 200 habitaciones con calendario cargado: búsqueda lineal por celda
+     * (implementación anterior) contra el índice.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    @DisplayName("Benchmark: Grilla 200 habitaciones x 60 días, lineal vs índice")
+    void benchmark_GrillaLinealVsIndice() {
+        Escenario esc = generarEscenario(new Random(1), 200, 60, 15);
+        int dias = 60;
+
+        for (int calentamiento = 0; calentamiento < 3; calentamiento++) {
+            grillaLineal(esc, dias);
+            grillaIndice(esc, dias);
+        }
+
+        long t0 = System.nanoTime();
+        int lineal = grillaLineal(esc, dias);
+        long t1 = System.nanoTime();
+        int indexada = grillaIndice(esc, dias);
+        long t2 = System.nanoTime();
+
+        assertEquals(lineal, indexada);
+        System.out.printf("[benchmark] %d reservas, %d estadias -> lineal: %d ms, indice: %d ms%n",
+                esc.reservas.size(), esc.estadias.size(), (t1 - t0) / 1_000_000, (t2 - t1) / 1_000_000);
+    }
+
+    // ============================================================================================
+    // HELPERS
+    // ============================================================================================
+
+    private static class Escenario {
+        final List<Habitacion> habitaciones = new ArrayList<>();
+        final List<Reserva> reservas = new ArrayList<>();
+        final List<Estadia> estadias = new ArrayList<>();
+
+        List<HabitacionCatalogo> catalogo() {
+            return habitaciones.stream().map(HabitacionCatalogo::de).toList();
+        }
+    }
+
+    /**
+     * Genera reservas y estadías sin solapamiento entre sí dentro de cada tipo (como en la base real),
+     * aunque una estadía sí puede pisar una reserva.
+     */
+    private Escenario generarEscenario(Random rnd, int cantHabitaciones, int dias, int porHabitacion) {
+        Escenario esc = new Escenario();
+        int idReserva = 1;
+        int idEstadia = 1;
+        for (int h = 0; h < cantHabitaciones; h++) {
+            Habitacion hab = new Habitacion();
+            hab.setNumero(String.valueOf(100 + h));
+            hab.setTipoHabitacion(TipoHabitacion.DOBLE_ESTANDAR);
+            hab.setEstadoHabitacion(rnd.nextInt(20) == 0 ? EstadoHabitacion.FUERA_DE_SERVICIO : EstadoHabitacion.HABILITADA);
+            esc.habitaciones.add(hab);
+
+            int cursor = rnd.nextInt(3);
+            for (int i = 0; i < porHabitacion && cursor < dias; i++) {
+                int largo = 1 + rnd.nextInt(5);
+                Reserva r = new Reserva();
+                r.setIdReserva(idReserva++);
+                r.setHabitacion(hab);
+                r.setFechaDesde(aDate(BASE.plusDays(cursor)));
+                r.setFechaHasta(aDate(BASE.plusDays(cursor + largo)));
+                esc.reservas.add(r);
+                cursor += largo + rnd.nextInt(4);
+            }
+
+            cursor = rnd.nextInt(6);
+            while (cursor < dias) {
+                int largo = 1 + rnd.nextInt(6);
+                Estadia e = new Estadia();
+                e.setIdEstadia(idEstadia++);
+                e.setHabitacion(hab);
+                e.setFechaCheckIn(aDate(BASE.plusDays(cursor)));
+                boolean abierta = cursor + largo >= dias && rnd.nextBoolean();
+                e.setFechaCheckOut(abierta ? null : aDate(BASE.plusDays(cursor + largo)));
+                esc.estadias.add(e);
+                if (abierta) break;
+                cursor += largo + 3 + rnd.nextInt(10);
+            }
+        }
+        return esc;
+    }
+
+    private int grillaLineal(Escenario esc, int dias) {
+        int ocupadas = 0;
+        for (Habitacion hab : esc.habitaciones) {
+            for (int d = 0; d < dias; d++) {
+                if (!"DISPONIBLE".equals(estadoLineal(hab, BASE.plusDays(d), esc.reservas, esc.estadias).get("estado"))) {
+                    ocupadas++;
+                }
+            }
+        }
+        return ocupadas;
+    }
+
+    private int grillaIndice(Escenario esc, int dias) {
+        IndiceOcupacion indice = IndiceOcupacion.construir(esc.catalogo(), esc.reservas, esc.estadias);
+        int ocupadas = 0;
+        for (Habitacion hab : esc.habitaciones) {
+            for (int d = 0; d < dias; d++) {
+                if (indice.buscarEstado(hab.getNumero(), BASE.plusDays(d)) != null) ocupadas++;
+            }
+        }
+        return ocupadas;
+    }
+
+    /** Copia de la lógica lineal original de {@code HabitacionService.determinarEstadoDetallado}. */
+    private Map<String, Object> estadoLineal(Habitacion hab, LocalDate fecha, List<Reserva> reservas, List<Estadia> estadias) {
+        Map<String, Object> detalle = new HashMap<>();
+        if (hab.getEstadoHabitacion() != null && hab.getEstadoHabitacion().getDescripcion().contains("FUERA")) {
+            detalle.put("estado", "MANTENIMIENTO");
+            return detalle;
+        }
+        Estadia estadia = estadias.stream()
+                .filter(e -> e.getHabitacion() != null && e.getHabitacion().getNumero().equals(hab.getNumero()))
+                .filter(e -> e.getFechaCheckIn() != null)
+                .filter(e -> {
+                    LocalDate in = aLocal(e.getFechaCheckIn());
+                    LocalDate out = e.getFechaCheckOut() != null ? aLocal(e.getFechaCheckOut()) : fecha.plusYears(1);
+                    return !fecha.isBefore(in) && fecha.isBefore(out);
+                })
+                .findFirst().orElse(null);
+        if (estadia != null) {
+            detalle.put("estado", "OCUPADA");
+            detalle.put("idEstadia", estadia.getIdEstadia());
+            return detalle;
+        }
+        Reserva reserva = reservas.stream()
+                .filter(r -> r.getHabitacion() != null && r.getHabitacion().getNumero().equals(hab.getNumero()))
+                .filter(r -> r.getFechaDesde() != null && r.getFechaHasta() != null)
+                .filter(r -> !fecha.isBefore(aLocal(r.getFechaDesde())) && fecha.isBefore(aLocal(r.getFechaHasta())))
+                .findFirst().orElse(null);
+        if (reserva != null) {
+            detalle.put("estado", "RESERVADA");
+            detalle.put("idReserva", reserva.getIdReserva());
+            return detalle;
+        }
+        detalle.put("estado", "DISPONIBLE");
+        return detalle;
+    }
+
+    private IntervaloOcupacion intervalo(EstadoOcupacion estado, int id, int desde, int hasta) {
+        return new IntervaloOcupacion(estado, id, BASE.plusDays(desde), BASE.plusDays(hasta));
+    }
+
+    private long dia(int offset) {
+        return BASE.plusDays(offset).toEpochDay();
+    }
+
+    private Date aDate(LocalDate localDate) {
+        return Date.from(localDate.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+
+    private LocalDate aLocal(Date date) {
+        return IndiceOcupacion.convertToLocalDate(date);
+    }
+}